@@ -776,6 +776,13 @@ public class Const {
    */
   public static final String KETTLE_XML_MISSING_TAG_YIELDS_NULL_VALUE = "KETTLE_XML_MISSING_TAG_YIELDS_NULL_VALUE";
 
+  /**
+   * When set to "N", the "Get XML data" step always parses the whole document before evaluating the loop XPath. By
+   * default (Y), loop XPaths that only use child and descendant steps with attribute or positional predicates are
+   * evaluated while the file is being streamed.
+   */
+  public static final String KETTLE_XML_STREAMING_XPATH = "KETTLE_XML_STREAMING_XPATH";
+
   /**
    * System wide flag to allow non-strict string to number conversion for backward compatibility. If this setting is set
    * to "Y", an string starting with digits will be converted successfully into a number. (example: 192.168.1.1 will be
@@ -790,6 +797,24 @@ public class Const {
    */
   public static final String KETTLE_COMPATIBILITY_DB_IGNORE_TIMEZONE = "KETTLE_COMPATIBILITY_DB_IGNORE_TIMEZONE";
 
+  /**
+   * The number of prepared statements a database connection keeps open per step, by SQL text, so SQL that is executed
+   * again isn't parsed again by the database. 0 (the default) disables the cache.
+   */
+  public static final String KETTLE_DATABASE_STATEMENT_CACHE_SIZE = "KETTLE_DATABASE_STATEMENT_CACHE_SIZE";
+
+  /**
+   * The number of rows for which the Insert/Update and Update steps look up the keys with one query. 0 (the default)
+   * looks up every row on its own.
+   */
+  public static final String KETTLE_DATABASE_LOOKUP_BATCH_SIZE = "KETTLE_DATABASE_LOOKUP_BATCH_SIZE";
+
+  /**
+   * Set to Y to take native (JDBC) connections that don't use connection pooling from a shared pool anyway, for
+   * example on a Carte server running many short transformations. These pools have no maximum size.
+   */
+  public static final String KETTLE_DATABASE_POOLING_DEFAULT = "KETTLE_DATABASE_POOLING_DEFAULT";
+
   /**
    * System wide flag to use the root path prefix for a directory reference. See PDI-6779 for details.
    */
@@ -856,6 +881,47 @@ public class Const {
    */
   public static final String KETTLE_MAX_LOG_TIMEOUT_IN_MINUTES = "KETTLE_MAX_LOG_TIMEOUT_IN_MINUTES";
 
+  /**
+   * System wide flag to set the maximum estimated size in bytes of the log lines kept in memory for one execution (a
+   * transformation or job with all its children). The oldest lines of the execution are evicted first. Set to 0 to
+   * disable the limit (default)
+   */
+  public static final String KETTLE_MAX_LOG_SIZE_PER_EXECUTION_IN_BYTES = "KETTLE_MAX_LOG_SIZE_PER_EXECUTION_IN_BYTES";
+
+  /**
+   * The local directory where log lines evicted because of the execution size limit are kept in compressed files. Leave
+   * empty to discard evicted lines (default)
+   */
+  public static final String KETTLE_LOG_SPILL_DIRECTORY = "KETTLE_LOG_SPILL_DIRECTORY";
+
+  /**
+   * Set this variable to Y to write the step, channel, metrics, performance and job entry log table records in the
+   * background, batched per log connection (Y/N, default N)
+   */
+  public static final String KETTLE_LOG_TABLE_ASYNC_WRITES = "KETTLE_LOG_TABLE_ASYNC_WRITES";
+
+  /**
+   * The number of log table records the background writer of a log connection can queue, 10000 by default
+   */
+  public static final String KETTLE_LOG_TABLE_WRITER_QUEUE_SIZE = "KETTLE_LOG_TABLE_WRITER_QUEUE_SIZE";
+
+  /**
+   * System wide flag to hand log lines over to a background thread which adds them to the central log buffer and the
+   * log files in batches (Y/N, default N)
+   */
+  public static final String KETTLE_LOG_ASYNC = "KETTLE_LOG_ASYNC";
+
+  /**
+   * The number of log lines the asynchronous logging can queue, 16384 by default
+   */
+  public static final String KETTLE_LOG_ASYNC_BUFFER_SIZE = "KETTLE_LOG_ASYNC_BUFFER_SIZE";
+
+  /**
+   * What to do when the asynchronous logging queue is full: BLOCK (default) waits for room, DROP discards the line.
+   * Error lines are never dropped.
+   */
+  public static final String KETTLE_LOG_ASYNC_FULL_POLICY = "KETTLE_LOG_ASYNC_FULL_POLICY";
+
   /**
    * System wide flag to determine whether standard error will be redirected to Kettle logging facilities. Will redirect
    * if the value is equal ignoring case to the string "Y"
@@ -880,6 +946,12 @@ public class Const {
    */
   public static final String KETTLE_STEP_PERFORMANCE_SNAPSHOT_LIMIT = "KETTLE_STEP_PERFORMANCE_SNAPSHOT_LIMIT";
 
+  /**
+   * System wide parameter: set to Y to measure the time steps spend in getRow(), putRow() and processRow() even when
+   * step performance snapshots are not captured. (default: N)
+   */
+  public static final String KETTLE_STEP_EXECUTION_TIMING = "KETTLE_STEP_EXECUTION_TIMING";
+
   /**
    * A variable to configure the maximum number of job trackers kept in memory.
    */
@@ -1273,6 +1345,47 @@ public class Const {
    */
   public static final String KETTLE_CARTE_REFRESH_STATUS = "KETTLE_CARTE_REFRESH_STATUS";
 
+  /**
+   * The maximum number of parsed transformations and jobs Carte keeps to execute again without loading them. 0 (the
+   * default) disables the cache.
+   */
+  public static final String KETTLE_CARTE_META_CACHE_SIZE = "KETTLE_CARTE_META_CACHE_SIZE";
+
+  /**
+   * Set to Y to have Carte gzip its status and metrics responses for clients that accept it. The responses are
+   * compressed while they are written.
+   */
+  public static final String KETTLE_CARTE_COMPRESS_STATUS = "KETTLE_CARTE_COMPRESS_STATUS";
+
+  /**
+   * Set to Y on the master to send the rows of all remote steps between two slave servers over a single connection
+   * in batches with credit based flow control. The default (N) opens a socket for every remote step.
+   */
+  public static final String KETTLE_CLUSTER_MULTIPLEXED_STREAMS = "KETTLE_CLUSTER_MULTIPLEXED_STREAMS";
+
+  /**
+   * The number of batches of rows a remote step may send over a multiplexed connection before the receiving step
+   * has processed them.
+   */
+  public static final String KETTLE_CLUSTER_STREAM_CREDITS = "KETTLE_CLUSTER_STREAM_CREDITS";
+
+  /**
+   * Set to Y to have the master check the load of every slave server before it splits a clustered transformation,
+   * skip overloaded slave servers and hand out partitions by the capacity the others have left.
+   */
+  public static final String KETTLE_CLUSTER_SLAVE_SELECTION = "KETTLE_CLUSTER_SLAVE_SELECTION";
+
+  /**
+   * The system load average per CPU core above which a slave server is considered overloaded. Defaults to 1.0.
+   */
+  public static final String KETTLE_CLUSTER_SLAVE_MAX_LOAD = "KETTLE_CLUSTER_SLAVE_MAX_LOAD";
+
+  /**
+   * The number of running transformations at which a slave server is considered overloaded. 0 (the default) means
+   * no limit.
+   */
+  public static final String KETTLE_CLUSTER_SLAVE_MAX_TRANSFORMATIONS = "KETTLE_CLUSTER_SLAVE_MAX_TRANSFORMATIONS";
+
   /**
    * A variable to configure s3vfs to use a temporary file on upload data to S3 Amazon."
    */
@@ -1471,6 +1584,12 @@ public class Const {
    */
   public static final String KETTLE_RETRY_OPEN_XML_STREAM = "KETTLE_RETRY_OPEN_XML_STREAM";
 
+  /**
+   * Set this variable to Y to load transformation and job files with a single pass StAX parser into a compact DOM
+   * without comments and indentation text nodes (Y/N, default N)
+   */
+  public static final String KETTLE_XML_STREAMING_LOADER = "KETTLE_XML_STREAMING_LOADER";
+
   /**
    * <p>This environment variable is used by XSD validation steps to enable or disable external entities.</p>
    * <p>By default external entities are allowed.</p>
@@ -286,7 +286,10 @@ public class RowMetaAndData implements Cloneable {
     if ( idx < 0 ) {
       throw new KettleValueException( "Unknown column '" + valueName + "'" );
     }
+    return isEmptyValue( idx );
+  }
 
+  public boolean isEmptyValue( int idx ) throws KettleValueException {
     ValueMetaInterface metaType = rowMeta.getValueMeta( idx );
     // find by source value type
     switch ( metaType.getType() ) {
@@ -0,0 +1,249 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Looks up the keys of a number of rows with one query instead of one query per row. The single row lookup
+ * <code>SELECT cols FROM table WHERE conditions</code> is repeated for every row of the batch and the parts are put
+ * together with UNION ALL. Every part returns the position of its row in the batch as first column. Because the key
+ * conditions themselves aren't changed the database compares the keys exactly like it does for a single row.<br>
+ * <br>
+ * Rows of a batch are looked up before any of them is written. When a key comes back in the same batch the later rows
+ * are not looked up ({@link #NOT_LOOKED_UP}): they have to be looked up on their own, after the earlier row was
+ * written.<br>
+ * <br>
+ * When the batch query fails the caller can fall back to looking up the rows one at a time. On databases where a
+ * failed statement aborts the transaction (PostgreSQL) the batch query runs inside a savepoint so the transaction can
+ * still be used for that.<br>
+ * <br>
+ * Enable it with {@link Const#KETTLE_DATABASE_LOOKUP_BATCH_SIZE}.
+ */
+public class BatchKeyLookup {
+
+  /**
+   * The lookup result of a row that repeats the key of an earlier row of the batch.
+   */
+  public static final Object[] NOT_LOOKED_UP = new Object[ 0 ];
+
+  /**
+   * The maximum number of parameters of the batch query, below the limits of the drivers (2100 on SQL Server).
+   */
+  static final int MAX_PARAMETERS = 2000;
+
+  private final Database db;
+  private final RowMetaInterface parameterRowMeta;
+  private final int batchSize;
+  private final String sql;
+  private final RowMetaInterface batchParameterRowMeta;
+  private final boolean useSavepoint;
+  private final boolean releaseSavepoint;
+
+  private PreparedStatement ps;
+  private RowMetaInterface returnRowMeta;
+
+  /**
+   * @param db               the connected database
+   * @param lookupSql        the lookup of a single row, starting with SELECT
+   * @param parameterRowMeta the parameters of the single row lookup
+   * @param batchSize        the number of rows to look up with one query, lowered to stay within
+   *                         {@link #MAX_PARAMETERS}
+   */
+  public BatchKeyLookup( Database db, String lookupSql, RowMetaInterface parameterRowMeta, int batchSize ) {
+    this.db = db;
+    this.parameterRowMeta = parameterRowMeta;
+    this.batchSize = Math.max( 1, Math.min( batchSize, MAX_PARAMETERS / Math.max( 1, parameterRowMeta.size() ) ) );
+    DatabaseInterface databaseInterface = db.getDatabaseMeta().getDatabaseInterface();
+    this.useSavepoint = !db.isAutoCommit() && databaseInterface.useSafePoints();
+    this.releaseSavepoint = databaseInterface.releaseSavepoint();
+    this.sql = getBatchSql( lookupSql, this.batchSize );
+
+    batchParameterRowMeta = new RowMeta();
+    for ( int i = 0; i < this.batchSize; i++ ) {
+      for ( ValueMetaInterface valueMeta : parameterRowMeta.getValueMetaList() ) {
+        batchParameterRowMeta.addValueMeta( valueMeta.clone() );
+      }
+    }
+  }
+
+  static String getBatchSql( String lookupSql, int batchSize ) {
+    String select = lookupSql.trim();
+    if ( !select.regionMatches( true, 0, "SELECT ", 0, 7 ) ) {
+      throw new IllegalArgumentException( "The lookup has to start with SELECT: " + lookupSql );
+    }
+    String rest = select.substring( 7 );
+
+    StringBuilder batchSql = new StringBuilder();
+    for ( int i = 0; i < batchSize; i++ ) {
+      if ( i > 0 ) {
+        batchSql.append( Const.CR ).append( "UNION ALL " );
+      }
+      batchSql.append( "SELECT " ).append( i ).append( ", " ).append( rest );
+    }
+    return batchSql.toString();
+  }
+
+  /**
+   * Look up a batch of rows.
+   *
+   * @param lookupRows the parameters of the single row lookup for every row, at most the batch size
+   * @return per row the first row found, null if nothing was found or {@link #NOT_LOOKED_UP}
+   */
+  public Object[][] lookup( List<Object[]> lookupRows ) throws KettleDatabaseException {
+    if ( lookupRows.size() > batchSize ) {
+      throw new KettleDatabaseException( "Unable to look up " + lookupRows.size() + " rows in a batch of "
+        + batchSize );
+    }
+    Object[][] results = new Object[ lookupRows.size() ][];
+
+    // Fill the batch with the first row of every key, the remaining places repeat the first row
+    //
+    Object[] parameters = new Object[ batchParameterRowMeta.size() ];
+    int[] positions = new int[ batchSize ];
+    Map<List<Object>, Integer> keys = new HashMap<>();
+    int nrLookups = 0;
+    for ( int i = 0; i < lookupRows.size(); i++ ) {
+      Object[] lookupRow = lookupRows.get( i );
+      if ( keys.putIfAbsent( getKey( parameterRowMeta, lookupRow ), i ) != null ) {
+        results[ i ] = NOT_LOOKED_UP;
+        continue;
+      }
+      System.arraycopy( lookupRow, 0, parameters, nrLookups * parameterRowMeta.size(), parameterRowMeta.size() );
+      positions[ nrLookups++ ] = i;
+    }
+    if ( nrLookups == 0 ) {
+      return results;
+    }
+    for ( int n = nrLookups; n < batchSize; n++ ) {
+      System.arraycopy( parameters, 0, parameters, n * parameterRowMeta.size(), parameterRowMeta.size() );
+      positions[ n ] = positions[ 0 ];
+    }
+
+    Savepoint savepoint = useSavepoint ? db.setSavepoint() : null;
+    try {
+      query( parameters, positions, results );
+    } catch ( KettleDatabaseException e ) {
+      if ( savepoint != null ) {
+        try {
+          db.rollback( savepoint );
+        } catch ( KettleDatabaseException rollbackException ) {
+          e.addSuppressed( rollbackException );
+        }
+      }
+      throw e;
+    }
+    if ( savepoint != null && releaseSavepoint ) {
+      db.releaseSavepoint( savepoint );
+    }
+    return results;
+  }
+
+  private void query( Object[] parameters, int[] positions, Object[][] results ) throws KettleDatabaseException {
+    if ( ps == null ) {
+      ps = db.prepareSQL( sql );
+    }
+    ResultSet rs = db.openQuery( ps, batchParameterRowMeta, parameters );
+    try {
+      RowMetaInterface rowMeta = db.getReturnRowMeta();
+      if ( returnRowMeta == null ) {
+        returnRowMeta = rowMeta.clone();
+        returnRowMeta.removeValueMeta( 0 );
+      }
+      ValueMetaInterface positionMeta = rowMeta.getValueMeta( 0 );
+
+      Object[] row = db.getRow( rs, null, rowMeta );
+      while ( row != null ) {
+        int position = positions[ positionMeta.getInteger( row[ 0 ] ).intValue() ];
+        if ( results[ position ] == null ) {
+          results[ position ] = Arrays.copyOfRange( row, 1, rowMeta.size() );
+        }
+        row = db.getRow( rs, null, rowMeta );
+      }
+    } catch ( KettleValueException e ) {
+      throw new KettleDatabaseException( "Unable to read the position of a looked up row", e );
+    } finally {
+      try {
+        rs.close();
+      } catch ( SQLException e ) {
+        throw new KettleDatabaseException( "Unable to close the batch lookup result set", e );
+      }
+    }
+  }
+
+  /**
+   * The key of a lookup row, used to find repeated keys in a batch. Strings are compared without case and trailing
+   * spaces and numbers by value, the way most databases compare them. Treating different keys as the same one only
+   * means they are looked up on their own.
+   */
+  static List<Object> getKey( RowMetaInterface parameterRowMeta, Object[] lookupRow ) throws KettleDatabaseException {
+    List<Object> key = new ArrayList<>( parameterRowMeta.size() );
+    try {
+      for ( int i = 0; i < parameterRowMeta.size(); i++ ) {
+        ValueMetaInterface valueMeta = parameterRowMeta.getValueMeta( i );
+        if ( valueMeta.isNull( lookupRow[ i ] ) ) {
+          key.add( null );
+        } else if ( valueMeta.isString() ) {
+          key.add( Const.rtrim( valueMeta.getString( lookupRow[ i ] ) ).toLowerCase() );
+        } else if ( valueMeta.isNumeric() ) {
+          BigDecimal number = valueMeta.getBigNumber( lookupRow[ i ] );
+          key.add( number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros() );
+        } else {
+          key.add( valueMeta.getString( lookupRow[ i ] ) );
+        }
+      }
+    } catch ( KettleValueException e ) {
+      throw new KettleDatabaseException( "Unable to read the key of a lookup row", e );
+    }
+    return key;
+  }
+
+  /**
+   * @return the fields of a looked up row
+   */
+  public RowMetaInterface getReturnRowMeta() {
+    return returnRowMeta;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public void close() throws KettleDatabaseException {
+    if ( ps != null ) {
+      db.closePreparedStatement( ps );
+      ps = null;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+
+/**
+ * The connections borrowed from the pool of a database connection (and partition): how long a borrow took, how many
+ * failed and, for the pools created by {@link ConnectionPoolUtil}, how many connections are in use or idle. The
+ * counters are shared by all the transformations and jobs of the JVM, see
+ * {@link ConnectionPoolUtil#getStatistics()}.
+ */
+public class ConnectionPoolStatistics {
+
+  /**
+   * The upper bounds of the borrow time buckets, in seconds.
+   */
+  public static final double[] BORROW_TIME_BUCKETS = { 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10 };
+
+  private final String name;
+  private final String partitionId;
+
+  private final AtomicLongArray bucketCounts = new AtomicLongArray( BORROW_TIME_BUCKETS.length );
+  private final AtomicLong borrows = new AtomicLong();
+  private final AtomicLong borrowNanos = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  private volatile DataSource dataSource;
+
+  public ConnectionPoolStatistics( String name, String partitionId ) {
+    this.name = name;
+    this.partitionId = partitionId;
+  }
+
+  /**
+   * Record a successful borrow.
+   *
+   * @param nanos the time it took to get the connection from the pool
+   */
+  public void borrowed( DataSource dataSource, long nanos ) {
+    this.dataSource = dataSource;
+    borrows.incrementAndGet();
+    borrowNanos.addAndGet( nanos );
+    double seconds = nanos / 1000000000.0;
+    for ( int i = 0; i < BORROW_TIME_BUCKETS.length; i++ ) {
+      if ( seconds <= BORROW_TIME_BUCKETS[ i ] ) {
+        bucketCounts.incrementAndGet( i );
+        break;
+      }
+    }
+  }
+
+  /**
+   * Record a failed borrow. The pool throws an exception caused by a {@link NoSuchElementException} when no
+   * connection became available within the maximum wait time: that is counted as a timeout.
+   */
+  public void failed( DataSource dataSource, Throwable error ) {
+    this.dataSource = dataSource;
+    for ( Throwable cause = error; cause != null; cause = cause.getCause() ) {
+      if ( cause instanceof NoSuchElementException ) {
+        timeouts.incrementAndGet();
+        return;
+      }
+    }
+    failures.incrementAndGet();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return the partition ID or null if the connection isn't partitioned
+   */
+  public String getPartitionId() {
+    return partitionId;
+  }
+
+  /**
+   * @return the number of successful borrows
+   */
+  public long getBorrows() {
+    return borrows.get();
+  }
+
+  /**
+   * @return the total time of the successful borrows in nanoseconds
+   */
+  public long getBorrowNanos() {
+    return borrowNanos.get();
+  }
+
+  /**
+   * @return per bucket of {@link #BORROW_TIME_BUCKETS} the number of successful borrows that took at most that long
+   */
+  public long[] getCumulativeBucketCounts() {
+    long[] counts = new long[ BORROW_TIME_BUCKETS.length ];
+    long total = 0;
+    for ( int i = 0; i < counts.length; i++ ) {
+      total += bucketCounts.get( i );
+      counts[ i ] = total;
+    }
+    return counts;
+  }
+
+  /**
+   * @return the number of borrows that waited longer than the maximum wait time of the pool
+   */
+  public long getTimeouts() {
+    return timeouts.get();
+  }
+
+  /**
+   * @return the number of borrows that failed for another reason than a timeout
+   */
+  public long getFailures() {
+    return failures.get();
+  }
+
+  /**
+   * @return the number of connections in use or -1 if the pool doesn't tell
+   */
+  public int getActive() {
+    DataSource ds = dataSource;
+    return ds instanceof BasicDataSource ? ( (BasicDataSource) ds ).getNumActive() : -1;
+  }
+
+  /**
+   * @return the number of idle connections in the pool or -1 if the pool doesn't tell
+   */
+  public int getIdle() {
+    DataSource ds = dataSource;
+    return ds instanceof BasicDataSource ? ( (BasicDataSource) ds ).getNumIdle() : -1;
+  }
+
+  /**
+   * @return the maximum number of connections of the pool, negative for no limit, or null if the pool doesn't tell
+   */
+  public Integer getMaxTotal() {
+    DataSource ds = dataSource;
+    return ds instanceof BasicDataSource ? ( (BasicDataSource) ds ).getMaxTotal() : null;
+  }
+}
@@ -26,6 +26,8 @@ import org.pentaho.di.i18n.BaseMessages;
 import javax.sql.DataSource;
 
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -60,6 +62,7 @@ public class ConnectionPoolUtil {
 
   private static ConcurrentMap<String, BasicDataSource> dataSources = new ConcurrentHashMap<String, BasicDataSource>();
   private static Map<String, Properties> dataSourcesAttributesMap = new HashMap<>();
+  private static ConcurrentMap<String, ConnectionPoolStatistics> statistics = new ConcurrentHashMap<>();
 
   // PDI-12947
   private static final ReentrantLock lock = new ReentrantLock();
@@ -79,9 +82,17 @@ public class ConnectionPoolUtil {
   }
 
   public static DataSource getDataSource( LogChannelInterface log, DatabaseMeta dbMeta, String partitionId ) throws KettleDatabaseException {
-    int initialSize = dbMeta.getInitialPoolSize();
-    int maximumSize = dbMeta.getMaximumPoolSize();
+    return getDataSource( log, dbMeta, partitionId, dbMeta.getInitialPoolSize(), dbMeta.getMaximumPoolSize() );
+  }
 
+  /**
+   * Get the pool of a connection, created with the given sizes if there is none yet. The pool properties of the
+   * connection still override the sizes.
+   *
+   * @param maximumSize the maximum number of connections, negative for no limit
+   */
+  public static DataSource getDataSource( LogChannelInterface log, DatabaseMeta dbMeta, String partitionId,
+    int initialSize, int maximumSize ) throws KettleDatabaseException {
     lock.lock();
     try {
       if ( !isDataSourceRegistered( dbMeta, partitionId ) ) {
@@ -329,6 +340,23 @@ public class ConnectionPoolUtil {
         + Const.NVL( partitionId, "" );
   }
 
+  /**
+   * The borrow statistics of a connection, by connection name and partition. Pools of the same connection with
+   * different settings (for example credentials) share them.
+   */
+  public static ConnectionPoolStatistics getStatistics( DatabaseMeta dbMeta, String partitionId ) {
+    String name = Const.NVL( dbMeta.getName(), "" );
+    return statistics.computeIfAbsent( name + Const.CR + Const.NVL( partitionId, "" ),
+      key -> new ConnectionPoolStatistics( name, partitionId ) );
+  }
+
+  /**
+   * @return the borrow statistics of all the connections borrowed from a pool so far
+   */
+  public static Collection<ConnectionPoolStatistics> getStatistics() {
+    return Collections.unmodifiableCollection( statistics.values() );
+  }
+
   public static boolean hasOldConfig( DatabaseMeta dbMeta, String partitionId ) {
     return dbMeta.getAttributes().equals( dataSourcesAttributesMap.get( getDataSourceName( dbMeta, partitionId ) ) );
   }
@@ -144,6 +144,16 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
   private PreparedStatement pstmtSeq;
   private CallableStatement cstmt;
 
+  /**
+   * Prepared statements kept open by SQL text, null if the cache is disabled. See
+   * {@link Const#KETTLE_DATABASE_STATEMENT_CACHE_SIZE}.
+   */
+  private PreparedStatementCache statementCache;
+  private boolean statementCacheConfigured;
+
+  /** pstmt comes from the statement cache and isn't closed with the query */
+  private boolean pstmtCached;
+
   private DatabaseMetaData dbmd;
 
   private RowMetaInterface rowMeta;
@@ -435,7 +445,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
    * <ol>
    * <li>If <code>databaseMeta.getAccessType()</code> returns
    * <code>DatabaseMeta.TYPE_ACCESS_JNDI</code>, then the connection's datasource is looked up in JNDI </li>
-   * <li>If <code>databaseMeta.isUsingConnectionPool()</code>, then the connection's datasource is looked up in the
+   * <li>If <code>isUsingConnectionPool()</code>, then the connection's datasource is looked up in the
    * pool</li>
    * <li>otherwise, the connection is established via {@linkplain java.sql.DriverManager}</li>
    * </ol>
@@ -451,8 +461,8 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     try {
       if ( databaseMeta.getAccessType() == DatabaseMeta.TYPE_ACCESS_JNDI ) {
         this.connection = getDataSource( partitionId ).getConnection();
-      } else if ( databaseMeta.isUsingConnectionPool() ) {
-        this.connection = getDataSource( partitionId ).getConnection();
+      } else if ( isUsingConnectionPool() ) {
+        this.connection = borrowConnection( partitionId );
         if ( getConnection().getAutoCommit() != isAutoCommit() ) {
           setAutoCommit( isAutoCommit() );
         }
@@ -491,12 +501,89 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
         this.dataSource = getJNDIDataSource( dsp );
       } else if ( databaseMeta.isUsingConnectionPool() ) {
         this.dataSource = getPoolingDataSource( partitionId, dsp );
+      } else if ( isPoolingByDefault() ) {
+        this.dataSource = ConnectionPoolUtil.getDataSource( log, databaseMeta, partitionId, 0, -1 );
       }
     } catch ( Exception e ) {
       throw new KettleDatabaseException( "Error occurred while trying to retrieve the DataSource", e );
     }
   }
 
+  /**
+   * @return true if the connections come from a pool: when the connection uses pooling or when native connections are
+   *         pooled by default, see {@link Const#KETTLE_DATABASE_POOLING_DEFAULT}
+   */
+  public boolean isUsingConnectionPool() {
+    return databaseMeta.isUsingConnectionPool() || isPoolingByDefault();
+  }
+
+  private boolean isPoolingByDefault() {
+    return databaseMeta.getAccessType() == DatabaseMeta.TYPE_ACCESS_NATIVE && !databaseMeta.isUsingConnectionPool()
+      && "Y".equalsIgnoreCase( environmentSubstitute( getVariable( Const.KETTLE_DATABASE_POOLING_DEFAULT ) ) )
+      && isPoolableByDefault();
+  }
+
+  /**
+   * The default pool sets up its connections with the URL and the user name and password of the connection only.
+   * Connections that {@link #connectUsingClass(String, String)} sets up with more than that keep connecting directly.
+   */
+  private boolean isPoolableByDefault() {
+    // Extra options of databases that don't take them in the URL are passed as connection properties
+    //
+    if ( !databaseMeta.supportsOptionsInURL() && !databaseMeta.getConnectionProperties().isEmpty() ) {
+      return false;
+    }
+    // Partitions can have a user name and password of their own
+    //
+    for ( PartitionDatabaseMeta partition : databaseMeta.getPartitioningInformation() ) {
+      if ( partition != null && !Utils.isEmpty( partition.getUsername() ) ) {
+        return false;
+      }
+    }
+    // The MSSQL instance name is added to the URL
+    //
+    return !( databaseMeta.getDatabaseInterface() instanceof MSSQLServerNativeDatabaseMeta )
+      || Utils.isEmpty( environmentSubstitute( databaseMeta.getSQLServerInstance() ) );
+  }
+
+  /**
+   * Get a connection from the pool, recording the time it took in the pool statistics.
+   */
+  private Connection borrowConnection( String partitionId ) throws KettleDatabaseException, SQLException {
+    DataSource pool = getDataSource( partitionId );
+    ConnectionPoolStatistics statistics = ConnectionPoolUtil.getStatistics( databaseMeta, partitionId );
+    long start = System.nanoTime();
+    try {
+      Connection pooledConnection = pool.getConnection();
+      statistics.borrowed( pool, System.nanoTime() - start );
+      return pooledConnection;
+    } catch ( SQLException | RuntimeException e ) {
+      statistics.failed( pool, e );
+      throw e;
+    }
+  }
+
+  /**
+   * Create the connection pool ahead of the first connection, so that the steps using it don't wait for each other
+   * to create it. One connection is borrowed and returned right away, which also opens the initial connections of
+   * the pool.
+   *
+   * @param partitionId the partition ID in the cluster to connect to.
+   * @return false if the connection isn't pooled
+   * @throws KettleDatabaseException if the pool could not be created or no connection could be borrowed
+   */
+  public boolean preparePool( String partitionId ) throws KettleDatabaseException {
+    if ( databaseMeta.getAccessType() == DatabaseMeta.TYPE_ACCESS_JNDI || !isUsingConnectionPool() ) {
+      return false;
+    }
+    try {
+      borrowConnection( partitionId ).close();
+    } catch ( SQLException e ) {
+      throw new KettleDatabaseException( "Unable to get a connection from the pool of '" + toString() + "'", e );
+    }
+    return true;
+  }
+
   private DataSource getPoolingDataSource( String partitionId, DataSourceProviderInterface dsp ) throws Exception {
 
     try {
@@ -700,6 +787,12 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       }
       pstmtSeq = null;
     }
+    if ( statementCache != null ) {
+      if ( log.isDetailed() ) {
+        log.logDetailed( "Statement cache: " + statementCache );
+      }
+      statementCache.clear();
+    }
 
     // See if there are other steps using this connection in a connection
     // group.
@@ -754,7 +847,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     try {
       if ( connection != null ) {
         connection.close();
-        if ( !databaseMeta.isUsingConnectionPool() ) {
+        if ( !isUsingConnectionPool() ) {
           connection = null;
         }
       }
@@ -1032,8 +1125,55 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
   }
 
   public void closeLookup() throws KettleDatabaseException {
-    closePreparedStatement( pstmt );
+    if ( !pstmtCached ) {
+      closePreparedStatement( pstmt );
+    }
     pstmt = null;
+    pstmtCached = false;
+  }
+
+  /**
+   * @return the cache of prepared statements of this database connection, null if it is disabled with
+   * {@link Const#KETTLE_DATABASE_STATEMENT_CACHE_SIZE}
+   */
+  public PreparedStatementCache getStatementCache() {
+    if ( !statementCacheConfigured ) {
+      statementCacheConfigured = true;
+      int size = Const.toInt( environmentSubstitute( getVariable( Const.KETTLE_DATABASE_STATEMENT_CACHE_SIZE ) ), 0 );
+      if ( size > 0 ) {
+        statementCache = new PreparedStatementCache( size, log );
+      }
+    }
+    return statementCache;
+  }
+
+  /**
+   * Get the prepared statement for the SQL from the statement cache, preparing it when needed. The statement stays
+   * open until it is evicted or the connection is closed.
+   */
+  private PreparedStatement getCachedStatement( String sql ) throws SQLException {
+    PreparedStatement statement = statementCache.get( sql );
+    if ( statement == null || statement.isClosed() ) {
+      statement =
+        connection.prepareStatement( databaseMeta.stripCR( sql ), ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY );
+      statementCache.put( sql, statement );
+    }
+    return statement;
+  }
+
+  /**
+   * A cached statement keeps the limits set for its previous query. Reset them to the defaults of a newly prepared
+   * statement before they are set for the next one.
+   */
+  private void resetCachedStatement( PreparedStatement statement ) throws SQLException {
+    if ( databaseMeta.supportsSetMaxRows() ) {
+      statement.setMaxRows( 0 );
+    }
+    if ( databaseMeta.isFetchSizeSupported() ) {
+      statement.setFetchSize( 0 );
+      statement.setFetchDirection( ResultSet.FETCH_FORWARD );
+    }
   }
 
   public void closePreparedStatement( PreparedStatement ps ) throws KettleDatabaseException {
@@ -1571,7 +1711,15 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     try {
       boolean resultSet;
       int count;
-      if ( params != null ) {
+      String upperSql = sql.toUpperCase();
+      if ( params != null && getStatementCache() != null ) {
+        // Statements without parameters have their values in the SQL text, caching them would only fill the cache
+        //
+        PreparedStatement prepStmt = getCachedStatement( sql );
+        setValues( params, data, prepStmt ); // set the parameters!
+        resultSet = prepStmt.execute();
+        count = prepStmt.getUpdateCount();
+      } else if ( params != null ) {
         try ( PreparedStatement prepStmt = connection.prepareStatement( databaseMeta.stripCR( sql ) ) ) {
           setValues( params, data, prepStmt ); // set the parameters!
           resultSet = prepStmt.execute();
@@ -1584,7 +1732,6 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
           count = stmt.getUpdateCount();
         }
       }
-      String upperSql = sql.toUpperCase();
       if ( !resultSet ) {
         // if the result is a resultset, we don't do anything with it!
         // You should have called something else!
@@ -1603,6 +1750,9 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       if ( upperSql.startsWith( "ALTER TABLE" )
         || upperSql.startsWith( "DROP TABLE" ) || upperSql.startsWith( "CREATE TABLE" ) ) {
         DBCache.getInstance().clear( databaseMeta.getName() );
+        if ( statementCache != null ) {
+          statementCache.clear();
+        }
       }
     } catch ( SQLException ex ) {
       throw new KettleDatabaseException( "Couldn't execute SQL: " + sql + Const.CR, ex );
@@ -1749,16 +1899,24 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     // Create a Statement
     try {
       log.snap( Metrics.METRIC_DATABASE_OPEN_QUERY_START, databaseMeta.getName() );
-      if ( params != null ) {
+      if ( params != null || getStatementCache() != null ) {
         log.snap( Metrics.METRIC_DATABASE_PREPARE_SQL_START, databaseMeta.getName() );
-        pstmt =
-          connection.prepareStatement(
-            databaseMeta.stripCR( sql ), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY );
+        pstmtCached = getStatementCache() != null;
+        if ( pstmtCached ) {
+          pstmt = getCachedStatement( sql );
+          resetCachedStatement( pstmt );
+        } else {
+          pstmt =
+            connection.prepareStatement(
+              databaseMeta.stripCR( sql ), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY );
+        }
         log.snap( Metrics.METRIC_DATABASE_PREPARE_SQL_STOP, databaseMeta.getName() );
 
-        log.snap( Metrics.METRIC_DATABASE_SQL_VALUES_START, databaseMeta.getName() );
-        setValues( params, data ); // set the dates etc!
-        log.snap( Metrics.METRIC_DATABASE_SQL_VALUES_STOP, databaseMeta.getName() );
+        if ( params != null ) {
+          log.snap( Metrics.METRIC_DATABASE_SQL_VALUES_START, databaseMeta.getName() );
+          setValues( params, data ); // set the dates etc!
+          log.snap( Metrics.METRIC_DATABASE_SQL_VALUES_STOP, databaseMeta.getName() );
+        }
 
         if ( canWeSetFetchSize( pstmt ) ) {
           int maxRows = pstmt.getMaxRows();
@@ -2612,8 +2770,11 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
         selStmt = null;
       }
       if ( pstmt != null ) {
-        pstmt.close();
+        if ( !pstmtCached ) {
+          pstmt.close();
+        }
         pstmt = null;
+        pstmtCached = false;
       }
     } catch ( SQLException ex ) {
       throw new KettleDatabaseException( "Couldn't close query: resultset or prepared statements", ex );
@@ -0,0 +1,132 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+/**
+ * The prepared statements of a {@link Database}, by SQL text. When the cache is full the least recently used statement
+ * is closed. A statement from the cache is used by one {@link Database} (so one step) at a time and must not be closed
+ * by the caller.<br>
+ * <br>
+ * Enable it with {@link Const#KETTLE_DATABASE_STATEMENT_CACHE_SIZE}.
+ */
+public class PreparedStatementCache {
+
+  private final int maxSize;
+  private final LogChannelInterface log;
+  private final Map<String, PreparedStatement> statements;
+
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public PreparedStatementCache( int maxSize, LogChannelInterface log ) {
+    this.maxSize = maxSize;
+    this.log = log;
+    this.statements = new LinkedHashMap<>( 16, 0.75f, true );
+  }
+
+  /**
+   * @return the statement prepared earlier for this SQL or null if there is none
+   */
+  public PreparedStatement get( String sql ) {
+    PreparedStatement statement = statements.get( sql );
+    if ( statement != null ) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return statement;
+  }
+
+  public void put( String sql, PreparedStatement statement ) {
+    PreparedStatement previous = statements.put( sql, statement );
+    if ( previous != null && previous != statement ) {
+      close( previous );
+    }
+    if ( statements.size() > maxSize ) {
+      Map.Entry<String, PreparedStatement> eldest = statements.entrySet().iterator().next();
+      statements.remove( eldest.getKey() );
+      close( eldest.getValue() );
+      evictions++;
+    }
+  }
+
+  public boolean contains( PreparedStatement statement ) {
+    return statement != null && statements.containsValue( statement );
+  }
+
+  /**
+   * Close all statements, for example after the database schema changed.
+   */
+  public void clear() {
+    List<PreparedStatement> toClose = new ArrayList<>( statements.values() );
+    statements.clear();
+    for ( PreparedStatement statement : toClose ) {
+      close( statement );
+    }
+  }
+
+  private void close( PreparedStatement statement ) {
+    try {
+      statement.close();
+    } catch ( SQLException e ) {
+      // cannot do anything about this but log it
+      log.logError( "Error closing cached statement:" + Const.CR + e.getMessage() );
+    }
+  }
+
+  public int size() {
+    return statements.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return the percentage of lookups that found a prepared statement
+   */
+  public double getHitRate() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0.0 : 100.0 * hits / lookups;
+  }
+
+  @Override
+  public String toString() {
+    return String.format( "%d statements cached, %d hits, %d misses (%.1f%%), %d evicted", size(), hits, misses,
+      getHitRate(), evictions );
+  }
+}
@@ -0,0 +1,268 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands log events over from the logging threads to a single background thread which appends them in batches to the
+ * central {@link LoggingBuffer}, its listeners and the log channel file writer buffers.<br>
+ * <br>
+ * The events are kept in a bounded, lock-free ring buffer (multiple producers, one consumer). When the ring buffer is
+ * full the {@link FullPolicy} decides whether the logging thread waits for room or whether the event is dropped. Error
+ * events are never dropped.
+ */
+public class AsyncLoggingDispatcher {
+
+  public enum FullPolicy {
+    /** Wait until the dispatcher made room in the buffer */
+    BLOCK,
+    /** Discard the event and count it as dropped */
+    DROP;
+
+    public static FullPolicy getPolicy( String code ) {
+      for ( FullPolicy policy : values() ) {
+        if ( policy.name().equalsIgnoreCase( code ) ) {
+          return policy;
+        }
+      }
+      return BLOCK;
+    }
+  }
+
+  public static final int DEFAULT_BUFFER_SIZE = 16384;
+
+  private static final int MAX_BATCH_SIZE = 1024;
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
+  private final LoggingBuffer appender;
+  private final FullPolicy fullPolicy;
+
+  private final int mask;
+  private final AtomicLongArray sequences;
+  private final AtomicReferenceArray<KettleLoggingEvent> events;
+  private final AtomicReferenceArray<LogChannelFileWriterBuffer> fileWriters;
+
+  /** The next position to claim by a producer */
+  private final AtomicLong producerPosition = new AtomicLong();
+
+  /** The next position to read by the dispatcher thread, only written by that thread */
+  private volatile long consumerPosition;
+
+  private final AtomicLong droppedEvents = new AtomicLong();
+
+  private final Thread thread;
+  private volatile boolean waiting;
+  private volatile boolean running = true;
+
+  /**
+   * @param appender
+   *          the central log buffer to hand the events to
+   * @param bufferSize
+   *          the capacity of the ring buffer, rounded up to the next power of 2
+   * @param fullPolicy
+   *          what to do when the ring buffer is full
+   */
+  public AsyncLoggingDispatcher( LoggingBuffer appender, int bufferSize, FullPolicy fullPolicy ) {
+    this.appender = appender;
+    this.fullPolicy = fullPolicy == null ? FullPolicy.BLOCK : fullPolicy;
+
+    int capacity = Integer.highestOneBit( Math.max( 2, Math.min( bufferSize, 1 << 24 ) ) - 1 ) << 1;
+    this.mask = capacity - 1;
+    this.sequences = new AtomicLongArray( capacity );
+    for ( int i = 0; i < capacity; i++ ) {
+      sequences.set( i, i );
+    }
+    this.events = new AtomicReferenceArray<>( capacity );
+    this.fileWriters = new AtomicReferenceArray<>( capacity );
+
+    thread = new Thread( this::dispatchLoop, "Kettle async logging dispatcher" );
+    thread.setDaemon( true );
+    thread.start();
+  }
+
+  /**
+   * Queue a log event for the central log buffer and the (optional) file writer buffer of its log channel.
+   *
+   * @param event
+   *          the event to log
+   * @param fileWriter
+   *          the file writer buffer of the log channel or null
+   * @return false if the event was dropped because the buffer was full
+   */
+  public boolean dispatch( KettleLoggingEvent event, LogChannelFileWriterBuffer fileWriter ) {
+    if ( !running || Thread.currentThread() == thread ) {
+      // Logging from a listener or after shutdown: no need to queue it.
+      //
+      appender.addLogggingEvent( event );
+      if ( fileWriter != null ) {
+        fileWriter.addEvent( event );
+      }
+      return true;
+    }
+
+    boolean mayDrop = fullPolicy == FullPolicy.DROP && ( event.getLevel() == null || !event.getLevel().isError() );
+    int spins = 0;
+    while ( true ) {
+      long position = producerPosition.get();
+      int index = (int) position & mask;
+      long difference = sequences.get( index ) - position;
+      if ( difference == 0 ) {
+        if ( producerPosition.compareAndSet( position, position + 1 ) ) {
+          events.lazySet( index, event );
+          fileWriters.lazySet( index, fileWriter );
+          sequences.set( index, position + 1 );
+          if ( waiting ) {
+            LockSupport.unpark( thread );
+          }
+          return true;
+        }
+      } else if ( difference < 0 ) {
+        // The ring buffer is full
+        //
+        if ( mayDrop ) {
+          droppedEvents.incrementAndGet();
+          return false;
+        }
+        LockSupport.unpark( thread );
+        if ( spins++ < 100 ) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos( 100000L );
+        }
+      }
+    }
+  }
+
+  private void dispatchLoop() {
+    List<KettleLoggingEvent> batch = new ArrayList<>( MAX_BATCH_SIZE );
+    Map<LogChannelFileWriterBuffer, List<KettleLoggingEvent>> writerBatches = new IdentityHashMap<>();
+
+    while ( running || consumerPosition != producerPosition.get() ) {
+      long position = consumerPosition;
+      while ( batch.size() < MAX_BATCH_SIZE ) {
+        int index = (int) position & mask;
+        if ( sequences.get( index ) != position + 1 ) {
+          break;
+        }
+        KettleLoggingEvent event = events.get( index );
+        LogChannelFileWriterBuffer fileWriter = fileWriters.get( index );
+        events.lazySet( index, null );
+        fileWriters.lazySet( index, null );
+        sequences.set( index, position + mask + 1 );
+        position++;
+
+        batch.add( event );
+        if ( fileWriter != null ) {
+          writerBatches.computeIfAbsent( fileWriter, w -> new ArrayList<>() ).add( event );
+        }
+      }
+
+      if ( batch.isEmpty() ) {
+        waiting = true;
+        if ( consumerPosition == producerPosition.get() && running ) {
+          LockSupport.parkNanos( this, IDLE_PARK_NANOS );
+        }
+        waiting = false;
+        continue;
+      }
+
+      try {
+        appender.addLoggingEvents( batch );
+        for ( Map.Entry<LogChannelFileWriterBuffer, List<KettleLoggingEvent>> entry : writerBatches.entrySet() ) {
+          entry.getKey().addEvents( entry.getValue() );
+        }
+      } catch ( Throwable e ) {
+        // Never let a failing listener stop the logging of the other events
+        //
+        e.printStackTrace( KettleLogStore.OriginalSystemErr );
+      } finally {
+        batch.clear();
+        writerBatches.clear();
+        consumerPosition = position;
+      }
+    }
+  }
+
+  /**
+   * Wait until all the events queued before this call were handed over to the log buffer and the file writers.
+   *
+   * @param timeoutMillis
+   *          the maximum time to wait
+   * @return true if all events were dispatched in time
+   */
+  public boolean flush( long timeoutMillis ) {
+    if ( Thread.currentThread() == thread ) {
+      return true;
+    }
+    long target = producerPosition.get();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+    while ( consumerPosition < target ) {
+      if ( !thread.isAlive() || System.nanoTime() > deadline ) {
+        return false;
+      }
+      LockSupport.unpark( thread );
+      LockSupport.parkNanos( 50000L );
+    }
+    return true;
+  }
+
+  /**
+   * Dispatch the remaining events and stop the background thread. Events logged afterwards are appended synchronously.
+   *
+   * @param timeoutMillis
+   *          the maximum time to wait for the remaining events
+   */
+  public void shutdown( long timeoutMillis ) {
+    flush( timeoutMillis );
+    running = false;
+    LockSupport.unpark( thread );
+    try {
+      thread.join( timeoutMillis );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return the number of events waiting to be dispatched
+   */
+  public long getPendingEvents() {
+    return Math.max( 0L, producerPosition.get() - consumerPosition );
+  }
+
+  /**
+   * @return the number of events discarded because the buffer was full
+   */
+  public long getDroppedEvents() {
+    return droppedEvents.get();
+  }
+
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  public FullPolicy getFullPolicy() {
+    return fullPolicy;
+  }
+}
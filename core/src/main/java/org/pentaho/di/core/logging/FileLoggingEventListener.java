@@ -102,6 +102,36 @@ public class FileLoggingEventListener implements KettleLoggingEventListener {
     }
   }
 
+  /**
+   * Formats the whole batch first and writes it to the file in one go.
+   */
+  @Override
+  public void eventsAdded( List<KettleLoggingEvent> events ) {
+    try {
+      List<String> logChannelChildren = null;
+      if ( logChannelId != null ) {
+        logChannelChildren = LoggingRegistry.getInstance().getLogChannelChildren( logChannelId );
+      }
+
+      StringBuilder text = new StringBuilder( events.size() * 128 );
+      for ( KettleLoggingEvent event : events ) {
+        Object messageObject = event.getMessage();
+        if ( messageObject instanceof LogMessage ) {
+          if ( logChannelChildren == null
+            || Const.indexOfString( ( (LogMessage) messageObject ).getLogChannelId(), logChannelChildren ) >= 0 ) {
+            text.append( layout.format( event ) ).append( Const.CR );
+          }
+        }
+      }
+
+      if ( text.length() > 0 ) {
+        outputStream.write( text.toString().getBytes() );
+      }
+    } catch ( Exception e ) {
+      exception = new KettleException( "Unable to write to logging event to file '" + filename + "'", e );
+    }
+  }
+
   public void close() throws KettleException {
     try {
       if ( outputStream != null ) {
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.core.logging;
 
+import java.io.File;
 import java.io.PrintStream;
 import java.util.Date;
 import java.util.List;
@@ -22,6 +23,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.util.Utils;
 
 public class KettleLogStore {
 
@@ -34,6 +36,10 @@ public class KettleLogStore {
 
   private Timer logCleanerTimer;
 
+  private AsyncLoggingDispatcher asyncDispatcher;
+
+  private static final long ASYNC_FLUSH_TIMEOUT_MILLIS = 5000L;
+
   private static AtomicBoolean initialized = new AtomicBoolean( false );
 
   private static LogChannelInterfaceFactory logChannelInterfaceFactory = new LogChannelFactory();
@@ -56,6 +62,7 @@ public class KettleLogStore {
    */
   private KettleLogStore( int maxSize, int maxLogTimeoutMinutes, boolean redirectStdOut, boolean redirectStdErr ) {
     this.appender = new LoggingBuffer( maxSize );
+    configureExecutionRetention( appender );
     replaceLogCleaner( maxLogTimeoutMinutes );
 
     if ( redirectStdOut ) {
@@ -65,6 +72,50 @@ public class KettleLogStore {
     if ( redirectStdErr ) {
       System.setErr( new LoggingPrintStream( OriginalSystemErr ) );
     }
+
+    if ( "Y".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC, "N" ) ) ) {
+      startAsyncDispatcher();
+    }
+  }
+
+  private void startAsyncDispatcher() {
+    int bufferSize = Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC_BUFFER_SIZE ),
+      AsyncLoggingDispatcher.DEFAULT_BUFFER_SIZE );
+    AsyncLoggingDispatcher.FullPolicy fullPolicy = AsyncLoggingDispatcher.FullPolicy.getPolicy(
+      EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC_FULL_POLICY ) );
+    final AsyncLoggingDispatcher dispatcher = new AsyncLoggingDispatcher( appender, bufferSize, fullPolicy );
+    asyncDispatcher = dispatcher;
+
+    // Don't lose the queued log lines when the JVM exits
+    //
+    Runtime.getRuntime().addShutdownHook(
+      new Thread( () -> dispatcher.shutdown( ASYNC_FLUSH_TIMEOUT_MILLIS ), "Kettle async logging shutdown" ) );
+  }
+
+  /**
+   * @return the dispatcher handing log events to the log buffer in the background or null if logging is synchronous.
+   */
+  public static AsyncLoggingDispatcher getAsyncDispatcher() {
+    KettleLogStore logStore = store;
+    return logStore == null ? null : logStore.asyncDispatcher;
+  }
+
+  /**
+   * When logging asynchronously, wait until the log events logged so far are available in the log buffer. Does nothing
+   * when logging synchronously.
+   */
+  public static void flush() {
+    AsyncLoggingDispatcher dispatcher = getAsyncDispatcher();
+    if ( dispatcher != null ) {
+      dispatcher.flush( ASYNC_FLUSH_TIMEOUT_MILLIS );
+    }
+  }
+
+  private static void configureExecutionRetention( LoggingBuffer appender ) {
+    appender.setMaxExecutionBytes(
+      Const.toLong( EnvUtil.getSystemProperty( Const.KETTLE_MAX_LOG_SIZE_PER_EXECUTION_IN_BYTES ), 0L ) );
+    String spillDirectory = EnvUtil.getSystemProperty( Const.KETTLE_LOG_SPILL_DIRECTORY );
+    appender.setSpillStore( Utils.isEmpty( spillDirectory ) ? null : new LogSpillStore( new File( spillDirectory ) ) );
   }
 
   public void replaceLogCleaner( final int maxLogTimeoutMinutes ) {
@@ -159,6 +210,7 @@ public class KettleLogStore {
     if ( store != null ) {
       // CentralLogStore already initialized. Just update the values.
       store.appender.setMaxNrLines( maxSize );
+      configureExecutionRetention( store.appender );
       store.replaceLogCleaner( maxLogTimeoutMinutes );
     } else {
       store = new KettleLogStore( maxSize, maxLogTimeoutMinutes, redirectStdOut, redirectStdErr );
@@ -177,6 +229,7 @@ public class KettleLogStore {
    * @return the number (sequence, 1..N) of the last log line. If no records are present in the buffer, 0 is returned.
    */
   public static int getLastBufferLineNr() {
+    flush();
     return getInstance().appender.getLastBufferLineNr();
   }
 
@@ -194,6 +247,7 @@ public class KettleLogStore {
    */
   public static List<KettleLoggingEvent> getLogBufferFromTo( String parentLogChannelId, boolean includeGeneral,
     int from, int to ) {
+    flush();
     return getInstance().appender.getLogBufferFromTo( parentLogChannelId, includeGeneral, from, to );
   }
 
@@ -210,9 +264,39 @@ public class KettleLogStore {
    */
   public static List<KettleLoggingEvent> getLogBufferFromTo( List<String> channelId, boolean includeGeneral,
     int from, int to ) {
+    flush();
     return getInstance().appender.getLogBufferFromTo( channelId, includeGeneral, from, to );
   }
 
+  /**
+   * Get the log lines of the specified log channel and all its children that were logged after the given line number.
+   * Pass the last line number of the returned segment in the next call to only retrieve new lines.
+   *
+   * @param parentLogChannelId
+   *          the parent log channel ID to grab
+   * @param afterLineNr
+   *          the line number after which to start, 0 to start at the beginning
+   * @param maxLines
+   *          the maximum number of lines to return, 0 or lower means: no limit
+   * @return the log lines found
+   */
+  public static LoggingBufferSegment getLogLinesAfter( String parentLogChannelId, int afterLineNr, int maxLines ) {
+    flush();
+    return getInstance().appender.getLinesAfter( parentLogChannelId, afterLineNr, maxLines );
+  }
+
+  /**
+   * Get the log lines of an execution that were evicted from the log buffer because of the
+   * {@link Const#KETTLE_MAX_LOG_SIZE_PER_EXECUTION_IN_BYTES} limit and spilled to {@link Const#KETTLE_LOG_SPILL_DIRECTORY}.
+   *
+   * @param logChannelId
+   *          the log channel id of the top level transformation or job
+   * @return the spilled log text, an empty string if there is none
+   */
+  public static String getSpilledLog( String logChannelId ) {
+    return getInstance().appender.getSpilledLog( logChannelId );
+  }
+
   /**
    * @return The appender that represents the central logging store. It is capable of giving back log rows in an
    *         incremental fashion, etc.
@@ -232,8 +316,12 @@ public class KettleLogStore {
     MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
     List<String> ids = registry.getLogChannelChildren( parentLogChannelId );
 
+    // Make sure no queued lines of these channels show up after the removal
+    flush();
+
     // Remove all the rows for these ids
     LoggingBuffer bufferAppender = getInstance().appender;
+    bufferAppender.removeExecutionFromBuffer( parentLogChannelId );
 
     for ( String id : ids ) {
       // Remove it from the central log buffer
@@ -258,6 +346,10 @@ public class KettleLogStore {
 
   public void reset() {
     if ( initialized.compareAndSet( true, false ) ) {
+      if ( asyncDispatcher != null ) {
+        asyncDispatcher.shutdown( ASYNC_FLUSH_TIMEOUT_MILLIS );
+        asyncDispatcher = null;
+      }
       appender = null;
       if ( logCleanerTimer != null ) {
         logCleanerTimer.cancel();
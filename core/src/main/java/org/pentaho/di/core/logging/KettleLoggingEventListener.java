@@ -13,6 +13,20 @@
 
 package org.pentaho.di.core.logging;
 
+import java.util.List;
+
 public interface KettleLoggingEventListener {
   public void eventAdded( KettleLoggingEvent event );
+
+  /**
+   * Called with a batch of events when logging asynchronously. Override to handle the batch in one go.
+   *
+   * @param events
+   *          the events, in logging order
+   */
+  default void eventsAdded( List<KettleLoggingEvent> events ) {
+    for ( KettleLoggingEvent event : events ) {
+      eventAdded( event );
+    }
+  }
 }
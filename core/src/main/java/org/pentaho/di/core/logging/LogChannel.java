@@ -126,15 +126,23 @@ public class LogChannel implements LogChannelInterface {
 
     KettleLoggingEvent loggingEvent = new KettleLoggingEvent( logMessage, System.currentTimeMillis(),
       logMessage.getLevel() );
-    KettleLogStore.getAppender().addLogggingEvent( loggingEvent );
 
     if ( this.fileWriter == null ) {
       this.fileWriter = LoggingRegistry.getInstance().getLogChannelFileWriterBuffer( logChannelId );
     }
 
-    // add to buffer
-    if ( this.fileWriter != null ) {
-      this.fileWriter.addEvent( loggingEvent );
+    AsyncLoggingDispatcher dispatcher = KettleLogStore.getAsyncDispatcher();
+    if ( dispatcher != null ) {
+      // Hand the event over to the background dispatcher
+      //
+      dispatcher.dispatch( loggingEvent, this.fileWriter );
+    } else {
+      KettleLogStore.getAppender().addLogggingEvent( loggingEvent );
+
+      // add to buffer
+      if ( this.fileWriter != null ) {
+        this.fileWriter.addEvent( loggingEvent );
+      }
     }
 
     callAfterLog();
@@ -0,0 +1,126 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.pentaho.di.core.Const;
+
+/**
+ * Keeps the log lines evicted from the central log buffer in compressed files on the local disk, one file per
+ * execution, so they can still be read back on demand. Every spill appends a new gzip member to the file of the
+ * execution.
+ */
+public class LogSpillStore {
+
+  private static final String FILE_EXTENSION = ".log.gz";
+
+  private final File directory;
+  private final KettleLogLayout layout = new KettleLogLayout( true );
+
+  public LogSpillStore( File directory ) {
+    this.directory = directory;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Append the formatted events to the spill file of the execution.
+   *
+   * @param executionId
+   *          the log channel id of the execution
+   * @param events
+   *          the events to spill, in logging order
+   * @throws IOException
+   *           in case the file can't be written
+   */
+  public synchronized void spill( String executionId, List<KettleLoggingEvent> events ) throws IOException {
+    if ( events.isEmpty() ) {
+      return;
+    }
+    if ( !directory.exists() && !directory.mkdirs() && !directory.isDirectory() ) {
+      throw new IOException( "Unable to create log spill directory '" + directory + "'" );
+    }
+    StringBuilder text = new StringBuilder( events.size() * 128 );
+    for ( KettleLoggingEvent event : events ) {
+      text.append( layout.format( event ) ).append( Const.CR );
+    }
+    try ( OutputStream out = new GZIPOutputStream( new FileOutputStream( getFile( executionId ), true ) ) ) {
+      out.write( text.toString().getBytes( StandardCharsets.UTF_8 ) );
+    }
+  }
+
+  /**
+   * @param executionId
+   *          the log channel id of the execution
+   * @return the spilled log text of the execution, an empty string if nothing was spilled
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public synchronized String read( String executionId ) throws IOException {
+    File file = getFile( executionId );
+    if ( !file.exists() ) {
+      return "";
+    }
+    ByteArrayOutputStream text = new ByteArrayOutputStream();
+    try ( InputStream in = new GZIPInputStream( new FileInputStream( file ) ) ) {
+      byte[] chunk = new byte[ 8192 ];
+      int read;
+      while ( ( read = in.read( chunk ) ) >= 0 ) {
+        text.write( chunk, 0, read );
+      }
+    }
+    return new String( text.toByteArray(), StandardCharsets.UTF_8 );
+  }
+
+  /**
+   * @param executionId
+   *          the log channel id of the execution
+   * @return true if log lines of the execution were spilled
+   */
+  public boolean hasSpilled( String executionId ) {
+    return getFile( executionId ).exists();
+  }
+
+  /**
+   * Remove the spill file of the execution.
+   *
+   * @param executionId
+   *          the log channel id of the execution
+   */
+  public synchronized void delete( String executionId ) {
+    File file = getFile( executionId );
+    if ( file.exists() && !file.delete() ) {
+      file.deleteOnExit();
+    }
+  }
+
+  private File getFile( String executionId ) {
+    // Log channel ids are UUIDs but don't let anything else escape the directory
+    //
+    return new File( directory, executionId.replaceAll( "[^A-Za-z0-9_.-]", "_" ) + FILE_EXTENSION );
+  }
+}
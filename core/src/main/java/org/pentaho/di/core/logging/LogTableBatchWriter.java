@@ -0,0 +1,364 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.variables.Variables;
+
+/**
+ * Writes insert-only log table records (step, channel, metrics, performance, job entry) in the background. There is one
+ * writer per log connection, shared by all transformations and jobs logging to it. The records are taken from a
+ * bounded queue and inserted with JDBC batches, so the records of many executions end up in a few round trips.<br>
+ * <br>
+ * The log record itself is created when the record is queued, the writer only takes care of the database work. Errors
+ * are logged, they can't fail the transformation or job anymore. Queued records are written on JVM shutdown.
+ */
+public class LogTableBatchWriter {
+
+  private static final int DEFAULT_QUEUE_SIZE = 10000;
+  private static final int MAX_BATCH_SIZE = 1000;
+  private static final long IDLE_DISCONNECT_MILLIS = 60000L;
+  private static final long SHUTDOWN_FLUSH_MILLIS = 30000L;
+
+  private static final Map<String, LogTableBatchWriter> writers = new ConcurrentHashMap<>();
+  private static final AtomicBoolean shutdownHookInstalled = new AtomicBoolean( false );
+
+  private final String key;
+  private final DatabaseMeta databaseMeta;
+  private final VariableSpace variables;
+  private final LoggingObjectInterface loggingObject;
+  private final LogChannelInterface log;
+  private final BlockingQueue<Item> queue;
+
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong processed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  private Database database;
+
+  private LogTableBatchWriter( String key, DatabaseMeta databaseMeta, VariableSpace variables, int queueSize ) {
+    this.key = key;
+    this.databaseMeta = databaseMeta;
+    this.variables = variables;
+    this.loggingObject =
+      new SimpleLoggingObject( "Log table writer " + databaseMeta.getName(), LoggingObjectType.GENERAL, null );
+    this.log = new LogChannel( loggingObject );
+    this.queue = new ArrayBlockingQueue<>( queueSize );
+
+    Thread thread = new Thread( this::writeLoop, "Kettle log table writer [" + databaseMeta.getName() + "]" );
+    thread.setDaemon( true );
+    thread.start();
+  }
+
+  /**
+   * @param space
+   *          the variables of the transformation or job
+   * @return true if the log table records of the transformation or job should be written in the background
+   */
+  public static boolean isEnabled( VariableSpace space ) {
+    return "Y".equalsIgnoreCase( space.getVariable( Const.KETTLE_LOG_TABLE_ASYNC_WRITES,
+      EnvUtil.getSystemProperty( Const.KETTLE_LOG_TABLE_ASYNC_WRITES, "N" ) ) );
+  }
+
+  /**
+   * Get the shared writer of the log connection, create it if needed.
+   *
+   * @param databaseMeta
+   *          the log connection
+   * @param space
+   *          the variables to resolve the connection with
+   * @return the writer of the connection
+   * @throws KettleException
+   *           in case the connection URL can't be determined
+   */
+  public static LogTableBatchWriter getWriter( DatabaseMeta databaseMeta, VariableSpace space )
+    throws KettleException {
+    String key = databaseMeta.getName() + "|" + space.environmentSubstitute( databaseMeta.getURL() ) + "|"
+      + space.environmentSubstitute( databaseMeta.getUsername() );
+    LogTableBatchWriter writer = writers.get( key );
+    if ( writer == null ) {
+      writer = writers.computeIfAbsent( key, k -> {
+        int queueSize = Const.toInt( space.environmentSubstitute(
+          space.getVariable( Const.KETTLE_LOG_TABLE_WRITER_QUEUE_SIZE ) ), DEFAULT_QUEUE_SIZE );
+        return new LogTableBatchWriter( k, (DatabaseMeta) databaseMeta.clone(), snapshot( space ),
+          Math.max( 1, queueSize ) );
+      } );
+      installShutdownHook();
+    }
+    return writer;
+  }
+
+  private static VariableSpace snapshot( VariableSpace space ) {
+    VariableSpace copy = new Variables();
+    copy.copyVariablesFrom( space );
+    return copy;
+  }
+
+  private static void installShutdownHook() {
+    if ( shutdownHookInstalled.compareAndSet( false, true ) ) {
+      Runtime.getRuntime().addShutdownHook(
+        new Thread( () -> flushAll( SHUTDOWN_FLUSH_MILLIS ), "Kettle log table writer shutdown" ) );
+    }
+  }
+
+  /**
+   * Create the log record and queue it for insertion. Blocks while the queue is full.
+   *
+   * @param logTable
+   *          the log table to write to
+   * @param status
+   *          the log status
+   * @param subject
+   *          the subject of the record
+   * @param parent
+   *          the parent of the subject, can be null
+   * @param space
+   *          the variables to resolve the schema and table name with
+   * @throws KettleException
+   *           in case the record can't be created or the thread was interrupted
+   */
+  public void write( LogTableCoreInterface logTable, LogStatus status, Object subject, Object parent,
+    VariableSpace space ) throws KettleException {
+    RowMetaAndData logRecord = logTable.getLogRecord( status, subject, parent );
+    if ( logRecord == null ) {
+      return;
+    }
+    enqueue( new Item( logTable, space.environmentSubstitute( logTable.getActualSchemaName() ),
+      space.environmentSubstitute( logTable.getActualTableName() ), logRecord, null, space ) );
+  }
+
+  /**
+   * Queue the removal of timed-out records of the log table, done after the records queued before it are written.
+   *
+   * @param logTable
+   *          the log table to clean up
+   * @param transJobName
+   *          the name of the transformation or job
+   * @param space
+   *          the variables to resolve the log table settings with
+   * @throws KettleException
+   *           in case the thread was interrupted
+   */
+  public void cleanup( LogTableCoreInterface logTable, String transJobName, VariableSpace space )
+    throws KettleException {
+    enqueue( new Item( logTable, null, null, null, transJobName, space ) );
+  }
+
+  private void enqueue( Item item ) throws KettleException {
+    try {
+      queued.incrementAndGet();
+      queue.put( item );
+    } catch ( InterruptedException e ) {
+      queued.decrementAndGet();
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Interrupted while queueing a log record for " + databaseMeta.getName(), e );
+    }
+  }
+
+  private void writeLoop() {
+    List<Item> batch = new ArrayList<>( MAX_BATCH_SIZE );
+    while ( true ) {
+      try {
+        Item first = queue.poll( IDLE_DISCONNECT_MILLIS, TimeUnit.MILLISECONDS );
+        if ( first == null ) {
+          // Don't keep an idle connection open
+          disconnect();
+          continue;
+        }
+        batch.add( first );
+        queue.drainTo( batch, MAX_BATCH_SIZE - 1 );
+        writeBatch( batch );
+      } catch ( InterruptedException e ) {
+        // Daemon thread, keep going
+        Thread.interrupted();
+      } catch ( Throwable e ) {
+        log.logError( "Unexpected error writing log records", e );
+      } finally {
+        processed.addAndGet( batch.size() );
+        batch.clear();
+      }
+    }
+  }
+
+  private void writeBatch( List<Item> batch ) {
+    // Insert the records for the same table with the same layout in one JDBC batch, then do the clean-ups
+    //
+    Map<String, List<Item>> inserts = new LinkedHashMap<>();
+    Map<String, Item> cleanups = new LinkedHashMap<>();
+    for ( Item item : batch ) {
+      if ( item.isCleanup() ) {
+        cleanups.put( item.cleanupKey(), item );
+      } else {
+        inserts.computeIfAbsent( item.insertKey(), k -> new ArrayList<>() ).add( item );
+      }
+    }
+
+    try {
+      Database db = connect();
+      for ( List<Item> records : inserts.values() ) {
+        insert( db, records );
+      }
+      for ( Item cleanup : cleanups.values() ) {
+        db.shareVariablesWith( cleanup.space );
+        try {
+          db.cleanupLogRecords( cleanup.logTable, cleanup.transJobName );
+        } finally {
+          db.shareVariablesWith( variables );
+        }
+      }
+    } catch ( Exception e ) {
+      failed.addAndGet( batch.size() );
+      log.logError( "Unable to write " + batch.size() + " log records to connection " + databaseMeta.getName(), e );
+      disconnect();
+    }
+  }
+
+  private void insert( Database db, List<Item> records ) throws KettleException {
+    Item first = records.get( 0 );
+    RowMetaInterface rowMeta = first.logRecord.getRowMeta();
+    db.prepareInsert( rowMeta, first.schemaName, first.tableName );
+    for ( Item item : records ) {
+      db.setValuesInsert( item.logRecord.getRowMeta(), item.logRecord.getData() );
+      db.insertRow( true );
+    }
+    db.insertFinished( true );
+  }
+
+  private Database connect() throws KettleException {
+    if ( database == null ) {
+      Database db = new Database( loggingObject, databaseMeta );
+      db.shareVariablesWith( variables );
+      db.connect();
+      db.setCommit( MAX_BATCH_SIZE );
+      database = db;
+    }
+    return database;
+  }
+
+  private void disconnect() {
+    if ( database != null ) {
+      try {
+        database.close();
+      } catch ( Exception e ) {
+        log.logError( "Error closing log connection " + databaseMeta.getName(), e );
+      } finally {
+        database = null;
+      }
+    }
+  }
+
+  /**
+   * Wait until the records queued before this call are written.
+   *
+   * @param timeoutMillis
+   *          the maximum time to wait
+   * @return true if all records were written in time
+   */
+  public boolean flush( long timeoutMillis ) {
+    long target = queued.get();
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while ( processed.get() < target ) {
+      if ( System.currentTimeMillis() > deadline ) {
+        return false;
+      }
+      try {
+        Thread.sleep( 10 );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Wait until all queued records of all log connections are written.
+   *
+   * @param timeoutMillis
+   *          the maximum time to wait per connection
+   */
+  public static void flushAll( long timeoutMillis ) {
+    for ( LogTableBatchWriter writer : writers.values() ) {
+      writer.flush( timeoutMillis );
+    }
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * @return the number of records and clean-ups waiting to be written
+   */
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  /**
+   * @return the number of records and clean-ups that failed
+   */
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  private static class Item {
+    private final LogTableCoreInterface logTable;
+    private final String schemaName;
+    private final String tableName;
+    private final RowMetaAndData logRecord;
+    private final String transJobName;
+    private final VariableSpace space;
+
+    Item( LogTableCoreInterface logTable, String schemaName, String tableName, RowMetaAndData logRecord,
+      String transJobName, VariableSpace space ) {
+      this.logTable = logTable;
+      this.schemaName = schemaName;
+      this.tableName = tableName;
+      this.logRecord = logRecord;
+      this.transJobName = transJobName;
+      this.space = space;
+    }
+
+    boolean isCleanup() {
+      return logRecord == null;
+    }
+
+    String cleanupKey() {
+      return System.identityHashCode( logTable ) + "|" + transJobName;
+    }
+
+    String insertKey() {
+      return Const.NVL( schemaName, "" ) + "|" + Const.NVL( tableName, "" ) + "|"
+        + String.join( ",", logRecord.getRowMeta().getFieldNames() );
+    }
+  }
+}
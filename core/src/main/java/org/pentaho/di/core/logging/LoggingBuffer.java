@@ -18,13 +18,20 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.NoSuchElementException;
@@ -41,6 +48,10 @@ public class LoggingBuffer {
 
   private ConcurrentSkipListMap<Integer, BufferLine> buffer;
 
+  //The line numbers in the buffer per log channel.  This allows us to find the lines of a channel and its children
+  //without filtering the entire buffer.
+  private Map<String, NavigableSet<Integer>> channelLineNrs = new ConcurrentHashMap<>();
+
   //Keeps track of the lead line number sent for a tail.  So the next time it can start from there instead of filtering
   //the entire buffer.  This matters when bufferSize is large
   private Map<String, Integer> tailMap = new ConcurrentHashMap<>();
@@ -55,6 +66,26 @@ public class LoggingBuffer {
 
   private LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
 
+  //The maximum estimated size in bytes of the lines of one execution (a transformation or job with all its children),
+  //0 or lower means: no limit.  Executions are only tracked when there is a limit.
+  private volatile long maxExecutionBytes;
+
+  //The lines per execution, keyed by the log channel id of the top level transformation or job
+  private Map<String, ExecutionLines> executionLines = new ConcurrentHashMap<>();
+
+  //The execution each log channel belongs to
+  private Map<String, String> channelExecutions = new ConcurrentHashMap<>();
+
+  //Receives the lines evicted because of the execution size limit, if any
+  private volatile LogSpillStore spillStore;
+
+  //The numbers of the lines being added, guarded by itself.  Lines get their number before they are indexed, so a
+  //cursor only moves up to the line before the first one still being added or else it could skip that line.
+  private final NavigableSet<Integer> pendingLineNrs = new TreeSet<>();
+
+  //The number of the last line that started being added, guarded by pendingLineNrs
+  private int lastAddedLineNr;
+
   public LoggingBuffer( int bufferSize ) {
     this.bufferSize = bufferSize;
     buffer = new ConcurrentSkipListMap<>();
@@ -109,6 +140,11 @@ public class LoggingBuffer {
     //  "****" + channelId.get( 0 ) + "   size:" + channelId.size() + "  general:" + includeGeneral + "  from:" + from
     //    + "  to:" + to + "  tailLines: " + tailLines );
 
+    if ( !includeGeneral && tailLines <= 0 && !Utils.isEmpty( channelId ) ) {
+      return getChannelLines( channelId, from, true, to, 0 ).stream().map( BufferLine::getEvent )
+        .collect( Collectors.toList() );
+    }
+
     Stream<BufferLine> bufferStream = buffer.subMap( from, true, to, true ).values().stream();
     if ( !Utils.isEmpty( channelId ) ) {
       bufferStream = bufferStream.filter( line -> {
@@ -164,6 +200,79 @@ public class LoggingBuffer {
     return getLogBufferFromTo( childIds, includeGeneral, from, to, tailLines, parentLogChannelId );
   }
 
+  /**
+   * Get the lines logged by the given log channel and its children after a certain line number. Only the lines of
+   * these channels are looked at so this is cheap to call repeatedly with the last line number returned, even with a
+   * large buffer.
+   *
+   * @param parentLogChannelId the parent log channel ID to grab
+   * @param afterLineNr        only lines with a higher line number are returned, use 0 to start at the beginning
+   * @param maxLines           the maximum number of lines to return, 0 or lower means: no limit
+   * @return the lines found and the line number to continue from
+   */
+  public LoggingBufferSegment getLinesAfter( String parentLogChannelId, int afterLineNr, int maxLines ) {
+    int committedLineNr = getCommittedLineNr();
+    if ( committedLineNr <= afterLineNr ) {
+      return new LoggingBufferSegment( Collections.emptyList(), afterLineNr, false );
+    }
+    List<String> childIds = loggingRegistry.getLogChannelChildren( parentLogChannelId );
+    List<BufferLine> lines = getChannelLines( childIds, afterLineNr, false, committedLineNr,
+      maxLines > 0 ? maxLines + 1 : 0 );
+
+    boolean more = maxLines > 0 && lines.size() > maxLines;
+    if ( more ) {
+      lines = lines.subList( 0, maxLines );
+    }
+    int lastLineNr = lines.isEmpty() ? afterLineNr : lines.get( lines.size() - 1 ).getNr();
+    return new LoggingBufferSegment( lines, lastLineNr, more );
+  }
+
+  /**
+   * @return the number up to which all lines are indexed: the line before the first one still being added
+   */
+  private int getCommittedLineNr() {
+    synchronized ( pendingLineNrs ) {
+      return pendingLineNrs.isEmpty() ? lastAddedLineNr : pendingLineNrs.first() - 1;
+    }
+  }
+
+  /**
+   * Collects the lines of the given channels in the specified range using the per channel index, sorted by line number.
+   *
+   * @param maxLines the maximum number of lines to return, 0 or lower means: no limit
+   */
+  private List<BufferLine> getChannelLines( List<String> channelIds, int from, boolean fromInclusive, int to,
+                                            int maxLines ) {
+    List<Integer> lineNrs = new ArrayList<>();
+    for ( String channelId : channelIds ) {
+      NavigableSet<Integer> channelNrs = channelLineNrs.get( channelId );
+      if ( channelNrs == null ) {
+        continue;
+      }
+      int count = 0;
+      for ( Integer nr : channelNrs.subSet( from, fromInclusive, to, true ) ) {
+        lineNrs.add( nr );
+        if ( maxLines > 0 && ++count >= maxLines ) {
+          break;
+        }
+      }
+    }
+    Collections.sort( lineNrs );
+
+    List<BufferLine> lines = new ArrayList<>( lineNrs.size() );
+    for ( Integer nr : lineNrs ) {
+      BufferLine line = buffer.get( nr );
+      // The line could have been removed in the meantime
+      if ( line != null ) {
+        lines.add( line );
+        if ( maxLines > 0 && lines.size() >= maxLines ) {
+          break;
+        }
+      }
+    }
+    return lines;
+  }
+
   public StringBuffer getBuffer( String parentLogChannelId, boolean includeGeneral, int startLineNr, int endLineNr ) {
     return getBuffer( parentLogChannelId, includeGeneral, startLineNr, endLineNr, 0 );
   }
@@ -210,11 +319,248 @@ public class LoggingBuffer {
 
   public void doAppend( KettleLoggingEvent event ) {
     if ( event.getMessage() instanceof LogMessage ) {
-      BufferLine bufferLine = new BufferLine( event );
-      buffer.put( bufferLine.getNr(), bufferLine );
+      BufferLine bufferLine;
+      synchronized ( pendingLineNrs ) {
+        bufferLine = new BufferLine( event );
+        pendingLineNrs.add( bufferLine.getNr() );
+        lastAddedLineNr = bufferLine.getNr();
+      }
+      String logChannelId;
+      try {
+        buffer.put( bufferLine.getNr(), bufferLine );
+        logChannelId = getLogChId( bufferLine );
+        if ( logChannelId != null ) {
+          channelLineNrs.compute( logChannelId, ( id, nrs ) -> {
+            NavigableSet<Integer> lineNrs = nrs == null ? new ConcurrentSkipListSet<>() : nrs;
+            lineNrs.add( bufferLine.getNr() );
+            return lineNrs;
+          } );
+        }
+      } finally {
+        synchronized ( pendingLineNrs ) {
+          pendingLineNrs.remove( bufferLine.getNr() );
+        }
+      }
+      if ( maxExecutionBytes > 0 && logChannelId != null ) {
+        addToExecution( logChannelId, bufferLine );
+      }
       while ( bufferSize > 0 && buffer.size() > bufferSize ) {
-        buffer.remove( buffer.firstKey() );
+        Map.Entry<Integer, BufferLine> first = buffer.pollFirstEntry();
+        if ( first != null ) {
+          removeFromIndex( first.getValue() );
+        }
+      }
+    }
+  }
+
+  private void addToExecution( String logChannelId, BufferLine bufferLine ) {
+    String executionId = channelExecutions.computeIfAbsent( logChannelId, this::findExecutionId );
+    ExecutionLines execution = executionLines.computeIfAbsent( executionId, ExecutionLines::new );
+    execution.channelIds.add( logChannelId );
+    execution.lines.add( bufferLine );
+    if ( execution.bytes.addAndGet( estimateSize( bufferLine ) ) > maxExecutionBytes ) {
+      evictFromExecution( execution );
+    }
+  }
+
+  /**
+   * The execution is the top level transformation or job above the log channel, or the channel itself when it doesn't
+   * belong to one.
+   */
+  private String findExecutionId( String logChannelId ) {
+    String executionId = logChannelId;
+    LoggingObjectInterface loggingObject = loggingRegistry.getLoggingObject( logChannelId );
+    while ( loggingObject != null ) {
+      LoggingObjectType type = loggingObject.getObjectType();
+      if ( ( type == LoggingObjectType.TRANS || type == LoggingObjectType.JOB )
+        && loggingObject.getLogChannelId() != null ) {
+        executionId = loggingObject.getLogChannelId();
       }
+      loggingObject = loggingObject.getParent();
+    }
+    return executionId;
+  }
+
+  /**
+   * Evict the oldest lines of the execution until it is back at 3/4 of the limit, spilling them if a spill store is
+   * configured.
+   */
+  private void evictFromExecution( ExecutionLines execution ) {
+    long target = maxExecutionBytes - maxExecutionBytes / 4;
+    List<KettleLoggingEvent> evicted = new ArrayList<>();
+    synchronized ( execution ) {
+      BufferLine line;
+      while ( execution.bytes.get() > target && ( line = execution.lines.pollFirst() ) != null ) {
+        if ( buffer.remove( line.getNr() ) != null ) {
+          // The line already left the execution, only the channel index and the size are left to update
+          removeFromChannelIndex( line );
+          execution.bytes.addAndGet( -estimateSize( line ) );
+          evicted.add( line.getEvent() );
+        }
+      }
+    }
+    LogSpillStore store = spillStore;
+    if ( store != null && !evicted.isEmpty() ) {
+      try {
+        store.spill( execution.executionId, evicted );
+      } catch ( Exception e ) {
+        // Don't log about logging, the lines are lost
+        e.printStackTrace( KettleLogStore.OriginalSystemErr );
+      }
+    }
+  }
+
+  private static long estimateSize( BufferLine line ) {
+    KettleLoggingEvent event = line.getEvent();
+    LogMessage message = (LogMessage) event.getMessage();
+    String text = message.getMessage();
+    String subject = message.getSubject();
+    return 96L + 2L * ( ( text == null ? 0 : text.length() ) + ( subject == null ? 0 : subject.length() ) );
+  }
+
+  private void removeLine( BufferLine line ) {
+    if ( buffer.remove( line.getNr() ) != null ) {
+      removeFromIndex( line );
+    }
+  }
+
+  private void removeFromIndex( BufferLine line ) {
+    String logChannelId = removeFromChannelIndex( line );
+    if ( logChannelId != null ) {
+      removeFromExecution( logChannelId, line );
+    }
+  }
+
+  /**
+   * @return the log channel id of the line, null if it has none
+   */
+  private String removeFromChannelIndex( BufferLine line ) {
+    String logChannelId = getLogChId( line );
+    if ( logChannelId != null ) {
+      channelLineNrs.computeIfPresent( logChannelId, ( id, nrs ) -> {
+        nrs.remove( line.getNr() );
+        return nrs.isEmpty() ? null : nrs;
+      } );
+    }
+    return logChannelId;
+  }
+
+  private void removeFromExecution( String logChannelId, BufferLine line ) {
+    String executionId = channelExecutions.get( logChannelId );
+    ExecutionLines execution = executionId == null ? null : executionLines.get( executionId );
+    if ( execution != null ) {
+      execution.bytes.addAndGet( -estimateSize( line ) );
+      // Lines usually leave the buffer oldest first, the others are looked up so the execution doesn't keep them
+      if ( execution.lines.peekFirst() == line ) {
+        execution.lines.pollFirst();
+      } else {
+        execution.lines.remove( line );
+      }
+    }
+  }
+
+  /**
+   * Removes all the lines of an execution (a top level transformation or job including all its children) and its
+   * spilled lines in one go. Only the lines of executions tracked because of an execution size limit are removed,
+   * use {@link #removeChannelFromBuffer(String)} for the others.
+   *
+   * @param logChannelId the log channel id of the execution
+   */
+  public void removeExecutionFromBuffer( String logChannelId ) {
+    ExecutionLines execution = executionLines.remove( logChannelId );
+    if ( execution != null ) {
+      synchronized ( execution ) {
+        for ( BufferLine line : execution.lines ) {
+          if ( buffer.remove( line.getNr() ) != null ) {
+            removeFromChannelIndex( line );
+          }
+        }
+        execution.lines.clear();
+        for ( String channelId : execution.channelIds ) {
+          channelExecutions.remove( channelId );
+          tailMap.remove( channelId );
+        }
+      }
+    }
+    LogSpillStore store = spillStore;
+    if ( store != null ) {
+      store.delete( logChannelId );
+    }
+  }
+
+  /**
+   * @param logChannelId the log channel id of the execution
+   * @return the lines of the execution evicted from the buffer and spilled to disk, an empty string if there are none.
+   */
+  public String getSpilledLog( String logChannelId ) {
+    LogSpillStore store = spillStore;
+    if ( store == null ) {
+      return "";
+    }
+    try {
+      return store.read( logChannelId );
+    } catch ( Exception e ) {
+      e.printStackTrace( KettleLogStore.OriginalSystemErr );
+      return "";
+    }
+  }
+
+  /**
+   * @param logChannelId the log channel id of the execution
+   * @return the estimated size in bytes of the lines of the execution in the buffer, 0 if it isn't tracked
+   */
+  public long getExecutionBytes( String logChannelId ) {
+    ExecutionLines execution = executionLines.get( logChannelId );
+    return execution == null ? 0L : execution.bytes.get();
+  }
+
+  @VisibleForTesting
+  int getExecutionNrLines( String logChannelId ) {
+    ExecutionLines execution = executionLines.get( logChannelId );
+    return execution == null ? 0 : execution.lines.size();
+  }
+
+  /**
+   * @return the number of executions tracked because of the execution size limit
+   */
+  public int getNrExecutions() {
+    return executionLines.size();
+  }
+
+  /**
+   * @return the maximum estimated size in bytes of the lines of one execution, 0 or lower means: no limit
+   */
+  public long getMaxExecutionBytes() {
+    return maxExecutionBytes;
+  }
+
+  /**
+   * @param maxExecutionBytes the maximum estimated size in bytes of the lines of one execution (a top level
+   *                          transformation or job with all its children), 0 or lower means: no limit
+   */
+  public void setMaxExecutionBytes( long maxExecutionBytes ) {
+    this.maxExecutionBytes = maxExecutionBytes;
+  }
+
+  public LogSpillStore getSpillStore() {
+    return spillStore;
+  }
+
+  /**
+   * @param spillStore the store receiving the lines evicted because of the execution size limit, null to drop them
+   */
+  public void setSpillStore( LogSpillStore spillStore ) {
+    this.spillStore = spillStore;
+  }
+
+  private static class ExecutionLines {
+    private final String executionId;
+    private final ConcurrentLinkedDeque<BufferLine> lines = new ConcurrentLinkedDeque<>();
+    private final Set<String> channelIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong bytes = new AtomicLong();
+
+    ExecutionLines( String executionId ) {
+      this.executionId = executionId;
     }
   }
 
@@ -240,6 +586,9 @@ public class LoggingBuffer {
 
   public void clear() {
     buffer.clear();
+    channelLineNrs.clear();
+    executionLines.clear();
+    channelExecutions.clear();
   }
 
   /**
@@ -269,7 +618,21 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer( String id ) {
-    buffer.values().stream().filter( line -> id.equals( getLogChId( line ) ) ).forEach( line -> buffer.remove( line.getNr() ) );
+    NavigableSet<Integer> lineNrs = channelLineNrs.remove( id );
+    if ( lineNrs != null ) {
+      String executionId = channelExecutions.get( id );
+      ExecutionLines execution = executionId == null ? null : executionLines.get( executionId );
+      for ( Integer lineNr : lineNrs ) {
+        BufferLine line = buffer.remove( lineNr );
+        if ( line != null && execution != null ) {
+          execution.bytes.addAndGet( -estimateSize( line ) );
+        }
+      }
+      if ( execution != null ) {
+        // One pass over the execution instead of a lookup per line, the channel's lines are spread over it
+        execution.lines.removeIf( line -> lineNrs.contains( line.getNr() ) );
+      }
+    }
     tailMap.remove( id );
 
 /*    for ( BufferLine line : buffer.values() ) {
@@ -286,7 +649,7 @@ public class LoggingBuffer {
   public void removeGeneralMessages() {
     for ( BufferLine line : buffer.values() ) {
       if ( isGeneral( getLogChId( line ) ) ) {
-        buffer.remove( line.getNr() );
+        removeLine( line );
       }
     }
   }
@@ -326,7 +689,7 @@ public class LoggingBuffer {
    */
   @Deprecated
   public void removeBufferLines( List<BufferLine> linesToRemove ) {
-    linesToRemove.stream().forEach( v -> buffer.remove( v.getNr() ) );
+    linesToRemove.stream().forEach( this::removeLine );
   }
 
   /**
@@ -340,7 +703,7 @@ public class LoggingBuffer {
   }
 
   public void removeBufferLinesBefore( long minTimeBoundary ) {
-    buffer.values().stream().filter( v -> v.getEvent().timeStamp < minTimeBoundary ).forEach( v -> buffer.remove( v.getNr() ) );
+    buffer.values().stream().filter( v -> v.getEvent().timeStamp < minTimeBoundary ).forEach( this::removeLine );
   }
 
   public void addLogggingEvent( KettleLoggingEvent loggingEvent ) {
@@ -348,6 +711,19 @@ public class LoggingBuffer {
     eventListeners.forEach( event -> event.eventAdded( loggingEvent ) );
   }
 
+  /**
+   * Append a batch of logging events and pass them to the listeners in one call per listener.
+   *
+   * @param loggingEvents
+   *          the events to add, in logging order
+   */
+  public void addLoggingEvents( List<KettleLoggingEvent> loggingEvents ) {
+    for ( KettleLoggingEvent loggingEvent : loggingEvents ) {
+      doAppend( loggingEvent );
+    }
+    eventListeners.forEach( listener -> listener.eventsAdded( loggingEvents ) );
+  }
+
   public void addLoggingEventListener( KettleLoggingEventListener listener ) {
     eventListeners.add( listener );
   }
@@ -0,0 +1,53 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.List;
+
+/**
+ * A set of consecutive log lines retrieved from the {@link LoggingBuffer} for a log channel and its children. The last
+ * line number is the cursor to pass in to retrieve the next lines.
+ */
+public class LoggingBufferSegment {
+  private final List<BufferLine> lines;
+  private final int lastLineNr;
+  private final boolean more;
+
+  public LoggingBufferSegment( List<BufferLine> lines, int lastLineNr, boolean more ) {
+    this.lines = lines;
+    this.lastLineNr = lastLineNr;
+    this.more = more;
+  }
+
+  /**
+   * @return the log lines, sorted by line number
+   */
+  public List<BufferLine> getLines() {
+    return lines;
+  }
+
+  /**
+   * @return the number of the last line returned or the line number passed in if no lines were found
+   */
+  public int getLastLineNr() {
+    return lastLineNr;
+  }
+
+  /**
+   * @return true if more lines are available after the last line returned
+   */
+  public boolean hasMore() {
+    return more;
+  }
+}
@@ -325,16 +325,27 @@ public class LoggingRegistry {
   public void removeIncludingChildren( String logChannelId ) {
     synchronized ( this.syncObject ) {
       // Collect all Log Channel IDs that are descendants of the given one
-      List<String> children = getLogChannelChildren( logChannelId );
+      Set<String> children = new HashSet<>( getLogChannelChildren( logChannelId ) );
+
+      // Detach it from the parent's list of children
+      LoggingObjectInterface loggingObject = this.map.get( logChannelId );
+      if ( loggingObject != null && loggingObject.getParent() != null ) {
+        List<String> siblings = this.childrenMap.get( loggingObject.getParent().getLogChannelId() );
+        if ( siblings != null ) {
+          siblings.remove( logChannelId );
+        }
+      }
 
-      // Remove from the Registry's Map
-      children.forEach( s -> this.map.remove( s ) );
+      // Remove from the Registry's Map, the Children's Map and the file writer buffers. Only the entries of the
+      // removed channels are touched so this doesn't depend on the size of the registry.
+      for ( String id : children ) {
+        this.map.remove( id );
+        this.childrenMap.remove( id );
+        this.fileWriterBuffers.remove( id );
+      }
 
       // Remove from the Registry's PurgeQueue
       this.registerPurgeQueue.removeIf( loi -> children.contains( loi.getLogChannelId() ) );
-
-      // Remove from the Registry Children's Map - well, technically this removes ALL orphans :-)
-      removeOrphans();
     }
   }
 
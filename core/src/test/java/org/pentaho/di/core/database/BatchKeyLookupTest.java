@@ -0,0 +1,148 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Savepoint;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class BatchKeyLookupTest {
+
+  @Test
+  public void testBatchSql() {
+    assertEquals( "SELECT 0, a, b FROM t WHERE  ( ( k = ? ) ) " + Const.CR
+        + "UNION ALL SELECT 1, a, b FROM t WHERE  ( ( k = ? ) ) ",
+      BatchKeyLookup.getBatchSql( "SELECT a, b FROM t WHERE  ( ( k = ? ) ) ", 2 ) );
+  }
+
+  @Test
+  public void testKeyIsCompared() throws Exception {
+    RowMetaInterface parameterRowMeta = new RowMeta();
+    parameterRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    parameterRowMeta.addValueMeta( new ValueMetaNumber( "amount" ) );
+
+    assertEquals( BatchKeyLookup.getKey( parameterRowMeta, new Object[] { "Abc  ", 1.0 } ),
+      BatchKeyLookup.getKey( parameterRowMeta, new Object[] { "abc", 1.00 } ) );
+    assertEquals( Arrays.asList( null, BigDecimal.ZERO ),
+      BatchKeyLookup.getKey( parameterRowMeta, new Object[] { null, -0.0 } ) );
+  }
+
+  private static Database mockDatabase( DatabaseInterface databaseInterface ) {
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.getDatabaseInterface() ).thenReturn( databaseInterface );
+    Database db = mock( Database.class );
+    when( db.getDatabaseMeta() ).thenReturn( databaseMeta );
+    return db;
+  }
+
+  @Test
+  public void testBatchSizeWithinParameterLimit() {
+    RowMetaInterface parameterRowMeta = new RowMeta();
+    parameterRowMeta.addValueMeta( new ValueMetaString( "key1" ) );
+    parameterRowMeta.addValueMeta( new ValueMetaString( "key2" ) );
+    Database db = mockDatabase( new GenericDatabaseMeta() );
+
+    assertEquals( 100, new BatchKeyLookup( db, "SELECT a FROM t WHERE k1 = ? AND k2 = ?", parameterRowMeta, 100 )
+      .getBatchSize() );
+    assertEquals( BatchKeyLookup.MAX_PARAMETERS / 2,
+      new BatchKeyLookup( db, "SELECT a FROM t WHERE k1 = ? AND k2 = ?", parameterRowMeta, 5000 ).getBatchSize() );
+  }
+
+  @Test
+  public void testFailedLookupRollsBackToSavepoint() throws Exception {
+    Database db = mockDatabase( new PostgreSQLDatabaseMeta() );
+    Savepoint savepoint = mock( Savepoint.class );
+    when( db.setSavepoint() ).thenReturn( savepoint );
+    KettleDatabaseException failure = new KettleDatabaseException( "too many parameters" );
+    when( db.openQuery( any( PreparedStatement.class ), any( RowMetaInterface.class ), any( Object[].class ) ) )
+      .thenThrow( failure );
+    when( db.prepareSQL( any( String.class ) ) ).thenReturn( mock( PreparedStatement.class ) );
+
+    RowMetaInterface parameterRowMeta = new RowMeta();
+    parameterRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    BatchKeyLookup lookup = new BatchKeyLookup( db, "SELECT value FROM t WHERE key = ?", parameterRowMeta, 2 );
+    try {
+      lookup.lookup( Arrays.asList( new Object[] { "a" }, new Object[] { "b" } ) );
+      fail( "The failure of the batch query is passed on so the rows are looked up one at a time" );
+    } catch ( KettleDatabaseException e ) {
+      assertSame( failure, e );
+    }
+    verify( db ).rollback( savepoint );
+    verify( db, never() ).releaseSavepoint( savepoint );
+  }
+
+  @Test
+  public void testLookup() throws Exception {
+    Database db = mockDatabase( new GenericDatabaseMeta() );
+    PreparedStatement ps = mock( PreparedStatement.class );
+    ResultSet rs = mock( ResultSet.class );
+    when( db.prepareSQL( any( String.class ) ) ).thenReturn( ps );
+    when( db.openQuery( eq( ps ), any( RowMetaInterface.class ), any( Object[].class ) ) ).thenReturn( rs );
+
+    RowMetaInterface resultRowMeta = new RowMeta();
+    resultRowMeta.addValueMeta( new ValueMetaInteger( "position" ) );
+    resultRowMeta.addValueMeta( new ValueMetaString( "value" ) );
+    when( db.getReturnRowMeta() ).thenReturn( resultRowMeta );
+    when( db.getRow( eq( rs ), isNull(), eq( resultRowMeta ) ) ).thenReturn(
+      new Object[] { 2L, "c" }, new Object[] { 0L, "a" }, new Object[] { 0L, "a2" }, null );
+
+    RowMetaInterface parameterRowMeta = new RowMeta();
+    parameterRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    BatchKeyLookup lookup = new BatchKeyLookup( db, "SELECT value FROM t WHERE key = ?", parameterRowMeta, 4 );
+
+    // The second row repeats the key of the first one, the last place of the batch repeats the first row
+    //
+    Object[][] found = lookup.lookup( Arrays.asList(
+      new Object[] { "a" }, new Object[] { "A" }, new Object[] { "b" }, new Object[] { "c" } ) );
+
+    ArgumentCaptor<Object[]> parameters = ArgumentCaptor.forClass( Object[].class );
+    verify( db ).openQuery( eq( ps ), any( RowMetaInterface.class ), parameters.capture() );
+    assertArrayEquals( new Object[] { "a", "b", "c", "a" }, parameters.getValue() );
+
+    assertArrayEquals( new Object[] { "a" }, found[ 0 ] );
+    assertSame( BatchKeyLookup.NOT_LOOKED_UP, found[ 1 ] );
+    assertNull( found[ 2 ] );
+    assertArrayEquals( new Object[] { "c" }, found[ 3 ] );
+    assertEquals( 1, lookup.getReturnRowMeta().size() );
+    verify( rs ).close();
+
+    lookup.close();
+    verify( db ).closePreparedStatement( ps );
+    verify( db, never() ).setSavepoint();
+  }
+}
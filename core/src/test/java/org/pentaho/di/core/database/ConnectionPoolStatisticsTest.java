@@ -0,0 +1,66 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.Test;
+
+public class ConnectionPoolStatisticsTest {
+
+  @Test
+  public void testBorrowTimes() {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "db", null );
+    DataSource dataSource = mock( DataSource.class );
+    statistics.borrowed( dataSource, 500000L );
+    statistics.borrowed( dataSource, 20000000L );
+    statistics.borrowed( dataSource, 60000000000L );
+
+    assertEquals( 3, statistics.getBorrows() );
+    assertEquals( 60020500000L, statistics.getBorrowNanos() );
+    assertArrayEquals( new long[] { 1, 1, 1, 2, 2, 2, 2, 2, 2 }, statistics.getCumulativeBucketCounts() );
+
+    // Only a dbcp pool tells how many connections it has
+    //
+    assertEquals( -1, statistics.getActive() );
+    assertNull( statistics.getMaxTotal() );
+  }
+
+  @Test
+  public void testTimeoutsAndFailures() {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "db", "p1" );
+    BasicDataSource dataSource = mock( BasicDataSource.class );
+    when( dataSource.getNumActive() ).thenReturn( 10 );
+    when( dataSource.getMaxTotal() ).thenReturn( 10 );
+
+    statistics.failed( dataSource, new SQLException( "Cannot get a connection, pool error Timeout waiting for idle "
+      + "object", new NoSuchElementException( "Timeout waiting for idle object" ) ) );
+    statistics.failed( dataSource, new SQLException( "Connection refused" ) );
+
+    assertEquals( 1, statistics.getTimeouts() );
+    assertEquals( 1, statistics.getFailures() );
+    assertEquals( 0, statistics.getBorrows() );
+    assertEquals( 10, statistics.getActive() );
+    assertEquals( Integer.valueOf( 10 ), statistics.getMaxTotal() );
+  }
+}
@@ -49,6 +49,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.List;
 import java.util.Properties;
@@ -73,6 +74,7 @@ import org.pentaho.di.core.exception.KettleDatabaseBatchException;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaNumber;
@@ -275,6 +277,72 @@ public class DatabaseTest {
     verify( rsMetaData, times( 1 ) ).getColumnCount();
   }
 
+  @Test
+  public void testExecStatementReusesCachedStatement() throws Exception {
+    when( meta.getDatabaseInterface() ).thenReturn( databaseInterface );
+    when( databaseInterface.createSqlScriptParser() ).thenReturn( new SqlScriptParser( false ) );
+    when( meta.stripCR( anyString() ) ).thenAnswer( invocation -> invocation.getArgument( 0 ) );
+    when( conn.prepareStatement( anyString(), anyInt(), anyInt() ) ).thenReturn( ps );
+
+    Database db = new Database( log, meta );
+    db.setVariable( Const.KETTLE_DATABASE_STATEMENT_CACHE_SIZE, "10" );
+    db.setConnection( conn );
+    RowMetaInterface params = new RowMeta();
+    params.addValueMeta( new ValueMetaNumber( "salary" ) );
+    for ( int i = 0; i < 3; i++ ) {
+      db.execStatement( "UPDATE employees SET salary = ?", params, new Object[] { (double) i } );
+    }
+
+    verify( conn, times( 1 ) ).prepareStatement( anyString(), anyInt(), anyInt() );
+    verify( ps, times( 3 ) ).execute();
+    verify( ps, never() ).close();
+    assertEquals( 2, db.getStatementCache().getHits() );
+  }
+
+  @Test
+  public void testExecStatementWithoutParametersIsNotCached() throws Exception {
+    when( meta.getDatabaseInterface() ).thenReturn( databaseInterface );
+    when( databaseInterface.createSqlScriptParser() ).thenReturn( new SqlScriptParser( false ) );
+    when( meta.stripCR( anyString() ) ).thenAnswer( invocation -> invocation.getArgument( 0 ) );
+    Statement stmt = mock( Statement.class );
+    when( conn.createStatement() ).thenReturn( stmt );
+
+    Database db = new Database( log, meta );
+    db.setVariable( Const.KETTLE_DATABASE_STATEMENT_CACHE_SIZE, "10" );
+    db.setConnection( conn );
+    db.execStatement( "UPDATE employees SET salary = 1" );
+    db.execStatement( "UPDATE employees SET salary = 2" );
+
+    verify( conn, never() ).prepareStatement( anyString(), anyInt(), anyInt() );
+    verify( stmt, times( 2 ) ).close();
+    assertEquals( 0, db.getStatementCache().size() );
+  }
+
+  @Test
+  public void testOpenQueryResetsCachedStatement() throws Exception {
+    when( meta.stripCR( anyString() ) ).thenAnswer( invocation -> invocation.getArgument( 0 ) );
+    when( meta.supportsSetMaxRows() ).thenReturn( true );
+    when( meta.isFetchSizeSupported() ).thenReturn( true );
+    when( conn.prepareStatement( anyString(), anyInt(), anyInt() ) ).thenReturn( ps );
+    when( ps.executeQuery() ).thenReturn( rs );
+    when( rs.getMetaData() ).thenReturn( rsMetaData );
+    when( rsMetaData.getColumnCount() ).thenReturn( 0 );
+
+    Database db = new Database( log, meta );
+    db.setVariable( Const.KETTLE_DATABASE_STATEMENT_CACHE_SIZE, "10" );
+    db.setConnection( conn );
+    db.setQueryLimit( 10 );
+    db.openQuery( "SELECT * FROM employees", null, null, ResultSet.FETCH_REVERSE );
+    db.setQueryLimit( 0 );
+    db.openQuery( "SELECT * FROM employees", null, null, ResultSet.FETCH_FORWARD );
+
+    verify( conn, times( 1 ) ).prepareStatement( anyString(), anyInt(), anyInt() );
+    verify( ps, times( 1 ) ).setMaxRows( 10 );
+    verify( ps, times( 2 ) ).setMaxRows( 0 );
+    verify( ps, times( 2 ) ).setFetchSize( 0 );
+    verify( ps, times( 2 ) ).setFetchDirection( ResultSet.FETCH_FORWARD );
+  }
+
   @Test
   public void testCreateKettleDatabaseBatchExceptionNullUpdatesWhenSQLException() {
     assertNull( Database.createKettleDatabaseBatchException( "", new SQLException() ).getUpdateCounts() );
@@ -634,6 +702,34 @@ public class DatabaseTest {
     return conn;
   }
 
+  @Test
+  public void testPoolingByDefault() throws Exception {
+    DatabaseMeta mysql = new DatabaseMeta( "mysql", "MYSQL", "Native", "localhost", "db", "3306", "user", "pass" );
+    assertTrue( poolsByDefault( mysql ) );
+
+    // Extra options the database doesn't take in the URL are only passed on a direct connection
+    //
+    DatabaseMeta db2 = new DatabaseMeta( "db2", "DB2", "Native", "localhost", "db", "50000", "user", "pass" );
+    assertTrue( poolsByDefault( db2 ) );
+    db2.addExtraOption( "DB2", "currentSchema", "SALES" );
+    assertFalse( poolsByDefault( db2 ) );
+
+    // So are the user names of the partitions
+    //
+    PartitionDatabaseMeta partition = new PartitionDatabaseMeta( "p1", "host1", "3306", "db" );
+    mysql.setPartitioned( true );
+    mysql.setPartitioningInformation( new PartitionDatabaseMeta[] { partition } );
+    assertTrue( poolsByDefault( mysql ) );
+    partition.setUsername( "clusterUser" );
+    assertFalse( poolsByDefault( mysql ) );
+  }
+
+  private boolean poolsByDefault( DatabaseMeta databaseMeta ) {
+    Database db = new Database( log, databaseMeta );
+    db.setVariable( Const.KETTLE_DATABASE_POOLING_DEFAULT, "Y" );
+    return db.isUsingConnectionPool();
+  }
+
   @Test
   public void usesCustomDsProviderIfSet_Pooling() throws Exception {
     DatabaseMeta meta = new DatabaseMeta();
@@ -0,0 +1,61 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.PreparedStatement;
+
+import org.junit.Test;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+public class PreparedStatementCacheTest {
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() throws Exception {
+    PreparedStatementCache cache = new PreparedStatementCache( 2, mock( LogChannelInterface.class ) );
+    PreparedStatement a = mock( PreparedStatement.class );
+    PreparedStatement b = mock( PreparedStatement.class );
+    PreparedStatement c = mock( PreparedStatement.class );
+
+    assertNull( cache.get( "a" ) );
+    cache.put( "a", a );
+    assertNull( cache.get( "b" ) );
+    cache.put( "b", b );
+    assertSame( a, cache.get( "a" ) );
+
+    // b is the least recently used one
+    //
+    assertNull( cache.get( "c" ) );
+    cache.put( "c", c );
+    verify( b ).close();
+    verify( a, never() ).close();
+    assertNull( cache.get( "b" ) );
+    assertSame( c, cache.get( "c" ) );
+
+    assertEquals( 2, cache.getHits() );
+    assertEquals( 4, cache.getMisses() );
+    assertEquals( 1, cache.getEvictions() );
+    assertEquals( 2, cache.size() );
+
+    cache.clear();
+    verify( a ).close();
+    verify( c ).close();
+    assertEquals( 0, cache.size() );
+  }
+}
@@ -0,0 +1,123 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncLoggingDispatcherTest {
+
+  private static KettleLoggingEvent event( String text, LogLevel level ) {
+    return new KettleLoggingEvent( new LogMessage( text, "channel", level ), System.currentTimeMillis(), level );
+  }
+
+  @Test
+  public void testBlockingKeepsOrderPerThread() throws Exception {
+    LoggingBuffer buffer = new LoggingBuffer( 0 );
+    final List<KettleLoggingEvent> received = Collections.synchronizedList( new ArrayList<>() );
+    buffer.addLoggingEventListener( new KettleLoggingEventListener() {
+      @Override public void eventAdded( KettleLoggingEvent event ) {
+        received.add( event );
+      }
+    } );
+    LogChannelFileWriterBuffer fileWriter = new LogChannelFileWriterBuffer( "channel" );
+
+    final AsyncLoggingDispatcher dispatcher =
+      new AsyncLoggingDispatcher( buffer, 16, AsyncLoggingDispatcher.FullPolicy.BLOCK );
+    final int threads = 4;
+    final int eventsPerThread = 1000;
+
+    List<Thread> producers = new ArrayList<>();
+    for ( int t = 0; t < threads; t++ ) {
+      final String prefix = "t" + t + "-";
+      Thread producer = new Thread( () -> {
+        for ( int i = 0; i < eventsPerThread; i++ ) {
+          dispatcher.dispatch( event( prefix + i, LogLevel.BASIC ), fileWriter );
+        }
+      } );
+      producers.add( producer );
+      producer.start();
+    }
+    for ( Thread producer : producers ) {
+      producer.join();
+    }
+    assertTrue( dispatcher.flush( 10000 ) );
+    dispatcher.shutdown( 1000 );
+
+    assertEquals( threads * eventsPerThread, received.size() );
+    assertEquals( threads * eventsPerThread, buffer.getNrLines() );
+    assertEquals( 0, dispatcher.getDroppedEvents() );
+    assertEquals( 0, dispatcher.getPendingEvents() );
+
+    int[] next = new int[ threads ];
+    for ( KettleLoggingEvent event : received ) {
+      String[] parts = ( (LogMessage) event.getMessage() ).getMessage().substring( 1 ).split( "-" );
+      int thread = Integer.parseInt( parts[0] );
+      assertEquals( next[thread]++, Integer.parseInt( parts[1] ) );
+    }
+
+    String fileText = fileWriter.getBuffer().toString();
+    assertTrue( fileText.contains( "t0-999" ) );
+  }
+
+  @Test
+  public void testDropWhenFull() throws Exception {
+    LoggingBuffer buffer = new LoggingBuffer( 0 );
+    final CountDownLatch entered = new CountDownLatch( 1 );
+    final CountDownLatch release = new CountDownLatch( 1 );
+    buffer.addLoggingEventListener( new KettleLoggingEventListener() {
+      @Override public void eventAdded( KettleLoggingEvent event ) {
+        entered.countDown();
+        try {
+          release.await();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    } );
+
+    AsyncLoggingDispatcher dispatcher = new AsyncLoggingDispatcher( buffer, 2, AsyncLoggingDispatcher.FullPolicy.DROP );
+    assertEquals( 2, dispatcher.getCapacity() );
+
+    // The dispatcher thread gets stuck in the listener with the first event
+    //
+    assertTrue( dispatcher.dispatch( event( "first", LogLevel.BASIC ), null ) );
+    assertTrue( entered.await( 10, TimeUnit.SECONDS ) );
+
+    assertTrue( dispatcher.dispatch( event( "second", LogLevel.BASIC ), null ) );
+    assertTrue( dispatcher.dispatch( event( "third", LogLevel.BASIC ), null ) );
+    assertFalse( dispatcher.dispatch( event( "fourth", LogLevel.BASIC ), null ) );
+    assertEquals( 1, dispatcher.getDroppedEvents() );
+
+    release.countDown();
+    assertTrue( dispatcher.flush( 10000 ) );
+    dispatcher.shutdown( 1000 );
+    assertEquals( 3, buffer.getNrLines() );
+  }
+
+  @Test
+  public void testFullPolicyCodes() {
+    assertEquals( AsyncLoggingDispatcher.FullPolicy.DROP, AsyncLoggingDispatcher.FullPolicy.getPolicy( "drop" ) );
+    assertEquals( AsyncLoggingDispatcher.FullPolicy.BLOCK, AsyncLoggingDispatcher.FullPolicy.getPolicy( "BLOCK" ) );
+    assertEquals( AsyncLoggingDispatcher.FullPolicy.BLOCK, AsyncLoggingDispatcher.FullPolicy.getPolicy( null ) );
+  }
+}
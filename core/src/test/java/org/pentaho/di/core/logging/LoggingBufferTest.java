@@ -16,15 +16,21 @@ package org.pentaho.di.core.logging;
 
 import org.junit.Assert;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.pentaho.di.core.Const;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class LoggingBufferTest {
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Test
   public void testRaceCondition() throws Exception {
 
@@ -179,4 +185,166 @@ public class LoggingBufferTest {
     Assert.assertEquals( 10, loggingBuffer.size() );
   }
 
+  @Test
+  public void testGetLinesAfter() {
+    String logChannelId = "cursor-1";
+    String otherLogChannelId = "cursor-2";
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 100 );
+    for ( int i = 0; i < 10; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "line " + i, logChannelId, LogLevel.BASIC ) );
+      loggingBuffer.addLogggingEvent( event );
+      event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "other " + i, otherLogChannelId, LogLevel.BASIC ) );
+      loggingBuffer.addLogggingEvent( event );
+    }
+
+    LoggingBufferSegment segment = loggingBuffer.getLinesAfter( logChannelId, 0, 4 );
+    Assert.assertEquals( 4, segment.getLines().size() );
+    Assert.assertTrue( segment.hasMore() );
+    Assert.assertEquals( "line 3", ( (LogMessage) segment.getLines().get( 3 ).getEvent().getMessage() ).getMessage() );
+
+    segment = loggingBuffer.getLinesAfter( logChannelId, segment.getLastLineNr(), 0 );
+    Assert.assertEquals( 6, segment.getLines().size() );
+    Assert.assertFalse( segment.hasMore() );
+    Assert.assertEquals( "line 4", ( (LogMessage) segment.getLines().get( 0 ).getEvent().getMessage() ).getMessage() );
+
+    int lastLineNr = segment.getLastLineNr();
+    segment = loggingBuffer.getLinesAfter( logChannelId, lastLineNr, 0 );
+    Assert.assertTrue( segment.getLines().isEmpty() );
+    Assert.assertEquals( lastLineNr, segment.getLastLineNr() );
+
+    loggingBuffer.removeChannelFromBuffer( logChannelId );
+    Assert.assertTrue( loggingBuffer.getLinesAfter( logChannelId, 0, 0 ).getLines().isEmpty() );
+    Assert.assertEquals( 10, loggingBuffer.getLinesAfter( otherLogChannelId, 0, 0 ).getLines().size() );
+  }
+
+  @Test
+  public void testExecutionSizeLimitWithSpill() throws Exception {
+    String logChannelId = "execution-1";
+    String otherLogChannelId = "execution-2";
+    LogSpillStore spillStore = new LogSpillStore( temporaryFolder.newFolder( "spill" ) );
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    loggingBuffer.setMaxExecutionBytes( 2000 );
+    loggingBuffer.setSpillStore( spillStore );
+
+    for ( int i = 0; i < 100; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "line " + i, logChannelId, LogLevel.BASIC ) );
+      loggingBuffer.addLogggingEvent( event );
+    }
+    KettleLoggingEvent otherEvent = new KettleLoggingEvent();
+    otherEvent.setMessage( new LogMessage( "other", otherLogChannelId, LogLevel.BASIC ) );
+    loggingBuffer.addLogggingEvent( otherEvent );
+
+    // The oldest lines of the execution were evicted to disk, the other execution is not affected
+    //
+    Assert.assertTrue( loggingBuffer.getExecutionBytes( logChannelId ) <= 2000 );
+    List<BufferLine> lines = loggingBuffer.getLinesAfter( logChannelId, 0, 0 ).getLines();
+    Assert.assertTrue( lines.size() < 100 );
+    Assert.assertEquals( "line 99", ( (LogMessage) lines.get( lines.size() - 1 ).getEvent().getMessage() ).getMessage() );
+    Assert.assertEquals( 1, loggingBuffer.getLinesAfter( otherLogChannelId, 0, 0 ).getLines().size() );
+
+    String spilled = loggingBuffer.getSpilledLog( logChannelId );
+    Assert.assertTrue( spilled.contains( "line 0" + Const.CR ) );
+    Assert.assertFalse( spilled.contains( "line 99" ) );
+    Assert.assertEquals( 2, loggingBuffer.getNrExecutions() );
+
+    loggingBuffer.removeExecutionFromBuffer( logChannelId );
+    Assert.assertTrue( loggingBuffer.getLinesAfter( logChannelId, 0, 0 ).getLines().isEmpty() );
+    Assert.assertEquals( "", loggingBuffer.getSpilledLog( logChannelId ) );
+    Assert.assertEquals( 0, loggingBuffer.getExecutionBytes( logChannelId ) );
+    Assert.assertEquals( 1, loggingBuffer.getNrLines() );
+    Assert.assertEquals( 1, loggingBuffer.getNrExecutions() );
+  }
+
+  @Test
+  public void testExecutionLinesReleasedOnEveryRemoval() {
+    String logChannelId = "execution-1";
+    String otherLogChannelId = "execution-2";
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    loggingBuffer.setMaxExecutionBytes( 1000000 );
+
+    // Every other line is old, so removing the old lines takes lines from the middle of the execution
+    //
+    for ( int i = 0; i < 20; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent( new LogMessage( "line " + i, logChannelId, LogLevel.BASIC ),
+        i % 2 == 0 ? 1L : 1000L, LogLevel.BASIC );
+      loggingBuffer.addLogggingEvent( event );
+    }
+    KettleLoggingEvent otherEvent = new KettleLoggingEvent();
+    otherEvent.setMessage( new LogMessage( "other", otherLogChannelId, LogLevel.BASIC ) );
+    loggingBuffer.addLogggingEvent( otherEvent );
+    Assert.assertEquals( 20, loggingBuffer.getExecutionNrLines( logChannelId ) );
+
+    loggingBuffer.removeBufferLinesBefore( 500L );
+    Assert.assertEquals( 10, loggingBuffer.getExecutionNrLines( logChannelId ) );
+
+    loggingBuffer.removeChannelFromBuffer( otherLogChannelId );
+    Assert.assertEquals( 0, loggingBuffer.getExecutionNrLines( otherLogChannelId ) );
+    Assert.assertEquals( 0, loggingBuffer.getExecutionBytes( otherLogChannelId ) );
+
+    // The buffer size limit evicts the oldest lines of the buffer
+    //
+    loggingBuffer.setMaxNrLines( 4 );
+    KettleLoggingEvent event = new KettleLoggingEvent();
+    event.setMessage( new LogMessage( "last", logChannelId, LogLevel.BASIC ) );
+    loggingBuffer.addLogggingEvent( event );
+    Assert.assertEquals( 4, loggingBuffer.getExecutionNrLines( logChannelId ) );
+  }
+
+  @Test
+  public void testLinesAfterWaitsForLinesBeingAdded() throws Exception {
+    String logChannelId = "cursor-slow";
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 100 );
+    CountDownLatch numbered = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+
+    // The first line has its number but isn't indexed yet when the second line is added
+    //
+    KettleLoggingEvent slowEvent = new KettleLoggingEvent();
+    slowEvent.setMessage( new LogMessage( "slow", logChannelId, LogLevel.BASIC ) {
+      @Override
+      public String getLogChannelId() {
+        numbered.countDown();
+        try {
+          release.await();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+        return super.getLogChannelId();
+      }
+    } );
+    Thread slow = new Thread( () -> loggingBuffer.addLogggingEvent( slowEvent ) );
+    slow.start();
+    numbered.await();
+    KettleLoggingEvent event = new KettleLoggingEvent();
+    event.setMessage( new LogMessage( "fast", logChannelId, LogLevel.BASIC ) );
+    loggingBuffer.addLogggingEvent( event );
+
+    LoggingBufferSegment segment = loggingBuffer.getLinesAfter( logChannelId, 0, 0 );
+    Assert.assertTrue( segment.getLines().isEmpty() );
+
+    release.countDown();
+    slow.join();
+    segment = loggingBuffer.getLinesAfter( logChannelId, segment.getLastLineNr(), 0 );
+    Assert.assertEquals( 2, segment.getLines().size() );
+    Assert.assertEquals( "slow", ( (LogMessage) segment.getLines().get( 0 ).getEvent().getMessage() ).getMessage() );
+  }
+
+  @Test
+  public void testEvictionKeepsExecutionConsistent() {
+    String logChannelId = "execution-1";
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    loggingBuffer.setMaxExecutionBytes( 2000 );
+    for ( int i = 0; i < 1000; i++ ) {
+      KettleLoggingEvent event = new KettleLoggingEvent();
+      event.setMessage( new LogMessage( "line " + i, logChannelId, LogLevel.BASIC ) );
+      loggingBuffer.addLogggingEvent( event );
+    }
+
+    Assert.assertTrue( loggingBuffer.getExecutionBytes( logChannelId ) <= 2000 );
+    Assert.assertEquals( loggingBuffer.size(), loggingBuffer.getExecutionNrLines( logChannelId ) );
+    Assert.assertEquals( loggingBuffer.size(), loggingBuffer.getLinesAfter( logChannelId, 0, 0 ).getLines().size() );
+  }
 }
@@ -0,0 +1,94 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleXMLException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+public class StaxDocumentLoaderTest {
+
+  private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+    + "<transformation>\n"
+    + "  <!-- a comment -->\n"
+    + "  <step>\n"
+    + "    <name>CSV input</name>\n"
+    + "    <separator> </separator>\n"
+    + "    <enclosure/>\n"
+    + "    <sql><![CDATA[SELECT * FROM t WHERE a < 1]]></sql>\n"
+    + "    <field name=\"id\" type=\"Integer\"/>\n"
+    + "  </step>\n"
+    + "  <step>\n"
+    + "    <name>Dummy</name>\n"
+    + "  </step>\n"
+    + "</transformation>\n";
+
+  private static Document load( String xml ) throws KettleXMLException {
+    return StaxDocumentLoader.load( new ByteArrayInputStream( xml.getBytes( StandardCharsets.UTF_8 ) ) );
+  }
+
+  @Test
+  public void testCompactDocument() throws Exception {
+    Node transNode = XMLHandler.getSubNode( load( XML ), "transformation" );
+
+    // Only the two steps are left, no comments or indentation
+    assertEquals( 2, transNode.getChildNodes().getLength() );
+    assertEquals( 2, XMLHandler.countNodes( transNode, "step" ) );
+
+    Node stepNode = XMLHandler.getSubNodeByNr( transNode, "step", 0 );
+    assertEquals( 5, stepNode.getChildNodes().getLength() );
+    assertEquals( "CSV input", XMLHandler.getTagValue( stepNode, "name" ) );
+    assertEquals( "Dummy", XMLHandler.getTagValue( XMLHandler.getSubNodeByNr( transNode, "step", 1 ), "name" ) );
+  }
+
+  @Test
+  public void testValuesAreKept() throws Exception {
+    Node stepNode = XMLHandler.getSubNodeByNr( XMLHandler.getSubNode( load( XML ), "transformation" ), "step", 0 );
+
+    assertEquals( " ", XMLHandler.getTagValue( stepNode, "separator" ) );
+    assertNull( XMLHandler.getTagValue( stepNode, "enclosure" ) );
+    assertEquals( "SELECT * FROM t WHERE a < 1", XMLHandler.getTagValue( stepNode, "sql" ) );
+
+    Node fieldNode = XMLHandler.getSubNode( stepNode, "field" );
+    assertEquals( "id", XMLHandler.getTagAttribute( fieldNode, "name" ) );
+    assertEquals( "Integer", XMLHandler.getTagAttribute( fieldNode, "type" ) );
+  }
+
+  @Test
+  public void testSameValuesAsDomLoader() throws Exception {
+    Document dom = XMLHandler.loadXMLString( XML );
+    Document stax = load( XML );
+    Node domStep = XMLHandler.getSubNodeByNr( XMLHandler.getSubNode( dom, "transformation" ), "step", 0 );
+    Node staxStep = XMLHandler.getSubNodeByNr( XMLHandler.getSubNode( stax, "transformation" ), "step", 0 );
+    for ( String tag : new String[] { "name", "separator", "enclosure", "sql" } ) {
+      assertEquals( tag, XMLHandler.getTagValue( domStep, tag ), XMLHandler.getTagValue( staxStep, tag ) );
+    }
+  }
+
+  @Test( expected = KettleXMLException.class )
+  public void testInvalidXml() throws Exception {
+    load( "<transformation><step></transformation>" );
+  }
+
+  @Test( expected = KettleXMLException.class )
+  public void testDoctypeIsRejected() throws Exception {
+    load( "<?xml version=\"1.0\"?><!DOCTYPE foo [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]><foo>&xxe;</foo>" );
+  }
+}
@@ -149,6 +149,8 @@ public class LogChannelFileWriter {
   }
 
   public void stopLogging() {
+    // Lines still queued by the asynchronous logging need to make it into the file
+    KettleLogStore.flush();
     flush();
     active.set( false );
     while ( !finished.get() ) {
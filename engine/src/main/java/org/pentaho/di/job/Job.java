@@ -67,6 +67,7 @@ import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LogStatus;
+import org.pentaho.di.core.logging.LogTableBatchWriter;
 import org.pentaho.di.core.logging.LoggingBuffer;
 import org.pentaho.di.core.logging.LoggingHierarchy;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
@@ -1222,6 +1223,15 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
     }
     // end PDI-7070
 
+    if ( LogTableBatchWriter.isEnabled( this ) ) {
+      LogTableBatchWriter writer = LogTableBatchWriter.getWriter( channelLogTable.getDatabaseMeta(), this );
+      for ( LoggingHierarchy loggingHierarchy : getLoggingHierarchy() ) {
+        writer.write( channelLogTable, LogStatus.START, loggingHierarchy, null, this );
+      }
+      writer.cleanup( channelLogTable, getJobname(), this );
+      return;
+    }
+
     try {
       db = new Database( this, channelLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
@@ -1257,6 +1267,16 @@ public class Job extends Thread implements VariableSpace, NamedParams, HasLogCha
   protected void writeJobEntryLogInformation() throws KettleException {
     Database db = null;
     JobEntryLogTable jobEntryLogTable = getJobMeta().getJobEntryLogTable();
+
+    if ( LogTableBatchWriter.isEnabled( this ) ) {
+      LogTableBatchWriter writer = LogTableBatchWriter.getWriter( jobEntryLogTable.getDatabaseMeta(), this );
+      for ( JobEntryCopy copy : getJobMeta().getJobCopies() ) {
+        writer.write( jobEntryLogTable, LogStatus.START, copy, this, this );
+      }
+      writer.cleanup( jobEntryLogTable, getName(), this );
+      return;
+    }
+
     try {
       db = createDataBase( jobEntryLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
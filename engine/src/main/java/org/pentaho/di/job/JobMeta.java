@@ -66,6 +66,7 @@ import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.util.StringUtil;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.core.xml.StaxDocumentLoader;
 import org.pentaho.di.core.xml.XMLFormatter;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.core.xml.XMLInterface;
@@ -844,7 +845,9 @@ public class JobMeta extends AbstractMeta
     this.bowl = Objects.requireNonNull( bowl );
     try {
       // OK, try to load using the VFS stuff...
-      Document doc = XMLHandler.loadXMLFile( KettleVFS.getInstance( bowl ).getFileObject( fname, this ) );
+      FileObject jobFile = KettleVFS.getInstance( bowl ).getFileObject( fname, this );
+      Document doc =
+        StaxDocumentLoader.isEnabled() ? StaxDocumentLoader.load( jobFile ) : XMLHandler.loadXMLFile( jobFile );
       if ( doc != null ) {
         // The jobnode
         Node jobnode = XMLHandler.getSubNode( doc, XML_TAG );
@@ -870,7 +873,8 @@ public class JobMeta extends AbstractMeta
    */
   public JobMeta( InputStream inputStream, Repository rep, OverwritePrompter prompter ) throws KettleXMLException {
     this();
-    Document doc = XMLHandler.loadXMLFile( inputStream, null, false, false );
+    Document doc = StaxDocumentLoader.isEnabled() ? StaxDocumentLoader.load( inputStream )
+      : XMLHandler.loadXMLFile( inputStream, null, false, false );
     loadXML( XMLHandler.getSubNode( doc, JobMeta.XML_TAG ), rep, prompter );
   }
 
@@ -1105,10 +1109,7 @@ public class JobMeta extends AbstractMeta
 
       // Read the named parameters.
       Node paramsNode = XMLHandler.getSubNode( jobnode, XML_TAG_PARAMETERS );
-      int nrParams = XMLHandler.countNodes( paramsNode, "parameter" );
-
-      for ( int i = 0; i < nrParams; i++ ) {
-        Node paramNode = XMLHandler.getSubNodeByNr( paramsNode, "parameter", i );
+      for ( Node paramNode : XMLHandler.getNodes( paramsNode, "parameter" ) ) {
 
         String paramName = XMLHandler.getTagValue( paramNode, "name" );
         String defValue = XMLHandler.getTagValue( paramNode, "default_value" );
@@ -1120,9 +1121,7 @@ public class JobMeta extends AbstractMeta
       //
       // Read the database connections
       //
-      int nr = XMLHandler.countNodes( jobnode, "connection" );
-      for ( int i = 0; i < nr; i++ ) {
-        Node dbnode = XMLHandler.getSubNodeByNr( jobnode, "connection", i );
+      for ( Node dbnode : XMLHandler.getNodes( jobnode, "connection" ) ) {
         DatabaseMeta dbcon = new DatabaseMeta( dbnode );
         dbcon.shareVariablesWith( this );
         localDbMgr.add( dbcon );
@@ -1133,9 +1132,7 @@ public class JobMeta extends AbstractMeta
       // Read the slave servers...
       //
       Node slaveServersNode = XMLHandler.getSubNode( jobnode, XML_TAG_SLAVESERVERS );
-      int nrSlaveServers = XMLHandler.countNodes( slaveServersNode, SlaveServer.XML_TAG );
-      for ( int i = 0; i < nrSlaveServers; i++ ) {
-        Node slaveServerNode = XMLHandler.getSubNodeByNr( slaveServersNode, SlaveServer.XML_TAG, i );
+      for ( Node slaveServerNode : XMLHandler.getNodes( slaveServersNode, SlaveServer.XML_TAG ) ) {
         SlaveServer slaveServer = new SlaveServer( slaveServerNode );
         slaveServer.shareVariablesWith( this );
         localSlaveServerMgr.add( slaveServer );
@@ -1176,9 +1173,7 @@ public class JobMeta extends AbstractMeta
        * read the job entries...
        */
       Node entriesnode = XMLHandler.getSubNode( jobnode, "entries" );
-      int tr = XMLHandler.countNodes( entriesnode, "entry" );
-      for ( int i = 0; i < tr; i++ ) {
-        Node entrynode = XMLHandler.getSubNodeByNr( entriesnode, "entry", i );
+      for ( Node entrynode : XMLHandler.getNodes( entriesnode, "entry" ) ) {
         // System.out.println("Reading entry:\n"+entrynode);
 
         JobEntryCopy je = new JobEntryCopy( entrynode, getDatabases(), getSlaveServers(), rep, metaStore );
@@ -1218,18 +1213,14 @@ public class JobMeta extends AbstractMeta
       }
 
       Node hopsnode = XMLHandler.getSubNode( jobnode, "hops" );
-      int ho = XMLHandler.countNodes( hopsnode, "hop" );
-      for ( int i = 0; i < ho; i++ ) {
-        Node hopnode = XMLHandler.getSubNodeByNr( hopsnode, "hop", i );
+      for ( Node hopnode : XMLHandler.getNodes( hopsnode, "hop" ) ) {
         JobHopMeta hi = new JobHopMeta( hopnode, this );
         jobhops.add( hi );
       }
 
       // Read the notes...
       Node notepadsnode = XMLHandler.getSubNode( jobnode, "notepads" );
-      int nrnotes = XMLHandler.countNodes( notepadsnode, "notepad" );
-      for ( int i = 0; i < nrnotes; i++ ) {
-        Node notepadnode = XMLHandler.getSubNodeByNr( notepadsnode, "notepad", i );
+      for ( Node notepadnode : XMLHandler.getNodes( notepadsnode, "notepad" ) ) {
         NotePadMeta ni = new NotePadMeta( notepadnode );
         notes.add( ni );
       }
@@ -407,6 +407,48 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
     this.stepAttributesBuffer = stepAttributesBuffer;
   }
 
+  /**
+   * Get the buffered attribute rows of a single step. The buffer is sorted on the step ID so the rows of a step are
+   * found with a binary search instead of a scan of the attributes of the whole transformation.
+   *
+   * @param id_step the ID of the step
+   * @return the attribute rows of the step, described by {@link #getStepAttributesRowMeta()}, or an empty list if
+   *         the buffer isn't filled
+   * @throws KettleValueException in case the step ID can't be read from the buffer
+   */
+  public synchronized List<Object[]> getStepAttributesInBuffer( ObjectId id_step ) throws KettleValueException {
+    if ( stepAttributesBuffer == null || id_step == null ) {
+      return Collections.emptyList();
+    }
+    long id = new LongObjectId( id_step ).longValue();
+
+    // Find the first row of the step...
+    //
+    int low = 0;
+    int high = stepAttributesBuffer.size();
+    while ( low < high ) {
+      int middle = ( low + high ) >>> 1;
+      Long middleId = stepAttributesRowMeta.getInteger( stepAttributesBuffer.get( middle ), 0 );
+      if ( middleId != null && middleId < id ) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    // ... and the end of its range
+    //
+    int end = low;
+    while ( end < stepAttributesBuffer.size() ) {
+      Long rowId = stepAttributesRowMeta.getInteger( stepAttributesBuffer.get( end ), 0 );
+      if ( rowId == null || rowId != id ) {
+        break;
+      }
+      end++;
+    }
+    return stepAttributesBuffer.subList( low, end );
+  }
+
   private synchronized RowMetaAndData searchStepAttributeInBuffer( ObjectId id_step, String code, long nr )
     throws KettleValueException {
     int index = searchStepAttributeIndexInBuffer( id_step, code, nr );
@@ -1905,6 +1947,36 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
     return callRead( () -> database.getRows( sql, limit ) );
   }
 
+  /**
+   * Run a query with ID parameters and return all the rows in one go. Used to load all the rows that belong to a
+   * transformation or job with a single query instead of one query per row.
+   *
+   * @param sql the query with a ? placeholder for each of the IDs
+   * @param ids the ID parameters
+   * @return the rows, each one with the row metadata of the result set
+   * @throws KettleException in case the query fails
+   */
+  public List<RowMetaAndData> getRowsWithIDs( String sql, ObjectId... ids ) throws KettleException {
+    PreparedStatement ps = getPreparedStatement( sql );
+    RowMetaAndData parameter = getParameterMetaData( ids );
+
+    return callRead( new Callable<List<RowMetaAndData>>() {
+      @Override public List<RowMetaAndData> call() throws Exception {
+        ResultSet resultSet = database.openQuery( ps, parameter.getRowMeta(), parameter.getData() );
+        List<Object[]> rows = database.getRows( resultSet, 0, null );
+        RowMetaInterface rowMeta = database.getReturnRowMeta();
+
+        List<RowMetaAndData> result = new ArrayList<>( rows == null ? 0 : rows.size() );
+        if ( rows != null ) {
+          for ( Object[] row : rows ) {
+            result.add( new RowMetaAndData( rowMeta, row ) );
+          }
+        }
+        return result;
+      }
+    } );
+  }
+
   public RowMetaInterface getReturnRowMeta() throws KettleDatabaseException {
     return database.getReturnRowMeta();
   }
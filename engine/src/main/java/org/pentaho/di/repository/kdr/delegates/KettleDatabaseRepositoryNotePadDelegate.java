@@ -13,6 +13,8 @@
 
 package org.pentaho.di.repository.kdr.delegates;
 
+import java.util.List;
+
 import org.pentaho.di.core.NotePadMeta;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleDatabaseException;
@@ -21,6 +23,7 @@ import org.pentaho.di.core.gui.Point;
 import org.pentaho.di.core.row.value.ValueMetaBoolean;
 import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.repository.LongObjectId;
 import org.pentaho.di.repository.ObjectId;
 import org.pentaho.di.repository.kdr.KettleDatabaseRepository;
 
@@ -43,12 +46,46 @@ public class KettleDatabaseRepositoryNotePadDelegate extends KettleDatabaseRepos
       id_note );
   }
 
+  /**
+   * Get the R_NOTE rows of all the notes of a transformation in one query.
+   *
+   * @param id_transformation
+   *          the ID of the transformation
+   * @return the note rows
+   * @throws KettleException
+   */
+  public List<RowMetaAndData> getTransNotes( ObjectId id_transformation ) throws KettleException {
+    return repository.connectionDelegate.getRowsWithIDs( "SELECT * FROM "
+      + quoteTable( KettleDatabaseRepository.TABLE_R_NOTE ) + " WHERE "
+      + quote( KettleDatabaseRepository.FIELD_NOTE_ID_NOTE ) + " IN ( SELECT "
+      + quote( KettleDatabaseRepository.FIELD_TRANS_NOTE_ID_NOTE ) + " FROM "
+      + quoteTable( KettleDatabaseRepository.TABLE_R_TRANS_NOTE ) + " WHERE "
+      + quote( KettleDatabaseRepository.FIELD_TRANS_NOTE_ID_TRANSFORMATION ) + " = ? )", id_transformation );
+  }
+
   public NotePadMeta loadNotePadMeta( ObjectId id_note ) throws KettleException {
+    return loadNotePadMeta( id_note, null );
+  }
+
+  /**
+   * Create a note from an R_NOTE row that was already read, see {@link #getTransNotes(ObjectId)}.
+   *
+   * @param noteRow
+   *          the R_NOTE row of the note
+   * @return the note
+   * @throws KettleException
+   */
+  public NotePadMeta loadNotePadMeta( RowMetaAndData noteRow ) throws KettleException {
+    return loadNotePadMeta(
+      new LongObjectId( noteRow.getInteger( KettleDatabaseRepository.FIELD_NOTE_ID_NOTE, -1L ) ), noteRow );
+  }
+
+  private NotePadMeta loadNotePadMeta( ObjectId id_note, RowMetaAndData noteRow ) throws KettleException {
     NotePadMeta note = new NotePadMeta();
     try {
       note.setObjectId( id_note );
 
-      RowMetaAndData r = getNote( id_note );
+      RowMetaAndData r = noteRow != null ? noteRow : getNote( id_note );
       if ( r != null ) {
         note.setNote( r.getString( "VALUE_STR", "" ) );
         int x = (int) r.getInteger( "GUI_LOCATION_X", 0L );
@@ -111,6 +111,36 @@ public class KettleDatabaseRepositoryStepDelegate extends KettleDatabaseReposito
       quote( KettleDatabaseRepository.FIELD_STEP_ATTRIBUTE_ID_STEP_ATTRIBUTE ), id_step_attribute );
   }
 
+  /**
+   * Get the R_STEP rows of all the steps of a transformation in one query.
+   *
+   * @param id_transformation
+   *          the ID of the transformation
+   * @return the step rows
+   * @throws KettleException
+   */
+  public List<RowMetaAndData> getStepsOfTransformation( ObjectId id_transformation ) throws KettleException {
+    return repository.connectionDelegate.getRowsWithIDs( "SELECT * FROM "
+      + quoteTable( KettleDatabaseRepository.TABLE_R_STEP ) + " WHERE "
+      + quote( KettleDatabaseRepository.FIELD_STEP_ID_TRANSFORMATION ) + " = ?", id_transformation );
+  }
+
+  /**
+   * @return the codes of all the step types in the repository, mapped by step type ID
+   * @throws KettleException
+   */
+  public Map<Long, String> getStepTypeCodes() throws KettleException {
+    Map<Long, String> codes = new HashMap<Long, String>();
+    List<RowMetaAndData> rows = repository.connectionDelegate.getRowsWithIDs( "SELECT "
+      + quote( KettleDatabaseRepository.FIELD_STEP_TYPE_ID_STEP_TYPE ) + ", "
+      + quote( KettleDatabaseRepository.FIELD_STEP_TYPE_CODE ) + " FROM "
+      + quoteTable( KettleDatabaseRepository.TABLE_R_STEP_TYPE ) );
+    for ( RowMetaAndData row : rows ) {
+      codes.put( row.getInteger( 0, -1L ), row.getString( 1, null ) );
+    }
+    return codes;
+  }
+
   /**
    * Create a new step by loading the metadata from the specified repository.
    *
@@ -123,11 +153,35 @@ public class KettleDatabaseRepositoryStepDelegate extends KettleDatabaseReposito
    */
   public StepMeta loadStepMeta( ObjectId stepId, List<DatabaseMeta> databases,
     List<PartitionSchema> partitionSchemas ) throws KettleException {
+    return loadStepMeta( stepId, null, null, databases, partitionSchemas );
+  }
+
+  /**
+   * Create a new step from an R_STEP row that was already read, for example with
+   * {@link #getStepsOfTransformation(ObjectId)}. Together with the step attributes buffer this avoids the per step
+   * queries when all the steps of a transformation are loaded.
+   *
+   * @param stepRow
+   *          the R_STEP row of the step
+   * @param stepTypeCodes
+   *          the step type codes mapped by ID, see {@link #getStepTypeCodes()}
+   * @param databases
+   * @param partitionSchemas
+   * @throws KettleException
+   */
+  public StepMeta loadStepMeta( RowMetaAndData stepRow, Map<Long, String> stepTypeCodes,
+    List<DatabaseMeta> databases, List<PartitionSchema> partitionSchemas ) throws KettleException {
+    ObjectId stepId = new LongObjectId( stepRow.getInteger( KettleDatabaseRepository.FIELD_STEP_ID_STEP, -1L ) );
+    return loadStepMeta( stepId, stepRow, stepTypeCodes, databases, partitionSchemas );
+  }
+
+  private StepMeta loadStepMeta( ObjectId stepId, RowMetaAndData stepRow, Map<Long, String> stepTypeCodes,
+    List<DatabaseMeta> databases, List<PartitionSchema> partitionSchemas ) throws KettleException {
     StepMeta stepMeta = new StepMeta();
     PluginRegistry registry = PluginRegistry.getInstance();
 
     try {
-      RowMetaAndData r = getStep( stepId );
+      RowMetaAndData r = stepRow != null ? stepRow : getStep( stepId );
       if ( r != null ) {
         stepMeta.setObjectId( stepId );
 
@@ -135,9 +189,12 @@ public class KettleDatabaseRepositoryStepDelegate extends KettleDatabaseReposito
         stepMeta.setDescription( r.getString( KettleDatabaseRepository.FIELD_STEP_DESCRIPTION, null ) );
 
         long id_step_type = r.getInteger( KettleDatabaseRepository.FIELD_STEP_ID_STEP_TYPE, -1L );
-        RowMetaAndData steptyperow = getStepType( new LongObjectId( id_step_type ) );
-
-        stepMeta.setStepID( steptyperow.getString( KettleDatabaseRepository.FIELD_STEP_TYPE_CODE, null ) );
+        if ( stepTypeCodes != null && stepTypeCodes.containsKey( id_step_type ) ) {
+          stepMeta.setStepID( stepTypeCodes.get( id_step_type ) );
+        } else {
+          RowMetaAndData steptyperow = getStepType( new LongObjectId( id_step_type ) );
+          stepMeta.setStepID( steptyperow.getString( KettleDatabaseRepository.FIELD_STEP_TYPE_CODE, null ) );
+        }
         stepMeta.setDistributes( r.getBoolean( KettleDatabaseRepository.FIELD_STEP_DISTRIBUTE, true ) );
         int copies = (int) r.getInteger( KettleDatabaseRepository.FIELD_STEP_COPIES, 1 );
         String copiesString = r.getString( KettleDatabaseRepository.FIELD_STEP_COPIES_STRING, null );
@@ -430,7 +487,7 @@ public class KettleDatabaseRepositoryStepDelegate extends KettleDatabaseReposito
   private Map<String, Map<String, String>> loadStepAttributesMap( ObjectId stepId ) throws KettleException {
     Map<String, Map<String, String>> attributesMap = new HashMap<String, Map<String, String>>();
 
-    List<Object[]> attributeRows = repository.connectionDelegate.getStepAttributesBuffer();
+    List<Object[]> attributeRows = repository.connectionDelegate.getStepAttributesInBuffer( stepId );
     RowMetaInterface rowMeta = repository.connectionDelegate.getStepAttributesRowMeta();
     for ( Object[] attributeRow : attributeRows ) {
       String code = rowMeta.getString( attributeRow, KettleDatabaseRepository.FIELD_STEP_ATTRIBUTE_CODE, null );
@@ -466,11 +466,13 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
 
         // If no valid id is available in the database, then give error...
         if ( transMeta.getObjectId() != null ) {
-          ObjectId[] noteids = repository.getTransNoteIDs( transMeta.getObjectId() );
-          ObjectId[] stepids = repository.getStepIDs( transMeta.getObjectId() );
-          ObjectId[] hopids = getTransHopIDs( transMeta.getObjectId() );
+          // Read the notes, steps and hops in one query each, they are assembled in memory below
+          //
+          List<RowMetaAndData> noteRows = repository.notePadDelegate.getTransNotes( transMeta.getObjectId() );
+          List<RowMetaAndData> stepRows = repository.stepDelegate.getStepsOfTransformation( transMeta.getObjectId() );
+          List<RowMetaAndData> hopRows = getTransHops( transMeta.getObjectId() );
 
-          int nrWork = 3 + noteids.length + stepids.length + hopids.length;
+          int nrWork = 3 + noteRows.size() + stepRows.size() + hopRows.size();
 
           if ( monitor != null ) {
             monitor.beginTask( BaseMessages.getString( PKG, "TransMeta.Monitor.LoadingTransformationTask.Title" )
@@ -496,8 +498,8 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           if ( monitor != null ) {
             monitor.subTask( BaseMessages.getString( PKG, "TransMeta.Monitor.ReadingNoteTask.Title" ) );
           }
-          for ( int i = 0; i < noteids.length; i++ ) {
-            NotePadMeta ni = repository.notePadDelegate.loadNotePadMeta( noteids[i] );
+          for ( RowMetaAndData noteRow : noteRows ) {
+            NotePadMeta ni = repository.notePadDelegate.loadNotePadMeta( noteRow );
             if ( transMeta.indexOfNote( ni ) < 0 ) {
               transMeta.addNote( ni );
             }
@@ -509,19 +511,25 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           if ( monitor != null ) {
             monitor.subTask( BaseMessages.getString( PKG, "TransMeta.Monitor.ReadingStepsTask.Title" ) );
           }
-          repository.connectionDelegate.fillStepAttributesBuffer( transMeta.getObjectId() ); // read all the attributes
-                                                                                             // on one go!
-          for ( int i = 0; i < stepids.length; i++ ) {
+          // Read all the attributes in one go! The buffer is kept until the error handling is loaded as well.
+          //
+          repository.connectionDelegate.fillStepAttributesBuffer( transMeta.getObjectId() );
+          Map<Long, String> stepTypeCodes = repository.stepDelegate.getStepTypeCodes();
+          Map<ObjectId, StepMeta> stepsById = new HashMap<ObjectId, StepMeta>();
+          for ( int i = 0; i < stepRows.size(); i++ ) {
+            RowMetaAndData stepRow = stepRows.get( i );
             if ( log.isDetailed() ) {
-              log.logDetailed( BaseMessages.getString( PKG, "TransMeta.Log.LoadingStepWithID" ) + stepids[i] );
+              log.logDetailed( BaseMessages.getString( PKG, "TransMeta.Log.LoadingStepWithID" )
+                + stepRow.getInteger( KettleDatabaseRepository.FIELD_STEP_ID_STEP, -1L ) );
             }
             if ( monitor != null ) {
               monitor.subTask( BaseMessages.getString( PKG, "TransMeta.Monitor.ReadingStepTask.Title" )
-                + ( i + 1 ) + "/" + ( stepids.length ) );
+                + ( i + 1 ) + "/" + ( stepRows.size() ) );
             }
             StepMeta stepMeta =
-              repository.stepDelegate.loadStepMeta( stepids[i], transMeta.getDatabases(), transMeta
+              repository.stepDelegate.loadStepMeta( stepRow, stepTypeCodes, transMeta.getDatabases(), transMeta
                 .getPartitionSchemas() );
+            stepsById.put( stepMeta.getObjectId(), stepMeta );
             if ( stepMeta.isMissing() ) {
               transMeta.addMissingTrans( (MissingTrans) stepMeta.getStepMetaInterface() );
             }
@@ -536,7 +544,6 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           if ( monitor != null ) {
             monitor.worked( 1 );
           }
-          repository.connectionDelegate.setStepAttributesBuffer( null ); // clear the buffer (should be empty anyway)
 
           // Have all StreamValueLookups, etc. reference the correct source steps...
           for ( int i = 0; i < transMeta.nrSteps(); i++ ) {
@@ -556,8 +563,10 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           if ( monitor != null ) {
             monitor.subTask( BaseMessages.getString( PKG, "TransMeta.Monitor.ReadingHopTask.Title" ) );
           }
-          for ( int i = 0; i < hopids.length; i++ ) {
-            TransHopMeta hi = loadTransHopMeta( hopids[i], transMeta.getSteps() );
+          for ( RowMetaAndData hopRow : hopRows ) {
+            ObjectId hopId =
+              new LongObjectId( hopRow.getInteger( KettleDatabaseRepository.FIELD_TRANS_HOP_ID_TRANS_HOP, -1L ) );
+            TransHopMeta hi = loadTransHopMeta( hopId, hopRow, transMeta.getSteps(), stepsById );
             if ( hi != null ) {
               transMeta.addTransHop( hi );
             }
@@ -657,6 +666,7 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
         throw new KettleException( BaseMessages.getString(
           PKG, "TransMeta.Exception.DatabaseErrorOccuredReadingTransformation2" ), e );
       } finally {
+        repository.connectionDelegate.setStepAttributesBuffer( null ); // clear the buffer, also after a failure
         transMeta.initializeVariablesFrom( null );
         if ( setInternalVariables ) {
           transMeta.setInternalKettleVariables();
@@ -1106,29 +1116,44 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
   }
 
   public TransHopMeta loadTransHopMeta( ObjectId id_trans_hop, List<StepMeta> steps ) throws KettleException {
+    return loadTransHopMeta( id_trans_hop, null, steps, null );
+  }
+
+  /**
+   * Get the R_TRANS_HOP rows of all the hops of a transformation in one query.
+   *
+   * @param id_transformation
+   *          the ID of the transformation
+   * @return the hop rows
+   * @throws KettleException
+   */
+  public List<RowMetaAndData> getTransHops( ObjectId id_transformation ) throws KettleException {
+    return repository.connectionDelegate.getRowsWithIDs( "SELECT * FROM "
+      + quoteTable( KettleDatabaseRepository.TABLE_R_TRANS_HOP ) + " WHERE "
+      + quote( KettleDatabaseRepository.FIELD_TRANS_HOP_ID_TRANSFORMATION ) + " = ?", id_transformation );
+  }
+
+  private TransHopMeta loadTransHopMeta( ObjectId id_trans_hop, RowMetaAndData hopRow, List<StepMeta> steps,
+    Map<ObjectId, StepMeta> stepsById ) throws KettleException {
     TransHopMeta hopTransMeta = new TransHopMeta();
     try {
       hopTransMeta.setObjectId( id_trans_hop );
 
-      RowMetaAndData r = getTransHop( id_trans_hop );
+      RowMetaAndData r = hopRow != null ? hopRow : getTransHop( id_trans_hop );
 
       hopTransMeta.setEnabled( r.getBoolean( "ENABLED", false ) );
 
       long id_step_from = r.getInteger( "ID_STEP_FROM", 0 );
       long id_step_to = r.getInteger( "ID_STEP_TO", 0 );
 
-      StepMeta fromStep = StepMeta.findStep( steps, new LongObjectId( id_step_from ) );
+      StepMeta fromStep = findStep( steps, stepsById, new LongObjectId( id_step_from ) );
 
       // Links to a shared objects, try again by looking up the name...
       //
       if ( fromStep == null && id_step_from > 0 ) {
-        // Simply load this, we only want the name, we don't care about the
-        // rest...
+        // We only want the name, we don't care about the rest...
         //
-        StepMeta stepMeta =
-          repository.stepDelegate.loadStepMeta(
-            new LongObjectId( id_step_from ), new ArrayList<DatabaseMeta>(), new ArrayList<PartitionSchema>() );
-        fromStep = StepMeta.findStep( steps, stepMeta.getName() );
+        fromStep = StepMeta.findStep( steps, getStepName( new LongObjectId( id_step_from ) ) );
       }
 
       if ( fromStep == null ) {
@@ -1139,17 +1164,14 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
 
       hopTransMeta.getFromStep().setDraw( true );
 
-      hopTransMeta.setToStep( StepMeta.findStep( steps, new LongObjectId( id_step_to ) ) );
+      hopTransMeta.setToStep( findStep( steps, stepsById, new LongObjectId( id_step_to ) ) );
 
       // Links to a shared objects, try again by looking up the name...
       //
       if ( hopTransMeta.getToStep() == null && id_step_to > 0 ) {
-        // Simply load this, we only want the name, we don't care about
-        // the rest...
-        StepMeta stepMeta =
-          repository.stepDelegate.loadStepMeta(
-            new LongObjectId( id_step_to ), new ArrayList<DatabaseMeta>(), new ArrayList<PartitionSchema>() );
-        hopTransMeta.setToStep( StepMeta.findStep( steps, stepMeta.getName() ) );
+        // We only want the name, we don't care about the rest...
+        //
+        hopTransMeta.setToStep( StepMeta.findStep( steps, getStepName( new LongObjectId( id_step_to ) ) ) );
       }
 
       if ( hopTransMeta.getFromStep() == null ) {
@@ -1166,6 +1188,14 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
     }
   }
 
+  private static StepMeta findStep( List<StepMeta> steps, Map<ObjectId, StepMeta> stepsById, ObjectId id_step ) {
+    return stepsById != null ? stepsById.get( id_step ) : StepMeta.findStep( steps, id_step );
+  }
+
+  private String getStepName( ObjectId id_step ) throws KettleException {
+    return repository.stepDelegate.getStep( id_step ).getString( KettleDatabaseRepository.FIELD_STEP_NAME, null );
+  }
+
   public synchronized int getNrTransformations( ObjectId id_directory ) throws KettleException {
     int retval = 0;
 
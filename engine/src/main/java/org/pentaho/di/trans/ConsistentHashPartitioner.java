@@ -0,0 +1,193 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleXMLException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.Repository;
+import org.w3c.dom.Node;
+
+/**
+ * Places the partitions on a hash ring, every partition on a number of virtual nodes hashed from its partition ID. A
+ * row goes to the first node on the ring after the hash of the partitioning field. When a partition is added or
+ * removed only the rows of the ring segments it takes over or gives up change partition, unlike the modulo of the
+ * {@link ModPartitioner} that moves almost all of them.
+ */
+public class ConsistentHashPartitioner extends ModPartitioner {
+
+  public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+  private int virtualNodes = DEFAULT_VIRTUAL_NODES;
+
+  private volatile Ring ring;
+
+  public ConsistentHashPartitioner() {
+    super();
+  }
+
+  public Partitioner getInstance() {
+    Partitioner partitioner = new ConsistentHashPartitioner();
+    partitioner.setId( getId() );
+    partitioner.setDescription( getDescription() );
+    return partitioner;
+  }
+
+  public ConsistentHashPartitioner clone() {
+    ConsistentHashPartitioner partitioner = (ConsistentHashPartitioner) super.clone();
+    partitioner.virtualNodes = virtualNodes;
+
+    // The clone can be used with another partition schema, let it build its own ring
+    //
+    partitioner.ring = null;
+
+    return partitioner;
+  }
+
+  public int getPartition( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    long value = getPartitionValue( rowMeta, row );
+
+    Ring currentRing = ring;
+    if ( currentRing == null ) {
+      currentRing = ring = new Ring( getPartitionIds(), virtualNodes );
+    }
+    return currentRing.getPartition( mix( value ) );
+  }
+
+  private List<String> getPartitionIds() {
+    if ( meta != null && meta.getPartitionSchema() != null ) {
+      List<String> partitionIds = meta.getPartitionSchema().getPartitionIDs();
+      if ( partitionIds != null && partitionIds.size() == nrPartitions ) {
+        return partitionIds;
+      }
+    }
+    List<String> partitionIds = new ArrayList<>( nrPartitions );
+    for ( int i = 0; i < nrPartitions; i++ ) {
+      partitionIds.add( "P" + i );
+    }
+    return partitionIds;
+  }
+
+  public String getDescription() {
+    String description = "Consistent hash partitioner";
+    if ( !Utils.isEmpty( getFieldName() ) ) {
+      description += "(" + getFieldName() + ")";
+    }
+    return description;
+  }
+
+  public String getXML() {
+    StringBuilder xml = new StringBuilder( 150 );
+    xml.append( super.getXML() );
+    xml.append( "           " ).append( XMLHandler.addTagValue( "virtual_nodes", virtualNodes ) );
+    return xml.toString();
+  }
+
+  public void loadXML( Node partitioningMethodNode ) throws KettleXMLException {
+    super.loadXML( partitioningMethodNode );
+    virtualNodes =
+      Const.toInt( XMLHandler.getTagValue( partitioningMethodNode, "virtual_nodes" ), DEFAULT_VIRTUAL_NODES );
+  }
+
+  public void saveRep( Repository rep, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
+    super.saveRep( rep, id_transformation, id_step );
+    rep.saveStepAttribute( id_transformation, id_step, "PARTITIONING_VIRTUAL_NODES", virtualNodes );
+  }
+
+  public void loadRep( Repository rep, ObjectId id_step ) throws KettleException {
+    super.loadRep( rep, id_step );
+    long nodes = rep.getStepAttributeInteger( id_step, "PARTITIONING_VIRTUAL_NODES" );
+    virtualNodes = nodes == 0 ? DEFAULT_VIRTUAL_NODES : (int) nodes;
+  }
+
+  public int getVirtualNodes() {
+    return virtualNodes;
+  }
+
+  public void setVirtualNodes( int virtualNodes ) {
+    this.virtualNodes = virtualNodes;
+    ring = null;
+  }
+
+  /**
+   * The 64-bit finalizer of MurmurHash3, spreads the bits of hash codes and small integer keys over the ring.
+   */
+  static long mix( long value ) {
+    long h = value;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * A hash of a string that doesn't depend on the JVM, the same on every slave server.
+   */
+  static long hash( String value ) {
+    long h = 0xcbf29ce484222325L; // FNV-1a
+    for ( int i = 0; i < value.length(); i++ ) {
+      h ^= value.charAt( i );
+      h *= 0x100000001b3L;
+    }
+    return mix( h );
+  }
+
+  /**
+   * The sorted positions of the virtual nodes of all partitions.
+   */
+  static class Ring {
+    private final long[] positions;
+    private final int[] partitions;
+
+    Ring( List<String> partitionIds, int virtualNodes ) {
+      int nodes = Math.max( 1, virtualNodes );
+      long[][] entries = new long[ partitionIds.size() * nodes ][];
+      int index = 0;
+      for ( int partition = 0; partition < partitionIds.size(); partition++ ) {
+        for ( int node = 0; node < nodes; node++ ) {
+          entries[ index++ ] = new long[] { hash( partitionIds.get( partition ) + "#" + node ), partition };
+        }
+      }
+      Arrays.sort( entries, ( a, b ) -> a[0] != b[0] ? Long.compare( a[0], b[0] ) : Long.compare( a[1], b[1] ) );
+
+      positions = new long[ entries.length ];
+      partitions = new int[ entries.length ];
+      for ( int i = 0; i < entries.length; i++ ) {
+        positions[i] = entries[i][0];
+        partitions[i] = (int) entries[i][1];
+      }
+    }
+
+    int getPartition( long hash ) {
+      int index = Arrays.binarySearch( positions, hash );
+      if ( index < 0 ) {
+        index = -index - 1;
+        if ( index == positions.length ) {
+          index = 0;
+        }
+      }
+      return partitions[index];
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleXMLException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.Repository;
+import org.w3c.dom.Node;
+
+/**
+ * Partitions rows like the {@link ModPartitioner}, except for hot keys: once a key was seen in more than a number of
+ * rows, its next rows are spread round robin over all partitions so a skewed key doesn't overload one partition.<br>
+ * <br>
+ * Rows with the same key no longer all end up in the same partition. Only use it in front of associative aggregations
+ * (sum, count, min, max) of which the partial results per partition are combined again afterwards.<br>
+ * <br>
+ * The keys are counted approximately with a fixed number of counters (Misra-Gries) so the memory use doesn't depend on
+ * the number of distinct keys. A count is at most the number of rows divided by the number of counters too low.
+ */
+public class HotKeyPartitioner extends ModPartitioner {
+
+  public static final long DEFAULT_HOT_KEY_ROWS = 10000L;
+
+  static final int NR_COUNTERS = 1024;
+
+  private long hotKeyRows = DEFAULT_HOT_KEY_ROWS;
+
+  private Map<Long, long[]> counters = new HashMap<>();
+  private int nextPartition;
+
+  public HotKeyPartitioner() {
+    super();
+  }
+
+  public Partitioner getInstance() {
+    Partitioner partitioner = new HotKeyPartitioner();
+    partitioner.setId( getId() );
+    partitioner.setDescription( getDescription() );
+    return partitioner;
+  }
+
+  public HotKeyPartitioner clone() {
+    HotKeyPartitioner partitioner = (HotKeyPartitioner) super.clone();
+    partitioner.hotKeyRows = hotKeyRows;
+
+    // The hot keys of one step copy or execution are no business of the others
+    //
+    partitioner.counters = new HashMap<>();
+    partitioner.nextPartition = 0;
+
+    return partitioner;
+  }
+
+  public int getPartition( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    long value = getPartitionValue( rowMeta, row );
+
+    // The partitioner is shared by all copies of the step
+    //
+    synchronized ( counters ) {
+      if ( hotKeyRows > 0 && count( value ) > hotKeyRows ) {
+        nextPartition = ( nextPartition + 1 ) % nrPartitions;
+        return nextPartition;
+      }
+    }
+    return (int) ( Math.abs( value ) % nrPartitions );
+  }
+
+  /**
+   * Count another row of a key.
+   *
+   * @return the approximate number of rows seen for the key
+   */
+  private long count( long value ) {
+    long[] counter = counters.get( value );
+    if ( counter != null ) {
+      return ++counter[0];
+    }
+    if ( counters.size() < NR_COUNTERS ) {
+      counters.put( value, new long[] { 1L } );
+      return 1L;
+    }
+
+    // No counter left: count down all keys and drop the ones that reach 0.
+    // This happens at most once every NR_COUNTERS rows on average.
+    //
+    Iterator<long[]> iterator = counters.values().iterator();
+    while ( iterator.hasNext() ) {
+      if ( --iterator.next()[0] <= 0 ) {
+        iterator.remove();
+      }
+    }
+    return 0L;
+  }
+
+  public String getDescription() {
+    String description = "Hot key partitioner";
+    if ( !Utils.isEmpty( getFieldName() ) ) {
+      description += "(" + getFieldName() + ")";
+    }
+    return description;
+  }
+
+  public String getXML() {
+    StringBuilder xml = new StringBuilder( 150 );
+    xml.append( super.getXML() );
+    xml.append( "           " ).append( XMLHandler.addTagValue( "hot_key_rows", hotKeyRows ) );
+    return xml.toString();
+  }
+
+  public void loadXML( Node partitioningMethodNode ) throws KettleXMLException {
+    super.loadXML( partitioningMethodNode );
+    hotKeyRows =
+      Const.toLong( XMLHandler.getTagValue( partitioningMethodNode, "hot_key_rows" ), DEFAULT_HOT_KEY_ROWS );
+  }
+
+  public void saveRep( Repository rep, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
+    super.saveRep( rep, id_transformation, id_step );
+    rep.saveStepAttribute( id_transformation, id_step, "PARTITIONING_HOT_KEY_ROWS", hotKeyRows );
+  }
+
+  public void loadRep( Repository rep, ObjectId id_step ) throws KettleException {
+    super.loadRep( rep, id_step );
+    long rows = rep.getStepAttributeInteger( id_step, "PARTITIONING_HOT_KEY_ROWS" );
+    hotKeyRows = rows == 0 ? DEFAULT_HOT_KEY_ROWS : rows;
+  }
+
+  public long getHotKeyRows() {
+    return hotKeyRows;
+  }
+
+  public void setHotKeyRows( long hotKeyRows ) {
+    this.hotKeyRows = hotKeyRows;
+  }
+}
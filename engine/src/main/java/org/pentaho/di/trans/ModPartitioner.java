@@ -52,6 +52,19 @@ public class ModPartitioner extends BasePartitioner {
   }
 
   public int getPartition( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    long value = getPartitionValue( rowMeta, row );
+
+    int targetLocation = (int) ( Math.abs( value ) % nrPartitions );
+
+    return targetLocation;
+  }
+
+  /**
+   * Find the partitioning field in the row, once.
+   *
+   * @return the index of the partitioning field
+   */
+  protected int findPartitionColumn( RowMetaInterface rowMeta ) throws KettleException {
     init( rowMeta );
 
     if ( partitionColumnIndex < 0 ) {
@@ -61,15 +74,23 @@ public class ModPartitioner extends BasePartitioner {
           + fieldName + "] in the output row..." + rowMeta );
       }
     }
+    return partitionColumnIndex;
+  }
+
+  /**
+   * @return the value of an integer partitioning field or the hash code of any other value
+   */
+  protected long getPartitionValue( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    int index = findPartitionColumn( rowMeta );
 
     long value;
 
-    ValueMetaInterface valueMeta = rowMeta.getValueMeta( partitionColumnIndex );
-    Object valueData = row[partitionColumnIndex];
+    ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+    Object valueData = row[index];
 
     switch ( valueMeta.getType() ) {
       case ValueMetaInterface.TYPE_INTEGER:
-        Long longValue = rowMeta.getInteger( row, partitionColumnIndex );
+        Long longValue = rowMeta.getInteger( row, index );
         if ( longValue == null ) {
           value = valueMeta.hashCode( valueData );
         } else {
@@ -84,9 +105,7 @@ public class ModPartitioner extends BasePartitioner {
      * value = rowMeta.getInteger(row, partitionColumnIndex);
      */
 
-    int targetLocation = (int) ( Math.abs( value ) % nrPartitions );
-
-    return targetLocation;
+    return value;
   }
 
   public String getDescription() {
@@ -0,0 +1,206 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.exception.KettleXMLException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.Repository;
+import org.w3c.dom.Node;
+
+/**
+ * Sends rows to partitions by ranges of the partitioning field. The ranges are given by sorted boundaries: partition 0
+ * gets the values below the first boundary, partition 1 the values from the first boundary up to the second one and
+ * so on. Values from the last boundary onwards and null values go to the last partition. The boundaries are supplied
+ * or computed from a sample of the data with {@link #computeBoundaries(ValueMetaInterface, List, int)} so that every
+ * partition gets about the same number of rows.
+ */
+public class RangePartitioner extends ModPartitioner {
+
+  private List<String> boundaries = new ArrayList<>();
+
+  private volatile Object[] boundaryData;
+  private ValueMetaInterface boundaryMeta;
+
+  public RangePartitioner() {
+    super();
+  }
+
+  public Partitioner getInstance() {
+    Partitioner partitioner = new RangePartitioner();
+    partitioner.setId( getId() );
+    partitioner.setDescription( getDescription() );
+    return partitioner;
+  }
+
+  public RangePartitioner clone() {
+    RangePartitioner partitioner = (RangePartitioner) super.clone();
+    partitioner.boundaries = new ArrayList<>( boundaries );
+
+    return partitioner;
+  }
+
+  public int getPartition( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    int index = findPartitionColumn( rowMeta );
+    ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+    Object value = row[index];
+    if ( valueMeta.isNull( value ) ) {
+      return nrPartitions - 1;
+    }
+
+    Object[] data = boundaryData;
+    if ( data == null ) {
+      data = convertBoundaries( valueMeta );
+    }
+
+    // The number of boundaries smaller than or equal to the value
+    //
+    int low = 0;
+    int high = data.length;
+    while ( low < high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( valueMeta.compare( value, boundaryMeta, data[middle] ) >= 0 ) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return Math.min( low, nrPartitions - 1 );
+  }
+
+  private synchronized Object[] convertBoundaries( ValueMetaInterface valueMeta ) throws KettleValueException {
+    if ( boundaryData != null ) {
+      return boundaryData;
+    }
+    ValueMetaInterface stringMeta = new ValueMetaString( valueMeta.getName() );
+    stringMeta.setConversionMask( valueMeta.getConversionMask() );
+    ValueMetaInterface targetMeta = valueMeta.clone();
+    targetMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+
+    Object[] data = new Object[ boundaries.size() ];
+    for ( int i = 0; i < data.length; i++ ) {
+      data[i] = targetMeta.convertData( stringMeta, boundaries.get( i ) );
+    }
+    boundaryMeta = targetMeta;
+    boundaryData = data;
+    return data;
+  }
+
+  /**
+   * Compute the boundaries that split a sample of values in equally sized ranges.
+   *
+   * @param valueMeta    the metadata of the values
+   * @param sample       the sampled values, nulls are ignored
+   * @param nrPartitions the number of partitions
+   * @return nrPartitions - 1 sorted boundaries, fewer if the sample doesn't have enough distinct values
+   */
+  public static List<String> computeBoundaries( final ValueMetaInterface valueMeta, List<Object> sample,
+                                                int nrPartitions ) throws KettleValueException {
+    List<Object> values = new ArrayList<>( sample.size() );
+    for ( Object value : sample ) {
+      if ( !valueMeta.isNull( value ) ) {
+        values.add( value );
+      }
+    }
+    final KettleValueException[] error = new KettleValueException[ 1 ];
+    Collections.sort( values, ( a, b ) -> {
+      try {
+        return valueMeta.compare( a, b );
+      } catch ( KettleValueException e ) {
+        error[0] = e;
+        return 0;
+      }
+    } );
+    if ( error[0] != null ) {
+      throw error[0];
+    }
+
+    List<String> boundaries = new ArrayList<>();
+    Object previous = null;
+    for ( int i = 1; i < nrPartitions && !values.isEmpty(); i++ ) {
+      Object boundary = values.get( (int) ( (long) i * values.size() / nrPartitions ) );
+      if ( previous == null || valueMeta.compare( previous, boundary ) < 0 ) {
+        boundaries.add( valueMeta.getString( boundary ) );
+        previous = boundary;
+      }
+    }
+    return boundaries;
+  }
+
+  public String getDescription() {
+    String description = "Range partitioner";
+    if ( !Utils.isEmpty( getFieldName() ) ) {
+      description += "(" + getFieldName() + ")";
+    }
+    return description;
+  }
+
+  public String getXML() {
+    StringBuilder xml = new StringBuilder( 150 );
+    xml.append( super.getXML() );
+    xml.append( "           " ).append( XMLHandler.openTag( "boundaries" ) ).append( Const.CR );
+    for ( String boundary : boundaries ) {
+      xml.append( "             " ).append( XMLHandler.addTagValue( "boundary", boundary ) );
+    }
+    xml.append( "           " ).append( XMLHandler.closeTag( "boundaries" ) ).append( Const.CR );
+    return xml.toString();
+  }
+
+  public void loadXML( Node partitioningMethodNode ) throws KettleXMLException {
+    super.loadXML( partitioningMethodNode );
+    boundaries = new ArrayList<>();
+    Node boundariesNode = XMLHandler.getSubNode( partitioningMethodNode, "boundaries" );
+    for ( Node boundaryNode : XMLHandler.getNodes( boundariesNode, "boundary" ) ) {
+      boundaries.add( XMLHandler.getNodeValue( boundaryNode ) );
+    }
+    boundaryData = null;
+  }
+
+  public void saveRep( Repository rep, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
+    super.saveRep( rep, id_transformation, id_step );
+    for ( int i = 0; i < boundaries.size(); i++ ) {
+      rep.saveStepAttribute( id_transformation, id_step, i, "PARTITIONING_BOUNDARY", boundaries.get( i ) );
+    }
+  }
+
+  public void loadRep( Repository rep, ObjectId id_step ) throws KettleException {
+    super.loadRep( rep, id_step );
+    boundaries = new ArrayList<>();
+    int nrBoundaries = rep.countNrStepAttributes( id_step, "PARTITIONING_BOUNDARY" );
+    for ( int i = 0; i < nrBoundaries; i++ ) {
+      boundaries.add( rep.getStepAttributeString( id_step, i, "PARTITIONING_BOUNDARY" ) );
+    }
+    boundaryData = null;
+  }
+
+  public List<String> getBoundaries() {
+    return boundaries;
+  }
+
+  public void setBoundaries( List<String> boundaries ) {
+    this.boundaries = boundaries;
+    boundaryData = null;
+  }
+}
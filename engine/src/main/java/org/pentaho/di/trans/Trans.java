@@ -25,10 +25,12 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.Queue;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -84,6 +86,7 @@ import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LogStatus;
+import org.pentaho.di.core.logging.LogTableBatchWriter;
 import org.pentaho.di.core.logging.LoggingHierarchy;
 import org.pentaho.di.core.logging.LoggingMetric;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
@@ -1231,6 +1234,10 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.InitialisingSteps", String.valueOf( steps.size() ) ) );
     }
 
+    if ( !skipInit ) {
+      prepareConnectionPools();
+    }
+
     StepInitThread[] initThreads = new StepInitThread[ steps.size() ];
     Thread[] threads = new Thread[ steps.size() ];
 
@@ -1361,6 +1368,40 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
   }
 
+  /**
+   * Creates the pools of the pooled connections used by the steps before the steps are initialized, so that the step
+   * copies don't wait for each other to create a pool. A connection that can't be reached is reported by the steps.
+   */
+  private void prepareConnectionPools() {
+    Set<String> prepared = new HashSet<>();
+    for ( StepMetaDataCombi sid : steps ) {
+      DatabaseMeta[] databaseMetas = sid.meta.getUsedDatabaseConnections();
+      if ( databaseMetas == null ) {
+        continue;
+      }
+      for ( DatabaseMeta databaseMeta : databaseMetas ) {
+        if ( databaseMeta == null ) {
+          continue;
+        }
+        String partitionId = databaseMeta.isPartitioned() ? sid.step.getPartitionID() : null;
+        if ( !prepared.add( databaseMeta.getName() + Const.CR + Const.NVL( partitionId, "" ) ) ) {
+          continue;
+        }
+        Database db = new Database( this, databaseMeta );
+        db.shareVariablesWith( this );
+        try {
+          if ( db.preparePool( partitionId ) && log.isDetailed() ) {
+            log.logDetailed(
+              BaseMessages.getString( PKG, "Trans.Log.PreparedConnectionPool", databaseMeta.getName() ) );
+          }
+        } catch ( Exception e ) {
+          log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.UnableToPrepareConnectionPool",
+            databaseMeta.getName(), e.getMessage() ) );
+        }
+      }
+    }
+  }
+
   /**
    * Starts the threads prepared by prepareThreads(). Before you start the threads, you can add RowListeners to them.
    *
@@ -1724,6 +1765,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           new StepPerformanceSnapShot( seqNr, getBatchId(), new Date(), getName(), stepMeta.getName(), step.getCopy(),
             step.getLinesRead(), step.getLinesWritten(), step.getLinesInput(), step.getLinesOutput(), step
             .getLinesUpdated(), step.getLinesRejected(), step.getErrors() );
+        snapShot.setExecutionMetricsTotals( step.getExecutionMetrics() );
 
         synchronized ( stepPerformanceSnapShots ) {
           List<StepPerformanceSnapShot> snapShotList = stepPerformanceSnapShots.get( step.toString() );
@@ -2636,6 +2678,15 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     // end PDI-7070
 
     try {
+      if ( LogTableBatchWriter.isEnabled( this ) ) {
+        LogTableBatchWriter writer = LogTableBatchWriter.getWriter( channelLogTable.getDatabaseMeta(), this );
+        for ( LoggingHierarchy loggingHierarchy : getLoggingHierarchy() ) {
+          writer.write( channelLogTable, LogStatus.START, loggingHierarchy, null, this );
+        }
+        writer.cleanup( channelLogTable, getName(), this );
+        return;
+      }
+
       db = new Database( this, channelLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
       db.connect();
@@ -2666,6 +2717,15 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     Database db = null;
     StepLogTable stepLogTable = getTransMeta().getStepLogTable();
     try {
+      if ( LogTableBatchWriter.isEnabled( this ) ) {
+        LogTableBatchWriter writer = LogTableBatchWriter.getWriter( stepLogTable.getDatabaseMeta(), this );
+        for ( StepMetaDataCombi combi : getSteps() ) {
+          writer.write( stepLogTable, LogStatus.START, combi, null, this );
+        }
+        writer.cleanup( stepLogTable, getName(), this );
+        return;
+      }
+
       db = createDataBase( stepLogTable.getDatabaseMeta() );
       db.shareVariablesWith( this );
       db.connect();
@@ -2716,10 +2776,15 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     Database db = null;
     MetricsLogTable metricsLogTable = transMeta.getMetricsLogTable();
     try {
-      db = new Database( this, metricsLogTable.getDatabaseMeta() );
-      db.shareVariablesWith( this );
-      db.connect();
-      db.setCommit( logCommitSize );
+      LogTableBatchWriter writer = null;
+      if ( LogTableBatchWriter.isEnabled( this ) ) {
+        writer = LogTableBatchWriter.getWriter( metricsLogTable.getDatabaseMeta(), this );
+      } else {
+        db = new Database( this, metricsLogTable.getDatabaseMeta() );
+        db.shareVariablesWith( this );
+        db.connect();
+        db.setCommit( logCommitSize );
+      }
 
       List<String> logChannelIds = LoggingRegistry.getInstance().getLogChannelChildren( getLogChannelId() );
       for ( String logChannelId : logChannelIds ) {
@@ -2729,7 +2794,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           Iterator<MetricsSnapshotInterface> iterator = snapshotList.iterator();
           while ( iterator.hasNext() ) {
             MetricsSnapshotInterface snapshot = iterator.next();
-            db.writeLogRecord( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null );
+            writeMetricsLogRecord( db, writer, metricsLogTable, snapshot );
           }
         }
 
@@ -2740,7 +2805,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
             Iterator<MetricsSnapshotInterface> iterator = snapshotMap.values().iterator();
             while ( iterator.hasNext() ) {
               MetricsSnapshotInterface snapshot = iterator.next();
-              db.writeLogRecord( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null );
+              writeMetricsLogRecord( db, writer, metricsLogTable, snapshot );
             }
           }
         }
@@ -2748,7 +2813,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
       // Also time-out the log records in here...
       //
-      db.cleanupLogRecords( metricsLogTable, getName() );
+      if ( writer != null ) {
+        writer.cleanup( metricsLogTable, getName(), this );
+      } else {
+        db.cleanupLogRecords( metricsLogTable, getName() );
+      }
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString( PKG,
         "Trans.Exception.UnableToWriteMetricsInformationToLogTable" ), e );
@@ -2757,6 +2826,15 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
   }
 
+  private void writeMetricsLogRecord( Database db, LogTableBatchWriter writer, MetricsLogTable metricsLogTable,
+    MetricsSnapshotInterface snapshot ) throws KettleException {
+    if ( writer != null ) {
+      writer.write( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null, this );
+    } else {
+      db.writeLogRecord( metricsLogTable, LogStatus.START, new LoggingMetric( batchId, snapshot ), null );
+    }
+  }
+
   private void disconnectDb( Database db ) throws KettleDatabaseException {
     if ( db == null ) {
       return;
@@ -2924,6 +3002,10 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       return 0; // nothing to do here!
     }
 
+    if ( LogTableBatchWriter.isEnabled( this ) ) {
+      return queueStepPerformanceLogRecords( startSequenceNr, status );
+    }
+
     try {
       ldb = new Database( this, performanceLogTable.getDatabaseMeta() );
       ldb.shareVariablesWith( this );
@@ -2977,6 +3059,40 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     return lastSeqNr + 1;
   }
 
+  /**
+   * Queue the step performance log records for the background log table writer of the performance log connection.
+   *
+   * @param startSequenceNr the start sequence number
+   * @param status          the logging status. If this is End, perform cleanup
+   * @return the new sequence number
+   * @throws KettleException if any errors occur during logging
+   */
+  private int queueStepPerformanceLogRecords( int startSequenceNr, LogStatus status ) throws KettleException {
+    int lastSeqNr = 0;
+    PerformanceLogTable performanceLogTable = transMeta.getPerformanceLogTable();
+    LogTableBatchWriter writer = LogTableBatchWriter.getWriter( performanceLogTable.getDatabaseMeta(), this );
+
+    synchronized ( stepPerformanceSnapShots ) {
+      for ( List<StepPerformanceSnapShot> snapshots : stepPerformanceSnapShots.values() ) {
+        synchronized ( snapshots ) {
+          for ( StepPerformanceSnapShot snapshot : snapshots ) {
+            if ( snapshot.getSeqNr() >= startSequenceNr
+              && snapshot.getSeqNr() <= lastStepPerformanceSnapshotSeqNrAdded ) {
+              writer.write( performanceLogTable, LogStatus.START, snapshot, null, this );
+            }
+            lastSeqNr = snapshot.getSeqNr();
+          }
+        }
+      }
+    }
+
+    if ( status.equals( LogStatus.END ) ) {
+      writer.cleanup( performanceLogTable, getName(), this );
+    }
+
+    return lastSeqNr + 1;
+  }
+
   /**
    * Close unique database connections. If there are errors in the Result, perform a rollback
    *
@@ -77,6 +77,7 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.core.xml.StaxDocumentLoader;
 import org.pentaho.di.core.xml.XMLFormatter;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.core.xml.XMLInterface;
@@ -117,7 +118,6 @@ import org.pentaho.di.trans.steps.transexecutor.TransExecutorMeta;
 import org.pentaho.metastore.api.IMetaStore;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -589,6 +589,10 @@ public class TransMeta extends AbstractMeta
         transMeta.dependencies = new ArrayList<>();
         transMeta.namedParams = new NamedParamsDefault();
         transMeta.stepChangeListeners = new ArrayList<>();
+        // The caches are about the steps of this instance, don't share them with the copy
+        transMeta.stepsFieldsCache = new HashMap<>();
+        transMeta.loopCache = new HashMap<>();
+        transMeta.previousStepCache = new HashMap<>();
       }
       // Copy the Nodes to avoid converting from/to XML.
       String dbType = SharedObjectsIO.SharedObjectType.CONNECTION.getName();
@@ -3020,7 +3024,7 @@ public class TransMeta extends AbstractMeta
       if ( !transFile.exists() ) {
         throw new KettleXMLException( BaseMessages.getString( PKG, "TransMeta.Exception.InvalidXMLPath", fname ) );
       }
-      doc = XMLHandler.loadXMLFile( transFile );
+      doc = StaxDocumentLoader.isEnabled() ? StaxDocumentLoader.load( transFile ) : XMLHandler.loadXMLFile( transFile );
     } catch ( KettleXMLException ke ) {
       // if we have a KettleXMLException, simply re-throw it
       throw ke;
@@ -3068,7 +3072,8 @@ public class TransMeta extends AbstractMeta
   public TransMeta( InputStream xmlStream, Repository rep, boolean setInternalVariables,
                     VariableSpace parentVariableSpace, OverwritePrompter prompter )
     throws KettleXMLException, KettleMissingPluginsException {
-    Document doc = XMLHandler.loadXMLFile( xmlStream, null, false, false );
+    Document doc = StaxDocumentLoader.isEnabled() ? StaxDocumentLoader.load( xmlStream )
+      : XMLHandler.loadXMLFile( xmlStream, null, false, false );
     Node transnode = XMLHandler.getSubNode( doc, XML_TAG );
     loadXML( transnode, rep, setInternalVariables, parentVariableSpace, prompter );
   }
@@ -3271,15 +3276,18 @@ public class TransMeta extends AbstractMeta
         importFromMetaStore();
 
         // Handle connections
-        int n = XMLHandler.countNodes( transnode, DatabaseMeta.XML_TAG );
+        // The child nodes are collected in one pass, looking them up by number each time is quadratic.
+        //
+        List<Node> connectionNodes = XMLHandler.getNodes( transnode, DatabaseMeta.XML_TAG );
         if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveConnections", String.valueOf( n ) ) );
+          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveConnections",
+            String.valueOf( connectionNodes.size() ) ) );
         }
-        for ( int i = 0; i < n; i++ ) {
+        for ( int i = 0; i < connectionNodes.size(); i++ ) {
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtConnection" ) + i );
           }
-          Node nodecon = XMLHandler.getSubNodeByNr( transnode, DatabaseMeta.XML_TAG, i );
+          Node nodecon = connectionNodes.get( i );
 
           DatabaseMeta dbcon = new DatabaseMeta( nodecon );
           dbcon.shareVariablesWith( this );
@@ -3290,21 +3298,19 @@ public class TransMeta extends AbstractMeta
 
         // Read the notes...
         Node notepadsnode = XMLHandler.getSubNode( transnode, XML_TAG_NOTEPADS );
-        int nrnotes = XMLHandler.countNodes( notepadsnode, NotePadMeta.XML_TAG );
-        for ( int i = 0; i < nrnotes; i++ ) {
-          Node notepadnode = XMLHandler.getSubNodeByNr( notepadsnode, NotePadMeta.XML_TAG, i );
+        for ( Node notepadnode : XMLHandler.getNodes( notepadsnode, NotePadMeta.XML_TAG ) ) {
           NotePadMeta ni = new NotePadMeta( notepadnode );
           notes.add( ni );
         }
 
         // Handle Steps
-        int s = XMLHandler.countNodes( transnode, StepMeta.XML_TAG );
+        List<Node> stepNodes = XMLHandler.getNodes( transnode, StepMeta.XML_TAG );
 
         if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + s + " steps..." );
+          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + stepNodes.size() + " steps..." );
         }
-        for ( int i = 0; i < s; i++ ) {
-          Node stepnode = XMLHandler.getSubNodeByNr( transnode, StepMeta.XML_TAG, i );
+        for ( int i = 0; i < stepNodes.size(); i++ ) {
+          Node stepnode = stepNodes.get( i );
 
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtStep" ) + i );
@@ -3338,9 +3344,7 @@ public class TransMeta extends AbstractMeta
         // Read the error handling code of the steps...
         //
         Node errorHandlingNode = XMLHandler.getSubNode( transnode, XML_TAG_STEP_ERROR_HANDLING );
-        int nrErrorHandlers = XMLHandler.countNodes( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG );
-        for ( int i = 0; i < nrErrorHandlers; i++ ) {
-          Node stepErrorMetaNode = XMLHandler.getSubNodeByNr( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG, i );
+        for ( Node stepErrorMetaNode : XMLHandler.getNodes( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG ) ) {
           StepErrorMeta stepErrorMeta = new StepErrorMeta( this, stepErrorMetaNode, steps );
           if ( stepErrorMeta.getSourceStep() != null ) {
             stepErrorMeta.getSourceStep().setStepErrorMeta( stepErrorMeta ); // a bit of a trick, I know.
@@ -3360,19 +3364,22 @@ public class TransMeta extends AbstractMeta
         // Handle Hops
         //
         Node ordernode = XMLHandler.getSubNode( transnode, XML_TAG_ORDER );
-        n = XMLHandler.countNodes( ordernode, TransHopMeta.XML_HOP_TAG );
+        List<Node> hopNodes = XMLHandler.getNodes( ordernode, TransHopMeta.XML_HOP_TAG );
+        Set<String> errorHops = getErrorHopKeys( errorHandlingNode );
 
         if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveHops" ) + n + " hops..." );
+          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveHops" ) + hopNodes.size() + " hops..." );
         }
-        for ( int i = 0; i < n; i++ ) {
+        for ( int i = 0; i < hopNodes.size(); i++ ) {
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtHop" ) + i );
           }
-          Node hopnode = XMLHandler.getSubNodeByNr( ordernode, TransHopMeta.XML_HOP_TAG, i );
+          Node hopnode = hopNodes.get( i );
 
           TransHopMeta hopinf = new TransHopMeta( hopnode, steps );
-          hopinf.setErrorHop( isErrorNode( errorHandlingNode, hopnode ) );
+          hopinf.setErrorHop( errorHops.contains( getHopKey(
+            XMLHandler.getSubNode( hopnode, TransHopMeta.XML_FROM_TAG ),
+            XMLHandler.getSubNode( hopnode, TransHopMeta.XML_TO_TAG ) ) ) );
           addTransHop( hopinf );
         }
 
@@ -3489,10 +3496,7 @@ public class TransMeta extends AbstractMeta
         // If the date is larger then enddate, startdate is set to MIN_DATE
         //
         Node depsNode = XMLHandler.getSubNode( infonode, XML_TAG_DEPENDENCIES );
-        int nrDeps = XMLHandler.countNodes( depsNode, TransDependency.XML_TAG );
-
-        for ( int i = 0; i < nrDeps; i++ ) {
-          Node depNode = XMLHandler.getSubNodeByNr( depsNode, TransDependency.XML_TAG, i );
+        for ( Node depNode : XMLHandler.getNodes( depsNode, TransDependency.XML_TAG ) ) {
 
           TransDependency transDependency = new TransDependency( depNode, getDatabases() );
           if ( transDependency.getDatabase() != null && transDependency.getFieldname() != null ) {
@@ -3502,10 +3506,7 @@ public class TransMeta extends AbstractMeta
 
         // Read the named parameters.
         Node paramsNode = XMLHandler.getSubNode( infonode, XML_TAG_PARAMETERS );
-        int nrParams = XMLHandler.countNodes( paramsNode, "parameter" );
-
-        for ( int i = 0; i < nrParams; i++ ) {
-          Node paramNode = XMLHandler.getSubNodeByNr( paramsNode, "parameter", i );
+        for ( Node paramNode : XMLHandler.getNodes( paramsNode, "parameter" ) ) {
 
           String paramName = XMLHandler.getTagValue( paramNode, "name" );
           String defaultValue = XMLHandler.getTagValue( paramNode, "default_value" );
@@ -3517,9 +3518,7 @@ public class TransMeta extends AbstractMeta
         // Read the partitioning schemas
         //
         Node partSchemasNode = XMLHandler.getSubNode( infonode, XML_TAG_PARTITIONSCHEMAS );
-        int nrPartSchemas = XMLHandler.countNodes( partSchemasNode, PartitionSchema.XML_TAG );
-        for ( int i = 0; i < nrPartSchemas; i++ ) {
-          Node partSchemaNode = XMLHandler.getSubNodeByNr( partSchemasNode, PartitionSchema.XML_TAG, i );
+        for ( Node partSchemaNode : XMLHandler.getNodes( partSchemasNode, PartitionSchema.XML_TAG ) ) {
           PartitionSchema partitionSchema = new PartitionSchema( partSchemaNode );
           localPartitionSchemaMgr.add( partitionSchema );
         }
@@ -3540,9 +3539,7 @@ public class TransMeta extends AbstractMeta
         // Read the slave servers...
         //
         Node slaveServersNode = XMLHandler.getSubNode( infonode, XML_TAG_SLAVESERVERS );
-        int nrSlaveServers = XMLHandler.countNodes( slaveServersNode, SlaveServer.XML_TAG );
-        for ( int i = 0; i < nrSlaveServers; i++ ) {
-          Node slaveServerNode = XMLHandler.getSubNodeByNr( slaveServersNode, SlaveServer.XML_TAG, i );
+        for ( Node slaveServerNode : XMLHandler.getNodes( slaveServersNode, SlaveServer.XML_TAG ) ) {
           SlaveServer slaveServer = new SlaveServer( slaveServerNode );
           if ( slaveServer.getName() == null ) {
             log.logError( BaseMessages.getString( PKG, "TransMeta.Log.WarningWhileCreationSlaveServer", slaveServer.getName() ) );
@@ -3555,9 +3552,7 @@ public class TransMeta extends AbstractMeta
         // Read the cluster schemas
         //
         Node clusterSchemasNode = XMLHandler.getSubNode( infonode, XML_TAG_CLUSTERSCHEMAS );
-        int nrClusterSchemas = XMLHandler.countNodes( clusterSchemasNode, ClusterSchema.XML_TAG );
-        for ( int i = 0; i < nrClusterSchemas; i++ ) {
-          Node clusterSchemaNode = XMLHandler.getSubNodeByNr( clusterSchemasNode, ClusterSchema.XML_TAG, i );
+        for ( Node clusterSchemaNode : XMLHandler.getNodes( clusterSchemasNode, ClusterSchema.XML_TAG ) ) {
           ClusterSchema clusterSchema = new ClusterSchema( clusterSchemaNode, getSlaveServers() );
           clusterSchema.shareVariablesWith( this );
 
@@ -3870,37 +3865,21 @@ public class TransMeta extends AbstractMeta
 
   }
 
-  private boolean isErrorNode( Node errorHandingNode, Node checkNode ) {
-    if ( errorHandingNode != null ) {
-      NodeList errors = errorHandingNode.getChildNodes();
-
-      Node nodeHopFrom = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_FROM_TAG );
-      Node nodeHopTo = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_TO_TAG );
-
-      int i = 0;
-      while ( i < errors.getLength() ) {
-
-        Node errorNode = errors.item( i );
-
-        if ( !StepErrorMeta.XML_ERROR_TAG.equals( errorNode.getNodeName() ) ) {
-          i++;
-          continue;
-        }
-
-        Node errorSourceNode = XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_SOURCE_STEP_TAG );
-        Node errorTagetNode = XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_TARGET_STEP_TAG );
-
-        String sourceContent = errorSourceNode.getTextContent().trim();
-        String tagetContent = errorTagetNode.getTextContent().trim();
-
-        if ( sourceContent.equals( nodeHopFrom.getTextContent().trim() )
-            && tagetContent.equals( nodeHopTo.getTextContent().trim() ) ) {
-          return true;
-        }
-        i++;
-      }
+  /**
+   * Collects the source and target step of all error handling definitions, so the hops don't each scan them.
+   */
+  private Set<String> getErrorHopKeys( Node errorHandlingNode ) {
+    Set<String> keys = new HashSet<>();
+    for ( Node errorNode : XMLHandler.getNodes( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG ) ) {
+      keys.add( getHopKey( XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_SOURCE_STEP_TAG ),
+        XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_TARGET_STEP_TAG ) ) );
     }
-    return false;
+    return keys;
+  }
+
+  private static String getHopKey( Node fromNode, Node toNode ) {
+    return ( fromNode == null ? "" : fromNode.getTextContent().trim() ) + "\n"
+      + ( toNode == null ? "" : toNode.getTextContent().trim() );
   }
 
   /**
@@ -0,0 +1,196 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.cluster;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.cluster.SlaveServer;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.www.SlaveServerStatus;
+import org.pentaho.di.www.SlaveServerTransStatus;
+
+/**
+ * Selects the slave servers to run a clustered transformation on by their current load, as reported by the status
+ * page of every Carte slave: the system load average per CPU core, the number of running transformations and the free
+ * heap. Overloaded slave servers are skipped. The others get a weight that says how much work they can take on, used
+ * to hand out the partitions of partitioned steps.<br>
+ * <br>
+ * Enable it with {@link Const#KETTLE_CLUSTER_SLAVE_SELECTION}.
+ */
+public class SlaveServerSelector {
+
+  private final double maxLoadPerCore;
+  private final int maxRunningTransformations;
+  private final LogChannelInterface log;
+
+  public SlaveServerSelector( VariableSpace space, LogChannelInterface log ) {
+    this.maxLoadPerCore =
+      Const.toDouble( space.environmentSubstitute( space.getVariable( Const.KETTLE_CLUSTER_SLAVE_MAX_LOAD ) ), 1.0 );
+    this.maxRunningTransformations = Const.toInt(
+      space.environmentSubstitute( space.getVariable( Const.KETTLE_CLUSTER_SLAVE_MAX_TRANSFORMATIONS ) ), 0 );
+    this.log = log;
+  }
+
+  public static boolean isEnabled( VariableSpace space ) {
+    return "Y".equalsIgnoreCase( space.getVariable( Const.KETTLE_CLUSTER_SLAVE_SELECTION, "N" ) );
+  }
+
+  /**
+   * Ask every slave server for its status and keep the ones that aren't overloaded. When all of them are, the least
+   * loaded one is kept anyway. Slave servers that don't answer are skipped, unless none of them answers.
+   *
+   * @param slaveServers the slave servers of the cluster, the master is ignored
+   * @return the weights of the selected slave servers in the order of the list
+   */
+  public Map<SlaveServer, Double> select( List<SlaveServer> slaveServers ) {
+    Map<SlaveServer, Double> selected = new LinkedHashMap<>();
+    SlaveServer leastLoaded = null;
+    double leastLoad = Double.MAX_VALUE;
+    double leastLoadedWeight = 0.0;
+    boolean anyReachable = false;
+
+    for ( SlaveServer slaveServer : slaveServers ) {
+      if ( slaveServer.isMaster() ) {
+        continue;
+      }
+      SlaveServerStatus status;
+      try {
+        status = getStatus( slaveServer );
+      } catch ( Exception e ) {
+        log.logError( "Unable to get the status of slave server [" + slaveServer.getName()
+          + "], it isn't used for this transformation", e );
+        continue;
+      }
+      anyReachable = true;
+
+      double weight = getWeight( status );
+      double load = getLoadPerCore( status );
+      if ( load < leastLoad || ( load == leastLoad && weight > leastLoadedWeight ) ) {
+        leastLoaded = slaveServer;
+        leastLoad = load;
+        leastLoadedWeight = weight;
+      }
+      if ( isOverloaded( status ) ) {
+        log.logBasic( "Slave server [" + slaveServer.getName() + "] is overloaded and isn't used: load per core "
+          + getLoadPerCore( status ) + ", " + getRunningTransformations( status ) + " running transformations, "
+          + status.getThreadCount() + " threads" );
+        continue;
+      }
+      if ( log.isDetailed() ) {
+        log.logDetailed( "Slave server [" + slaveServer.getName() + "] gets weight " + weight );
+      }
+      selected.put( slaveServer, weight );
+    }
+
+    if ( selected.isEmpty() ) {
+      if ( anyReachable ) {
+        selected.put( leastLoaded, leastLoadedWeight );
+      } else {
+        // Nothing to go by, stick to the configuration
+        //
+        for ( SlaveServer slaveServer : slaveServers ) {
+          if ( !slaveServer.isMaster() ) {
+            selected.put( slaveServer, 1.0 );
+          }
+        }
+      }
+    }
+    return selected;
+  }
+
+  protected SlaveServerStatus getStatus( SlaveServer slaveServer ) throws Exception {
+    return slaveServer.getStatus();
+  }
+
+  boolean isOverloaded( SlaveServerStatus status ) {
+    if ( maxLoadPerCore > 0 && getLoadPerCore( status ) > maxLoadPerCore ) {
+      return true;
+    }
+    return maxRunningTransformations > 0 && getRunningTransformations( status ) >= maxRunningTransformations;
+  }
+
+  /**
+   * @return the system load average per CPU core, 0 if the operating system doesn't report it
+   */
+  static double getLoadPerCore( SlaveServerStatus status ) {
+    if ( status.getLoadAvg() < 0 ) {
+      return 0.0;
+    }
+    return status.getLoadAvg() / Math.max( 1, status.getCpuCores() );
+  }
+
+  static int getRunningTransformations( SlaveServerStatus status ) {
+    int running = 0;
+    if ( status.getTransStatusList() != null ) {
+      for ( SlaveServerTransStatus transStatus : status.getTransStatusList() ) {
+        if ( transStatus.getStatusDescription() != null && transStatus.isRunning() ) {
+          running++;
+        }
+      }
+    }
+    return running;
+  }
+
+  /**
+   * The capacity of a slave server: its cores, scaled down by the CPU already in use, the heap in use and the
+   * transformations it is already running.
+   */
+  static double getWeight( SlaveServerStatus status ) {
+    double cpuHeadroom = Math.max( 0.1, 1.0 - getLoadPerCore( status ) );
+    double heapHeadroom = 1.0;
+    if ( status.getMemoryTotal() > 0 ) {
+      heapHeadroom = Math.max( 0.1, (double) status.getMemoryFree() / status.getMemoryTotal() );
+    }
+    return Math.max( 1, status.getCpuCores() ) * cpuHeadroom * heapHeadroom
+      / ( 1 + getRunningTransformations( status ) );
+  }
+
+  /**
+   * Hand out partitions to slave servers by weight. Every slave server gets one partition first, the rest goes out in
+   * a smooth weighted round robin so the partitions of a slave server are spread over the partition IDs. With equal
+   * weights this is a plain round robin.
+   *
+   * @param nrPartitions the number of partitions, at least the number of slave servers
+   * @param weights      the weight of every slave server
+   * @return the index of the slave server for every partition
+   */
+  public static int[] assignPartitions( int nrPartitions, double[] weights ) {
+    int[] assignment = new int[ nrPartitions ];
+    double total = 0.0;
+    for ( double weight : weights ) {
+      total += weight;
+    }
+    double[] current = new double[ weights.length ];
+    for ( int p = 0; p < nrPartitions; p++ ) {
+      if ( p < weights.length ) {
+        assignment[p] = p;
+        continue;
+      }
+      int best = 0;
+      for ( int s = 0; s < weights.length; s++ ) {
+        current[s] += weights[s];
+        if ( current[s] > current[best] ) {
+          best = s;
+        }
+      }
+      current[best] -= total;
+      assignment[p] = best;
+    }
+    return assignment;
+  }
+}
@@ -81,6 +81,10 @@ public class TransSplitter {
     new SlaveStepCopyPartitionDistribution();
   private int socketsBufferSize;
   private boolean compressingSocketStreams;
+  private boolean multiplexingSocketStreams;
+
+  /** The weights of the slave servers selected by load, null if all configured slave servers are used alike */
+  private Map<SlaveServer, Double> slaveServerWeights;
 
   private Map<String, Integer> portCache;
 
@@ -149,6 +153,25 @@ public class TransSplitter {
       clusterSchema.setDynamic( false );
       clusterSchema.setSlaveServers( slaveServers );
     }
+
+    if ( SlaveServerSelector.isEnabled( this.originalTransformation ) ) {
+      selectSlaveServers( clusterSchema,
+        new SlaveServerSelector( this.originalTransformation, this.originalTransformation.getLogChannel() ) );
+    }
+  }
+
+  /**
+   * Only keep the slave servers in the cluster schema that aren't overloaded, remember the weights of the others.
+   */
+  void selectSlaveServers( ClusterSchema clusterSchema, SlaveServerSelector selector ) {
+    slaveServerWeights = selector.select( clusterSchema.getSlaveServers() );
+    List<SlaveServer> selected = new ArrayList<SlaveServer>();
+    for ( SlaveServer slaveServer : clusterSchema.getSlaveServers() ) {
+      if ( slaveServer.isMaster() || slaveServerWeights.containsKey( slaveServer ) ) {
+        selected.add( slaveServer );
+      }
+    }
+    clusterSchema.setSlaveServers( selected );
   }
 
   /**
@@ -187,6 +210,8 @@ public class TransSplitter {
           Const.toInt(
             originalTransformation.environmentSubstitute( clusterSchema.getSocketsBufferSize() ), 50000 );
         compressingSocketStreams = clusterSchema.isSocketsCompressed();
+        multiplexingSocketStreams = "Y".equalsIgnoreCase(
+          originalTransformation.getVariable( Const.KETTLE_CLUSTER_MULTIPLEXED_STREAMS, "N" ) );
 
         // Validate the number of slaves. We need at least one to have a valid cluster
         //
@@ -270,6 +295,28 @@ public class TransSplitter {
     return port;
   }
 
+  /**
+   * Get the port for a remote step. With multiplexed socket streams all the remote steps from one slave server to
+   * another share the port and the connection, otherwise every remote step gets a port of its own.
+   */
+  private int getRemoteStepPort( ClusterSchema clusterSchema, SlaveServer sourceSlave, String sourceStepName,
+    int sourceStepCopy, SlaveServer targetSlave, String targetStepName, int targetStepCopy ) throws Exception {
+    if ( !multiplexingSocketStreams ) {
+      return getPort(
+        clusterSchema, sourceSlave, sourceStepName, sourceStepCopy, targetSlave, targetStepName, targetStepCopy );
+    }
+    String portCacheKey =
+      clusteredRunId + "/" + sourceSlave.getHostname() + sourceSlave.getName() + " - " + targetSlave.getName();
+    Integer portNumber = portCache.get( portCacheKey );
+    if ( portNumber == null ) {
+      portNumber =
+        getPort( clusterSchema, sourceSlave, sourceStepName, sourceStepCopy, targetSlave, targetStepName,
+          targetStepCopy );
+      portCache.put( portCacheKey, portNumber );
+    }
+    return portNumber;
+  }
+
   public String createPortCacheKey( SlaveServer sourceSlave, String sourceStepName, int sourceStepCopy,
     SlaveServer targetSlave, String targetStepName, int targetStepCopy ) {
     return clusteredRunId
@@ -587,7 +634,7 @@ public class TransSplitter {
                     // So the source is the slave server, the target the master.
                     //
                     int port =
-                      getPort(
+                      getRemoteStepPort(
                         clusterSchema, sourceSlaveServer, slaveStep.getName(), sourceCopyNr,
                         masterSlaveServer, masterStep.getName(), masterStepCopyNr );
 
@@ -599,6 +646,7 @@ public class TransSplitter {
                         socketsBufferSize, compressingSocketStreams, originalTransformation
                           .getStepFields( previousStep ) );
                     remoteMasterStep.setEncryptingStreams( encrypt );
+                    remoteMasterStep.setMultiplexingStreams( multiplexingSocketStreams );
                     remoteMasterStep.setKey( transformationKey );
                     masterStep.getRemoteInputSteps().add( remoteMasterStep );
 
@@ -610,6 +658,7 @@ public class TransSplitter {
                         socketsBufferSize, compressingSocketStreams, originalTransformation
                           .getStepFields( previousStep ) );
                     remoteSlaveStep.setEncryptingStreams( encrypt );
+                    remoteSlaveStep.setMultiplexingStreams( multiplexingSocketStreams );
                     remoteSlaveStep.setKey( transformationKey );
                     slaveStep.getRemoteOutputSteps().add( remoteSlaveStep );
 
@@ -733,7 +782,7 @@ public class TransSplitter {
                     // So the IP address should be the same, in this case, the master...
                     //
                     int port =
-                      getPort(
+                      getRemoteStepPort(
                         clusterSchema, masterSlaveServer, sourceStep.getName(), masterStepCopyNr,
                         targetSlaveServer, referenceStep.getName(), targetCopyNr );
 
@@ -745,6 +794,7 @@ public class TransSplitter {
                           .getName(), socketsBufferSize, compressingSocketStreams, originalTransformation
                           .getStepFields( previousStep ) );
                     remoteMasterStep.setEncryptingStreams( encrypt );
+                    remoteMasterStep.setMultiplexingStreams( multiplexingSocketStreams );
                     remoteMasterStep.setKey( transformationKey );
                     sourceStep.getRemoteOutputSteps().add( remoteMasterStep );
 
@@ -756,6 +806,7 @@ public class TransSplitter {
                           .getName(), socketsBufferSize, compressingSocketStreams, originalTransformation
                           .getStepFields( previousStep ) );
                     remoteSlaveStep.setEncryptingStreams( encrypt );
+                    remoteSlaveStep.setMultiplexingStreams( multiplexingSocketStreams );
                     remoteSlaveStep.setKey( transformationKey );
                     targetStep.getRemoteInputSteps().add( remoteSlaveStep );
 
@@ -948,7 +999,7 @@ public class TransSplitter {
                               // That's why it's OK to generate all combinations.
                               //
                               int outPort =
-                                getPort(
+                                getRemoteStepPort(
                                   clusterSchema, targetSlaveServer, sourceStep.getName(), sourceCopyNr,
                                   sourceSlaveServer, targetStep.getName(), targetCopyNr );
                               RemoteStep remoteOutputStep =
@@ -959,6 +1010,7 @@ public class TransSplitter {
                                     .getName(), socketsBufferSize, compressingSocketStreams,
                                   originalTransformation.getStepFields( previousStep ) );
                               remoteOutputStep.setEncryptingStreams( encrypt );
+                              remoteOutputStep.setMultiplexingStreams( multiplexingSocketStreams );
                               remoteOutputStep.setKey( transformationKey );
                               sourceStep.getRemoteOutputSteps().add( remoteOutputStep );
 
@@ -966,7 +1018,7 @@ public class TransSplitter {
                               // What we need to do now is link all the OTHER slaves up to them.
                               //
                               int inPort =
-                                getPort(
+                                getRemoteStepPort(
                                   clusterSchema, sourceSlaveServer, sourceStep.getName(), sourceCopyNr,
                                   targetSlaveServer, targetStep.getName(), targetCopyNr );
                               RemoteStep remoteInputStep =
@@ -977,6 +1029,7 @@ public class TransSplitter {
                                     .getName(), socketsBufferSize, compressingSocketStreams,
                                   originalTransformation.getStepFields( previousStep ) );
                               remoteInputStep.setEncryptingStreams( encrypt );
+                              remoteInputStep.setMultiplexingStreams( multiplexingSocketStreams );
                               remoteInputStep.setKey( transformationKey );
                               targetStep.getRemoteInputSteps().add( remoteInputStep );
                             }
@@ -1531,6 +1584,27 @@ public class TransSplitter {
             + nrPartitions + ") than that there are slave servers (" + nrSlaves + ")" );
       }
 
+      if ( slaveServerWeights != null ) {
+        // Hand out the partitions by the capacity the slave servers have left
+        //
+        List<SlaveServer> slaves = new ArrayList<SlaveServer>();
+        for ( SlaveServer slaveServer : clusterSchema.getSlaveServers() ) {
+          if ( !slaveServer.isMaster() ) {
+            slaves.add( slaveServer );
+          }
+        }
+        double[] weights = new double[ slaves.size() ];
+        for ( int s = 0; s < weights.length; s++ ) {
+          Double weight = slaveServerWeights.get( slaves.get( s ) );
+          weights[s] = weight == null ? 1.0 : weight;
+        }
+        int[] assignment = SlaveServerSelector.assignPartitions( nrPartitions, weights );
+        for ( int p = 0; p < nrPartitions; p++ ) {
+          addSlavePartition( slaves.get( assignment[p] ), partitionSchema, partitionSchema.getPartitionIDs().get( p ) );
+        }
+        continue;
+      }
+
       int slaveServerNr = 0;
       List<SlaveServer> slaveServers = clusterSchema.getSlaveServers();
 
@@ -1549,27 +1623,7 @@ public class TransSplitter {
           slaveServer = slaveServers.get( slaveServerNr );
         }
 
-        Map<PartitionSchema, List<String>> schemaPartitionsMap = slaveServerPartitionsMap.get( slaveServer );
-        if ( schemaPartitionsMap == null ) {
-          // Add the schema-partitions map to the the slave server
-          //
-          schemaPartitionsMap = new HashMap<PartitionSchema, List<String>>();
-          slaveServerPartitionsMap.put( slaveServer, schemaPartitionsMap );
-        }
-
-        // See if we find a list of partitions
-        //
-        List<String> partitions = schemaPartitionsMap.get( partitionSchema );
-        if ( partitions == null ) {
-          partitions = new ArrayList<String>();
-          schemaPartitionsMap.put( partitionSchema, partitions );
-        }
-
-        // Add the partition ID to the appropriate list
-        //
-        if ( partitions.indexOf( partitionId ) < 0 ) {
-          partitions.add( partitionId );
-        }
+        addSlavePartition( slaveServer, partitionSchema, partitionId );
 
         // Switch to next slave.
         slaveServerNr++;
@@ -1581,6 +1635,30 @@ public class TransSplitter {
     // System.out.println("We have "+(slaveServerPartitionsMap.size())+" entries in the slave server partitions map");
   }
 
+  private void addSlavePartition( SlaveServer slaveServer, PartitionSchema partitionSchema, String partitionId ) {
+    Map<PartitionSchema, List<String>> schemaPartitionsMap = slaveServerPartitionsMap.get( slaveServer );
+    if ( schemaPartitionsMap == null ) {
+      // Add the schema-partitions map to the the slave server
+      //
+      schemaPartitionsMap = new HashMap<PartitionSchema, List<String>>();
+      slaveServerPartitionsMap.put( slaveServer, schemaPartitionsMap );
+    }
+
+    // See if we find a list of partitions
+    //
+    List<String> partitions = schemaPartitionsMap.get( partitionSchema );
+    if ( partitions == null ) {
+      partitions = new ArrayList<String>();
+      schemaPartitionsMap.put( partitionSchema, partitions );
+    }
+
+    // Add the partition ID to the appropriate list
+    //
+    if ( partitions.indexOf( partitionId ) < 0 ) {
+      partitions.add( partitionId );
+    }
+  }
+
   public Map<TransMeta, String> getCarteObjectMap() {
     return carteObjectMap;
   }
@@ -14,6 +14,9 @@
 package org.pentaho.di.trans.performance;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.trans.step.StepExecutionMetrics;
 
 public class StepPerformanceSnapShot {
 
@@ -43,6 +46,18 @@ public class StepPerformanceSnapShot {
   private long inputBufferSize;
   private long outputBufferSize;
 
+  private long totalCpuTime;
+  private long totalAllocatedBytes;
+  private long totalInputWaitTime;
+  private long totalOutputBlockedTime;
+  private long totalProcessingTime;
+
+  private long cpuTime;
+  private long allocatedBytes;
+  private long inputWaitTime;
+  private long outputBlockedTime;
+  private long processingTime;
+
   /**
    * @param date
    * @param stepName
@@ -73,6 +88,23 @@ public class StepPerformanceSnapShot {
     this.totalErrors = totalErrors;
   }
 
+  /**
+   * Copy the accumulated CPU, allocation and wait times of the step. Times are converted to milliseconds.
+   *
+   * @param metrics
+   *          the step execution metrics, can be null
+   */
+  public void setExecutionMetricsTotals( StepExecutionMetrics metrics ) {
+    if ( metrics == null ) {
+      return;
+    }
+    this.totalCpuTime = TimeUnit.NANOSECONDS.toMillis( metrics.getCpuTime() );
+    this.totalAllocatedBytes = metrics.getAllocatedBytes();
+    this.totalInputWaitTime = TimeUnit.NANOSECONDS.toMillis( metrics.getInputWaitTime() );
+    this.totalOutputBlockedTime = TimeUnit.NANOSECONDS.toMillis( metrics.getOutputBlockedTime() );
+    this.totalProcessingTime = TimeUnit.NANOSECONDS.toMillis( metrics.getProcessingTime() );
+  }
+
   public void diff( StepPerformanceSnapShot previous, long inputBufferSize, long outputBufferSize ) {
     this.inputBufferSize = inputBufferSize;
     this.outputBufferSize = outputBufferSize;
@@ -86,6 +118,11 @@ public class StepPerformanceSnapShot {
       linesUpdated = totalLinesUpdated;
       linesRejected = totalLinesRejected;
       errors = totalErrors;
+      cpuTime = totalCpuTime;
+      allocatedBytes = totalAllocatedBytes;
+      inputWaitTime = totalInputWaitTime;
+      outputBlockedTime = totalOutputBlockedTime;
+      processingTime = totalProcessingTime;
     } else {
       timeDifference = date.getTime() - previous.date.getTime();
       linesRead = totalLinesRead - previous.totalLinesRead;
@@ -95,6 +132,11 @@ public class StepPerformanceSnapShot {
       linesUpdated = totalLinesUpdated - previous.totalLinesUpdated;
       linesRejected = totalLinesRejected - previous.totalLinesRejected;
       errors = totalErrors - previous.totalErrors;
+      cpuTime = totalCpuTime - previous.totalCpuTime;
+      allocatedBytes = totalAllocatedBytes - previous.totalAllocatedBytes;
+      inputWaitTime = totalInputWaitTime - previous.totalInputWaitTime;
+      outputBlockedTime = totalOutputBlockedTime - previous.totalOutputBlockedTime;
+      processingTime = totalProcessingTime - previous.totalProcessingTime;
     }
   }
 
@@ -443,4 +485,74 @@ public class StepPerformanceSnapShot {
     this.transName = transName;
   }
 
+
+  /**
+   * @return the CPU time in milliseconds consumed during the interval
+   */
+  public long getCpuTime() {
+    return cpuTime;
+  }
+
+  /**
+   * @return the number of bytes allocated during the interval
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @return the time in milliseconds spent waiting for input rows during the interval
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  /**
+   * @return the time in milliseconds spent blocked on output during the interval
+   */
+  public long getOutputBlockedTime() {
+    return outputBlockedTime;
+  }
+
+  /**
+   * @return the time in milliseconds spent in processRow() during the interval
+   */
+  public long getProcessingTime() {
+    return processingTime;
+  }
+
+  /**
+   * @return the total CPU time in milliseconds consumed by the step
+   */
+  public long getTotalCpuTime() {
+    return totalCpuTime;
+  }
+
+  /**
+   * @return the total number of bytes allocated by the step
+   */
+  public long getTotalAllocatedBytes() {
+    return totalAllocatedBytes;
+  }
+
+  /**
+   * @return the total time in milliseconds the step spent waiting for input rows
+   */
+  public long getTotalInputWaitTime() {
+    return totalInputWaitTime;
+  }
+
+  /**
+   * @return the total time in milliseconds the step spent blocked on output
+   */
+  public long getTotalOutputBlockedTime() {
+    return totalOutputBlockedTime;
+  }
+
+  /**
+   * @return the total time in milliseconds the step spent in processRow()
+   */
+  public long getTotalProcessingTime() {
+    return totalProcessingTime;
+  }
 }
@@ -440,6 +440,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   private RowHandler rowHandler;
 
+  /**
+   * Keeps track of CPU time, allocations and time spent waiting for input and output.
+   */
+  private final StepExecutionMetrics executionMetrics = new StepExecutionMetrics();
+
   /**
    * This is the base step that forms that basis for all steps. You can derive from this class to implement your own
    * steps.
@@ -1590,11 +1595,13 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       toBeSent = metaFromRs;
     }
 
+    long startTime = executionMetrics.startTimer();
     while ( !rs.putRow( toBeSent, row ) ) {
       if ( isStopped() && !safeStopped.get() ) {
-        return;
+        break;
       }
     }
+    executionMetrics.addOutputBlockedTime( startTime );
   }
 
   /**
@@ -1646,11 +1653,13 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     // Don't distribute or anything, only go to this rowset!
     //
+    long startTime = executionMetrics.startTimer();
     while ( !rowSet.putRow( rowMeta, row ) ) {
       if ( isStopped() ) {
         break;
       }
     }
+    executionMetrics.addOutputBlockedTime( startTime );
     incrementLinesWritten();
   }
 
@@ -1705,11 +1714,13 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
 
     if ( errorRowSet != null ) {
+      long startTime = executionMetrics.startTimer();
       while ( !errorRowSet.putRow( errorRowMeta, errorRowData ) ) {
         if ( isStopped() ) {
           break;
         }
       }
+      executionMetrics.addOutputBlockedTime( startTime );
       incrementLinesRejected();
     }
 
@@ -3122,6 +3133,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     start_time = cal.getTime();
 
     setInternalVariables();
+
+    executionMetrics.setTimingEnabled( ( transMeta != null && transMeta.isCapturingStepPerformanceSnapShots() )
+      || "Y".equalsIgnoreCase( getVariable( Const.KETTLE_STEP_EXECUTION_TIMING, "N" ) ) );
   }
 
   /**
@@ -4389,9 +4403,19 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     return extensionDataMap;
   }
 
+  @Override
+  public StepExecutionMetrics getExecutionMetrics() {
+    return executionMetrics;
+  }
+
   private class DefaultRowHandler implements RowHandler {
     @Override public Object[] getRow() throws KettleException {
-      return handleGetRow();
+      long startTime = executionMetrics.startTimer();
+      try {
+        return handleGetRow();
+      } finally {
+        executionMetrics.addInputWaitTime( startTime );
+      }
     }
 
     @Override public void putRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
@@ -113,6 +113,14 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
   protected RowMetaInterface rowMeta;
 
+  /** Share one connection with the other remote steps between the same slave servers */
+  private boolean multiplexingStreams;
+
+  private RemoteStepMultiplexer.Server multiplexServer;
+  private RemoteStepMultiplexer.WriterChannel writerChannel;
+  private RemoteStepMultiplexer.Client multiplexClient;
+  private RemoteStepMultiplexer.ReaderChannel readerChannel;
+
   /**
    * @param hostname
    * @param remoteHostname
@@ -171,6 +179,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     xml.append( XMLHandler.addTagValue( "port", port, false ) );
     xml.append( XMLHandler.addTagValue( "buffer_size", bufferSize, false ) );
     xml.append( XMLHandler.addTagValue( "compressed_streams", compressingStreams, false ) );
+    xml.append( XMLHandler.addTagValue( "multiplexed_streams", multiplexingStreams, false ) );
 
     xml.append( XMLHandler.addTagValue( "source_step_name", sourceStep, false ) );
     xml.append( XMLHandler.addTagValue( "source_step_copy", sourceStepCopyNr, false ) );
@@ -204,6 +213,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     port = XMLHandler.getTagValue( node, "port" );
     bufferSize = Integer.parseInt( XMLHandler.getTagValue( node, "buffer_size" ) );
     compressingStreams = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "compressed_streams" ) );
+    multiplexingStreams = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "multiplexed_streams" ) );
 
     sourceStep = XMLHandler.getTagValue( node, "source_step_name" );
     sourceStepCopyNr = Integer.parseInt( XMLHandler.getTagValue( node, "source_step_copy" ) );
@@ -280,6 +290,15 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     this.baseStep = baseStep;
     int portNumber = Integer.parseInt( baseStep.environmentSubstitute( port ) );
 
+    if ( isMultiplexed() ) {
+      // The server socket is shared by all remote steps writing to the same slave server
+      //
+      multiplexServer = RemoteStepMultiplexer.openServer( baseStep, portNumber, bufferSize );
+      writerChannel = multiplexServer.registerChannel( getChannelName() );
+      serverSocket = multiplexServer.getServerSocket();
+      return;
+    }
+
     SocketRepository socketRepository = baseStep.getSocketRepository();
     serverSocket =
       socketRepository.openServerSocket( portNumber, baseStep.getTransMeta().getName()
@@ -332,6 +351,16 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     rowSet.setThreadNameFromToCopy( sourceStep, sourceStepCopyNr, targetStep, targetStepCopyNr );
     rowSet.setRemoteSlaveServerName( targetSlaveServerName );
 
+    if ( writerChannel != null ) {
+      multiplexServer.startAccepting( baseStep );
+      new Thread( new Runnable() {
+        public void run() {
+          writerChannel.writeRows( baseStep, rowSet, compressingStreams );
+        }
+      } ).start();
+      return rowSet;
+    }
+
     // Start a thread that will read out the output row set and send the data over the wire...
     // This will make everything else transparent, copying, distributing, including partitioning, etc.
     //
@@ -471,6 +500,16 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
    * Close left-over sockets, streams and so on.
    */
   public void cleanup() {
+    if ( multiplexServer != null ) {
+      RemoteStepMultiplexer.release( multiplexServer );
+      multiplexServer = null;
+      writerChannel = null;
+    }
+    if ( multiplexClient != null ) {
+      multiplexClient.closeChannel( readerChannel );
+      multiplexClient = null;
+      readerChannel = null;
+    }
     if ( socket != null && socket.isConnected() && !socket.isClosed() ) {
       try {
         if ( socket != null && !socket.isOutputShutdown() ) {
@@ -550,6 +589,12 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     final int portNumber = Integer.parseInt( baseStep.environmentSubstitute( port ) );
     final String realHostname = baseStep.environmentSubstitute( hostname );
 
+    if ( isMultiplexed() ) {
+      multiplexClient = RemoteStepMultiplexer.connect( baseStep, realHostname, portNumber, bufferSize );
+      readerChannel = multiplexClient.openChannel( baseStep, getChannelName(), rowSet );
+      return rowSet;
+    }
+
     // Connect to the server socket (started during BaseStep.init())
     // Because the accept() call on the server socket can be called after we
     // reached this code
@@ -777,6 +822,21 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     return rowSet;
   }
 
+  /**
+   * @return true if the rows go over a connection shared with the other remote steps between the same slave servers.
+   *         Encrypted streams always get a connection of their own.
+   */
+  public boolean isMultiplexed() {
+    return multiplexingStreams && !( encryptingStreams && key != null );
+  }
+
+  /**
+   * @return the name of this remote step on a multiplexed connection, the same on the writing and the reading side
+   */
+  String getChannelName() {
+    return sourceStep + "." + sourceStepCopyNr + " --> " + targetStep + "." + targetStepCopyNr;
+  }
+
   /**
    * @return the sourceStep
    */
@@ -954,4 +1014,12 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     this.key = key;
   }
 
+  public boolean isMultiplexingStreams() {
+    return multiplexingStreams;
+  }
+
+  public void setMultiplexingStreams( boolean multiplexingStreams ) {
+    this.multiplexingStreams = multiplexingStreams;
+  }
+
 }
@@ -0,0 +1,767 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.pentaho.di.core.BlockingRowSet;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.www.SocketRepository;
+
+/**
+ * Carries the rows of all the remote steps between two slave servers over a single socket connection. Every remote
+ * step is a channel on that connection. The writing side sends the rows of a channel in batches of up to the socket
+ * buffer size, optionally compressed with a fast deflate level. The reading side grants credits to every channel: a
+ * batch can only be sent with a credit and a credit is only given back after the rows of a batch were handed to the
+ * receiving step. That way a slow step never blocks the other channels on the same connection.<br>
+ * <br>
+ * The writing side listens on the port that was allocated for the pair of slave servers, the reading side connects to
+ * it. Enable it with {@link Const#KETTLE_CLUSTER_MULTIPLEXED_STREAMS}.
+ */
+public class RemoteStepMultiplexer {
+
+  /** reader to writer: channel ID, channel name and initial credits */
+  static final byte FRAME_OPEN = 1;
+
+  /** reader to writer: channel ID and extra credits */
+  static final byte FRAME_CREDIT = 2;
+
+  /** writer to reader: channel ID and row metadata */
+  static final byte FRAME_META = 3;
+
+  /** writer to reader: channel ID, number of rows, compressed flag and the rows */
+  static final byte FRAME_ROWS = 4;
+
+  /** writer to reader: channel ID, no more rows */
+  static final byte FRAME_END = 5;
+
+  public static final int DEFAULT_CREDITS = 8;
+
+  private static final long TIMEOUT_IN_SECONDS = 30;
+
+  private static final Map<SocketRepository, Map<Integer, Server>> servers = new HashMap<>();
+
+  private static final Map<String, Client> clients = new HashMap<>();
+
+  private RemoteStepMultiplexer() {
+  }
+
+  /**
+   * Get the server for a port, opening the server socket through the socket repository of the step the first time.
+   *
+   * @param baseStep   the step writing to a remote step
+   * @param portNumber the port allocated for the pair of slave servers
+   * @param bufferSize the size of a batch of rows in bytes
+   * @return the server, release it with {@link #release(Server)}
+   */
+  public static Server openServer( BaseStep baseStep, int portNumber, int bufferSize ) throws IOException {
+    SocketRepository socketRepository = baseStep.getSocketRepository();
+    synchronized ( servers ) {
+      Map<Integer, Server> ports = servers.get( socketRepository );
+      if ( ports == null ) {
+        ports = new HashMap<>();
+        servers.put( socketRepository, ports );
+      }
+      Server server = ports.get( portNumber );
+      if ( server == null ) {
+        ServerSocket serverSocket =
+          socketRepository.openServerSocket( portNumber, baseStep.getTransMeta().getName() + " - multiplexed" );
+
+        // The socket is released by the step that opened it during transformation cleanup
+        //
+        baseStep.getServerSockets().add( serverSocket );
+        server = new Server( socketRepository, portNumber, serverSocket, bufferSize );
+        ports.put( portNumber, server );
+      }
+      server.references++;
+      return server;
+    }
+  }
+
+  public static void release( Server server ) {
+    synchronized ( servers ) {
+      server.references--;
+      if ( server.references > 0 ) {
+        return;
+      }
+      Map<Integer, Server> ports = servers.get( server.socketRepository );
+      if ( ports != null && ports.get( server.port ) == server ) {
+        ports.remove( server.port );
+        if ( ports.isEmpty() ) {
+          servers.remove( server.socketRepository );
+        }
+      }
+    }
+    server.close();
+  }
+
+  /**
+   * Get the connection to a remote server, connecting the first time. Retries for 30 seconds since the other side
+   * might not be listening yet.
+   */
+  public static Client connect( BaseStep baseStep, String hostname, int portNumber, int bufferSize )
+    throws KettleException {
+    String key = Const.NVL( hostname, "" ) + ":" + portNumber;
+    synchronized ( clients ) {
+      Client client = clients.get( key );
+      if ( client != null && !client.isClosed() ) {
+        return client;
+      }
+
+      long startTime = System.currentTimeMillis();
+      KettleException lastException = null;
+      while ( ( TIMEOUT_IN_SECONDS > ( System.currentTimeMillis() - startTime ) / 1000 ) && !baseStep.isStopped() ) {
+        Socket socket = new Socket();
+        try {
+          socket.setReuseAddress( true );
+          socket.connect( new InetSocketAddress( hostname, portNumber ), 5000 );
+          client = new Client( key, socket, bufferSize );
+          clients.put( key, client );
+          client.start();
+          baseStep.logDetailed( "Opened multiplexed connection to remote steps on server " + key + " - Local port="
+            + socket.getLocalPort() );
+          return client;
+        } catch ( IOException e ) {
+          lastException = new KettleException( "Unable to open socket to server " + key, e );
+          closeQuietly( socket );
+        }
+        try {
+          Thread.sleep( 250 );
+        } catch ( InterruptedException e ) {
+          throw new KettleException( "Interrupted while trying to connect to server socket: " + e.toString() );
+        }
+      }
+      if ( lastException != null ) {
+        throw lastException;
+      }
+      throw new KettleException( "Unable to connect to the remote steps on server " + key + " in the "
+        + TIMEOUT_IN_SECONDS + "s timeout period." );
+    }
+  }
+
+  private static void removeClient( Client client ) {
+    synchronized ( clients ) {
+      if ( clients.get( client.key ) == client ) {
+        clients.remove( client.key );
+      }
+    }
+  }
+
+  private static void closeQuietly( Socket socket ) {
+    try {
+      socket.close();
+    } catch ( IOException e ) {
+      // Nothing left to do with it
+    }
+  }
+
+  static byte[] compress( Deflater deflater, byte[] data, int length ) {
+    deflater.reset();
+    deflater.setInput( data, 0, length );
+    deflater.finish();
+    ByteArrayOutputStream out = new ByteArrayOutputStream( Math.max( 64, length / 2 ) );
+    byte[] chunk = new byte[ 8192 ];
+    while ( !deflater.finished() ) {
+      int size = deflater.deflate( chunk );
+      out.write( chunk, 0, size );
+    }
+    return out.toByteArray();
+  }
+
+  static byte[] decompress( Inflater inflater, byte[] data, int length ) throws DataFormatException {
+    inflater.reset();
+    inflater.setInput( data );
+    byte[] result = new byte[ length ];
+    int offset = 0;
+    while ( offset < length && !inflater.finished() ) {
+      int size = inflater.inflate( result, offset, length - offset );
+      if ( size == 0 && ( inflater.needsInput() || inflater.needsDictionary() ) ) {
+        throw new DataFormatException( "Truncated batch of rows from remote step" );
+      }
+      offset += size;
+    }
+    return result;
+  }
+
+  /**
+   * The writing side of the connection of a pair of slave servers.
+   */
+  public static class Server {
+    private final SocketRepository socketRepository;
+    private final int port;
+    private final ServerSocket serverSocket;
+    private final int bufferSize;
+    private final Map<String, WriterChannel> channelsByName = new HashMap<>();
+    private final Map<Integer, WriterChannel> channelsById = new HashMap<>();
+    private int references;
+    private int endedChannels;
+    private boolean accepting;
+    private Socket socket;
+    private DataOutputStream outputStream;
+
+    Server( SocketRepository socketRepository, int port, ServerSocket serverSocket, int bufferSize ) {
+      this.socketRepository = socketRepository;
+      this.port = port;
+      this.serverSocket = serverSocket;
+      this.bufferSize = bufferSize;
+    }
+
+    public ServerSocket getServerSocket() {
+      return serverSocket;
+    }
+
+    /**
+     * Register a channel before the connection is accepted. The connection is closed when all registered channels
+     * have sent their rows.
+     */
+    public synchronized WriterChannel registerChannel( String name ) {
+      WriterChannel channel = new WriterChannel( this, name );
+      channelsByName.put( name, channel );
+      return channel;
+    }
+
+    /**
+     * Accept the connection from the reading side in the background, once.
+     */
+    public synchronized void startAccepting( final BaseStep baseStep ) {
+      if ( accepting ) {
+        return;
+      }
+      accepting = true;
+      Thread thread = new Thread( new Runnable() {
+        public void run() {
+          readControlFrames( baseStep );
+        }
+      }, "Multiplexed remote steps on port " + port );
+      thread.setDaemon( true );
+      thread.start();
+    }
+
+    private void readControlFrames( BaseStep baseStep ) {
+      Socket accepted = null;
+      try {
+        accepted = serverSocket.accept();
+        DataInputStream inputStream =
+          new DataInputStream( new BufferedInputStream( accepted.getInputStream(), 1024 ) );
+        synchronized ( this ) {
+          socket = accepted;
+          outputStream = new DataOutputStream( new BufferedOutputStream( accepted.getOutputStream(), bufferSize ) );
+        }
+        baseStep.logBasic( "Server socket accepted for port [" + port + "], multiplexing "
+          + channelsByName.size() + " remote steps" );
+
+        while ( true ) {
+          byte type = inputStream.readByte();
+          int id = inputStream.readInt();
+          if ( type == FRAME_OPEN ) {
+            String name = inputStream.readUTF();
+            int credits = inputStream.readInt();
+            WriterChannel channel;
+            synchronized ( this ) {
+              channel = channelsByName.get( name );
+              if ( channel != null ) {
+                channelsById.put( id, channel );
+              }
+            }
+            if ( channel == null ) {
+              throw new IOException( "Unknown remote step channel [" + name + "] on port " + port );
+            }
+            channel.open( id, credits );
+          } else if ( type == FRAME_CREDIT ) {
+            int credits = inputStream.readInt();
+            WriterChannel channel;
+            synchronized ( this ) {
+              channel = channelsById.get( id );
+            }
+            if ( channel != null ) {
+              channel.grant( credits );
+            }
+          } else {
+            throw new IOException( "Unexpected frame type " + type + " on port " + port );
+          }
+        }
+      } catch ( EOFException e ) {
+        // The reading side closed the connection, we're done
+        //
+      } catch ( IOException e ) {
+        if ( !serverSocket.isClosed() && !isFinished() ) {
+          baseStep.logError( "Error reading from multiplexed connection to remote steps on port " + port, e );
+        }
+      } finally {
+        failChannels();
+        if ( accepted != null ) {
+          closeQuietly( accepted );
+        }
+      }
+    }
+
+    private synchronized boolean isFinished() {
+      return endedChannels >= channelsByName.size();
+    }
+
+    private synchronized void failChannels() {
+      for ( WriterChannel channel : channelsByName.values() ) {
+        channel.fail();
+      }
+    }
+
+    synchronized void writeFrame( byte type, int id, byte[] data, int length, int nrRows, int rawLength )
+      throws IOException {
+      if ( outputStream == null ) {
+        throw new IOException( "The multiplexed connection on port " + port + " is closed" );
+      }
+      outputStream.writeByte( type );
+      outputStream.writeInt( id );
+      if ( type == FRAME_ROWS ) {
+        outputStream.writeInt( nrRows );
+        outputStream.writeInt( rawLength );
+      }
+      if ( type != FRAME_END ) {
+        outputStream.writeInt( length );
+        outputStream.write( data, 0, length );
+      }
+      outputStream.flush();
+    }
+
+    synchronized void channelEnded() {
+      endedChannels++;
+      if ( isFinished() && socket != null ) {
+        // Let the reading side know nothing else is coming, it closes the connection
+        //
+        try {
+          outputStream.flush();
+          socket.shutdownOutput();
+        } catch ( IOException e ) {
+          // The control frame reader sees the problem as well
+        }
+      }
+    }
+
+    synchronized void close() {
+      if ( socket != null ) {
+        closeQuietly( socket );
+      }
+      outputStream = null;
+      failChannels();
+    }
+  }
+
+  /**
+   * A remote step on the writing side of a connection.
+   */
+  public static class WriterChannel {
+    private final Server server;
+    private final String name;
+    private int id;
+    private int credits;
+    private boolean opened;
+    private volatile boolean failed;
+
+    WriterChannel( Server server, String name ) {
+      this.server = server;
+      this.name = name;
+    }
+
+    synchronized void open( int id, int credits ) {
+      this.id = id;
+      this.credits = credits;
+      opened = true;
+      notifyAll();
+    }
+
+    synchronized void grant( int extra ) {
+      credits += extra;
+      notifyAll();
+    }
+
+    synchronized void fail() {
+      failed = true;
+      notifyAll();
+    }
+
+    synchronized int getCredits() {
+      return credits;
+    }
+
+    /**
+     * Wait until the reading side opened the channel, the frames of the channel can't be sent before that.
+     *
+     * @return false if the step was stopped or the connection was lost
+     */
+    synchronized boolean awaitOpen( BaseStep baseStep ) throws InterruptedException {
+      while ( !opened && !failed && !baseStep.isStopped() ) {
+        wait( 100 );
+      }
+      return opened;
+    }
+
+    /**
+     * Wait until the reading side opened the channel and has room for another batch of rows.
+     *
+     * @return false if the step was stopped or the connection was lost
+     */
+    synchronized boolean acquire( BaseStep baseStep ) throws InterruptedException {
+      while ( !( opened && credits > 0 ) && !failed && !baseStep.isStopped() ) {
+        wait( 100 );
+      }
+      if ( failed || baseStep.isStopped() ) {
+        return false;
+      }
+      credits--;
+      return true;
+    }
+
+    /**
+     * Send all rows from the row set to the remote step.
+     */
+    public void writeRows( BaseStep baseStep, BlockingRowSet rowSet, boolean compressing ) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream( server.bufferSize + 1024 );
+      DataOutputStream data = new DataOutputStream( buffer );
+      Deflater deflater = compressing ? new Deflater( Deflater.BEST_SPEED ) : null;
+      try {
+        Object[] rowData = baseStep.getRowFrom( rowSet );
+        if ( rowData != null ) {
+          rowSet.getRowMeta().writeMeta( data );
+          send( baseStep, FRAME_META, buffer, 0, null );
+        }
+
+        int nrRows = 0;
+        while ( rowData != null && !baseStep.isStopped() ) {
+          // It's too confusing to count these twice, so decrement
+          baseStep.decrementLinesRead();
+          baseStep.decrementLinesWritten();
+
+          rowSet.getRowMeta().writeData( data, rowData );
+          baseStep.incrementLinesOutput();
+          nrRows++;
+
+          // Send a batch when it's full or when no other rows are waiting
+          //
+          if ( buffer.size() >= server.bufferSize || rowSet.size() == 0 ) {
+            if ( !send( baseStep, FRAME_ROWS, buffer, nrRows, deflater ) ) {
+              break;
+            }
+            nrRows = 0;
+          }
+          rowData = baseStep.getRowFrom( rowSet );
+        }
+        if ( nrRows > 0 && !baseStep.isStopped() ) {
+          send( baseStep, FRAME_ROWS, buffer, nrRows, deflater );
+        }
+        // An empty stream still has to wait for the reading side to open the channel
+        //
+        if ( !baseStep.isStopped() && !failed && awaitOpen( baseStep ) ) {
+          server.writeFrame( FRAME_END, id, null, 0, 0, 0 );
+        }
+      } catch ( Exception e ) {
+        baseStep.logError( "Error writing to remote step " + name, e );
+        baseStep.setErrors( 1 );
+        baseStep.stopAll();
+      } finally {
+        if ( deflater != null ) {
+          deflater.end();
+        }
+        server.channelEnded();
+      }
+    }
+
+    private boolean send( BaseStep baseStep, byte type, ByteArrayOutputStream buffer, int nrRows, Deflater deflater )
+      throws IOException, InterruptedException, KettleException {
+      if ( type == FRAME_ROWS && !acquire( baseStep ) ) {
+        if ( failed && !baseStep.isStopped() ) {
+          throw new KettleException( "Connection lost to remote step " + name );
+        }
+        return false;
+      }
+      if ( type == FRAME_META && !awaitOpen( baseStep ) ) {
+        // Waited for the channel to be opened without using a credit
+        //
+        return false;
+      }
+      byte[] bytes = buffer.toByteArray();
+      int rawLength = bytes.length;
+      if ( deflater != null ) {
+        bytes = compress( deflater, bytes, rawLength );
+      } else {
+        rawLength = -1;
+      }
+      server.writeFrame( type, id, bytes, bytes.length, nrRows, rawLength );
+      buffer.reset();
+      return true;
+    }
+  }
+
+  /**
+   * The reading side of the connection of a pair of slave servers.
+   */
+  public static class Client {
+    private final String key;
+    private final Socket socket;
+    private final DataInputStream inputStream;
+    private final DataOutputStream outputStream;
+    private final Map<Integer, ReaderChannel> channels = new HashMap<>();
+    private int lastChannelId;
+    private volatile boolean closed;
+
+    Client( String key, Socket socket, int bufferSize ) throws IOException {
+      this.key = key;
+      this.socket = socket;
+      this.inputStream = new DataInputStream( new BufferedInputStream( socket.getInputStream(), bufferSize ) );
+      this.outputStream = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream(), 1024 ) );
+    }
+
+    public boolean isClosed() {
+      return closed;
+    }
+
+    void start() {
+      Thread thread = new Thread( new Runnable() {
+        public void run() {
+          readFrames();
+        }
+      }, "Multiplexed remote steps from " + key );
+      thread.setDaemon( true );
+      thread.start();
+    }
+
+    /**
+     * Open a channel for a remote step. The rows are put into the given row set in a separate thread.
+     *
+     * @param baseStep the step reading from the remote step
+     * @param name     the name of the channel, identical on both sides
+     * @param rowSet   the row set to put the rows in
+     * @return the channel
+     */
+    public ReaderChannel openChannel( BaseStep baseStep, String name, BlockingRowSet rowSet ) throws IOException {
+      int credits = Math.max( 1, Const.toInt(
+        baseStep.getVariable( Const.KETTLE_CLUSTER_STREAM_CREDITS ), DEFAULT_CREDITS ) );
+      ReaderChannel channel;
+      synchronized ( channels ) {
+        if ( closed ) {
+          throw new IOException( "The multiplexed connection to " + key + " is closed" );
+        }
+        channel = new ReaderChannel( this, ++lastChannelId, name, baseStep, rowSet );
+        channels.put( channel.id, channel );
+      }
+      channel.start();
+      synchronized ( outputStream ) {
+        outputStream.writeByte( FRAME_OPEN );
+        outputStream.writeInt( channel.id );
+        outputStream.writeUTF( name );
+        outputStream.writeInt( credits );
+        outputStream.flush();
+      }
+      return channel;
+    }
+
+    void grant( int id, int credits ) {
+      try {
+        synchronized ( outputStream ) {
+          outputStream.writeByte( FRAME_CREDIT );
+          outputStream.writeInt( id );
+          outputStream.writeInt( credits );
+          outputStream.flush();
+        }
+      } catch ( IOException e ) {
+        // The writing side closed the connection, there is nothing more to receive
+      }
+    }
+
+    /**
+     * Forget about a channel. The connection stays open for the remote steps that didn't open their channel yet: the
+     * writing side only accepts it once and ends it when all its channels are done. It is closed right away when the
+     * channel didn't receive all its rows, so the writing side stops waiting for it.
+     */
+    public void closeChannel( ReaderChannel channel ) {
+      synchronized ( channels ) {
+        channels.remove( channel.id );
+      }
+      if ( !channel.ended ) {
+        close();
+      }
+    }
+
+    private void readFrames() {
+      try {
+        while ( true ) {
+          byte type = inputStream.readByte();
+          int id = inputStream.readInt();
+          int nrRows = 0;
+          int rawLength = -1;
+          if ( type == FRAME_ROWS ) {
+            nrRows = inputStream.readInt();
+            rawLength = inputStream.readInt();
+          }
+          byte[] data = null;
+          if ( type != FRAME_END ) {
+            data = new byte[ inputStream.readInt() ];
+            inputStream.readFully( data );
+          }
+          ReaderChannel channel;
+          synchronized ( channels ) {
+            channel = channels.get( id );
+          }
+          if ( channel != null ) {
+            // Never blocks: there are never more batches than credits given
+            //
+            channel.frames.add( new Frame( type, nrRows, rawLength, data ) );
+          }
+        }
+      } catch ( IOException e ) {
+        // EOF: the writing side sent everything, otherwise the channels report the lost connection
+        //
+      } finally {
+        close();
+      }
+    }
+
+    void close() {
+      List<ReaderChannel> open;
+      synchronized ( channels ) {
+        if ( closed ) {
+          return;
+        }
+        closed = true;
+        open = new ArrayList<>( channels.values() );
+      }
+      removeClient( this );
+      closeQuietly( socket );
+      for ( ReaderChannel channel : open ) {
+        channel.frames.add( Frame.CLOSED );
+      }
+    }
+  }
+
+  static class Frame {
+    static final Frame CLOSED = new Frame( (byte) 0, 0, -1, null );
+
+    final byte type;
+    final int nrRows;
+    final int rawLength;
+    final byte[] data;
+
+    Frame( byte type, int nrRows, int rawLength, byte[] data ) {
+      this.type = type;
+      this.nrRows = nrRows;
+      this.rawLength = rawLength;
+      this.data = data;
+    }
+  }
+
+  /**
+   * A remote step on the reading side of a connection.
+   */
+  public static class ReaderChannel {
+    private final Client client;
+    private final int id;
+    private final String name;
+    private final BaseStep baseStep;
+    private final BlockingRowSet rowSet;
+    private final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+    private volatile boolean ended;
+
+    ReaderChannel( Client client, int id, String name, BaseStep baseStep, BlockingRowSet rowSet ) {
+      this.client = client;
+      this.id = id;
+      this.name = name;
+      this.baseStep = baseStep;
+      this.rowSet = rowSet;
+    }
+
+    void start() {
+      new Thread( new Runnable() {
+        public void run() {
+          readRows();
+        }
+      }, "Remote step " + name ).start();
+    }
+
+    private void readRows() {
+      Inflater inflater = null;
+      try {
+        RowMetaInterface rowMeta = null;
+        while ( !baseStep.isStopped() ) {
+          Frame frame = frames.take();
+          if ( frame.type == FRAME_END ) {
+            ended = true;
+            break;
+          }
+          if ( frame == Frame.CLOSED ) {
+            throw new KettleException( "Connection lost to remote step " + name );
+          }
+          if ( frame.type == FRAME_META ) {
+            rowMeta = new RowMeta( new DataInputStream( new ByteArrayInputStream( frame.data ) ) );
+            continue;
+          }
+          if ( rowMeta == null ) {
+            throw new KettleException( "Received rows before the row metadata from remote step " + name );
+          }
+          byte[] data = frame.data;
+          if ( frame.rawLength >= 0 ) {
+            if ( inflater == null ) {
+              inflater = new Inflater();
+            }
+            data = decompress( inflater, data, frame.rawLength );
+          }
+          DataInputStream rows = new DataInputStream( new ByteArrayInputStream( data ) );
+          for ( int i = 0; i < frame.nrRows && !baseStep.isStopped(); i++ ) {
+            Object[] rowData = rowMeta.readData( rows );
+            baseStep.incrementLinesInput();
+            baseStep.decrementLinesRead();
+            baseStep.putRowTo( rowMeta, rowData, rowSet );
+            baseStep.decrementLinesWritten();
+          }
+          client.grant( id, 1 );
+        }
+      } catch ( InterruptedException e ) {
+        baseStep.logError( "Interrupted while reading from remote step " + name );
+        baseStep.setErrors( 1 );
+        baseStep.stopAll();
+      } catch ( Exception e ) {
+        baseStep.logError( "Error reading from remote step " + name, e );
+        baseStep.setErrors( 1 );
+        baseStep.stopAll();
+      } finally {
+        if ( inflater != null ) {
+          inflater.end();
+        }
+        // signal baseStep that nothing else comes from this step.
+        //
+        rowSet.setDone();
+      }
+    }
+  }
+}
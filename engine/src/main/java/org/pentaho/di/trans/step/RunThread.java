@@ -16,6 +16,7 @@ package org.pentaho.di.trans.step;
 import java.util.List;
 
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
@@ -41,9 +42,13 @@ public class RunThread implements Runnable {
   }
 
   public void run() {
+    StepExecutionMetrics metrics = step.getExecutionMetrics();
     try {
       step.setRunning( true );
       step.getLogChannel().snap( Metrics.METRIC_STEP_EXECUTION_START );
+      if ( metrics != null ) {
+        metrics.attachCurrentThread();
+      }
 
       step.beforeStartProcessing( meta, data );
       if ( log.isDetailed() ) {
@@ -51,7 +56,7 @@ public class RunThread implements Runnable {
       }
 
       // Wait
-      while ( step.processRow( meta, data ) ) {
+      while ( processRow( metrics ) ) {
         if ( step.isStopped() ) {
           break;
         }
@@ -88,6 +93,9 @@ public class RunThread implements Runnable {
     } finally {
       step.afterFinishProcessing( meta, data );
       step.dispose( meta, data );
+      if ( metrics != null ) {
+        metrics.detachCurrentThread();
+      }
       step.getLogChannel().snap( Metrics.METRIC_STEP_EXECUTION_STOP );
       try {
         long li = step.getLinesInput();
@@ -116,4 +124,16 @@ public class RunThread implements Runnable {
       }
     }
   }
+
+  private boolean processRow( StepExecutionMetrics metrics ) throws KettleException {
+    if ( metrics == null ) {
+      return step.processRow( meta, data );
+    }
+    long startTime = metrics.startTimer();
+    try {
+      return step.processRow( meta, data );
+    } finally {
+      metrics.addProcessingTime( startTime );
+    }
+  }
 }
@@ -0,0 +1,172 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Keeps track of where a step copy spends its time: CPU time and allocated bytes of the step thread (read through the
+ * {@link ThreadMXBean}) and the wall clock time spent waiting in getRow(), blocked in putRow() and inside
+ * processRow().<br>
+ * <br>
+ * CPU time and allocated bytes are sampled on demand and cost nothing per row. The getRow/putRow/processRow timings
+ * require a call to {@link System#nanoTime()} per row and are only collected when timing is enabled, either by
+ * capturing step performance snapshots or by setting {@link org.pentaho.di.core.Const#KETTLE_STEP_EXECUTION_TIMING}.
+ * <br>
+ * <br>
+ * The timings are written by the step thread only and can be read from any thread. All times are in nanoseconds. Note
+ * that the processRow() time includes the time spent in getRow() and putRow().
+ */
+public class StepExecutionMetrics {
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private volatile boolean timingEnabled;
+
+  private volatile long threadId = -1L;
+  private volatile long threadCpuTimeStart;
+  private volatile long threadAllocatedBytesStart;
+
+  private volatile long cpuTime;
+  private volatile long allocatedBytes;
+
+  private volatile long inputWaitTime;
+  private volatile long outputBlockedTime;
+  private volatile long processingTime;
+
+  /**
+   * Start measuring the CPU time and allocations of the current thread. Called by the thread that executes the step.
+   */
+  public void attachCurrentThread() {
+    Thread thread = Thread.currentThread();
+    threadCpuTimeStart = getThreadCpuTime( thread.getId() );
+    threadAllocatedBytesStart = getThreadAllocatedBytes( thread.getId() );
+    threadId = thread.getId();
+  }
+
+  /**
+   * Stop measuring the current thread and keep the accumulated CPU time and allocated bytes.
+   */
+  public void detachCurrentThread() {
+    long id = threadId;
+    if ( id < 0 ) {
+      return;
+    }
+    cpuTime = cpuTime + Math.max( 0L, getThreadCpuTime( id ) - threadCpuTimeStart );
+    allocatedBytes = allocatedBytes + Math.max( 0L, getThreadAllocatedBytes( id ) - threadAllocatedBytesStart );
+    threadId = -1L;
+  }
+
+  /**
+   * @return The CPU time in nanoseconds consumed by the step thread so far
+   */
+  public long getCpuTime() {
+    long id = threadId;
+    if ( id < 0 ) {
+      return cpuTime;
+    }
+    return cpuTime + Math.max( 0L, getThreadCpuTime( id ) - threadCpuTimeStart );
+  }
+
+  /**
+   * @return The number of bytes allocated on the heap by the step thread so far, 0 if the JVM doesn't support it.
+   */
+  public long getAllocatedBytes() {
+    long id = threadId;
+    if ( id < 0 ) {
+      return allocatedBytes;
+    }
+    return allocatedBytes + Math.max( 0L, getThreadAllocatedBytes( id ) - threadAllocatedBytesStart );
+  }
+
+  /**
+   * @return a start time to pass to one of the add methods or 0 if timing is disabled.
+   */
+  public long startTimer() {
+    return timingEnabled ? System.nanoTime() : 0L;
+  }
+
+  public void addInputWaitTime( long startTime ) {
+    if ( startTime != 0L ) {
+      inputWaitTime += System.nanoTime() - startTime;
+    }
+  }
+
+  public void addOutputBlockedTime( long startTime ) {
+    if ( startTime != 0L ) {
+      outputBlockedTime += System.nanoTime() - startTime;
+    }
+  }
+
+  public void addProcessingTime( long startTime ) {
+    if ( startTime != 0L ) {
+      processingTime += System.nanoTime() - startTime;
+    }
+  }
+
+  /**
+   * @return the time in nanoseconds spent waiting for rows in getRow()
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  /**
+   * @return the time in nanoseconds spent handing rows over to the next steps in putRow()
+   */
+  public long getOutputBlockedTime() {
+    return outputBlockedTime;
+  }
+
+  /**
+   * @return the time in nanoseconds spent in processRow(), including getRow() and putRow()
+   */
+  public long getProcessingTime() {
+    return processingTime;
+  }
+
+  public boolean isTimingEnabled() {
+    return timingEnabled;
+  }
+
+  public void setTimingEnabled( boolean timingEnabled ) {
+    this.timingEnabled = timingEnabled;
+  }
+
+  private static long getThreadCpuTime( long id ) {
+    try {
+      if ( THREAD_MX_BEAN.isThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled() ) {
+        return Math.max( 0L, THREAD_MX_BEAN.getThreadCpuTime( id ) );
+      }
+    } catch ( UnsupportedOperationException e ) {
+      // Not available on this JVM
+    }
+    return 0L;
+  }
+
+  private static long getThreadAllocatedBytes( long id ) {
+    try {
+      if ( THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean ) {
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+        if ( sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled() ) {
+          return Math.max( 0L, sunBean.getThreadAllocatedBytes( id ) );
+        }
+      }
+    } catch ( UnsupportedOperationException e ) {
+      // Not available on this JVM
+    }
+    return 0L;
+  }
+}
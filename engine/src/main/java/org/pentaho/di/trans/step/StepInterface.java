@@ -500,6 +500,13 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
     return Collections.emptyList();
   }
 
+  /**
+   * @return the CPU, allocation and wait time metrics of this step or null if the step doesn't keep track of them.
+   */
+  default StepExecutionMetrics getExecutionMetrics() {
+    return null;
+  }
+
   default void addRowSetToInputRowSets( RowSet rowSet ) {
     getInputRowSets().add( rowSet );
   }
@@ -19,6 +19,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.bind.annotation.XmlRootElement;
 
@@ -52,6 +53,11 @@ public class StepStatus {
   private boolean stopped;
   private boolean paused;
   private long accumlatedRuntime;
+  private long cpuTime;
+  private long allocatedBytes;
+  private long inputWaitTime;
+  private long outputBlockedTime;
+  private long processingTime;
 
   private RowMetaInterface sampleRowMeta;
   private List<Object[]> sampleRows;
@@ -80,6 +86,15 @@ public class StepStatus {
     this.accumlatedRuntime = accumlatedRuntime + baseStep.getRuntime();
     this.statusDescription = baseStep.getStatus().getDescription();
 
+    StepExecutionMetrics metrics = baseStep.getExecutionMetrics();
+    if ( metrics != null ) {
+      this.cpuTime = cpuTime + TimeUnit.NANOSECONDS.toMillis( metrics.getCpuTime() );
+      this.allocatedBytes = allocatedBytes + metrics.getAllocatedBytes();
+      this.inputWaitTime = inputWaitTime + TimeUnit.NANOSECONDS.toMillis( metrics.getInputWaitTime() );
+      this.outputBlockedTime = outputBlockedTime + TimeUnit.NANOSECONDS.toMillis( metrics.getOutputBlockedTime() );
+      this.processingTime = processingTime + TimeUnit.NANOSECONDS.toMillis( metrics.getProcessingTime() );
+    }
+
     long in_proc = Math.max( linesInput, linesRead );
     long out_proc = Math.max( linesOutput + linesUpdated, linesWritten + linesRejected );
 
@@ -132,6 +147,11 @@ public class StepStatus {
       xml.append( XMLHandler.addTagValue( "priority", priority, false ) );
       xml.append( XMLHandler.addTagValue( "stopped", stopped, false ) );
       xml.append( XMLHandler.addTagValue( "paused", paused, false ) );
+      xml.append( XMLHandler.addTagValue( "cpuTime", cpuTime, false ) );
+      xml.append( XMLHandler.addTagValue( "allocatedBytes", allocatedBytes, false ) );
+      xml.append( XMLHandler.addTagValue( "inputWaitTime", inputWaitTime, false ) );
+      xml.append( XMLHandler.addTagValue( "outputBlockedTime", outputBlockedTime, false ) );
+      xml.append( XMLHandler.addTagValue( "processingTime", processingTime, false ) );
 
       if ( sampleRowMeta != null ) {
         xml.append( XMLHandler.openTag( "samples" ) );
@@ -173,6 +193,12 @@ public class StepStatus {
     priority = XMLHandler.getTagValue( node, "priority" );
     stopped = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "stopped" ) );
     paused = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "paused" ) );
+    // Older servers don't send the execution metrics
+    cpuTime = Const.toLong( XMLHandler.getTagValue( node, "cpuTime" ), 0L );
+    allocatedBytes = Const.toLong( XMLHandler.getTagValue( node, "allocatedBytes" ), 0L );
+    inputWaitTime = Const.toLong( XMLHandler.getTagValue( node, "inputWaitTime" ), 0L );
+    outputBlockedTime = Const.toLong( XMLHandler.getTagValue( node, "outputBlockedTime" ), 0L );
+    processingTime = Const.toLong( XMLHandler.getTagValue( node, "processingTime" ), 0L );
 
     Node samplesNode = XMLHandler.getSubNode( node, "samples" );
     if ( samplesNode != null ) {
@@ -483,6 +509,81 @@ public class StepStatus {
     this.paused = paused;
   }
 
+  /**
+   * @return the CPU time consumed by the step thread(s) in milliseconds
+   */
+  public long getCpuTime() {
+    return cpuTime;
+  }
+
+  /**
+   * @param cpuTime
+   *          the CPU time in milliseconds to set
+   */
+  public void setCpuTime( long cpuTime ) {
+    this.cpuTime = cpuTime;
+  }
+
+  /**
+   * @return the number of bytes allocated by the step thread(s)
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @param allocatedBytes
+   *          the number of allocated bytes to set
+   */
+  public void setAllocatedBytes( long allocatedBytes ) {
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * @return the time in milliseconds spent waiting for input rows
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  /**
+   * @param inputWaitTime
+   *          the input wait time in milliseconds to set
+   */
+  public void setInputWaitTime( long inputWaitTime ) {
+    this.inputWaitTime = inputWaitTime;
+  }
+
+  /**
+   * @return the time in milliseconds spent blocked while passing rows to the next steps
+   */
+  public long getOutputBlockedTime() {
+    return outputBlockedTime;
+  }
+
+  /**
+   * @param outputBlockedTime
+   *          the output blocked time in milliseconds to set
+   */
+  public void setOutputBlockedTime( long outputBlockedTime ) {
+    this.outputBlockedTime = outputBlockedTime;
+  }
+
+  /**
+   * @return the time in milliseconds spent processing rows, including the input wait and output blocked time
+   */
+  public long getProcessingTime() {
+    return processingTime;
+  }
+
+  /**
+   * @param processingTime
+   *          the processing time in milliseconds to set
+   */
+  public void setProcessingTime( long processingTime ) {
+    this.processingTime = processingTime;
+  }
+
   public RowMetaInterface getSampleRowMeta() {
     return sampleRowMeta;
   }
@@ -31,7 +31,9 @@ import org.pentaho.di.core.row.ValueMetaInterface;
  *
  * @author matt
  *
+ * @deprecated the dimension lookup step pre-loads its cache in a {@link DimensionVersionCache}
  */
+@Deprecated
 public class DimensionCache implements Comparator<Object[]> {
   private RowMetaInterface rowMeta;
   private List<Object[]> rowCache;
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -167,7 +168,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
       }
 
-      if ( !meta.isUpdate() && meta.isPreloadingCache() ) {
+      if ( meta.isUsingPreloadCache() ) {
         preloadCache();
       } else {
         // Caching...
@@ -266,42 +267,50 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     try {
       DatabaseMeta databaseMeta = meta.getDatabaseMeta();
 
-      // tk, version, from, to, natural keys, retrieval fields...
+      // tk, version, retrieval fields, from, to: the same as a lookup returns. Then the natural keys...
       //
-      String sql = "SELECT " + databaseMeta.quoteField( meta.getKeyField() );
-      // sql+=", "+databaseMeta.quoteField(meta.getVersionField());
+      String sql = "SELECT " + getReturnFields( databaseMeta, true );
       for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
-        sql += ", " + meta.getKeyLookup()[ i ]; // the natural key field in the table
+        sql += ", " + databaseMeta.quoteField( meta.getKeyLookup()[ i ] ); // the natural key field in the table
       }
-      for ( int i = 0; i < meta.getFieldLookup().length; i++ ) {
-        sql += ", " + meta.getFieldLookup()[ i ]; // the extra fields to retrieve...
-      }
-      sql += ", " + databaseMeta.quoteField( meta.getDateFrom() ); // extra info in cache
-      sql += ", " + databaseMeta.quoteField( meta.getDateTo() ); // extra info in cache
-
       sql += " FROM " + data.schemaTable;
+      data.preloadSql = sql;
       logDetailed( "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR );
 
-      List<Object[]> rows = data.db.getRows( sql, -1 );
-      RowMetaInterface rowMeta = data.db.getReturnRowMeta();
-
-      data.preloadKeyIndexes = new int[ meta.getKeyLookup().length ];
-      for ( int i = 0; i < data.preloadKeyIndexes.length; i++ ) {
-        data.preloadKeyIndexes[ i ] = rowMeta.indexOfValue( meta.getKeyLookup()[ i ] ); // the field in the table
-      }
-      data.preloadFromDateIndex = rowMeta.indexOfValue( meta.getDateFrom() );
-      data.preloadToDateIndex = rowMeta.indexOfValue( meta.getDateTo() );
+      // Stream the rows into the cache, the dimension table can be a lot larger than the cache
+      //
+      ResultSet resultSet = data.db.openQuery( sql );
+      try {
+        RowMetaInterface rowMeta = data.db.getReturnRowMeta();
+        int nrValues = rowMeta.size() - meta.getKeyLookup().length;
 
-      data.preloadCache =
-        new DimensionCache( rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex );
-      data.preloadCache.setRowCache( rows );
+        RowMetaInterface keyRowMeta = new RowMeta();
+        for ( int i = nrValues; i < rowMeta.size(); i++ ) {
+          keyRowMeta.addValueMeta( rowMeta.getValueMeta( i ) );
+        }
+        // The technical key is cached as an integer, the way it is returned
+        //
+        RowMetaInterface valueRowMeta = new RowMeta();
+        valueRowMeta.addValueMeta(
+          ValueMetaFactory.cloneValueMeta( rowMeta.getValueMeta( 0 ), ValueMetaInterface.TYPE_INTEGER ) );
+        for ( int i = 1; i < nrValues; i++ ) {
+          valueRowMeta.addValueMeta( rowMeta.getValueMeta( i ) );
+        }
+        data.preloadCache = new DimensionVersionCache( keyRowMeta, valueRowMeta, nrValues - 2, nrValues - 1 );
 
-      logDetailed( "Sorting the cache rows..." );
-      data.preloadCache.sortRows();
-      logDetailed( "Sorting of cached rows finished." );
+        Object[] row = data.db.getRow( resultSet, null, rowMeta );
+        while ( row != null ) {
+          data.preloadCache.addVersion( Arrays.copyOfRange( row, nrValues, row.length ),
+            getPreloadValue( rowMeta, row, nrValues ) );
+          row = data.db.getRow( resultSet, null, rowMeta );
+        }
+      } finally {
+        data.db.closeQuery( resultSet );
+      }
+      logDetailed( "Pre-loaded " + data.preloadCache.getVersionCount() + " versions of "
+        + data.preloadCache.getKeyCount() + " natural keys." );
 
       // Also see what indexes to take to populate the lookup row...
-      // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
       //
       data.preloadIndexes = new ArrayList<Integer>();
       for ( int i = 0; i < meta.getKeyStream().length; i++ ) {
@@ -321,6 +330,52 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  private Object[] getPreloadValue( RowMetaInterface rowMeta, Object[] row, int nrValues )
+    throws KettleValueException {
+    Object[] value = Arrays.copyOf( row, nrValues );
+    value[ 0 ] = rowMeta.getInteger( row, 0 );
+    return value;
+  }
+
+  /**
+   * Reload the versions of a natural key in the pre-loaded cache after they were changed in the dimension table.
+   *
+   * @param key the natural key, as stored in the cache
+   */
+  private void refreshPreloadCache( Object[] key ) throws KettleException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    if ( data.prepStatementPreload == null ) {
+      String sql = data.preloadSql + " WHERE ";
+      for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+        if ( i != 0 ) {
+          sql += " AND ";
+        }
+        sql += databaseMeta.quoteField( meta.getKeyLookup()[ i ] ) + " = ? ";
+      }
+      data.prepStatementPreload = data.db.prepareSQL( databaseMeta.stripCR( sql ) );
+    }
+
+    RowMetaInterface keyRowMeta = data.preloadCache.getKeyRowMeta();
+    ResultSet resultSet = data.db.openQuery( data.prepStatementPreload, keyRowMeta, key );
+    try {
+      RowMetaInterface rowMeta = data.db.getReturnRowMeta();
+      int nrValues = rowMeta.size() - keyRowMeta.size();
+      List<Object[]> values = new ArrayList<Object[]>();
+      Object[] row = data.db.getRow( resultSet, null, rowMeta );
+      while ( row != null ) {
+        values.add( getPreloadValue( rowMeta, row, nrValues ) );
+        row = data.db.getRow( resultSet, null, rowMeta );
+      }
+      data.preloadCache.setVersions( key, values );
+    } finally {
+      try {
+        resultSet.close();
+      } catch ( SQLException e ) {
+        throw new KettleDatabaseException( "Unable to close the pre-load query", e );
+      }
+    }
+  }
+
   private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     Object[] outputRow = new Object[ data.outputRowMeta.size() ];
 
@@ -341,24 +396,20 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     //
     valueDate = determineDimensionUpdatedDate( row );
 
-    if ( !meta.isUpdate() && meta.isPreloadingCache() ) {
+    if ( meta.isUsingPreloadCache() ) {
       // Obtain a result row from the pre-load cache...
       //
-      // Create a row to compare with
-      //
-      RowMetaInterface preloadRowMeta = data.preloadCache.getRowMeta();
-
-      // In this case it's all the same. (simple)
+      // The cache returns the same fields as the lookup in the database
       //
-      data.returnRowMeta = data.preloadCache.getRowMeta();
-      lookupRowMeta = preloadRowMeta;
-      lookupRow = new Object[ preloadRowMeta.size() ];
+      data.returnRowMeta = data.preloadCache.getValueRowMeta();
+      lookupRowMeta = data.preloadCache.getKeyRowMeta();
+      lookupRow = new Object[ lookupRowMeta.size() ];
 
-      // Assemble the lookup row, convert data if needed...
+      // Assemble the natural key, convert data if needed...
       //
       for ( int i = 0; i < data.preloadIndexes.size(); i++ ) {
         int from = data.preloadIndexes.get( i ); // Input row index
-        int to = data.preloadCache.getKeyIndexes()[ i ]; // Lookup row index
+        int to = i; // Lookup row index
 
         // From data type...
         //
@@ -366,7 +417,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
         // to date type...
         //
-        ValueMetaInterface toValueMeta = data.preloadCache.getRowMeta().getValueMeta( to );
+        ValueMetaInterface toValueMeta = lookupRowMeta.getValueMeta( to );
 
         // From value:
         //
@@ -381,18 +432,9 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
         lookupRow[ to ] = toData;
       }
 
-      // Also set the lookup date on the "end of date range" (toDate) position
+      // Look up the version valid on the lookup date in the pre-load cache...
       //
-      lookupRow[ data.preloadFromDateIndex ] = valueDate;
-
-      // Look up the row in the pre-load cache...
-      //
-      int index = data.preloadCache.lookupRow( lookupRow );
-      if ( index >= 0 ) {
-        returnRow = data.preloadCache.getRow( index );
-      } else {
-        returnRow = null; // Nothing found!
-      }
+      returnRow = data.preloadCache.lookup( lookupRow, valueDate ); // null: Nothing found!
 
     } else {
       lookupRow = new Object[ data.lookupRowMeta.size() ];
@@ -529,6 +571,9 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
           dimInsert( data.inputRowMeta, row, technicalKey, true, valueVersion, valueDateFrom, valueDateTo );
 
         incrementLinesOutput();
+        if ( data.preloadCache != null ) {
+          refreshPreloadCache( lookupRow );
+        }
         returnRow = new Object[ data.returnRowMeta.size() ];
         int returnIndex = 0;
 
@@ -684,7 +729,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
             incrementLinesUpdated();
 
             // We need to capture this change in the cache as well...
-            if ( meta.getCacheSize() >= 0 ) {
+            if ( meta.getCacheSize() >= 0 && data.preloadCache == null ) {
               Object[] values =
                 getCacheValues( rowMeta, row, technicalKey, valueVersion, valueDateFrom, valueDateTo );
               addToCache( lookupRow, values );
@@ -735,7 +780,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
           incrementLinesOutput();
 
           // We need to capture this change in the cache as well...
-          if ( meta.getCacheSize() >= 0 ) {
+          if ( meta.getCacheSize() >= 0 && data.preloadCache == null ) {
             Object[] values =
               getCacheValues( rowMeta, row, technicalKey, valueNewVersion, valueDateFrom, valueDateTo );
             addToCache( lookupRow, values );
@@ -752,6 +797,9 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
           dimPunchThrough( rowMeta, row );
           incrementLinesUpdated();
         }
+        if ( data.preloadCache != null && ( insert || punch || !identical ) ) {
+          refreshPreloadCache( lookupRow );
+        }
 
         returnRow = new Object[ data.returnRowMeta.size() ];
         returnRow[ 0 ] = technicalKey;
@@ -815,6 +863,34 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     return outputRow;
   }
 
+  /**
+   * @return the fields a lookup returns: tk, version, the retrieval fields and optionally the date range
+   */
+  private String getReturnFields( DatabaseMeta databaseMeta, boolean dateRange ) {
+    String fields = databaseMeta.quoteField( meta.getKeyField() ) + ", "
+      + databaseMeta.quoteField( meta.getVersionField() );
+
+    if ( !Utils.isEmpty( meta.getFieldLookup() ) ) {
+      for ( int i = 0; i < meta.getFieldLookup().length; i++ ) {
+        // Don't retrieve the fields without input
+        if ( !Utils.isEmpty( meta.getFieldLookup()[ i ] )
+          && !DimensionLookupMeta.isUpdateTypeWithoutArgument( meta.isUpdate(), meta.getFieldUpdate()[ i ] ) ) {
+          fields += ", " + databaseMeta.quoteField( meta.getFieldLookup()[ i ] );
+
+          if ( !Utils.isEmpty( meta.getFieldStream()[ i ] )
+            && !meta.getFieldLookup()[ i ].equals( meta.getFieldStream()[ i ] ) ) {
+            fields += " AS " + databaseMeta.quoteField( meta.getFieldStream()[ i ] );
+          }
+        }
+      }
+    }
+    if ( dateRange ) {
+      fields +=
+        ", " + databaseMeta.quoteField( meta.getDateFrom() ) + ", " + databaseMeta.quoteField( meta.getDateTo() );
+    }
+    return fields;
+  }
+
   /**
    * table: dimension table keys[]: which dim-fields do we use to look up key? retval: name of the key to return
    * datefield: do we have a datefield? datefrom, dateto: date-range, if any.
@@ -835,29 +911,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
      * SELECT <tk>, <version>, ... , FROM <table> WHERE key1=keys[1] AND key2=keys[2] ... AND ( <datefrom> is null OR
      * <datefrom> <= <datefield> ) AND <dateto> >= <datefield>
      */
-    String sql =
-      "SELECT "
-        + databaseMeta.quoteField( meta.getKeyField() ) + ", "
-        + databaseMeta.quoteField( meta.getVersionField() );
-
-    if ( !Utils.isEmpty( meta.getFieldLookup() ) ) {
-      for ( int i = 0; i < meta.getFieldLookup().length; i++ ) {
-        // Don't retrieve the fields without input
-        if ( !Utils.isEmpty( meta.getFieldLookup()[ i ] )
-          && !DimensionLookupMeta.isUpdateTypeWithoutArgument( meta.isUpdate(), meta.getFieldUpdate()[ i ] ) ) {
-          sql += ", " + databaseMeta.quoteField( meta.getFieldLookup()[ i ] );
-
-          if ( !Utils.isEmpty( meta.getFieldStream()[ i ] )
-            && !meta.getFieldLookup()[ i ].equals( meta.getFieldStream()[ i ] ) ) {
-            sql += " AS " + databaseMeta.quoteField( meta.getFieldStream()[ i ] );
-          }
-        }
-      }
-    }
-    if ( meta.getCacheSize() >= 0 ) {
-      sql +=
-        ", " + databaseMeta.quoteField( meta.getDateFrom() ) + ", " + databaseMeta.quoteField( meta.getDateTo() );
-    }
+    String sql = "SELECT " + getReturnFields( databaseMeta, meta.getCacheSize() >= 0 );
 
     sql += " FROM " + data.schemaTable + " WHERE ";
 
@@ -1715,6 +1769,10 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     data = (DimensionLookupData) sdi;
     if ( data.db != null ) {
       try {
+        if ( data.prepStatementPreload != null ) {
+          data.db.closePreparedStatement( data.prepStatementPreload );
+          data.prepStatementPreload = null;
+        }
         if ( !data.db.isAutoCommit() ) {
           if ( getErrors() == 0 ) {
             data.db.commit();
@@ -73,12 +73,10 @@ public class DimensionLookupData extends BaseDatabaseStepData implements StepDat
 
   public int startDateFieldIndex;
 
-  public int[] preloadKeyIndexes;
+  public DimensionVersionCache preloadCache;
 
-  public int preloadFromDateIndex;
-  public int preloadToDateIndex;
-
-  public DimensionCache preloadCache;
+  public String preloadSql;
+  public PreparedStatement prepStatementPreload; // reloads the versions of one natural key after a change
 
   public List<Integer> preloadIndexes;
 
@@ -226,6 +226,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
   @Injection( name = "PRELOAD_CACHE" )
   private boolean preloadingCache;
 
+  /** Also pre-load the cache when the step updates the dimension */
+  @Injection( name = "PRELOAD_CACHE_UPDATE" )
+  private boolean preloadingCacheWhenUpdating;
+
   public DimensionLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -730,6 +734,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
     cacheSize = 5000;
     preloadingCache = false;
+    preloadingCacheWhenUpdating = false;
   }
 
   @Override
@@ -869,6 +874,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache", preloadingCache ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache_update", preloadingCacheWhenUpdating ) );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "use_start_date_alternative",
         usingStartDateAlternative ) );
@@ -948,6 +954,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_size" ), -1 );
       preloadingCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preload_cache" ) );
+      preloadingCacheWhenUpdating = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preload_cache_update" ) );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "useBatch" ) );
 
       usingStartDateAlternative =
@@ -1008,6 +1015,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = (int) rep.getStepAttributeInteger( id_step, "cache_size" );
       preloadingCache = rep.getStepAttributeBoolean( id_step, "preload_cache" );
+      preloadingCacheWhenUpdating = rep.getStepAttributeBoolean( id_step, "preload_cache_update" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "useBatch" );
 
       usingStartDateAlternative = rep.getStepAttributeBoolean( id_step, "use_start_date_alternative" );
@@ -1063,6 +1071,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       rep.saveStepAttribute( id_transformation, id_step, "cache_size", cacheSize );
       rep.saveStepAttribute( id_transformation, id_step, "preload_cache", preloadingCache );
+      rep.saveStepAttribute( id_transformation, id_step, "preload_cache_update", preloadingCacheWhenUpdating );
       rep.saveStepAttribute( id_transformation, id_step, "useBatch", useBatchUpdate );
 
       rep.saveStepAttribute( id_transformation, id_step, "use_start_date_alternative", usingStartDateAlternative );
@@ -1882,6 +1891,29 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     this.preloadingCache = preloadingCache;
   }
 
+  /**
+   * @return true if the cache is also pre-loaded when the step updates the dimension. Without it the pre-load option
+   *         only applies to lookups.
+   */
+  public boolean isPreloadingCacheWhenUpdating() {
+    return preloadingCacheWhenUpdating;
+  }
+
+  /**
+   * @param preloadingCacheWhenUpdating
+   *          true to also pre-load the cache when the step updates the dimension
+   */
+  public void setPreloadingCacheWhenUpdating( boolean preloadingCacheWhenUpdating ) {
+    this.preloadingCacheWhenUpdating = preloadingCacheWhenUpdating;
+  }
+
+  /**
+   * @return true if the step pre-loads the cache with its current settings
+   */
+  public boolean isUsingPreloadCache() {
+    return preloadingCache && ( !update || preloadingCacheWhenUpdating );
+  }
+
   /**
    * @return the useBatchUpdate
    */
@@ -0,0 +1,277 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.hash.ByteArrayHashMap;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * The pre-loaded dimension: all versions of all natural keys, compact enough to keep a large dimension in memory.<br>
+ * <br>
+ * The versions of a natural key are kept in one byte array, sorted on the start of their date range:
+ *
+ * <pre>
+ * int count
+ * count x ( long dateFrom, long dateTo, int offset )
+ * count x the serialized version row
+ * </pre>
+ *
+ * A lookup finds the natural key by hash and the version by a binary search on the date ranges, so only the row that
+ * is returned is deserialized. A null start date means -Infinity, a null end date +Infinity. Versions can be added
+ * or replaced while the dimension is updated.
+ */
+public class DimensionVersionCache {
+  private static final int HEADER_SIZE = 4;
+  private static final int ENTRY_SIZE = 8 + 8 + 4;
+
+  private final RowMetaInterface keyRowMeta;
+  private final RowMetaInterface valueRowMeta;
+  private final int fromDateIndex;
+  private final int toDateIndex;
+  private final ByteArrayHashMap versions;
+
+  private long versionCount;
+
+  /**
+   * @param keyRowMeta    the natural key
+   * @param valueRowMeta  the version rows
+   * @param fromDateIndex the start of the date range in the version rows
+   * @param toDateIndex   the end of the date range in the version rows
+   */
+  public DimensionVersionCache( RowMetaInterface keyRowMeta, RowMetaInterface valueRowMeta, int fromDateIndex,
+    int toDateIndex ) {
+    this.keyRowMeta = keyRowMeta;
+    this.valueRowMeta = valueRowMeta;
+    this.fromDateIndex = fromDateIndex;
+    this.toDateIndex = toDateIndex;
+    this.versions = new ByteArrayHashMap( 5000, keyRowMeta );
+  }
+
+  /**
+   * Add a version of a natural key. A version with the same start date is replaced. Only the new version is
+   * serialized, the other versions are copied as they are.
+   */
+  public void addVersion( Object[] key, Object[] value ) throws KettleValueException {
+    byte[] keyData = getKeyData( key );
+    byte[] data = versions.get( keyData );
+    if ( data == null ) {
+      data = new byte[ HEADER_SIZE ]; // no versions yet
+    }
+    ByteBuffer buffer = ByteBuffer.wrap( data );
+    int count = buffer.getInt( 0 );
+    long from = getFrom( value );
+
+    // Usually the new version starts after all others, so search from the end
+    //
+    int index = count - 1;
+    while ( index >= 0 && buffer.getLong( HEADER_SIZE + index * ENTRY_SIZE ) > from ) {
+      index--;
+    }
+    int replaced = index >= 0 && buffer.getLong( HEADER_SIZE + index * ENTRY_SIZE ) == from ? 1 : 0;
+    int position = index + 1 - replaced;
+    int newCount = count + 1 - replaced;
+
+    byte[] valueData = RowMeta.extractData( valueRowMeta, value );
+    int rowsStart = HEADER_SIZE + count * ENTRY_SIZE;
+    int beforeEnd = getRowOffset( buffer, count, position, data.length );
+    int afterStart = getRowOffset( buffer, count, position + replaced, data.length );
+    int beforeShift = ( newCount - count ) * ENTRY_SIZE;
+    int valueOffset = beforeEnd + beforeShift;
+    int afterShift = valueOffset + valueData.length - afterStart;
+
+    ByteBuffer newBuffer = ByteBuffer.allocate( valueOffset + valueData.length + data.length - afterStart );
+    newBuffer.putInt( newCount );
+    for ( int i = 0; i < position; i++ ) {
+      putEntry( newBuffer, buffer, i, beforeShift );
+    }
+    newBuffer.putLong( from );
+    newBuffer.putLong( getTo( value ) );
+    newBuffer.putInt( valueOffset );
+    for ( int i = position + replaced; i < count; i++ ) {
+      putEntry( newBuffer, buffer, i, afterShift );
+    }
+    newBuffer.put( data, rowsStart, beforeEnd - rowsStart );
+    newBuffer.put( valueData );
+    newBuffer.put( data, afterStart, data.length - afterStart );
+
+    versions.put( keyData, newBuffer.array() );
+    versionCount += 1 - replaced;
+  }
+
+  /**
+   * Copy the date range of a version and move its row offset.
+   */
+  private static void putEntry( ByteBuffer target, ByteBuffer source, int index, int shift ) {
+    int entry = HEADER_SIZE + index * ENTRY_SIZE;
+    target.putLong( source.getLong( entry ) );
+    target.putLong( source.getLong( entry + 8 ) );
+    target.putInt( source.getInt( entry + 16 ) + shift );
+  }
+
+  /**
+   * @return the start of the row of a version, the end of the data after the last version
+   */
+  private static int getRowOffset( ByteBuffer buffer, int count, int index, int length ) {
+    return index < count ? buffer.getInt( HEADER_SIZE + index * ENTRY_SIZE + 16 ) : length;
+  }
+
+  /**
+   * Replace all versions of a natural key, for example after they were changed in the database.
+   */
+  public void setVersions( Object[] key, List<Object[]> values ) throws KettleValueException {
+    byte[] keyData = getKeyData( key );
+    byte[] previous = versions.get( keyData );
+    if ( previous != null ) {
+      versionCount -= ByteBuffer.wrap( previous ).getInt( 0 );
+    }
+
+    List<Object[]> keyVersions = new ArrayList<>( values.size() );
+    for ( Object[] value : values ) {
+      int index = findVersion( keyVersions, getFrom( value ) );
+      keyVersions.add( index + 1, value );
+    }
+    versions.put( keyData, encode( keyVersions ) );
+    versionCount += keyVersions.size();
+  }
+
+  /**
+   * Look up the version of a natural key that is valid on a date.
+   *
+   * @return the version row or null if there is none
+   */
+  public Object[] lookup( Object[] key, Date date ) throws KettleValueException {
+    byte[] data = versions.get( getKeyData( key ) );
+    if ( data == null ) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap( data );
+    int count = buffer.getInt( 0 );
+    long time = date == null ? Long.MIN_VALUE : date.getTime();
+
+    // The last version starting on or before the date
+    //
+    int low = 0;
+    int high = count - 1;
+    int found = -1;
+    while ( low <= high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( buffer.getLong( HEADER_SIZE + middle * ENTRY_SIZE ) <= time ) {
+        found = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    if ( found < 0 || buffer.getLong( HEADER_SIZE + found * ENTRY_SIZE + 8 ) <= time ) {
+      return null;
+    }
+
+    int offset = buffer.getInt( HEADER_SIZE + found * ENTRY_SIZE + 16 );
+    int end = getRowOffset( buffer, count, found + 1, data.length );
+    byte[] value = new byte[ end - offset ];
+    System.arraycopy( data, offset, value, 0, value.length );
+    return RowMeta.getRow( valueRowMeta, value );
+  }
+
+  /**
+   * @return the index of the last version starting on or before the start date, -1 if there is none
+   */
+  private int findVersion( List<Object[]> keyVersions, long from ) throws KettleValueException {
+    int index = keyVersions.size() - 1;
+    while ( index >= 0 && getFrom( keyVersions.get( index ) ) > from ) {
+      index--;
+    }
+    return index;
+  }
+
+  private byte[] encode( List<Object[]> keyVersions ) throws KettleValueException {
+    int count = keyVersions.size();
+    byte[][] values = new byte[ count ][];
+    int size = HEADER_SIZE + count * ENTRY_SIZE;
+    for ( int i = 0; i < count; i++ ) {
+      values[ i ] = RowMeta.extractData( valueRowMeta, keyVersions.get( i ) );
+      size += values[ i ].length;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate( size );
+    buffer.putInt( count );
+    int offset = HEADER_SIZE + count * ENTRY_SIZE;
+    for ( int i = 0; i < count; i++ ) {
+      buffer.putLong( getFrom( keyVersions.get( i ) ) );
+      buffer.putLong( getTo( keyVersions.get( i ) ) );
+      buffer.putInt( offset );
+      offset += values[ i ].length;
+    }
+    for ( byte[] value : values ) {
+      buffer.put( value );
+    }
+    return buffer.array();
+  }
+
+  private long getFrom( Object[] value ) throws KettleValueException {
+    Date from = valueRowMeta.getDate( value, fromDateIndex );
+    return from == null ? Long.MIN_VALUE : from.getTime();
+  }
+
+  private long getTo( Object[] value ) throws KettleValueException {
+    Date to = valueRowMeta.getDate( value, toDateIndex );
+    return to == null ? Long.MAX_VALUE : to.getTime();
+  }
+
+  /**
+   * Big numbers are stored without trailing zeros so that 1.0 and 1.00 are the same key.
+   */
+  private byte[] getKeyData( Object[] key ) throws KettleValueException {
+    Object[] keyData = new Object[ keyRowMeta.size() ];
+    for ( int i = 0; i < keyData.length; i++ ) {
+      ValueMetaInterface valueMeta = keyRowMeta.getValueMeta( i );
+      keyData[ i ] = valueMeta.convertToNormalStorageType( key[ i ] );
+      if ( keyData[ i ] != null && valueMeta.isBigNumber() ) {
+        keyData[ i ] = ( (BigDecimal) keyData[ i ] ).stripTrailingZeros();
+      }
+    }
+    return RowMeta.extractData( keyRowMeta, keyData );
+  }
+
+  public RowMetaInterface getKeyRowMeta() {
+    return keyRowMeta;
+  }
+
+  public RowMetaInterface getValueRowMeta() {
+    return valueRowMeta;
+  }
+
+  /**
+   * @return the number of natural keys
+   */
+  public int getKeyCount() {
+    return versions.size();
+  }
+
+  /**
+   * @return the number of versions of all natural keys
+   */
+  public long getVersionCount() {
+    return versionCount;
+  }
+}
@@ -15,6 +15,7 @@ package org.pentaho.di.trans.steps.insertupdate;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.json.simple.JSONArray;
@@ -23,6 +24,7 @@ import org.json.simple.JSONObject;
 import org.apache.commons.lang.ArrayUtils;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.database.BatchKeyLookup;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -57,9 +59,7 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
   }
 
-  protected synchronized void lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
-    // OK, now do the lookup.
-    // We need the lookupvalues for that.
+  private Object[] getLookupRow( Object[] row ) {
     Object[] lookupRow = new Object[ data.lookupParameterRowMeta.size() ];
     int lookupIndex = 0;
 
@@ -73,6 +73,13 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
+
+  protected synchronized void lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    // OK, now do the lookup.
+    // We need the lookupvalues for that.
+    Object[] lookupRow = getLookupRow( row );
 
     data.db.setValues( data.lookupParameterRowMeta, lookupRow, data.prepStatementLookup );
 
@@ -81,6 +88,14 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         + data.lookupParameterRowMeta.getString( lookupRow ) );
     }
     Object[] add = data.db.getLookup( data.prepStatementLookup );
+    writeValues( rowMeta, row, lookupRow, add, data.db.getReturnRowMeta() );
+  }
+
+  /**
+   * Insert the row if no row was found by the lookup, otherwise update it if something changed.
+   */
+  private void writeValues( RowMetaInterface rowMeta, Object[] row, Object[] lookupRow, Object[] add,
+    RowMetaInterface returnRowMeta ) throws KettleException {
     incrementLinesInput();
 
     if ( add == null ) {
@@ -124,7 +139,7 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         for ( int i = 0; i < data.valuenrs.length; i++ ) {
           if ( meta.getUpdateFields()[ i ].getUpdate().booleanValue() ) {
             ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.valuenrs[ i ] );
-            ValueMetaInterface retMeta = data.db.getReturnRowMeta().getValueMeta( i );
+            ValueMetaInterface retMeta = returnRowMeta.getValueMeta( i );
 
             Object rowvalue = row[ data.valuenrs[ i ] ];
             Object retvalue = add[ i ];
@@ -172,13 +187,13 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
     meta = (InsertUpdateMeta) smi;
     data = (InsertUpdateData) sdi;
 
-    boolean sendToErrorRow = false;
-    String errorMessage = null;
-
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) {
       // no more input to be expected...
 
+      if ( data.batchRows != null && !data.batchRows.isEmpty() && !processBatch() ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -291,10 +306,77 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         }
         prepareUpdate( getInputRowMeta() );
       }
+
+      int batchSize = Const.toInt( getVariable( Const.KETTLE_DATABASE_LOOKUP_BATCH_SIZE ), 0 );
+      if ( batchSize > 1 && isBatchLookupPossible() ) {
+        data.batchLookup = new BatchKeyLookup( data.db, data.lookupSql, data.lookupParameterRowMeta, batchSize );
+        data.batchRows = new ArrayList<>( data.batchLookup.getBatchSize() );
+        if ( log.isDetailed() ) {
+          logDetailed( "Looking up the keys of " + data.batchLookup.getBatchSize() + " rows at once" );
+        }
+      }
+    }
+
+    if ( data.batchLookup != null ) {
+      data.batchRows.add( r );
+      return data.batchRows.size() < data.batchLookup.getBatchSize() || processBatch();
     }
+    return writeRow( r, BatchKeyLookup.NOT_LOOKED_UP );
+  }
 
+  /**
+   * Only keys that are compared on equality are looked up in batches: a row inserted or updated by the batch can then
+   * only be found again by a row with the same key.
+   */
+  private boolean isBatchLookupPossible() {
+    for ( int i = 0; i < meta.getKeyFields().length; i++ ) {
+      String condition = meta.getKeyFields()[ i ].getKeyCondition();
+      if ( !"=".equals( condition ) && !"= ~NULL".equalsIgnoreCase( condition ) ) {
+        return false;
+      }
+    }
+    return meta.getKeyFields().length > 0;
+  }
+
+  /**
+   * Look up the keys of the buffered rows with one query, then insert or update the rows in order.
+   */
+  private boolean processBatch() throws KettleException {
+    List<Object[]> rows = data.batchRows;
+    data.batchRows = new ArrayList<>( rows.size() );
+
+    List<Object[]> lookupRows = new ArrayList<>( rows.size() );
+    for ( Object[] row : rows ) {
+      lookupRows.add( getLookupRow( row ) );
+    }
+    Object[][] found;
     try {
-      lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      found = data.batchLookup.lookup( lookupRows );
+    } catch ( KettleException e ) {
+      logError( BaseMessages.getString( PKG, "InsertUpdate.Log.BatchLookupFailed" ), e );
+      closeBatchLookup();
+      found = new Object[ rows.size() ][];
+      Arrays.fill( found, BatchKeyLookup.NOT_LOOKED_UP );
+    }
+
+    for ( int i = 0; i < rows.size(); i++ ) {
+      if ( !writeRow( rows.get( i ), found[ i ] ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean writeRow( Object[] r, Object[] found ) throws KettleException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
+    try {
+      if ( found == BatchKeyLookup.NOT_LOOKED_UP ) {
+        lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      } else {
+        writeValues( getInputRowMeta(), r, getLookupRow( r ), found, data.batchLookup.getReturnRowMeta() );
+      }
       putRow( data.outputRowMeta, r ); // Nothing changed to the input, return the same row, pass a "cloned" metadata
       // row.
 
@@ -438,7 +520,8 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
       if ( log.isDetailed() ) {
         logDetailed( "Setting preparedStatement to [" + sql + "]" );
       }
-      data.prepStatementLookup = data.db.getConnection().prepareStatement( databaseMeta.stripCR( sql ) );
+      data.lookupSql = databaseMeta.stripCR( sql );
+      data.prepStatementLookup = data.db.getConnection().prepareStatement( data.lookupSql );
     } catch ( SQLException ex ) {
       throw new KettleDatabaseException( "Unable to prepare statement for SQL statement [" + sql + "]", ex );
     }
@@ -549,6 +632,7 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         }
         data.db.closeUpdate();
         data.db.closeInsert();
+        closeBatchLookup();
       } catch ( KettleDatabaseException e ) {
         logError( BaseMessages.getString( PKG, "InsertUpdate.Log.UnableToCommitConnection" ) + e.toString() );
         setErrors( 1 );
@@ -557,4 +641,14 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
     super.dispose( smi, sdi );
   }
 
+  private void closeBatchLookup() {
+    if ( data.batchLookup != null ) {
+      try {
+        data.batchLookup.close();
+      } catch ( KettleDatabaseException e ) {
+        logError( "Unable to close the batch lookup", e );
+      }
+      data.batchLookup = null;
+    }
+  }
 }
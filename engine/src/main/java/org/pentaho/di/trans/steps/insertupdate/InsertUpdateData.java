@@ -13,11 +13,13 @@
 
 package org.pentaho.di.trans.steps.insertupdate;
 
+import org.pentaho.di.core.database.BatchKeyLookup;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseDatabaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 
 /**
  * Stores data for the Insert/Update step.
@@ -35,6 +37,7 @@ public class InsertUpdateData extends BaseDatabaseStepData implements StepDataIn
 
   public String schemaTable;
 
+  public String lookupSql;
   public PreparedStatement prepStatementLookup;
   public PreparedStatement prepStatementUpdate;
 
@@ -43,6 +46,9 @@ public class InsertUpdateData extends BaseDatabaseStepData implements StepDataIn
   public RowMetaInterface lookupReturnRowMeta;
   public RowMetaInterface insertRowMeta;
 
+  public BatchKeyLookup batchLookup; // null if every row is looked up on its own
+  public List<Object[]> batchRows;
+
   /**
    * Default constructor.
    */
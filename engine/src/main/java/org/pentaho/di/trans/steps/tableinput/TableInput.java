@@ -13,9 +13,14 @@
 
 package org.pentaho.di.trans.steps.tableinput;
 
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.json.simple.JSONObject;
@@ -26,6 +31,7 @@ import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.logging.LoggingObjectType;
 import org.pentaho.di.core.logging.SimpleLoggingObject;
@@ -33,6 +39,10 @@ import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.util.ExecutorUtil;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
@@ -52,6 +62,8 @@ import org.pentaho.di.trans.step.StepMetaInterface;
 public class TableInput extends BaseDatabaseStep implements StepInterface {
   private static Class<?> PKG = TableInputMeta.class; // for i18n purposes, needed by Translator2!!
 
+  private static final String BOUNDARY_DATE_FORMAT = "yyyy/MM/dd HH:mm:ss";
+
   private final ReentrantLock dbLock = new ReentrantLock();
 
   private TableInputMeta meta;
@@ -96,6 +108,9 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
     dbLock.lock();
     try {
+      if ( data.rangeReaders != null ) {
+        return putRangeRow();
+      }
 
       if ( first ) { // we just got started
 
@@ -138,10 +153,15 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
           return false; // stop immediately, nothing to do here.
         }
 
-        boolean success = doQuery( parametersMeta, parameters );
+        int rangeCount = getRangeCount();
+        boolean success = rangeCount > 1
+          ? startRanges( parametersMeta, parameters, rangeCount ) : doQuery( parametersMeta, parameters );
         if ( !success ) {
           return false;
         }
+        if ( data.rangeReaders != null ) {
+          return putRangeRow();
+        }
       } else {
         if ( data.thisrow != null ) { // We can expect more rows
 
@@ -222,16 +242,19 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  private String getSql() {
+    if ( meta.isVariableReplacementActive() ) {
+      return environmentSubstitute( meta.getSQL() );
+    } else {
+      return meta.getSQL();
+    }
+  }
+
   private boolean doQuery( RowMetaInterface parametersMeta, Object[] parameters ) throws KettleDatabaseException {
     boolean success = true;
 
     // Open the query with the optional parameters received from the source steps.
-    String sql = null;
-    if ( meta.isVariableReplacementActive() ) {
-      sql = environmentSubstitute( meta.getSQL() );
-    } else {
-      sql = meta.getSQL();
-    }
+    String sql = getSql();
 
     if ( log.isDetailed() ) {
       logDetailed( BaseMessages.getString( PKG, "TableInput.Log.SqlQuery", sql ) );
@@ -272,6 +295,189 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
     return success;
   }
 
+  /**
+   * @return the number of ranges to split the query in, 1 to read it with a single query
+   */
+  private int getRangeCount() {
+    if ( Utils.isEmpty( meta.getPartitionColumn() ) ) {
+      return 1;
+    }
+    int count = Const.toInt( environmentSubstitute( meta.getPartitionCount() ), 1 );
+    if ( count > 1 && ( meta.isExecuteEachInputRow() || getTransMeta().isUsingUniqueConnections() ) ) {
+      logBasic( BaseMessages.getString( PKG, "TableInput.Log.RangesNotPossible" ) );
+      return 1;
+    }
+    return count;
+  }
+
+  /**
+   * Split the query in ranges of the partition column and start reading every range on its own connection. When
+   * there is nothing to split, because the query returns no rows or only nulls, the query is executed as usual.
+   */
+  private boolean startRanges( RowMetaInterface parametersMeta, Object[] parameters, int count )
+    throws KettleException {
+    String sql = getSql();
+    String column = meta.getDatabaseMeta().quoteField( environmentSubstitute( meta.getPartitionColumn() ) );
+    String minValue = environmentSubstitute( meta.getPartitionMin() );
+    String maxValue = environmentSubstitute( meta.getPartitionMax() );
+
+    ValueMetaInterface boundaryMeta;
+    Object min;
+    Object max;
+    if ( Utils.isEmpty( minValue ) || Utils.isEmpty( maxValue ) ) {
+      String minMaxSql = TableInputRanges.getMinMaxSql( sql, column );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TableInput.Log.SqlQuery", minMaxSql ) );
+      }
+      RowMetaAndData minMax = parametersMeta.isEmpty()
+        ? data.db.getOneRow( minMaxSql ) : data.db.getOneRow( minMaxSql, parametersMeta, parameters );
+      ValueMetaInterface columnMeta = minMax.getRowMeta().getValueMeta( 0 );
+      boundaryMeta = TableInputRanges.getBoundaryMeta( columnMeta );
+      min = Utils.isEmpty( minValue )
+        ? boundaryMeta.convertData( columnMeta, minMax.getData()[ 0 ] ) : parseBoundary( boundaryMeta, minValue );
+      max = Utils.isEmpty( maxValue )
+        ? boundaryMeta.convertData( minMax.getRowMeta().getValueMeta( 1 ), minMax.getData()[ 1 ] )
+        : parseBoundary( boundaryMeta, maxValue );
+    } else {
+      boundaryMeta = isNumber( minValue ) && isNumber( maxValue )
+        ? new ValueMetaBigNumber( "range" ) : new ValueMetaDate( "range" );
+      min = parseBoundary( boundaryMeta, minValue );
+      max = parseBoundary( boundaryMeta, maxValue );
+    }
+    if ( min == null || max == null ) {
+      return doQuery( parametersMeta, parameters );
+    }
+
+    Object[] boundaries = TableInputRanges.getBoundaries( boundaryMeta, min, max, count );
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "TableInput.Log.ReadingRanges", String.valueOf( count ), column,
+        boundaryMeta.getString( min ), boundaryMeta.getString( max ) ) );
+    }
+
+    // Ordered output needs a queue per range, otherwise the rows are passed on in the order they arrive
+    //
+    int queueSize = getTransMeta().getSizeRowset();
+    BlockingQueue<Object[]> sharedQueue = meta.isPartitionOrdered() ? null : new ArrayBlockingQueue<>( queueSize );
+    data.rangeReaders = new ArrayList<>( count );
+    for ( int range = 0; range < count; range++ ) {
+      Database db = new Database( this, meta.getDatabaseMeta() );
+      db.shareVariablesWith( this );
+      if ( meta.getDatabaseMeta().isRequiringTransactionsOnQueries() ) {
+        db.setCommitSize( 100 ); // like the step's own connection: PostgreSQL only uses the fetch size in a transaction
+      }
+      data.rangeReaders.add( new TableInputRangeReader( db, getPartitionID(),
+        TableInputRanges.getRangeSql( sql, column, range, count ),
+        TableInputRanges.getRangeParametersMeta( parametersMeta, boundaryMeta, range, count ),
+        TableInputRanges.getRangeParameters( parameters, boundaries, range ), meta.isLazyConversionActive(),
+        sharedQueue != null ? sharedQueue : new ArrayBlockingQueue<>( queueSize ) ) );
+    }
+    data.rangeIndex = 0;
+    data.rangeRowLimit = Const.toInt( environmentSubstitute( meta.getRowLimit() ), 0 );
+    for ( TableInputRangeReader reader : data.rangeReaders ) {
+      ExecutorUtil.getExecutor().execute( reader );
+    }
+    return true;
+  }
+
+  private static boolean isNumber( String value ) {
+    try {
+      new BigDecimal( value.trim() );
+      return true;
+    } catch ( NumberFormatException e ) {
+      return false;
+    }
+  }
+
+  /**
+   * Dates are entered in the format yyyy/MM/dd HH:mm:ss, numbers with a dot as the decimal separator.
+   */
+  private static Object parseBoundary( ValueMetaInterface boundaryMeta, String value ) throws KettleValueException {
+    if ( boundaryMeta.isNumeric() ) {
+      try {
+        return boundaryMeta.convertData( new ValueMetaBigNumber( "range" ), new BigDecimal( value.trim() ) );
+      } catch ( NumberFormatException e ) {
+        throw new KettleValueException( "Unable to convert '" + value + "' to a number", e );
+      }
+    }
+    ValueMetaInterface stringMeta = new ValueMetaString( "range" );
+    stringMeta.setConversionMask( BOUNDARY_DATE_FORMAT );
+    return boundaryMeta.convertData( stringMeta, value.trim() );
+  }
+
+  private boolean putRangeRow() throws KettleException {
+    Object[] row = nextRangeRow();
+    if ( row == null ) {
+      stopRangeReaders();
+      setOutputDone();
+      return false;
+    }
+
+    if ( data.rowMeta == null ) {
+      for ( TableInputRangeReader reader : data.rangeReaders ) {
+        if ( reader.getRowMeta() != null ) {
+          data.rowMeta = reader.getRowMeta();
+          break;
+        }
+      }
+      for ( ValueMetaInterface valueMeta : data.rowMeta.getValueMetaList() ) {
+        valueMeta.setOrigin( getStepname() );
+      }
+    }
+
+    incrementLinesInput();
+    putRow( data.rowMeta, row );
+
+    if ( checkFeedback( getLinesInput() ) && log.isBasic() ) {
+      logBasic( BaseMessages.getString( PKG, "TableInput.Log.LineNumber", String.valueOf( getLinesInput() ) ) );
+    }
+    if ( data.rangeRowLimit > 0 && getLinesInput() >= data.rangeRowLimit ) {
+      stopRangeReaders();
+      setOutputDone();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return the next row of the ranges or null when all ranges were read or the step was stopped
+   */
+  private Object[] nextRangeRow() throws KettleException {
+    try {
+      while ( !isStopped() && data.rangeIndex < data.rangeReaders.size() ) {
+        BlockingQueue<Object[]> queue = data.rangeReaders.get( meta.isPartitionOrdered() ? data.rangeIndex : 0 )
+          .getQueue();
+        Object[] row = queue.poll( 100, TimeUnit.MILLISECONDS );
+        if ( row == TableInputRangeReader.END ) {
+          checkRangeErrors();
+          data.rangeIndex++;
+        } else if ( row != null ) {
+          return row;
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  private void checkRangeErrors() throws KettleException {
+    for ( TableInputRangeReader reader : data.rangeReaders ) {
+      if ( reader.getError() != null ) {
+        stopRangeReaders();
+        throw new KettleDatabaseException( BaseMessages.getString( PKG, "TableInput.Exception.RangeFailed" ),
+          reader.getError() );
+      }
+    }
+  }
+
+  private void stopRangeReaders() {
+    if ( data.rangeReaders != null ) {
+      for ( TableInputRangeReader reader : data.rangeReaders ) {
+        reader.stop();
+      }
+    }
+  }
+
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     dbLock.lock();
     try {
@@ -279,6 +485,7 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
         logBasic( BaseMessages.getString( PKG, "TableInput.Log.FinishedReadingQuery" ) );
       }
       try {
+        stopRangeReaders();
         closePreviousQuery();
       } catch ( KettleException e ) {
         logError( BaseMessages.getString( PKG, "TableInput.Log.ErrorClosingQuery", e.toString() ) );
@@ -304,6 +511,7 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
       data = (TableInputData) sdi;
 
       setStopped( true );
+      stopRangeReaders();
 
       if ( data.db != null  && data.db.getConnection() != null && !data.isCanceled ) {
         data.db.cancelQuery();
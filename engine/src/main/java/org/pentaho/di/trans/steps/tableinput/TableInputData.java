@@ -14,6 +14,7 @@
 package org.pentaho.di.trans.steps.tableinput;
 
 import java.sql.ResultSet;
+import java.util.List;
 
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.database.Database;
@@ -36,6 +37,12 @@ public class TableInputData extends BaseDatabaseStepData implements StepDataInte
   public boolean isCanceled;
   public StreamInterface infoStream;
 
+  /** The readers of the ranges of a partitioned query, null when the query isn't partitioned */
+  public List<TableInputRangeReader> rangeReaders;
+  /** The range being read with ordered output, otherwise the number of ranges that were read */
+  public int rangeIndex;
+  public long rangeRowLimit;
+
   public TableInputData() {
     super();
 
@@ -87,6 +87,26 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
 
   private RowMetaInterface cachedRowMeta;
 
+  /** The numeric or date column of the query result to split the query in ranges on, empty to not split it */
+  @Injection( name = "PARTITION_COLUMN" )
+  private String partitionColumn;
+
+  /** The number of ranges, read at the same time on their own connections */
+  @Injection( name = "PARTITION_COUNT" )
+  private String partitionCount;
+
+  /** The minimum of the partition column to divide in ranges, empty to query it */
+  @Injection( name = "PARTITION_MIN" )
+  private String partitionMin;
+
+  /** The maximum of the partition column to divide in ranges, empty to query it */
+  @Injection( name = "PARTITION_MAX" )
+  private String partitionMax;
+
+  /** Pass the rows on range after range instead of as they arrive */
+  @Injection( name = "PARTITION_ORDERED" )
+  private boolean partitionOrdered;
+
   public TableInputMeta() {
     super();
   }
@@ -182,6 +202,11 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       lazyConversionActive = "Y".equals( XMLHandler.getTagValue( stepnode, "lazy_conversion_active" ) );
       cachedRowMetaActive = "Y".equals( XMLHandler.getTagValue( stepnode, "cached_row_meta_active" ) );
       cachedRowMeta = new RowMeta( XMLHandler.getSubNode( stepnode, RowMeta.XML_META_TAG ) );
+      partitionColumn = XMLHandler.getTagValue( stepnode, "partition_column" );
+      partitionCount = XMLHandler.getTagValue( stepnode, "partition_count" );
+      partitionMin = XMLHandler.getTagValue( stepnode, "partition_min" );
+      partitionMax = XMLHandler.getTagValue( stepnode, "partition_max" );
+      partitionOrdered = "Y".equals( XMLHandler.getTagValue( stepnode, "partition_ordered" ) );
 
     } catch ( Exception e ) {
       throw new KettleXMLException( "Unable to load step info from XML", e );
@@ -192,6 +217,11 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     databaseMeta = null;
     sql = "SELECT <values> FROM <table name> WHERE <conditions>";
     rowLimit = "0";
+    partitionColumn = null;
+    partitionCount = null;
+    partitionMin = null;
+    partitionMax = null;
+    partitionOrdered = false;
   }
 
   protected Database getDatabase() {
@@ -301,6 +331,11 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     retval.append( "    " + XMLHandler.addTagValue( "variables_active", variableReplacementActive ) );
     retval.append( "    " + XMLHandler.addTagValue( "lazy_conversion_active", lazyConversionActive ) );
     retval.append( "    " + XMLHandler.addTagValue( "cached_row_meta_active", cachedRowMetaActive ) );
+    retval.append( "    " + XMLHandler.addTagValue( "partition_column", partitionColumn ) );
+    retval.append( "    " + XMLHandler.addTagValue( "partition_count", partitionCount ) );
+    retval.append( "    " + XMLHandler.addTagValue( "partition_min", partitionMin ) );
+    retval.append( "    " + XMLHandler.addTagValue( "partition_max", partitionMax ) );
+    retval.append( "    " + XMLHandler.addTagValue( "partition_ordered", partitionOrdered ) );
     storeCachedRowMeta( retval );
     return retval.toString();
   }
@@ -354,6 +389,11 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       variableReplacementActive = rep.getStepAttributeBoolean( id_step, "variables_active" );
       lazyConversionActive = rep.getStepAttributeBoolean( id_step, "lazy_conversion_active" );
       cachedRowMetaActive = rep.getStepAttributeBoolean( id_step, "cached_row_meta_active" );
+      partitionColumn = rep.getStepAttributeString( id_step, "partition_column" );
+      partitionCount = rep.getStepAttributeString( id_step, "partition_count" );
+      partitionMin = rep.getStepAttributeString( id_step, "partition_min" );
+      partitionMax = rep.getStepAttributeString( id_step, "partition_max" );
+      partitionOrdered = rep.getStepAttributeBoolean( id_step, "partition_ordered" );
 
       String sRowMeta = rep.getStepAttributeString( id_step, RowMeta.XML_META_TAG );
       if ( sRowMeta != null ) {
@@ -380,6 +420,11 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       rep.saveStepAttribute( id_transformation, id_step, "variables_active", variableReplacementActive );
       rep.saveStepAttribute( id_transformation, id_step, "lazy_conversion_active", lazyConversionActive );
       rep.saveStepAttribute( id_transformation, id_step, "cached_row_meta_active", cachedRowMetaActive );
+      rep.saveStepAttribute( id_transformation, id_step, "partition_column", partitionColumn );
+      rep.saveStepAttribute( id_transformation, id_step, "partition_count", partitionCount );
+      rep.saveStepAttribute( id_transformation, id_step, "partition_min", partitionMin );
+      rep.saveStepAttribute( id_transformation, id_step, "partition_max", partitionMax );
+      rep.saveStepAttribute( id_transformation, id_step, "partition_ordered", partitionOrdered );
       if ( cachedRowMeta != null ) {
         rep.saveStepAttribute( id_transformation, id_step, RowMeta.XML_META_TAG, cachedRowMeta.getMetaXML() );
       }
@@ -620,6 +665,76 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     this.cachedRowMeta = cachedRowMeta;
   }
 
+  /**
+   * @return the numeric or date column to split the query in ranges on, empty to not split it
+   */
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  /**
+   * @param partitionColumn the numeric or date column to split the query in ranges on
+   */
+  public void setPartitionColumn( String partitionColumn ) {
+    this.partitionColumn = partitionColumn;
+  }
+
+  /**
+   * @return the number of ranges, read at the same time
+   */
+  public String getPartitionCount() {
+    return partitionCount;
+  }
+
+  /**
+   * @param partitionCount the number of ranges, read at the same time
+   */
+  public void setPartitionCount( String partitionCount ) {
+    this.partitionCount = partitionCount;
+  }
+
+  /**
+   * @return the minimum of the partition column, empty to query it
+   */
+  public String getPartitionMin() {
+    return partitionMin;
+  }
+
+  /**
+   * @param partitionMin the minimum of the partition column, empty to query it
+   */
+  public void setPartitionMin( String partitionMin ) {
+    this.partitionMin = partitionMin;
+  }
+
+  /**
+   * @return the maximum of the partition column, empty to query it
+   */
+  public String getPartitionMax() {
+    return partitionMax;
+  }
+
+  /**
+   * @param partitionMax the maximum of the partition column, empty to query it
+   */
+  public void setPartitionMax( String partitionMax ) {
+    this.partitionMax = partitionMax;
+  }
+
+  /**
+   * @return true if the rows are passed on range after range, false if they are passed on as they arrive
+   */
+  public boolean isPartitionOrdered() {
+    return partitionOrdered;
+  }
+
+  /**
+   * @param partitionOrdered true to pass the rows on range after range
+   */
+  public void setPartitionOrdered( boolean partitionOrdered ) {
+    this.partitionOrdered = partitionOrdered;
+  }
+
   /**
    * Returns the Input/Output metadata for this step. The generator step only produces output, does not accept input!
    */
@@ -0,0 +1,150 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import java.sql.ResultSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Reads the rows of one range of a partitioned Table Input query on its own connection and puts them in a queue. The
+ * queue can be shared by the readers of all ranges or be used by one reader to keep the order of the ranges. After
+ * the last row, or after an error, {@link #END} is put in the queue.
+ */
+public class TableInputRangeReader implements Runnable {
+
+  /**
+   * Put in the queue when the reader is done.
+   */
+  public static final Object[] END = new Object[ 0 ];
+
+  private static final long POLL_MILLIS = 100;
+
+  private final Database db;
+  private final String partitionId;
+  private final String sql;
+  private final RowMetaInterface parametersMeta;
+  private final Object[] parameters;
+  private final boolean lazyConversion;
+  private final BlockingQueue<Object[]> queue;
+
+  private volatile boolean stopped;
+  private volatile RowMetaInterface rowMeta;
+  private volatile Exception error;
+
+  /**
+   * @param db the database to read from, not connected yet: the reader connects and disconnects it
+   */
+  public TableInputRangeReader( Database db, String partitionId, String sql, RowMetaInterface parametersMeta,
+    Object[] parameters, boolean lazyConversion, BlockingQueue<Object[]> queue ) {
+    this.db = db;
+    this.partitionId = partitionId;
+    this.sql = sql;
+    this.parametersMeta = parametersMeta;
+    this.parameters = parameters;
+    this.lazyConversion = lazyConversion;
+    this.queue = queue;
+  }
+
+  @Override
+  public void run() {
+    try {
+      db.connect( partitionId );
+      ResultSet rs = db.openQuery( sql, parametersMeta, parameters, ResultSet.FETCH_FORWARD, lazyConversion );
+      try {
+        rowMeta = db.getReturnRowMeta();
+        Object[] row = db.getRow( rs, lazyConversion );
+        while ( row != null && put( row ) ) {
+          row = db.getRow( rs, lazyConversion );
+        }
+      } finally {
+        db.closeQuery( rs );
+      }
+    } catch ( Exception e ) {
+      if ( !stopped ) {
+        error = e;
+      }
+    } finally {
+      db.disconnect();
+      forcePut( END );
+    }
+  }
+
+  /**
+   * @return false if the reader was stopped while waiting for room in the queue
+   */
+  private boolean put( Object[] row ) throws InterruptedException {
+    while ( !stopped ) {
+      if ( queue.offer( row, POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The end marker has to arrive even when the queue is full and nobody reads it anymore.
+   */
+  private void forcePut( Object[] row ) {
+    try {
+      while ( !queue.offer( row, POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+        if ( stopped ) {
+          queue.clear();
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Stop reading and cancel the running query.
+   */
+  public void stop() {
+    stopped = true;
+    try {
+      if ( db.getConnection() != null ) {
+        db.cancelQuery();
+      }
+    } catch ( KettleDatabaseException e ) {
+      // The query ends anyway when the reader sees it was stopped
+    }
+  }
+
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * @return the metadata of the rows, null until the query was opened
+   */
+  public RowMetaInterface getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * @return the error that ended the reader or null
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  public BlockingQueue<Object[]> getQueue() {
+    return queue;
+  }
+}
@@ -0,0 +1,197 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaTimestamp;
+
+/**
+ * Splits the query of a Table Input step into ranges of a numeric or date column of its result. The query is wrapped
+ * in a sub-query and every range selects a part of it:
+ *
+ * <pre>
+ * range 0:         column &lt; boundary 1
+ * range i:         column &gt;= boundary i AND column &lt; boundary i+1
+ * the last range:  column &gt;= boundary n-1 OR column IS NULL
+ * </pre>
+ *
+ * Together the ranges return every row of the query exactly once, whatever the boundaries are. The boundaries divide
+ * the interval between a minimum and a maximum in ranges of the same size.
+ */
+public class TableInputRanges {
+
+  private static final String ALIAS = "kettle_ranges";
+
+  private TableInputRanges() {
+  }
+
+  /**
+   * @return the query returning the minimum and maximum of the column
+   */
+  public static String getMinMaxSql( String sql, String quotedColumn ) {
+    return "SELECT MIN(" + quotedColumn + "), MAX(" + quotedColumn + ") FROM ( " + stripSql( sql ) + " ) " + ALIAS;
+  }
+
+  /**
+   * @param range the range, from 0 to count-1
+   * @param count the number of ranges, at least 2
+   * @return the query returning the rows of a range, with the boundaries as parameters after the ones of the query
+   */
+  public static String getRangeSql( String sql, String quotedColumn, int range, int count ) {
+    StringBuilder rangeSql = new StringBuilder( "SELECT * FROM ( " ).append( stripSql( sql ) ).append( " ) " )
+      .append( ALIAS ).append( Const.CR ).append( "WHERE " );
+    if ( range == 0 ) {
+      rangeSql.append( quotedColumn ).append( " < ?" );
+    } else if ( range < count - 1 ) {
+      rangeSql.append( quotedColumn ).append( " >= ? AND " ).append( quotedColumn ).append( " < ?" );
+    } else {
+      rangeSql.append( quotedColumn ).append( " >= ? OR " ).append( quotedColumn ).append( " IS NULL" );
+    }
+    return rangeSql.toString();
+  }
+
+  /**
+   * @return the parameters of a range: the parameters of the query followed by the boundaries of the range
+   */
+  public static RowMetaInterface getRangeParametersMeta( RowMetaInterface parametersMeta,
+    ValueMetaInterface boundaryMeta, int range, int count ) {
+    RowMetaInterface rangeMeta = parametersMeta == null ? new RowMeta() : parametersMeta.clone();
+    int nrBoundaries = range == 0 || range == count - 1 ? 1 : 2;
+    for ( int i = 0; i < nrBoundaries; i++ ) {
+      ValueMetaInterface valueMeta = boundaryMeta.clone();
+      valueMeta.setName( boundaryMeta.getName() + "_" + i );
+      rangeMeta.addValueMeta( valueMeta );
+    }
+    return rangeMeta;
+  }
+
+  /**
+   * @param boundaries the boundaries between the ranges, see {@link #getBoundaries(ValueMetaInterface, Object,
+   *                   Object, int)}
+   */
+  public static Object[] getRangeParameters( Object[] parameters, Object[] boundaries, int range ) {
+    int nrParameters = parameters == null ? 0 : parameters.length;
+    int count = boundaries.length + 1;
+    Object[] rangeParameters;
+    if ( range == 0 ) {
+      rangeParameters = new Object[ nrParameters + 1 ];
+      rangeParameters[ nrParameters ] = boundaries[ 0 ];
+    } else if ( range < count - 1 ) {
+      rangeParameters = new Object[ nrParameters + 2 ];
+      rangeParameters[ nrParameters ] = boundaries[ range - 1 ];
+      rangeParameters[ nrParameters + 1 ] = boundaries[ range ];
+    } else {
+      rangeParameters = new Object[ nrParameters + 1 ];
+      rangeParameters[ nrParameters ] = boundaries[ range - 1 ];
+    }
+    if ( nrParameters > 0 ) {
+      System.arraycopy( parameters, 0, rangeParameters, 0, nrParameters );
+    }
+    return rangeParameters;
+  }
+
+  /**
+   * The metadata of the boundaries of a column: an integer, number, big number, date or timestamp.
+   *
+   * @throws KettleValueException if the ranges of the column type can't be calculated
+   */
+  public static ValueMetaInterface getBoundaryMeta( ValueMetaInterface columnMeta ) throws KettleValueException {
+    String name = "range";
+    switch ( columnMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return new ValueMetaInteger( name );
+      case ValueMetaInterface.TYPE_NUMBER:
+        return new ValueMetaNumber( name );
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return new ValueMetaBigNumber( name );
+      case ValueMetaInterface.TYPE_DATE:
+        return new ValueMetaDate( name );
+      case ValueMetaInterface.TYPE_TIMESTAMP:
+        return new ValueMetaTimestamp( name );
+      default:
+        throw new KettleValueException( "Unable to split a query in ranges of " + columnMeta.toStringMeta()
+          + " column '" + columnMeta.getName() + "': only numeric and date columns are supported" );
+    }
+  }
+
+  /**
+   * Divide the interval from the minimum to the maximum in ranges of the same size.
+   *
+   * @param boundaryMeta the type of the boundaries, see {@link #getBoundaryMeta(ValueMetaInterface)}
+   * @param min          the minimum, of the boundary type
+   * @param max          the maximum, of the boundary type
+   * @param count        the number of ranges
+   * @return the count-1 boundaries between the ranges
+   */
+  public static Object[] getBoundaries( ValueMetaInterface boundaryMeta, Object min, Object max, int count )
+    throws KettleValueException {
+    BigDecimal low;
+    BigDecimal high;
+    if ( boundaryMeta.isDate() ) {
+      low = BigDecimal.valueOf( boundaryMeta.getDate( min ).getTime() );
+      high = BigDecimal.valueOf( boundaryMeta.getDate( max ).getTime() );
+    } else {
+      low = boundaryMeta.getBigNumber( min );
+      high = boundaryMeta.getBigNumber( max );
+    }
+    BigDecimal step = high.subtract( low ).divide( BigDecimal.valueOf( count ), MathContext.DECIMAL64 );
+
+    Object[] boundaries = new Object[ count - 1 ];
+    for ( int i = 1; i < count; i++ ) {
+      BigDecimal boundary = low.add( step.multiply( BigDecimal.valueOf( i ) ) );
+      switch ( boundaryMeta.getType() ) {
+        case ValueMetaInterface.TYPE_INTEGER:
+          boundaries[ i - 1 ] = boundary.longValue();
+          break;
+        case ValueMetaInterface.TYPE_NUMBER:
+          boundaries[ i - 1 ] = boundary.doubleValue();
+          break;
+        case ValueMetaInterface.TYPE_TIMESTAMP:
+          boundaries[ i - 1 ] = new Timestamp( boundary.longValue() );
+          break;
+        case ValueMetaInterface.TYPE_DATE:
+          boundaries[ i - 1 ] = new Date( boundary.longValue() );
+          break;
+        default:
+          boundaries[ i - 1 ] = boundary;
+          break;
+      }
+    }
+    return boundaries;
+  }
+
+  /**
+   * A query ending with a semicolon can't be used as a sub-query.
+   */
+  private static String stripSql( String sql ) {
+    String stripped = Const.rtrim( sql );
+    while ( stripped.endsWith( ";" ) ) {
+      stripped = Const.rtrim( stripped.substring( 0, stripped.length() - 1 ) );
+    }
+    return stripped;
+  }
+}
@@ -15,6 +15,8 @@ package org.pentaho.di.trans.steps.update;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang.ArrayUtils;
@@ -22,6 +24,7 @@ import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.SQLStatement;
 import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.database.BatchKeyLookup;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -53,21 +56,7 @@ public class Update extends BaseDatabaseStep implements StepInterface {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
   }
 
-  private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
-    Object[] outputRow = row;
-    Object[] add;
-
-    // Create the output row and copy the input values
-    if ( !Utils.isEmpty( meta.getIgnoreFlagField() ) ) { // add flag field!
-
-      outputRow = new Object[data.outputRowMeta.size()];
-      for ( int i = 0; i < rowMeta.size(); i++ ) {
-        outputRow[i] = row[i];
-      }
-    }
-
-    // OK, now do the lookup.
-    // We need the lookupvalues for that.
+  private Object[] getLookupRow( Object[] row ) {
     Object[] lookupRow = new Object[data.lookupParameterRowMeta.size()];
     int lookupIndex = 0;
 
@@ -82,6 +71,15 @@ public class Update extends BaseDatabaseStep implements StepInterface {
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
+
+  private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    Object[] add;
+
+    // OK, now do the lookup.
+    // We need the lookupvalues for that.
+    Object[] lookupRow = getLookupRow( row );
     RowMetaInterface returnRowMeta = null;
     if ( !meta.isSkipLookup() ) {
       data.db.setValues( data.lookupParameterRowMeta, lookupRow, data.prepStatementLookup );
@@ -94,6 +92,26 @@ public class Update extends BaseDatabaseStep implements StepInterface {
     } else {
       add = null;
     }
+    return writeValues( rowMeta, row, lookupRow, add, returnRowMeta );
+  }
+
+  /**
+   * Update the row if it was found by the lookup and something changed.
+   *
+   * @return the output row or null if the row went to the error handling
+   */
+  private Object[] writeValues( RowMetaInterface rowMeta, Object[] row, Object[] lookupRow, Object[] add,
+    RowMetaInterface returnRowMeta ) throws KettleException {
+    Object[] outputRow = row;
+
+    // Create the output row and copy the input values
+    if ( !Utils.isEmpty( meta.getIgnoreFlagField() ) ) { // add flag field!
+
+      outputRow = new Object[data.outputRowMeta.size()];
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        outputRow[i] = row[i];
+      }
+    }
 
     incrementLinesInput();
 
@@ -197,12 +215,12 @@ public class Update extends BaseDatabaseStep implements StepInterface {
     meta = (UpdateMeta) smi;
     data = (UpdateData) sdi;
 
-    boolean sendToErrorRow = false;
-    String errorMessage = null;
-
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
 
+      if ( data.batchRows != null && !data.batchRows.isEmpty() && !processBatch() ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -303,12 +321,79 @@ public class Update extends BaseDatabaseStep implements StepInterface {
         }
       } else {
         setLookup( getInputRowMeta() );
+
+        int batchSize = Const.toInt( getVariable( Const.KETTLE_DATABASE_LOOKUP_BATCH_SIZE ), 0 );
+        if ( batchSize > 1 && isBatchLookupPossible() ) {
+          data.batchLookup = new BatchKeyLookup( data.db, data.lookupSql, data.lookupParameterRowMeta, batchSize );
+          data.batchRows = new ArrayList<>( data.batchLookup.getBatchSize() );
+          if ( log.isDetailed() ) {
+            logDetailed( "Looking up the keys of " + data.batchLookup.getBatchSize() + " rows at once" );
+          }
+        }
       }
       prepareUpdate( getInputRowMeta() );
     }
 
+    if ( data.batchLookup != null ) {
+      data.batchRows.add( r );
+      return data.batchRows.size() < data.batchLookup.getBatchSize() || processBatch();
+    }
+    return writeRow( r, BatchKeyLookup.NOT_LOOKED_UP );
+  }
+
+  /**
+   * Only keys that are compared on equality are looked up in batches: a row updated by the batch can then only be
+   * found again by a row with the same key.
+   */
+  private boolean isBatchLookupPossible() {
+    for ( String condition : meta.getKeyCondition() ) {
+      if ( !"=".equals( condition ) && !"= ~NULL".equalsIgnoreCase( condition ) ) {
+        return false;
+      }
+    }
+    return meta.getKeyCondition().length > 0;
+  }
+
+  /**
+   * Look up the keys of the buffered rows with one query, then update the rows in order.
+   */
+  private boolean processBatch() throws KettleException {
+    List<Object[]> rows = data.batchRows;
+    data.batchRows = new ArrayList<>( rows.size() );
+
+    List<Object[]> lookupRows = new ArrayList<>( rows.size() );
+    for ( Object[] row : rows ) {
+      lookupRows.add( getLookupRow( row ) );
+    }
+    Object[][] found;
+    try {
+      found = data.batchLookup.lookup( lookupRows );
+    } catch ( KettleException e ) {
+      logError( BaseMessages.getString( PKG, "Update.Log.BatchLookupFailed" ), e );
+      closeBatchLookup();
+      found = new Object[rows.size()][];
+      Arrays.fill( found, BatchKeyLookup.NOT_LOOKED_UP );
+    }
+
+    for ( int i = 0; i < rows.size(); i++ ) {
+      if ( !writeRow( rows.get( i ), found[i] ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean writeRow( Object[] r, Object[] found ) throws KettleException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
     try {
-      Object[] outputRow = lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      Object[] outputRow;
+      if ( found == BatchKeyLookup.NOT_LOOKED_UP ) {
+        outputRow = lookupValues( getInputRowMeta(), r ); // add new values to the row in rowset[0].
+      } else {
+        outputRow = writeValues( getInputRowMeta(), r, getLookupRow( r ), found, data.batchLookup.getReturnRowMeta() );
+      }
       if ( outputRow != null ) {
         putRow( data.outputRowMeta, outputRow ); // copy non-ignored rows to output rowset(s);
       }
@@ -399,7 +484,8 @@ public class Update extends BaseDatabaseStep implements StepInterface {
       if ( log.isDetailed() ) {
         logDetailed( "Setting preparedStatement to [" + sql + "]" );
       }
-      data.prepStatementLookup = data.db.getConnection().prepareStatement( databaseMeta.stripCR( sql ) );
+      data.lookupSql = databaseMeta.stripCR( sql );
+      data.prepStatementLookup = data.db.getConnection().prepareStatement( data.lookupSql );
     } catch ( SQLException ex ) {
       throw new KettleDatabaseException( "Unable to prepare statement for SQL statement [" + sql + "]", ex );
     }
@@ -501,6 +587,7 @@ public class Update extends BaseDatabaseStep implements StepInterface {
         }
         data.db.closePreparedStatement( data.prepStatementUpdate );
         data.db.closePreparedStatement( data.prepStatementLookup );
+        closeBatchLookup();
       } catch ( KettleDatabaseException e ) {
         logError( BaseMessages.getString( PKG, "Update.Log.UnableToCommitUpdateConnection" )
           + data.db + "] :" + e.toString() );
@@ -510,6 +597,17 @@ public class Update extends BaseDatabaseStep implements StepInterface {
     super.dispose( smi, sdi );
   }
 
+  private void closeBatchLookup() {
+    if ( data.batchLookup != null ) {
+      try {
+        data.batchLookup.close();
+      } catch ( KettleDatabaseException e ) {
+        logError( "Unable to close the batch lookup", e );
+      }
+      data.batchLookup = null;
+    }
+  }
+
  @SuppressWarnings( "java:S1144" ) // Using reflection this method is being invoked
   public JSONObject getSQLAction( Map<String, String> queryParams ) {
     JSONObject response = new JSONObject();
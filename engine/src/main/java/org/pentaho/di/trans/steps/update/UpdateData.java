@@ -14,7 +14,9 @@
 package org.pentaho.di.trans.steps.update;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 
+import org.pentaho.di.core.database.BatchKeyLookup;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseDatabaseStepData;
@@ -40,6 +42,7 @@ public class UpdateData extends BaseDatabaseStepData implements StepDataInterfac
 
   public String schemaTable;
 
+  public String lookupSql;
   public PreparedStatement prepStatementLookup;
   public PreparedStatement prepStatementUpdate;
 
@@ -47,6 +50,9 @@ public class UpdateData extends BaseDatabaseStepData implements StepDataInterfac
   public RowMetaInterface lookupReturnRowMeta;
   public RowMetaInterface updateParameterRowMeta;
 
+  public BatchKeyLookup batchLookup; // null if every row is looked up on its own
+  public List<Object[]> batchRows;
+
   public UpdateData() {
     super();
 
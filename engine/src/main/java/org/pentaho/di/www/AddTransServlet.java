@@ -31,6 +31,7 @@ import org.pentaho.di.trans.TransAdapter;
 import org.pentaho.di.trans.TransConfiguration;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.www.cache.CarteMetaCache;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
@@ -212,10 +213,12 @@ public class AddTransServlet extends BaseHttpServlet implements CartePluginInter
       while ( ( c = in.read() ) != -1 ) {
         xml.append( (char) c );
       }
-      // Parse the XML, create a transformation configuration
+      // Parse the XML, create a transformation configuration. The same XML posted again is taken from the cache.
       //
-      validateTransformation( new ByteArrayInputStream( xml.toString().getBytes() ) );
-      TransConfiguration transConfiguration = TransConfiguration.fromXML( xml.toString() );
+      String xmlString = xml.toString();
+      CarteMetaCache cache = CarteMetaCache.getInstance();
+      TransConfiguration transConfiguration =
+        cache.getTransConfiguration( cache.getXmlKey( xmlString ), () -> parseTransConfiguration( xmlString ) );
       TransMeta transMeta = transConfiguration.getTransMeta();
       transExecutionConfiguration = transConfiguration.getTransExecutionConfiguration();
       transMeta.setLogLevel( transExecutionConfiguration.getLogLevel() );
@@ -281,7 +284,7 @@ public class AddTransServlet extends BaseHttpServlet implements CartePluginInter
           + convertContextPath( GetTransStatusServlet.CONTEXT_PATH ) + "?name=" + Encode.forUriComponent( trans.getName() ) + "&id="
           + carteObjectId + "\">Go to the transformation status page</a><p>" );
       }
-    } catch ( KettleXMLException | SAXException ex ) {
+    } catch ( KettleXMLException ex ) {
       response.setStatus( HttpServletResponse.SC_BAD_REQUEST );
       printError( useXML, out, ex );
     } catch ( Exception ex ) {
@@ -290,6 +293,17 @@ public class AddTransServlet extends BaseHttpServlet implements CartePluginInter
     }
   }
 
+  private TransConfiguration parseTransConfiguration( String xml ) throws KettleException {
+    try {
+      validateTransformation( new ByteArrayInputStream( xml.getBytes() ) );
+    } catch ( SAXException e ) {
+      throw new KettleXMLException( e );
+    } catch ( IOException | ParserConfigurationException | XPathExpressionException e ) {
+      throw new KettleException( e );
+    }
+    return TransConfiguration.fromXML( xml );
+  }
+
   private void setupLogChannelWriter( String realLogFilename, TransExecutionConfiguration transExecutionConfiguration,
                                       SimpleLoggingObject servletLoggingObject, Trans trans ) {
     final LogChannelFileWriter logChannelFileWriter;
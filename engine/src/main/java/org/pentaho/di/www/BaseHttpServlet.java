@@ -171,6 +171,34 @@ public class BaseHttpServlet extends HttpServlet {
     log.logRowlevel( s );
   }
 
+  /**
+   * Set the ETag of the response. When the If-None-Match header of the request holds the same ETag the client already
+   * has this version, the status is set to 304 Not Modified and nothing else should be written.
+   *
+   * @param etag
+   *          the version of the response, without quotes
+   * @return true if the response is complete
+   */
+  protected boolean checkNotModified( HttpServletRequest request, HttpServletResponse response, String etag ) {
+    String quotedETag = "\"" + etag + "\"";
+    response.setHeader( "ETag", quotedETag );
+
+    String ifNoneMatch = request.getHeader( "If-None-Match" );
+    if ( ifNoneMatch != null ) {
+      for ( String candidate : ifNoneMatch.split( "," ) ) {
+        String match = candidate.trim();
+        if ( match.startsWith( "W/" ) ) {
+          match = match.substring( 2 );
+        }
+        if ( match.equals( quotedETag ) || match.equals( "*" ) ) {
+          response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   public void setup( TransformationMap transformationMap, JobMap jobMap, SocketRepository socketRepository,
     List<SlaveServerDetection> detections ) {
     this.transformationMap = transformationMap;
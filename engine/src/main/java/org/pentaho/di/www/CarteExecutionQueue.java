@@ -0,0 +1,396 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.job.Job;
+import org.pentaho.di.job.JobAdapter;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransAdapter;
+import org.pentaho.di.www.exception.ExecutionQueueFullException;
+
+/**
+ * Limits the number of transformations and jobs Carte runs at the same time. Executions over the limits of the
+ * {@link SlaveServerConfig} wait in a queue, by priority and then in order of arrival, and are started when a running
+ * one finishes. When a minimum percentage of free heap is configured a queued execution is only started while that
+ * much of the heap is free, or when nothing else runs. Once the queue holds the maximum number of executions new
+ * ones are refused.<br>
+ * <br>
+ * The queue is disabled, and everything is started right away, unless a maximum number of transformations or jobs is
+ * configured.
+ */
+public class CarteExecutionQueue {
+
+  public static final String STRING_QUEUED = "Queued";
+
+  public enum Type {
+    TRANSFORMATION, JOB
+  }
+
+  public enum Priority {
+    HIGH, NORMAL, LOW;
+
+    /**
+     * @return the priority with the given name, case insensitive, {@link #NORMAL} when it isn't known
+     */
+    public static Priority getPriority( String name ) {
+      for ( Priority priority : values() ) {
+        if ( priority.name().equalsIgnoreCase( name ) ) {
+          return priority;
+        }
+      }
+      return NORMAL;
+    }
+  }
+
+  /**
+   * Starts a queued execution.
+   */
+  @FunctionalInterface
+  public interface Starter {
+    void start() throws KettleException;
+  }
+
+  /**
+   * An execution in the queue. It holds a slot once admitted, until it is released.
+   */
+  public class Ticket {
+    private final Type type;
+    private final Priority priority;
+    private final String carteObjectId;
+    private final long sequence;
+    private final long queuedTime;
+    private final CountDownLatch admission = new CountDownLatch( 1 );
+    private final AtomicBoolean released;
+    private Starter starter;
+
+    private Ticket( Type type, Priority priority, String carteObjectId, boolean released ) {
+      this.type = type;
+      this.priority = priority;
+      this.carteObjectId = carteObjectId;
+      this.sequence = nextSequence.getAndIncrement();
+      this.queuedTime = System.currentTimeMillis();
+      this.released = new AtomicBoolean( released );
+    }
+
+    /**
+     * Give the slot of the execution to the next one in the queue. Only the first call counts.
+     */
+    public void release() {
+      if ( released.compareAndSet( false, true ) ) {
+        CarteExecutionQueue.this.release( type );
+      }
+    }
+  }
+
+  private static final CarteExecutionQueue instance = new CarteExecutionQueue();
+
+  private final Map<Type, PriorityQueue<Ticket>> queues = new EnumMap<>( Type.class );
+  private final Map<String, Ticket> queuedTickets = new HashMap<>();
+  private final int[] running = new int[ Type.values().length ];
+
+  private final AtomicLong nextSequence = new AtomicLong();
+  private final AtomicLong admitted = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong totalWaitMillis = new AtomicLong();
+
+  private int maxTransformations;
+  private int maxJobs;
+  private int maxQueued;
+  private int minFreeMemoryPercent;
+
+  private LogChannelInterface log = LogChannel.GENERAL;
+  private Timer memoryTimer;
+
+  CarteExecutionQueue() {
+    for ( Type type : Type.values() ) {
+      queues.put( type, new PriorityQueue<Ticket>( ( a, b ) -> a.priority != b.priority
+        ? a.priority.compareTo( b.priority ) : Long.compare( a.sequence, b.sequence ) ) );
+    }
+  }
+
+  public static CarteExecutionQueue getInstance() {
+    return instance;
+  }
+
+  /**
+   * Take the limits from the Carte configuration. Executions that already run or wait are left alone.
+   */
+  public void configure( SlaveServerConfig config, LogChannelInterface log ) {
+    this.log = log;
+    configure( config.getMaxConcurrentTransformations(), config.getMaxConcurrentJobs(),
+      config.getMaxQueuedExecutions(), config.getMinFreeMemoryPercent() );
+    if ( isEnabled() ) {
+      log.logBasic( "Execution queue: at most " + maxTransformations + " transformations and " + maxJobs
+        + " jobs at the same time (0 is no limit), " + maxQueued + " queued, " + minFreeMemoryPercent
+        + "% of the heap free to start" );
+    }
+  }
+
+  synchronized void configure( int maxTransformations, int maxJobs, int maxQueued, int minFreeMemoryPercent ) {
+    this.maxTransformations = Math.max( 0, maxTransformations );
+    this.maxJobs = Math.max( 0, maxJobs );
+    this.maxQueued = Math.max( 0, maxQueued );
+    this.minFreeMemoryPercent = Math.max( 0, Math.min( 100, minFreeMemoryPercent ) );
+
+    // Nothing finishes to start the next one while the heap is full, so check again now and then
+    //
+    if ( isEnabled() && this.minFreeMemoryPercent > 0 && memoryTimer == null ) {
+      memoryTimer = new Timer( "CarteExecutionQueueTimer", true );
+      memoryTimer.schedule( new TimerTask() {
+        public void run() {
+          dispatch();
+        }
+      }, 1000, 1000 );
+    }
+  }
+
+  public synchronized boolean isEnabled() {
+    return maxTransformations > 0 || maxJobs > 0;
+  }
+
+  /**
+   * Start a job now or once there is room for it. The slot of the job is released when it finishes.
+   *
+   * @param carteObjectId the Carte object ID of the job
+   * @param job           the job, skipped if it is stopped while it waits
+   * @param priority      the priority of the job in the queue
+   * @param starter       starts the job
+   * @return true if the job was started, false if it was queued
+   * @throws ExecutionQueueFullException if the queue is full
+   * @throws KettleException             if the job was started right away and that failed
+   */
+  public boolean submitJob( String carteObjectId, Job job, Priority priority, Starter starter )
+    throws KettleException {
+    if ( !isEnabled() ) {
+      starter.start();
+      return true;
+    }
+
+    Ticket ticket = new Ticket( Type.JOB, priority, carteObjectId, false );
+    ticket.starter = () -> {
+      if ( job.isStopped() ) {
+        ticket.release();
+        return;
+      }
+      job.addJobListener( new JobAdapter() {
+        @Override public void jobFinished( Job finishedJob ) {
+          ticket.release();
+        }
+      } );
+      starter.start();
+    };
+    if ( !enqueue( ticket ) ) {
+      return false;
+    }
+    try {
+      ticket.starter.start();
+    } catch ( KettleException | RuntimeException e ) {
+      ticket.release();
+      throw e;
+    }
+    return true;
+  }
+
+  /**
+   * Wait until there is room for a transformation. The slot is released when the transformation finishes, call
+   * {@link Ticket#release()} if it fails to start.
+   *
+   * @param carteObjectId the Carte object ID of the transformation
+   * @param trans         the transformation
+   * @param priority      the priority of the transformation in the queue
+   * @return the ticket of the transformation
+   * @throws ExecutionQueueFullException if the queue is full
+   * @throws KettleException             if the wait is interrupted
+   */
+  public Ticket admitTransformation( String carteObjectId, Trans trans, Priority priority )
+    throws KettleException {
+    if ( !isEnabled() ) {
+      return new Ticket( Type.TRANSFORMATION, priority, carteObjectId, true );
+    }
+
+    Ticket ticket = new Ticket( Type.TRANSFORMATION, priority, carteObjectId, false );
+    if ( !enqueue( ticket ) ) {
+      try {
+        ticket.admission.await();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        cancel( ticket );
+        throw new KettleException( "Interrupted while transformation [" + trans.getName() + "] was queued", e );
+      }
+    }
+    trans.addTransListener( new TransAdapter() {
+      @Override public void transFinished( Trans finishedTrans ) {
+        ticket.release();
+      }
+    } );
+    return ticket;
+  }
+
+  /**
+   * @return true if the execution may start now, false if it was queued
+   */
+  private boolean enqueue( Ticket ticket ) throws ExecutionQueueFullException {
+    synchronized ( this ) {
+      if ( queues.get( ticket.type ).isEmpty() && canStart( ticket.type ) ) {
+        running[ ticket.type.ordinal() ]++;
+        admitted.incrementAndGet();
+        return true;
+      }
+      if ( maxQueued > 0 && queuedTickets.size() >= maxQueued ) {
+        rejected.incrementAndGet();
+        throw new ExecutionQueueFullException( "The execution queue of this Carte server is full: "
+          + queuedTickets.size() + " transformations and jobs are waiting" );
+      }
+      queues.get( ticket.type ).add( ticket );
+      queuedTickets.put( ticket.carteObjectId, ticket );
+    }
+    log.logBasic( "Queued " + ticket.type.name().toLowerCase() + " with id " + ticket.carteObjectId + " ("
+      + ticket.priority.name().toLowerCase() + " priority)" );
+    return false;
+  }
+
+  private void cancel( Ticket ticket ) {
+    synchronized ( this ) {
+      if ( queues.get( ticket.type ).remove( ticket ) ) {
+        queuedTickets.remove( ticket.carteObjectId );
+        ticket.released.set( true );
+        return;
+      }
+    }
+    // Admitted in the mean time
+    //
+    ticket.release();
+  }
+
+  private boolean canStart( Type type ) {
+    int max = type == Type.TRANSFORMATION ? maxTransformations : maxJobs;
+    if ( max > 0 && running[ type.ordinal() ] >= max ) {
+      return false;
+    }
+    int allRunning = 0;
+    for ( int count : running ) {
+      allRunning += count;
+    }
+    return minFreeMemoryPercent == 0 || allRunning == 0 || getFreeMemoryPercent() >= minFreeMemoryPercent;
+  }
+
+  /**
+   * @return the part of the maximum heap that isn't used, in percent
+   */
+  protected int getFreeMemoryPercent() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = runtime.totalMemory() - runtime.freeMemory();
+    return (int) ( ( runtime.maxMemory() - used ) * 100 / runtime.maxMemory() );
+  }
+
+  private void release( Type type ) {
+    synchronized ( this ) {
+      running[ type.ordinal() ] = Math.max( 0, running[ type.ordinal() ] - 1 );
+    }
+    dispatch();
+  }
+
+  /**
+   * Start the queued executions there is room for.
+   */
+  void dispatch() {
+    List<Ticket> tickets = new ArrayList<>();
+    synchronized ( this ) {
+      for ( Type type : Type.values() ) {
+        PriorityQueue<Ticket> queue = queues.get( type );
+        while ( !queue.isEmpty() && canStart( type ) ) {
+          Ticket ticket = queue.poll();
+          queuedTickets.remove( ticket.carteObjectId );
+          running[ type.ordinal() ]++;
+          admitted.incrementAndGet();
+          tickets.add( ticket );
+        }
+      }
+    }
+
+    for ( Ticket ticket : tickets ) {
+      long waitMillis = System.currentTimeMillis() - ticket.queuedTime;
+      totalWaitMillis.addAndGet( waitMillis );
+      log.logBasic( "Starting queued " + ticket.type.name().toLowerCase() + " with id " + ticket.carteObjectId
+        + " after " + waitMillis + "ms" );
+      if ( ticket.starter == null ) {
+        ticket.admission.countDown();
+        continue;
+      }
+      try {
+        ticket.starter.start();
+      } catch ( Exception e ) {
+        log.logError( "Unable to start queued " + ticket.type.name().toLowerCase() + " with id "
+          + ticket.carteObjectId, e );
+        ticket.release();
+      }
+    }
+  }
+
+  public synchronized boolean isQueued( String carteObjectId ) {
+    return queuedTickets.containsKey( carteObjectId );
+  }
+
+  /**
+   * @return {@link #STRING_QUEUED} if the execution waits in the queue, the given status otherwise
+   */
+  public String getStatus( String carteObjectId, String status ) {
+    return isQueued( carteObjectId ) ? STRING_QUEUED : status;
+  }
+
+  public synchronized int getQueued( Type type ) {
+    return queues.get( type ).size();
+  }
+
+  /**
+   * @return the number of executions admitted by the queue that didn't finish yet
+   */
+  public synchronized int getRunning( Type type ) {
+    return running[ type.ordinal() ];
+  }
+
+  public synchronized int getMaxConcurrent( Type type ) {
+    return type == Type.TRANSFORMATION ? maxTransformations : maxJobs;
+  }
+
+  public long getAdmitted() {
+    return admitted.get();
+  }
+
+  public long getRejected() {
+    return rejected.get();
+  }
+
+  /**
+   * @return the total time the admitted executions waited in the queue
+   */
+  public long getTotalWaitMillis() {
+    return totalWaitMillis.get();
+  }
+}
@@ -0,0 +1,127 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of when the status of the entries of a transformation or job map last changed and which entries were
+ * removed, so a client polling the server status can ask for the changes since its previous request only.<br>
+ * <br>
+ * A status change is recorded the first time it is seen, by the status request that comes after it. The change time is
+ * therefore never earlier than the status time of a previous response that didn't include the change yet.
+ */
+public class CarteObjectChanges {
+
+  /** The number of removed entries that are remembered */
+  static final int MAX_REMOVED_ENTRIES = 1000;
+
+  private final Map<CarteObjectEntry, Change> changes = new ConcurrentHashMap<>();
+
+  private final Deque<Removal> removals = new ArrayDeque<>();
+
+  /** Removals before this time may have been forgotten */
+  private long removalsKnownSince = System.currentTimeMillis();
+
+  private static class Change {
+    private String status;
+    private long time;
+
+    Change( long time ) {
+      this.time = time;
+    }
+  }
+
+  private static class Removal {
+    private final CarteObjectEntry entry;
+    private final long time;
+
+    Removal( CarteObjectEntry entry, long time ) {
+      this.entry = entry;
+      this.time = time;
+    }
+  }
+
+  /**
+   * An entry was added or replaced, it counts as a change of its status.
+   */
+  public void added( CarteObjectEntry entry ) {
+    changes.put( entry, new Change( System.currentTimeMillis() ) );
+  }
+
+  public void removed( CarteObjectEntry entry ) {
+    if ( changes.remove( entry ) == null ) {
+      return;
+    }
+    synchronized ( removals ) {
+      removals.addLast( new Removal( entry, System.currentTimeMillis() ) );
+      while ( removals.size() > MAX_REMOVED_ENTRIES ) {
+        removalsKnownSince = removals.removeFirst().time;
+      }
+    }
+  }
+
+  /**
+   * Get the time the status of an entry last changed, recording a change if the status is different from the one seen
+   * before.
+   *
+   * @param entry  the entry
+   * @param status the current status of the entry
+   * @return the time the status last changed in ms, the current time for an entry that isn't tracked
+   */
+  public long getStatusChangeTime( CarteObjectEntry entry, String status ) {
+    Change change = changes.get( entry );
+    if ( change == null ) {
+      return System.currentTimeMillis();
+    }
+    synchronized ( change ) {
+      if ( change.status != null && !change.status.equals( status ) ) {
+        change.time = System.currentTimeMillis();
+      }
+      change.status = status;
+      return change.time;
+    }
+  }
+
+  /**
+   * @param since the time in ms
+   * @return the entries removed at or after the time, oldest first
+   */
+  public List<CarteObjectEntry> getRemovedSince( long since ) {
+    List<CarteObjectEntry> removed = new ArrayList<>();
+    synchronized ( removals ) {
+      for ( Removal removal : removals ) {
+        if ( removal.time >= since ) {
+          removed.add( removal.entry );
+        }
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * @param since the time in ms
+   * @return false if entries removed at or after the time may have been forgotten
+   */
+  public boolean knowsRemovalsSince( long since ) {
+    synchronized ( removals ) {
+      return since >= removalsKnownSince;
+    }
+  }
+}
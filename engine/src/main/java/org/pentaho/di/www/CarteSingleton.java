@@ -64,6 +64,8 @@ public class CarteSingleton {
     detections = new ArrayList<SlaveServerDetection>();
     socketRepository = new SocketRepository( log );
 
+    CarteExecutionQueue.getInstance().configure( config, log );
+
     installPurgeTimer( config, log, transformationMap, jobMap );
 
     SlaveServer slaveServer = config.getSlaveServer();
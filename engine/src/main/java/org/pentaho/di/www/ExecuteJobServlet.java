@@ -50,6 +50,9 @@ import org.pentaho.di.repository.Repository;
 import org.pentaho.di.repository.RepositoryDirectory;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
 import org.pentaho.di.repository.RepositoryMeta;
+import org.pentaho.di.repository.RepositoryObjectType;
+import org.pentaho.di.www.cache.CarteMetaCache;
+import org.pentaho.di.www.exception.ExecutionQueueFullException;
 
 public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInterface {
 
@@ -117,6 +120,11 @@ public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInt
     <td>query</td>
     </tr>
     <tr>
+    <td>priority</td>
+    <td>Priority of the job in the execution queue: high, normal (default) or low.</td>
+    <td>query</td>
+    </tr>
+    <tr>
     <td>*any name*</td>
     <td>All the other parameters will be sent to the job for using as variables.
   When necessary you can add custom parameters to the request.
@@ -167,6 +175,10 @@ public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInt
       <td>500</td>
       <td>Internal server error occurs during request processing.</td>
     </tr>
+    <tr>
+      <td>503</td>
+      <td>The execution queue is full.</td>
+    </tr>
   </tbody>
 </table>
 </div>
@@ -183,13 +195,14 @@ public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInt
 
     // Options taken from PAN
     //
-    String[] knownOptions = new String[] { "rep", "user", "pass", "job", "level", };
+    String[] knownOptions = new String[] { "rep", "user", "pass", "job", "level", "priority", };
 
     String repOption = request.getParameter( "rep" );
     String userOption = request.getParameter( "user" );
     String passOption = Encr.decryptPasswordOptionallyEncrypted( request.getParameter( "pass" ) );
     String jobOption = request.getParameter( "job" );
     String levelOption = request.getParameter( "level" );
+    String priorityOption = request.getParameter( "priority" );
 
     PrintWriter out = response.getWriter();
 
@@ -301,11 +314,22 @@ public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInt
     }
 
     try {
-      runJob( job );
-      WebResult webResult = new WebResult( WebResult.STRING_OK, "Job started", carteObjectId );
+      boolean started = CarteExecutionQueue.getInstance().submitJob( carteObjectId, job,
+        CarteExecutionQueue.Priority.getPriority( priorityOption ), () -> runJob( job ) );
+      WebResult webResult = new WebResult( WebResult.STRING_OK, started ? "Job started" : "Job queued",
+        carteObjectId );
       out.println( webResult.getXML() );
       out.flush();
 
+    } catch ( ExecutionQueueFullException queueFullException ) {
+      getJobMap().removeJob( new CarteObjectEntry( jobMeta.getName(), carteObjectId ) );
+      if ( repository != null ) {
+        repository.disconnect();
+      }
+      response.setStatus( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+      out.println( new WebResult( WebResult.STRING_ERROR, queueFullException.getMessage() ) );
+
+      return;
     } catch ( Exception executionException ) {
       // Something went wrong while running the job.
       response.setStatus( HttpServletResponse.SC_INTERNAL_SERVER_ERROR );
@@ -328,8 +352,9 @@ public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInt
       // Without a repository it's a filename --> file:///foo/bar/job.kjb
       //
       // Repository doesn't need bowl-specific VFS. Use DefaultBowl.
-      JobMeta jobMeta = new JobMeta( DefaultBowl.getInstance(), job, repository );
-      return jobMeta;
+      CarteMetaCache cache = CarteMetaCache.getInstance();
+      return cache.getJobMeta( cache.getFileKey( job ),
+        () -> new JobMeta( DefaultBowl.getInstance(), job, repository ) );
 
     } else {
 
@@ -358,8 +383,9 @@ public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInt
         String message = BaseMessages.getString( PKG, "ExecuteJobServlet.Error.JobNotFoundInDirectory", name, directoryPath );
         throw new KettleException( message );
       }
-      JobMeta jobMeta = repository.loadJob( jobID, null );
-      return jobMeta;
+      CarteMetaCache cache = CarteMetaCache.getInstance();
+      return cache.getJobMeta( cache.getRepositoryKey( repository, jobID, RepositoryObjectType.JOB ),
+        () -> repository.loadJob( jobID, null ) );
     }
   }
 
@@ -42,11 +42,14 @@ import org.pentaho.di.repository.RepositoryDirectoryInterface;
 import org.pentaho.di.repository.ObjectId;
 import org.pentaho.di.repository.RepositoriesMeta;
 import org.pentaho.di.repository.RepositoryMeta;
+import org.pentaho.di.repository.RepositoryObjectType;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransAdapter;
 import org.pentaho.di.trans.TransConfiguration;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.www.cache.CarteMetaCache;
+import org.pentaho.di.www.exception.ExecutionQueueFullException;
 
 public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginInterface {
 
@@ -61,6 +64,7 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
   private static final String PASS = "pass";
   private static final String TRANS = "trans";
   private static final String LEVEL = "level";
+  private static final String PRIORITY = "priority";
 
   public static final String CONTEXT_PATH = "/kettle/executeTrans";
 
@@ -122,6 +126,12 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
     <td>query</td>
     </tr>
     <tr>
+    <td>priority</td>
+    <td>Priority of the transformation in the execution queue: high, normal (default) or low. The request waits
+    while the transformation is queued.</td>
+    <td>query</td>
+    </tr>
+    <tr>
     <td>*any name*</td>
     <td>All the other parameters will be sent to the transformation for using as variables.
   When necessary you can add custom parameters to the request.
@@ -207,6 +217,10 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
       <td>500</td>
       <td>Internal server error occurs during request processing.</td>
     </tr>
+    <tr>
+      <td>503</td>
+      <td>The execution queue is full.</td>
+    </tr>
   </tbody>
 </table>
 </div>
@@ -223,13 +237,14 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
 
     // Options taken from PAN
     //
-    String[] knownOptions = new String[] { REP, USER, PASS, TRANS, LEVEL };
+    String[] knownOptions = new String[] { REP, USER, PASS, TRANS, LEVEL, PRIORITY };
 
     String repOption = request.getParameter( REP );
     String userOption = request.getParameter( USER );
     String passOption = Encr.decryptPasswordOptionallyEncrypted( request.getParameter( PASS ) );
     String transOption = request.getParameter( TRANS );
     String levelOption = request.getParameter( LEVEL );
+    String priorityOption = request.getParameter( PRIORITY );
 
     response.setStatus( HttpServletResponse.SC_OK );
 
@@ -312,6 +327,22 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
       trans.setServletReponse( response );
       trans.setServletRequest( request );
 
+      // Wait until the execution queue has room for it
+      //
+      CarteExecutionQueue.Ticket ticket;
+      try {
+        ticket = CarteExecutionQueue.getInstance().admitTransformation( carteObjectId, trans,
+          CarteExecutionQueue.Priority.getPriority( priorityOption ) );
+      } catch ( ExecutionQueueFullException queueFullException ) {
+        getTransformationMap().removeTransformation( new CarteObjectEntry( transMeta.getName(), carteObjectId ) );
+        if ( repository != null ) {
+          repository.disconnect();
+        }
+        response.setStatus( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+        out.println( new WebResult( WebResult.STRING_ERROR, queueFullException.getMessage() ) );
+        return;
+      }
+
       try {
         // Execute the transformation...
         //
@@ -324,6 +355,7 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
         }
         out.flush();
       } catch ( Exception executionException ) {
+        ticket.release();
         String logging = KettleLogStore.getAppender().getBuffer( trans.getLogChannelId(), false ).toString();
         throw new KettleException( BaseMessages.getString( PKG, "ExecuteTransServlet.Error.ErrorExecutingTrans", logging ), executionException );
       }
@@ -357,8 +389,8 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
       // Without a repository it's a filename --> file:///foo/bar/trans.ktr
       //
       // Repository doesn't need bowl-specific VFS. Use DefaultBowl.
-      TransMeta transMeta = new TransMeta( DefaultBowl.getInstance(), trans );
-      return transMeta;
+      CarteMetaCache cache = CarteMetaCache.getInstance();
+      return cache.getTransMeta( cache.getFileKey( trans ), () -> new TransMeta( DefaultBowl.getInstance(), trans ) );
 
     } else {
 
@@ -385,8 +417,9 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
       if ( transformationID == null ) {
         throw new KettleException( "Unable to find transformation '" + name + "' in directory :" + directory );
       }
-      TransMeta transMeta = repository.loadTransformation( transformationID, null );
-      return transMeta;
+      CarteMetaCache cache = CarteMetaCache.getInstance();
+      return cache.getTransMeta( cache.getRepositoryKey( repository, transformationID,
+        RepositoryObjectType.TRANSFORMATION ), () -> repository.loadTransformation( transformationID, null ) );
     }
   }
 
@@ -182,6 +182,11 @@ public class GetJobStatusServlet extends BaseHttpServlet implements CartePluginI
    <td>Conflicting: multiple jobs with the same name. must provide id</td>
    </tr>
    <tr>
+   <td>304</td>
+   <td>The job finished and didn't change since the response with the ETag in the <code>If-None-Match</code>
+   header. Only used with <code>xml=Y</code>.</td>
+   </tr>
+   <tr>
    <td>500</td>
    <td>Internal server error occurs during request processing.</td>
    </tr>
@@ -271,6 +276,13 @@ public class GetJobStatusServlet extends BaseHttpServlet implements CartePluginI
           byte[] data = null;
           String logId = job.getLogChannelId();
           boolean finishedOrStopped = job.isFinished() || job.isStopped();
+
+          // The status of a finished job doesn't change any more
+          //
+          if ( finishedOrStopped && checkNotModified( request, response, logId + "-" + startLineNr + "-"
+            + ( job.getLogDate() == null ? 0L : job.getLogDate().getTime() ) ) ) {
+            return;
+          }
           if ( finishedOrStopped && ( data = cache.get( logId, startLineNr ) ) != null ) {
             response.setContentLength( XML_HEADER.length + data.length );
             out = response.getOutputStream();
@@ -0,0 +1,226 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.BufferLine;
+import org.pentaho.di.core.logging.KettleLogLayout;
+import org.pentaho.di.core.logging.KettleLogStore;
+import org.pentaho.di.core.logging.LoggingBufferSegment;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.job.Job;
+import org.pentaho.di.trans.Trans;
+
+/**
+ * Streams the log lines of a transformation or job (including its steps, job entries and sub-processes) that were
+ * logged after a given line number. Clients keep the returned line number as a cursor, so every request only
+ * transfers and formats the new lines.
+ */
+public class GetLogServlet extends BaseHttpServlet implements CartePluginInterface {
+
+  private static final long serialVersionUID = -3147312536489287452L;
+
+  public static final String CONTEXT_PATH = "/kettle/log";
+
+  public static final String PARAMETER_TYPE = "type";
+  public static final String PARAMETER_AFTER = "after";
+  public static final String PARAMETER_MAX_LINES = "maxLines";
+
+  public static final String TYPE_TRANS = "trans";
+  public static final String TYPE_JOB = "job";
+
+  /** The header containing the line number to pass as the "after" parameter of the next request */
+  public static final String HEADER_LAST_LINE_NR = "X-Kettle-Log-Last-Line";
+
+  /** The header indicating with Y or N whether more lines are available right away */
+  public static final String HEADER_MORE = "X-Kettle-Log-More";
+
+  public static final int DEFAULT_MAX_LINES = 10000;
+
+  private final KettleLogLayout layout = new KettleLogLayout( true );
+
+  public GetLogServlet() {
+  }
+
+  public GetLogServlet( TransformationMap transformationMap, JobMap jobMap ) {
+    super( transformationMap, jobMap );
+  }
+
+  /**
+<div id="mindtouch">
+    <h1>/kettle/log</h1>
+    <a name="GET"></a>
+    <h2>GET</h2>
+    <p>Retrieves the log lines of a transformation or job logged after the specified line number.
+    The line number to use in the next request is returned in the <code>X-Kettle-Log-Last-Line</code> header.</p>
+
+    <p><b>Example Request:</b><br />
+    <pre function="syntax.xml">
+    GET /kettle/log/?type=trans&name=dummy-trans&id=c56961b2-c848-49b8-abde-76c8015e29b0&after=1250
+    </pre>
+
+    </p>
+    <h3>Parameters</h3>
+    <table class="pentaho-table">
+    <tbody>
+    <tr>
+      <th>name</th>
+      <th>description</th>
+      <th>type</th>
+    </tr>
+    <tr>
+    <td>type</td>
+    <td><code>trans</code> (default) or <code>job</code>.</td>
+    <td>query</td>
+    </tr>
+    <tr>
+    <td>name</td>
+    <td>Name of the transformation or job.</td>
+    <td>query</td>
+    </tr>
+    <tr>
+    <td>id</td>
+    <td>Carte id of the transformation or job. The first one matching the name is used if omitted.</td>
+    <td>query, optional</td>
+    </tr>
+    <tr>
+    <td>after</td>
+    <td>Only lines after this line number are returned. Use 0 (default) to start at the beginning.</td>
+    <td>integer, optional</td>
+    </tr>
+    <tr>
+    <td>maxLines</td>
+    <td>The maximum number of lines to return, 10000 by default. 0 means no limit.</td>
+    <td>integer, optional</td>
+    </tr>
+    </tbody>
+    </table>
+
+  <h3>Response Body</h3>
+
+  <table class="pentaho-table">
+    <tbody>
+      <tr>
+        <td align="right">media types:</td>
+        <td>text/plain</td>
+      </tr>
+    </tbody>
+  </table>
+    <p>The log text. The <code>X-Kettle-Log-More</code> header is <code>Y</code> when the line limit was reached
+    and more lines can be retrieved right away.</p>
+
+    <h3>Status Codes</h3>
+    <table class="pentaho-table">
+  <tbody>
+    <tr>
+      <th>code</th>
+      <th>description</th>
+    </tr>
+    <tr>
+      <td>200</td>
+      <td>Request was processed.</td>
+    </tr>
+    <tr>
+      <td>404</td>
+      <td>The transformation or job could not be found.</td>
+    </tr>
+  </tbody>
+</table>
+</div>
+  */
+  public void doGet( HttpServletRequest request, HttpServletResponse response ) throws ServletException,
+    IOException {
+    if ( isJettyMode() && !request.getContextPath().startsWith( CONTEXT_PATH ) ) {
+      return;
+    }
+
+    String name = request.getParameter( "name" );
+    String id = request.getParameter( "id" );
+    boolean job = TYPE_JOB.equalsIgnoreCase( request.getParameter( PARAMETER_TYPE ) );
+    int afterLineNr = Math.max( 0, Const.toInt( request.getParameter( PARAMETER_AFTER ), 0 ) );
+    int maxLines = Const.toInt( request.getParameter( PARAMETER_MAX_LINES ), DEFAULT_MAX_LINES );
+
+    if ( log.isDebug() ) {
+      logDebug( "Log lines requested for " + ( job ? "job " : "transformation " ) + name + " after line "
+        + afterLineNr );
+    }
+
+    String logChannelId = job ? findJobLogChannelId( name, id ) : findTransLogChannelId( name, id );
+
+    response.setCharacterEncoding( "UTF-8" );
+    response.setContentType( "text/plain;charset=UTF-8" );
+
+    if ( logChannelId == null ) {
+      response.setStatus( HttpServletResponse.SC_NOT_FOUND );
+      response.getWriter().println( "Unable to find " + ( job ? "job " : "transformation " ) + name );
+      return;
+    }
+
+    LoggingBufferSegment segment = KettleLogStore.getLogLinesAfter( logChannelId, afterLineNr, maxLines );
+
+    response.setStatus( HttpServletResponse.SC_OK );
+    response.setHeader( HEADER_LAST_LINE_NR, Integer.toString( segment.getLastLineNr() ) );
+    response.setHeader( HEADER_MORE, segment.hasMore() ? "Y" : "N" );
+
+    // Format line by line straight into the response instead of building the complete text first
+    //
+    PrintWriter out = response.getWriter();
+    for ( BufferLine line : segment.getLines() ) {
+      out.print( layout.format( line.getEvent() ) );
+      out.print( Const.CR );
+    }
+    out.flush();
+  }
+
+  private String findTransLogChannelId( String name, String id ) {
+    CarteObjectEntry entry;
+    if ( Utils.isEmpty( id ) ) {
+      entry = getTransformationMap().getFirstCarteObjectEntry( name );
+    } else {
+      entry = new CarteObjectEntry( name, id );
+    }
+    Trans trans = entry == null ? null : getTransformationMap().getTransformation( entry );
+    return trans == null ? null : trans.getLogChannelId();
+  }
+
+  private String findJobLogChannelId( String name, String id ) {
+    CarteObjectEntry entry;
+    if ( Utils.isEmpty( id ) ) {
+      entry = getJobMap().getFirstCarteObjectEntry( name );
+    } else {
+      entry = new CarteObjectEntry( name, id );
+    }
+    Job job = entry == null ? null : getJobMap().getJob( entry );
+    return job == null ? null : job.getLogChannelId();
+  }
+
+  public String toString() {
+    return "Log Handler";
+  }
+
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+}
@@ -0,0 +1,488 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToDoubleFunction;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.database.ConnectionPoolStatistics;
+import org.pentaho.di.core.database.ConnectionPoolUtil;
+import org.pentaho.di.core.metrics.MetricsDuration;
+import org.pentaho.di.core.metrics.MetricsUtil;
+import org.pentaho.di.core.util.ExecutorUtil;
+import org.pentaho.di.job.Job;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.StepExecutionMetrics;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.www.cache.CarteMetaCache;
+
+/**
+ * Publishes the state of the transformations, jobs and the JVM of this Carte server in the Prometheus text format or
+ * the OpenMetrics text format. Unlike the status servlets no log text is included and the output is written
+ * incrementally, reading the step counters without locking the running transformations.
+ */
+public class GetMetricsServlet extends BaseHttpServlet implements CartePluginInterface {
+
+  private static final long serialVersionUID = -1624876141232425271L;
+
+  public static final String CONTEXT_PATH = "/kettle/metrics";
+
+  private static final double NANOS_PER_SECOND = 1000000000.0;
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
+  public GetMetricsServlet() {
+  }
+
+  public GetMetricsServlet( TransformationMap transformationMap, JobMap jobMap ) {
+    super( transformationMap, jobMap );
+  }
+
+  /**
+<div id="mindtouch">
+    <h1>/kettle/metrics</h1>
+    <a name="GET"></a>
+    <h2>GET</h2>
+    <p>Retrieves metrics about the server, its transformations and jobs for a Prometheus compatible scraper.
+    The OpenMetrics format is returned when the <code>Accept</code> header asks for
+    <code>application/openmetrics-text</code>, the Prometheus text format otherwise.</p>
+
+    <p><b>Example Request:</b><br />
+    <pre function="syntax.xml">
+    GET /kettle/metrics
+    </pre>
+
+    </p>
+    <h3>Parameters</h3>
+    <table class="pentaho-table">
+    <tbody>
+    <tr>
+      <th>name</th>
+      <th>description</th>
+      <th>type</th>
+    </tr>
+    <tr>
+    <td>steps</td>
+    <td>Use <code>N</code> to leave out the per step metrics.</td>
+    <td>boolean, optional</td>
+    </tr>
+    </tbody>
+    </table>
+
+  <h3>Response Body</h3>
+
+  <table class="pentaho-table">
+    <tbody>
+      <tr>
+        <td align="right">media types:</td>
+        <td>text/plain, application/openmetrics-text</td>
+      </tr>
+    </tbody>
+  </table>
+
+    <p><b>Example Response:</b></p>
+  <pre function="syntax.xml">
+  # TYPE kettle_step_lines_read_total counter
+  # HELP kettle_step_lines_read_total The number of rows read from previous steps
+  kettle_step_lines_read_total{transformation="Row generator test",id="56c93d4e-96c1-4fae-92d9-d864b0779845",step="Dummy",copy="0"} 10000
+  </pre>
+
+    <h3>Status Codes</h3>
+    <table class="pentaho-table">
+  <tbody>
+    <tr>
+      <th>code</th>
+      <th>description</th>
+    </tr>
+    <tr>
+      <td>200</td>
+      <td>Request was processed.</td>
+    </tr>
+    <tr>
+      <td>500</td>
+      <td>Internal server error occurs during request processing.</td>
+    </tr>
+  </tbody>
+</table>
+</div>
+  */
+  public void doGet( HttpServletRequest request, HttpServletResponse response ) throws ServletException,
+    IOException {
+    if ( isJettyMode() && !request.getContextPath().startsWith( CONTEXT_PATH ) ) {
+      return;
+    }
+
+    if ( log.isDebug() ) {
+      logDebug( "Metrics requested" );
+    }
+
+    boolean includeSteps = !"N".equalsIgnoreCase( request.getParameter( "steps" ) );
+    boolean openMetrics = OpenMetricsWriter.acceptsOpenMetrics( request.getHeader( "Accept" ) );
+
+    response.setStatus( HttpServletResponse.SC_OK );
+    // The content type and encoding must be set before getting the writer, or the charset is ignored
+    response.setContentType( OpenMetricsWriter.getContentType( openMetrics ) );
+    response.setCharacterEncoding( Const.XML_ENCODING );
+    PrintWriter out = response.getWriter();
+    OpenMetricsWriter writer = new OpenMetricsWriter( out, openMetrics );
+
+    List<TransEntry> transList = new ArrayList<>();
+    for ( CarteObjectEntry entry : getTransformationMap().getTransformationObjects() ) {
+      Trans trans = getTransformationMap().getTransformation( entry );
+      if ( trans != null ) {
+        transList.add( new TransEntry( entry, trans ) );
+      }
+    }
+    List<Job> jobs = new ArrayList<>();
+    for ( CarteObjectEntry entry : getJobMap().getJobObjects() ) {
+      Job job = getJobMap().getJob( entry );
+      if ( job != null ) {
+        jobs.add( job );
+      }
+    }
+
+    writeServerMetrics( writer, transList, jobs );
+    writeTransMetrics( writer, transList );
+    if ( includeSteps ) {
+      writeStepMetrics( writer, transList );
+    }
+    writeJvmMetrics( writer );
+    writeThreadPoolMetrics( writer );
+    writeConnectionPoolMetrics( writer );
+
+    writer.end();
+  }
+
+  private void writeServerMetrics( OpenMetricsWriter writer, List<TransEntry> transList, List<Job> jobs ) {
+    Map<String, Integer> transByStatus = new HashMap<>();
+    for ( TransEntry transEntry : transList ) {
+      transByStatus.merge( transEntry.trans.getStatus(), 1, Integer::sum );
+    }
+    writer.family( "kettle_carte_transformations", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of transformations registered on this server by status" );
+    for ( Map.Entry<String, Integer> entry : transByStatus.entrySet() ) {
+      writer.sample( entry.getValue(), "status", entry.getKey() );
+    }
+
+    Map<String, Integer> jobsByStatus = new HashMap<>();
+    for ( Job job : jobs ) {
+      jobsByStatus.merge( job.getStatus(), 1, Integer::sum );
+    }
+    writer.family( "kettle_carte_jobs", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of jobs registered on this server by status" );
+    for ( Map.Entry<String, Integer> entry : jobsByStatus.entrySet() ) {
+      writer.sample( entry.getValue(), "status", entry.getKey() );
+    }
+
+    CarteMetaCache metaCache = CarteMetaCache.getInstance();
+    if ( metaCache.isEnabled() ) {
+      writer.family( "kettle_carte_meta_cache_size", OpenMetricsWriter.TYPE_GAUGE,
+        "The number of parsed transformations and jobs in the cache" );
+      writer.sample( metaCache.getSize() );
+      writer.family( "kettle_carte_meta_cache_requests", OpenMetricsWriter.TYPE_COUNTER,
+        "The number of parsed transformation and job cache lookups by result" );
+      writer.sample( metaCache.getHits(), "result", "hit" );
+      writer.sample( metaCache.getMisses(), "result", "miss" );
+      writer.family( "kettle_carte_meta_cache_evictions", OpenMetricsWriter.TYPE_COUNTER,
+        "The number of parsed transformations and jobs evicted from the cache" );
+      writer.sample( metaCache.getEvictions() );
+    }
+
+    CarteExecutionQueue executionQueue = CarteExecutionQueue.getInstance();
+    if ( executionQueue.isEnabled() ) {
+      writer.family( "kettle_carte_queue_depth", OpenMetricsWriter.TYPE_GAUGE,
+        "The number of transformations and jobs waiting in the execution queue" );
+      writer.sample( executionQueue.getQueued( CarteExecutionQueue.Type.TRANSFORMATION ), "type", "transformation" );
+      writer.sample( executionQueue.getQueued( CarteExecutionQueue.Type.JOB ), "type", "job" );
+      writer.family( "kettle_carte_queue_running", OpenMetricsWriter.TYPE_GAUGE,
+        "The number of transformations and jobs admitted by the execution queue that are running" );
+      writer.sample( executionQueue.getRunning( CarteExecutionQueue.Type.TRANSFORMATION ), "type", "transformation" );
+      writer.sample( executionQueue.getRunning( CarteExecutionQueue.Type.JOB ), "type", "job" );
+      writer.family( "kettle_carte_queue_requests", OpenMetricsWriter.TYPE_COUNTER,
+        "The number of transformations and jobs submitted to the execution queue by result" );
+      writer.sample( executionQueue.getAdmitted(), "result", "admitted" );
+      writer.sample( executionQueue.getRejected(), "result", "rejected" );
+      writer.family( "kettle_carte_queue_wait_seconds", OpenMetricsWriter.TYPE_COUNTER,
+        "The total time admitted transformations and jobs waited in the execution queue" );
+      writer.sample( executionQueue.getTotalWaitMillis() / 1000.0 );
+    }
+  }
+
+  private void writeTransMetrics( OpenMetricsWriter writer, List<TransEntry> transList ) {
+    writer.family( "kettle_transformation_running", OpenMetricsWriter.TYPE_GAUGE,
+      "1 if the transformation is running, 0 otherwise" );
+    for ( TransEntry transEntry : transList ) {
+      writer.sample( transEntry.trans.isRunning() ? 1 : 0, transEntry.labels() );
+    }
+    writer.family( "kettle_transformation_errors", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of errors of the transformation" );
+    for ( TransEntry transEntry : transList ) {
+      writer.sample( transEntry.trans.getErrors(), transEntry.labels() );
+    }
+    writer.family( "kettle_transformation_active_steps", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of step copies that are still running" );
+    for ( TransEntry transEntry : transList ) {
+      writer.sample( transEntry.trans.nrActiveSteps(), transEntry.labels() );
+    }
+
+    // The durations calculated from the metrics registry: only available when gathering metrics is enabled
+    //
+    writer.family( "kettle_metrics_duration_seconds", OpenMetricsWriter.TYPE_GAUGE,
+      "The accumulated durations recorded in the metrics registry" );
+    for ( TransEntry transEntry : transList ) {
+      if ( !transEntry.trans.isGatheringMetrics() ) {
+        continue;
+      }
+      Map<List<String>, Long> durations =
+        sumDurations( MetricsUtil.getAllDurations( transEntry.trans.getLogChannelId() ) );
+      for ( Map.Entry<List<String>, Long> duration : durations.entrySet() ) {
+        writer.sample( duration.getValue() / MILLIS_PER_SECOND, "transformation", transEntry.entry.getName(),
+          "id", transEntry.entry.getId(), "description", duration.getKey().get( 0 ), "subject",
+          duration.getKey().get( 1 ) );
+      }
+    }
+  }
+
+  /**
+   * The durations are recorded per log channel, so every step copy or database connection has its own. They are
+   * summed by description and subject, a sample can only be published once with the same labels.
+   *
+   * @return the total duration in milliseconds by description and subject
+   */
+  static Map<List<String>, Long> sumDurations( List<MetricsDuration> durations ) {
+    Map<List<String>, Long> totals = new LinkedHashMap<>();
+    for ( MetricsDuration duration : durations ) {
+      if ( duration.getDuration() != null ) {
+        totals.merge( Arrays.asList( duration.getDescription(), duration.getSubject() ), duration.getDuration(),
+          Long::sum );
+      }
+    }
+    return totals;
+  }
+
+  private void writeStepMetrics( OpenMetricsWriter writer, List<TransEntry> transList ) {
+    writeStepFamily( writer, transList, "kettle_step_lines_read", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of rows read from previous steps", StepInterface::getLinesRead );
+    writeStepFamily( writer, transList, "kettle_step_lines_written", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of rows written to following steps", StepInterface::getLinesWritten );
+    writeStepFamily( writer, transList, "kettle_step_lines_input", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of rows read from a file, database, network, ...", StepInterface::getLinesInput );
+    writeStepFamily( writer, transList, "kettle_step_lines_output", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of rows written to a file, database, network, ...", StepInterface::getLinesOutput );
+    writeStepFamily( writer, transList, "kettle_step_lines_updated", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of rows updated in a database", StepInterface::getLinesUpdated );
+    writeStepFamily( writer, transList, "kettle_step_lines_rejected", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of rows rejected by error handling", StepInterface::getLinesRejected );
+    writeStepFamily( writer, transList, "kettle_step_errors", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of errors", StepInterface::getErrors );
+    writeStepFamily( writer, transList, "kettle_step_runtime_seconds", OpenMetricsWriter.TYPE_GAUGE,
+      "The time the step has been running", step -> step.getRuntime() / MILLIS_PER_SECOND );
+    writeStepFamily( writer, transList, "kettle_step_rows_per_second", OpenMetricsWriter.TYPE_GAUGE,
+      "The average number of rows processed per second", GetMetricsServlet::getThroughput );
+    writeStepFamily( writer, transList, "kettle_step_input_buffer_rows", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of rows waiting in the input buffers", StepInterface::rowsetInputSize );
+    writeStepFamily( writer, transList, "kettle_step_output_buffer_rows", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of rows waiting in the output buffers", StepInterface::rowsetOutputSize );
+
+    writeStepFamily( writer, transList, "kettle_step_cpu_seconds", OpenMetricsWriter.TYPE_COUNTER,
+      "The CPU time consumed by the step thread",
+      step -> getExecutionMetric( step, StepExecutionMetrics::getCpuTime ) / NANOS_PER_SECOND );
+    writeStepFamily( writer, transList, "kettle_step_allocated_bytes", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of bytes allocated by the step thread",
+      step -> getExecutionMetric( step, StepExecutionMetrics::getAllocatedBytes ) );
+    writeStepFamily( writer, transList, "kettle_step_input_wait_seconds", OpenMetricsWriter.TYPE_COUNTER,
+      "The time spent waiting for rows from previous steps",
+      step -> getExecutionMetric( step, StepExecutionMetrics::getInputWaitTime ) / NANOS_PER_SECOND );
+    writeStepFamily( writer, transList, "kettle_step_output_blocked_seconds", OpenMetricsWriter.TYPE_COUNTER,
+      "The time spent blocked while passing rows to following steps",
+      step -> getExecutionMetric( step, StepExecutionMetrics::getOutputBlockedTime ) / NANOS_PER_SECOND );
+  }
+
+  private void writeStepFamily( OpenMetricsWriter writer, List<TransEntry> transList, String name, String type,
+                                String help, ToDoubleFunction<StepInterface> value ) {
+    writer.family( name, type, help );
+    for ( TransEntry transEntry : transList ) {
+      // The step list is only available after the transformation was prepared
+      //
+      int nrSteps = transEntry.trans.nrSteps();
+      for ( int i = 0; i < nrSteps; i++ ) {
+        StepInterface step = transEntry.trans.getRunThread( i );
+        if ( step != null ) {
+          writer.sample( value.applyAsDouble( step ), "transformation", transEntry.entry.getName(), "id",
+            transEntry.entry.getId(), "step", step.getStepname(), "copy", Integer.toString( step.getCopy() ) );
+        }
+      }
+    }
+  }
+
+  private static double getThroughput( StepInterface step ) {
+    long runtime = step.getRuntime();
+    if ( runtime <= 0 ) {
+      return 0;
+    }
+    long processed = Math.max( Math.max( step.getLinesInput(), step.getLinesRead() ),
+      Math.max( step.getLinesOutput() + step.getLinesUpdated(), step.getLinesWritten() + step.getLinesRejected() ) );
+    return processed * MILLIS_PER_SECOND / runtime;
+  }
+
+  private static double getExecutionMetric( StepInterface step, ToDoubleFunction<StepExecutionMetrics> value ) {
+    StepExecutionMetrics metrics = step.getExecutionMetrics();
+    return metrics == null ? 0 : value.applyAsDouble( metrics );
+  }
+
+  private void writeJvmMetrics( OpenMetricsWriter writer ) {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    writer.family( "jvm_memory_heap_bytes", OpenMetricsWriter.TYPE_GAUGE, "The heap memory usage of the JVM" );
+    writer.sample( heap.getUsed(), "area", "used" );
+    writer.sample( heap.getCommitted(), "area", "committed" );
+    writer.sample( heap.getMax(), "area", "max" );
+
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    writer.family( "jvm_threads", OpenMetricsWriter.TYPE_GAUGE, "The number of live threads of the JVM" );
+    writer.sample( threadMXBean.getThreadCount(), "state", "live" );
+    writer.sample( threadMXBean.getDaemonThreadCount(), "state", "daemon" );
+    writer.sample( threadMXBean.getPeakThreadCount(), "state", "peak" );
+
+    List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    writer.family( "jvm_gc_collections", OpenMetricsWriter.TYPE_COUNTER, "The number of garbage collections" );
+    for ( GarbageCollectorMXBean collector : collectors ) {
+      writer.sample( Math.max( 0L, collector.getCollectionCount() ), "gc", collector.getName() );
+    }
+    writer.family( "jvm_gc_collection_seconds", OpenMetricsWriter.TYPE_COUNTER,
+      "The time spent in garbage collections" );
+    for ( GarbageCollectorMXBean collector : collectors ) {
+      writer.sample( Math.max( 0L, collector.getCollectionTime() ) / MILLIS_PER_SECOND, "gc", collector.getName() );
+    }
+
+    OperatingSystemMXBean osMXBean = ManagementFactory.getOperatingSystemMXBean();
+    writer.family( "process_cpu_cores", OpenMetricsWriter.TYPE_GAUGE, "The number of available processors" );
+    writer.sample( osMXBean.getAvailableProcessors() );
+    writer.family( "process_load_average", OpenMetricsWriter.TYPE_GAUGE, "The system load average of the last minute" );
+    writer.sample( osMXBean.getSystemLoadAverage() );
+    if ( osMXBean instanceof com.sun.management.OperatingSystemMXBean ) {
+      writer.family( "process_cpu_seconds", OpenMetricsWriter.TYPE_COUNTER, "The CPU time used by the process" );
+      writer.sample(
+        ( (com.sun.management.OperatingSystemMXBean) osMXBean ).getProcessCpuTime() / NANOS_PER_SECOND );
+    }
+    writer.family( "process_uptime_seconds", OpenMetricsWriter.TYPE_GAUGE, "The uptime of the JVM" );
+    writer.sample( ManagementFactory.getRuntimeMXBean().getUptime() / MILLIS_PER_SECOND );
+  }
+
+  private void writeThreadPoolMetrics( OpenMetricsWriter writer ) {
+    writer.family( "kettle_thread_pool_threads", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of threads in the thread pools of the server" );
+
+    Carte carte = CarteSingleton.getCarte();
+    if ( carte != null && carte.getWebServer() != null && carte.getWebServer().getServer() != null ) {
+      ThreadPool threadPool = carte.getWebServer().getServer().getThreadPool();
+      if ( threadPool != null ) {
+        writer.sample( threadPool.getThreads(), "pool", "jetty", "state", "total" );
+        writer.sample( threadPool.getIdleThreads(), "pool", "jetty", "state", "idle" );
+      }
+    }
+
+    ExecutorService executor = ExecutorUtil.getExecutor();
+    if ( executor instanceof ThreadPoolExecutor ) {
+      ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+      writer.sample( pool.getPoolSize(), "pool", "executor", "state", "total" );
+      writer.sample( pool.getActiveCount(), "pool", "executor", "state", "active" );
+    }
+  }
+
+  private void writeConnectionPoolMetrics( OpenMetricsWriter writer ) {
+    Collection<ConnectionPoolStatistics> pools = ConnectionPoolUtil.getStatistics();
+    if ( pools.isEmpty() ) {
+      return;
+    }
+
+    writer.family( "kettle_database_pool_connections", OpenMetricsWriter.TYPE_GAUGE,
+      "The number of connections of the database connection pools by state" );
+    for ( ConnectionPoolStatistics pool : pools ) {
+      String partition = Const.NVL( pool.getPartitionId(), "" );
+      if ( pool.getActive() >= 0 ) {
+        writer.sample( pool.getActive(), "connection", pool.getName(), "partition", partition, "state", "active" );
+      }
+      if ( pool.getIdle() >= 0 ) {
+        writer.sample( pool.getIdle(), "connection", pool.getName(), "partition", partition, "state", "idle" );
+      }
+      Integer maxTotal = pool.getMaxTotal();
+      if ( maxTotal != null ) {
+        writer.sample( maxTotal < 0 ? Double.POSITIVE_INFINITY : maxTotal, "connection", pool.getName(), "partition",
+          partition, "state", "max" );
+      }
+    }
+
+    writer.family( "kettle_database_pool_borrow_seconds", OpenMetricsWriter.TYPE_HISTOGRAM,
+      "The time it took to get a connection from a database connection pool" );
+    for ( ConnectionPoolStatistics pool : pools ) {
+      writer.histogram( ConnectionPoolStatistics.BORROW_TIME_BUCKETS, pool.getCumulativeBucketCounts(),
+        pool.getBorrowNanos() / NANOS_PER_SECOND, pool.getBorrows(), "connection", pool.getName(), "partition",
+        Const.NVL( pool.getPartitionId(), "" ) );
+    }
+
+    writer.family( "kettle_database_pool_borrow_failures", OpenMetricsWriter.TYPE_COUNTER,
+      "The number of failed attempts to get a connection from a database connection pool by reason" );
+    for ( ConnectionPoolStatistics pool : pools ) {
+      String partition = Const.NVL( pool.getPartitionId(), "" );
+      writer.sample( pool.getTimeouts(), "connection", pool.getName(), "partition", partition, "reason", "timeout" );
+      writer.sample( pool.getFailures(), "connection", pool.getName(), "partition", partition, "reason", "error" );
+    }
+  }
+
+  public String toString() {
+    return "Metrics Handler";
+  }
+
+  public String getService() {
+    return CONTEXT_PATH + " (" + toString() + ")";
+  }
+
+  public String getContextPath() {
+    return CONTEXT_PATH;
+  }
+
+  private static class TransEntry {
+    private final CarteObjectEntry entry;
+    private final Trans trans;
+
+    TransEntry( CarteObjectEntry entry, Trans trans ) {
+      this.entry = entry;
+      this.trans = trans;
+    }
+
+    String[] labels() {
+      return new String[] { "transformation", entry.getName(), "id", entry.getId() };
+    }
+  }
+}
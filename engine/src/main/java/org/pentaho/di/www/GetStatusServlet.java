@@ -13,6 +13,7 @@
 
 package org.pentaho.di.www;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.owasp.encoder.Encode;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
@@ -20,6 +21,7 @@ import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.Job;
 import org.pentaho.di.trans.Trans;
+import org.pentaho.di.www.cache.CarteMetaCache;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -44,6 +46,16 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
 
   public static final String CONTEXT_PATH = "/kettle/status";
 
+  /**
+   * The time of the status in milliseconds, to pass as the since parameter of the next request.
+   */
+  public static final String STATUS_TIME_HEADER = "X-Kettle-Status-Time";
+
+  /**
+   * N when the status only lists the changes since the requested time, Y when it lists all transformations and jobs.
+   */
+  public static final String STATUS_COMPLETE_HEADER = "X-Kettle-Status-Complete";
+
   public GetStatusServlet() {
   }
 
@@ -79,6 +91,13 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
    HTML is returned otherwise.</td>
    <td>boolean, optional</td>
    </tr>
+   <tr>
+   <td>since</td>
+   <td>Only list the transformations and jobs of which the status changed after this time, in milliseconds since
+   the epoch. Pass the <code>X-Kettle-Status-Time</code> header of the previous response. Only used with
+   <code>xml=Y</code>.</td>
+   <td>long, optional</td>
+   </tr>
    </tbody>
    </table>
 
@@ -167,6 +186,11 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
    <td>Request was processed.</td>
    </tr>
    <tr>
+   <td>304</td>
+   <td>The transformations and jobs didn't change since the response with the ETag in the
+   <code>If-None-Match</code> header. Only used with <code>xml=Y</code>.</td>
+   </tr>
+   <tr>
    <td>500</td>
    <td>Internal server error occurs during request processing.</td>
    </tr>
@@ -205,16 +229,39 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
     List<CarteObjectEntry> jobEntries = getJobMap().getJobObjects();
 
     if ( useXML ) {
+      long statusTime = System.currentTimeMillis();
+      long since = Const.toLong( request.getParameter( "since" ), -1L );
+      CarteObjectChanges transChanges = getTransformationMap().getChanges();
+      CarteObjectChanges jobChanges = getJobMap().getChanges();
+      if ( since >= 0 && !( transChanges.knowsRemovalsSince( since ) && jobChanges.knowsRemovalsSince( since ) ) ) {
+        // Some removals since then were forgotten, the client has to compare with the complete list
+        //
+        since = -1L;
+      }
+      response.setHeader( STATUS_TIME_HEADER, String.valueOf( statusTime ) );
+      response.setHeader( STATUS_COMPLETE_HEADER, since < 0 ? "Y" : "N" );
+
+      CarteExecutionQueue executionQueue = CarteExecutionQueue.getInstance();
+      if ( checkNotModified( request, response, getStatusETag( executionQueue, transEntries, jobEntries ) ) ) {
+        return;
+      }
+
       out.print( XMLHandler.getXMLHeader( Const.XML_ENCODING ) );
       SlaveServerStatus serverStatus = new SlaveServerStatus();
       serverStatus.setStatusDescription( "Online" );
 
       getSystemInfo( serverStatus );
 
+      serverStatus.setQueuedTransformations( executionQueue.getQueued( CarteExecutionQueue.Type.TRANSFORMATION ) );
+      serverStatus.setQueuedJobs( executionQueue.getQueued( CarteExecutionQueue.Type.JOB ) );
+
       for ( CarteObjectEntry entry : transEntries ) {
         Trans trans = getTransformationMap().getTransformation( entry );
-        if ( trans != null ) {
-          String status = trans.getStatus();
+        if ( trans == null ) {
+          continue;
+        }
+        String status = executionQueue.getStatus( entry.getId(), trans.getStatus() );
+        if ( isChangedSince( transChanges.getStatusChangeTime( entry, status ), since ) ) {
           SlaveServerTransStatus sstatus = new SlaveServerTransStatus( entry.getName(), entry.getId(), status );
           sstatus.setLogDate( trans.getLogDate() );
           sstatus.setPaused( trans.isPaused() );
@@ -224,16 +271,25 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
 
       for ( CarteObjectEntry entry : jobEntries ) {
         Job job = getJobMap().getJob( entry );
-        if ( job != null ) {
-          String status = job.getStatus();
+        if ( job == null ) {
+          continue;
+        }
+        String status = executionQueue.getStatus( entry.getId(), job.getStatus() );
+        if ( isChangedSince( jobChanges.getStatusChangeTime( entry, status ), since ) ) {
           SlaveServerJobStatus jobStatus = new SlaveServerJobStatus( entry.getName(), entry.getId(), status );
           jobStatus.setLogDate( job.getLogDate() );
           serverStatus.getJobStatusList().add( jobStatus );
         }
       }
 
+      if ( since >= 0 ) {
+        serverStatus.setRemovedTransformations( transChanges.getRemovedSince( since ) );
+        serverStatus.setRemovedJobs( jobChanges.getRemovedSince( since ) );
+      }
+
       try {
-        out.println( serverStatus.getXML() );
+        serverStatus.writeXML( out );
+        out.println();
       } catch ( KettleException e ) {
         throw new ServletException( "Unable to get the server status in XML format", e );
       }
@@ -380,7 +436,8 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
           String id = Encode.forHtml( transEntries.get( i ).getId() );
           Trans trans = getTransformationMap().getTransformation( transEntries.get( i ) );
           if ( trans != null ) {
-            String status = Encode.forHtml( trans.getStatus() );
+            String status = Encode.forHtml( CarteExecutionQueue.getInstance().getStatus( transEntries.get( i ).getId(),
+              trans.getStatus() ) );
             String trClass = evenRow ? "cellTableEvenRow" : "cellTableOddRow"; // alternating row color
             String tdClass = evenRow ? "cellTableEvenRowCell" : "cellTableOddRowCell";
             evenRow = !evenRow; // flip
@@ -494,7 +551,8 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
           String id = Encode.forHtml( jobEntries.get( i ).getId() );
           Job job = getJobMap().getJob( jobEntries.get( i ) );
           if ( job != null ) {
-            String status = Encode.forHtml( job.getStatus() );
+            String status = Encode.forHtml( CarteExecutionQueue.getInstance().getStatus( jobEntries.get( i ).getId(),
+              job.getStatus() ) );
             String trClass = evenRow ? "cellTableEvenRow" : "cellTableOddRow"; // alternating row color
             String tdClass = evenRow ? "cellTableEvenRowCell" : "cellTableOddRowCell";
             evenRow = !evenRow; // flip
@@ -618,6 +676,48 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
             + "cellTableLastColumn\">"
             + repositoryName + "</td> </tr>" );
 
+        // The hits and misses of the parsed transformation and job cache
+        //
+        CarteMetaCache metaCache = CarteMetaCache.getInstance();
+        String metaCacheStatus;
+        if ( metaCache.isEnabled() ) {
+          metaCacheStatus = BaseMessages.getString( PKG, "GetStatusServlet.MetaCache.Statistics",
+            String.valueOf( metaCache.getSize() ), String.valueOf( metaCache.getMaxSize() ),
+            String.valueOf( metaCache.getHits() ), String.valueOf( metaCache.getMisses() ),
+            String.valueOf( metaCache.getEvictions() ) );
+        } else {
+          metaCacheStatus = BaseMessages.getString( PKG, "GetStatusServlet.MetaCache.Disabled" );
+        }
+        out.print(
+          "<tr style=\"font-size: 12;\"> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell "
+            + "cellTableEvenRowCell cellTableFirstColumn\">"
+            + BaseMessages.getString( PKG, "GetStatusServlet.Parameter.MetaCache" )
+            + "</td> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell "
+            + "cellTableLastColumn\">"
+            + metaCacheStatus + "</td> </tr>" );
+
+        // The transformations and jobs waiting for room to run
+        //
+        CarteExecutionQueue executionQueue = CarteExecutionQueue.getInstance();
+        String executionQueueStatus;
+        if ( executionQueue.isEnabled() ) {
+          executionQueueStatus = BaseMessages.getString( PKG, "GetStatusServlet.ExecutionQueue.Statistics",
+            String.valueOf( executionQueue.getRunning( CarteExecutionQueue.Type.TRANSFORMATION ) ),
+            String.valueOf( executionQueue.getQueued( CarteExecutionQueue.Type.TRANSFORMATION ) ),
+            String.valueOf( executionQueue.getRunning( CarteExecutionQueue.Type.JOB ) ),
+            String.valueOf( executionQueue.getQueued( CarteExecutionQueue.Type.JOB ) ),
+            String.valueOf( executionQueue.getRejected() ) );
+        } else {
+          executionQueueStatus = BaseMessages.getString( PKG, "GetStatusServlet.ExecutionQueue.Disabled" );
+        }
+        out.print(
+          "<tr style=\"font-size: 12;\"> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell "
+            + "cellTableEvenRowCell cellTableFirstColumn\">"
+            + BaseMessages.getString( PKG, "GetStatusServlet.Parameter.ExecutionQueue" )
+            + "</td> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell "
+            + "cellTableLastColumn\">"
+            + executionQueueStatus + "</td> </tr>" );
+
         out.print( "</table>" );
 
         String filename = serverConfig.getFilename();
@@ -971,6 +1071,40 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
     }
   }
 
+  /**
+   * A change in the same millisecond as the previous status time is listed again rather than missed.
+   */
+  private static boolean isChangedSince( long changeTime, long since ) {
+    return since < 0 || changeTime >= since;
+  }
+
+  /**
+   * The ETag of the XML status covers the state of the transformations and jobs, not the system information that
+   * changes all the time. A client that gets 304 Not Modified keeps the system information of its earlier response.
+   * The since parameter is left out: it moves with every poll, while the state it is compared with doesn't.
+   */
+  private String getStatusETag( CarteExecutionQueue executionQueue, List<CarteObjectEntry> transEntries,
+                                List<CarteObjectEntry> jobEntries ) {
+    StringBuilder state = new StringBuilder( 64 * ( transEntries.size() + jobEntries.size() + 1 ) );
+    for ( CarteObjectEntry entry : transEntries ) {
+      Trans trans = getTransformationMap().getTransformation( entry );
+      if ( trans != null ) {
+        state.append( entry.getId() ).append( ',' ).append( executionQueue.getStatus( entry.getId(),
+          trans.getStatus() ) ).append( ',' ).append( trans.getLogDate() == null ? 0L : trans.getLogDate().getTime() )
+          .append( ',' ).append( trans.isPaused() ).append( ';' );
+      }
+    }
+    for ( CarteObjectEntry entry : jobEntries ) {
+      Job job = getJobMap().getJob( entry );
+      if ( job != null ) {
+        state.append( entry.getId() ).append( ',' ).append( executionQueue.getStatus( entry.getId(),
+          job.getStatus() ) ).append( ',' ).append( job.getLogDate() == null ? 0L : job.getLogDate().getTime() )
+          .append( ';' );
+      }
+    }
+    return DigestUtils.md5Hex( state.toString() );
+  }
+
   private String encodeUriComponents( String path ) {
     return Arrays.stream( path.split( "/" ) )
       .map( Encode::forUriComponent )
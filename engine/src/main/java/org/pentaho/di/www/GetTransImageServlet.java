@@ -105,6 +105,10 @@ public class GetTransImageServlet extends BaseHttpServlet implements CartePlugin
       <td>200</td>
       <td>Request was processed.</td>
     </tr>
+    <tr>
+      <td>304</td>
+      <td>The client already has the image, as told by the ETag in the <code>If-None-Match</code> header.</td>
+    </tr>
     <tr>
       <td>500</td>
       <td>Internal server error occurs during request processing.</td>
@@ -152,6 +156,12 @@ public class GetTransImageServlet extends BaseHttpServlet implements CartePlugin
 
         response.setStatus( HttpServletResponse.SC_OK );
 
+        // The image only depends on the transformation metadata, which doesn't change for an execution
+        //
+        if ( checkNotModified( request, response, "image-" + trans.getLogChannelId() ) ) {
+          return;
+        }
+
         response.setCharacterEncoding( "UTF-8" );
         response.setContentType( "image/png" );
 
@@ -183,6 +183,11 @@ public class GetTransStatusServlet extends BaseHttpServlet implements CartePlugi
    <td>Request was processed.</td>
    </tr>
    <tr>
+   <td>304</td>
+   <td>The transformation finished and didn't change since the response with the ETag in the <code>If-None-Match</code>
+   header. Only used with <code>xml=Y</code>.</td>
+   </tr>
+   <tr>
    <td>500</td>
    <td>Internal server error occurs during request processing.</td>
    </tr>
@@ -250,6 +255,13 @@ public class GetTransStatusServlet extends BaseHttpServlet implements CartePlugi
           boolean finishedOrStopped = trans.isFinishedOrStopped();
           boolean sendResultXmlWithStatus = "Y".equalsIgnoreCase( request.getParameter( SEND_RESULT ) );
           boolean dontUseCache = sendResultXmlWithStatus;
+
+          // The status of a finished transformation doesn't change any more
+          //
+          if ( finishedOrStopped && checkNotModified( request, response, logId + "-" + startLineNr + "-"
+            + ( trans.getLogDate() == null ? 0L : trans.getLogDate().getTime() ) + "-" + sendResultXmlWithStatus ) ) {
+            return;
+          }
           if ( finishedOrStopped && ( data = cache.get( logId, startLineNr ) ) != null && !dontUseCache ) {
             response.setContentLength( XML_HEADER.length + data.length );
             out = response.getOutputStream();
@@ -37,6 +37,8 @@ public class JobMap {
 
   private SlaveServerConfig slaveServerConfig;
 
+  private final CarteObjectChanges changes = new CarteObjectChanges();
+
   public JobMap() {
     jobMap = new HashMap<>();
     configurationMap = new HashMap<>();
@@ -46,6 +48,7 @@ public class JobMap {
     CarteObjectEntry entry = new CarteObjectEntry( jobName, carteObjectId );
     jobMap.put( entry, job );
     configurationMap.put( entry, jobConfiguration );
+    changes.added( entry );
   }
 
   public synchronized void registerJob( Job job, JobConfiguration jobConfiguration ) {
@@ -53,11 +56,13 @@ public class JobMap {
     CarteObjectEntry entry = new CarteObjectEntry( job.getJobMeta().getName(), job.getContainerObjectId() );
     jobMap.put( entry, job );
     configurationMap.put( entry, jobConfiguration );
+    changes.added( entry );
   }
 
   public synchronized void replaceJob( CarteObjectEntry entry, Job job, JobConfiguration jobConfiguration ) {
     jobMap.put( entry, job );
     configurationMap.put( entry, jobConfiguration );
+    changes.added( entry );
   }
 
   /**
@@ -105,6 +110,14 @@ public class JobMap {
   public synchronized void removeJob( CarteObjectEntry entry ) {
     jobMap.remove( entry );
     configurationMap.remove( entry );
+    changes.removed( entry );
+  }
+
+  /**
+   * @return the status changes and removals of the jobs
+   */
+  public CarteObjectChanges getChanges() {
+    return changes;
   }
 
   public synchronized List<CarteObjectEntry> getJobObjects() {
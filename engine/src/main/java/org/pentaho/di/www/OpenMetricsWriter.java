@@ -0,0 +1,216 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.www;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4) or in the OpenMetrics text format (version
+ * 1.0.0) directly to a writer. Samples of a metric family need to be written right after the family header.
+ */
+public class OpenMetricsWriter {
+
+  public static final String CONTENT_TYPE_OPENMETRICS = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+  public static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+  public static final String TYPE_COUNTER = "counter";
+  public static final String TYPE_GAUGE = "gauge";
+  public static final String TYPE_HISTOGRAM = "histogram";
+
+  private final PrintWriter out;
+  private final boolean openMetrics;
+
+  private String familyName;
+  private String familyType;
+
+  public OpenMetricsWriter( PrintWriter out, boolean openMetrics ) {
+    this.out = out;
+    this.openMetrics = openMetrics;
+  }
+
+  /**
+   * @param accept
+   *          the value of the HTTP Accept header, can be null
+   * @return true if the client prefers the OpenMetrics format
+   */
+  public static boolean acceptsOpenMetrics( String accept ) {
+    return accept != null && accept.contains( "application/openmetrics-text" );
+  }
+
+  /**
+   * @param openMetrics
+   *          true for the OpenMetrics format, false for the Prometheus text format
+   * @return the content type of the exposition, including the charset
+   */
+  public static String getContentType( boolean openMetrics ) {
+    return openMetrics ? CONTENT_TYPE_OPENMETRICS : CONTENT_TYPE_PROMETHEUS;
+  }
+
+  /**
+   * Start a new metric family. Counter families are named without the _total suffix, it is added to the samples.
+   *
+   * @param name
+   *          the metric family name
+   * @param type
+   *          {@link #TYPE_COUNTER}, {@link #TYPE_GAUGE} or {@link #TYPE_HISTOGRAM}
+   * @param help
+   *          the description of the metric family
+   */
+  public void family( String name, String type, String help ) {
+    this.familyName = name;
+    this.familyType = type;
+
+    String headerName = name;
+    if ( !openMetrics && TYPE_COUNTER.equals( type ) ) {
+      headerName = name + "_total";
+    }
+    out.print( "# TYPE " );
+    out.print( headerName );
+    out.print( ' ' );
+    out.print( type );
+    out.print( '\n' );
+    out.print( "# HELP " );
+    out.print( headerName );
+    out.print( ' ' );
+    out.print( escapeHelp( help ) );
+    out.print( '\n' );
+  }
+
+  /**
+   * Write a sample of the current metric family.
+   *
+   * @param value
+   *          the sample value
+   * @param labels
+   *          label names and values, alternating
+   */
+  public void sample( double value, String... labels ) {
+    write( TYPE_COUNTER.equals( familyType ) ? "_total" : "", value, labels );
+  }
+
+  /**
+   * Write a histogram of the current metric family: a bucket sample per upper bound, the +Inf bucket, the sum and the
+   * count.
+   *
+   * @param upperBounds
+   *          the upper bounds of the buckets, ascending
+   * @param cumulativeCounts
+   *          per bucket the number of observations less than or equal to its upper bound
+   * @param sum
+   *          the sum of all observations
+   * @param count
+   *          the number of observations
+   * @param labels
+   *          label names and values, alternating
+   */
+  public void histogram( double[] upperBounds, long[] cumulativeCounts, double sum, long count, String... labels ) {
+    String[] bucketLabels = Arrays.copyOf( labels, labels.length + 2 );
+    bucketLabels[ labels.length ] = "le";
+    for ( int i = 0; i < upperBounds.length; i++ ) {
+      bucketLabels[ labels.length + 1 ] = formatBound( upperBounds[ i ] );
+      write( "_bucket", cumulativeCounts[ i ], bucketLabels );
+    }
+    bucketLabels[ labels.length + 1 ] = "+Inf";
+    write( "_bucket", count, bucketLabels );
+    write( "_sum", sum, labels );
+    write( "_count", count, labels );
+  }
+
+  private void write( String suffix, double value, String... labels ) {
+    out.print( familyName );
+    out.print( suffix );
+    if ( labels.length > 0 ) {
+      out.print( '{' );
+      for ( int i = 0; i + 1 < labels.length; i += 2 ) {
+        if ( i > 0 ) {
+          out.print( ',' );
+        }
+        out.print( labels[i] );
+        out.print( "=\"" );
+        out.print( escapeLabelValue( labels[i + 1] ) );
+        out.print( '"' );
+      }
+      out.print( '}' );
+    }
+    out.print( ' ' );
+    out.print( formatValue( value ) );
+    out.print( '\n' );
+  }
+
+  /**
+   * Ends the exposition, required by the OpenMetrics format.
+   */
+  public void end() {
+    if ( openMetrics ) {
+      // the format requires \n line endings, println would use the platform line separator
+      out.print( "# EOF\n" );
+    }
+    out.flush();
+  }
+
+  static String formatValue( double value ) {
+    if ( Double.isNaN( value ) ) {
+      return "NaN";
+    }
+    if ( Double.isInfinite( value ) ) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    if ( value == Math.rint( value ) && Math.abs( value ) < 1e15 ) {
+      return Long.toString( (long) value );
+    }
+    return Double.toString( value );
+  }
+
+  /**
+   * Bucket bounds are written as floating point numbers, as OpenMetrics requires.
+   */
+  static String formatBound( double bound ) {
+    String formatted = formatValue( bound );
+    return formatted.indexOf( '.' ) < 0 && formatted.indexOf( 'E' ) < 0 && !Double.isInfinite( bound )
+      ? formatted + ".0" : formatted;
+  }
+
+  static String escapeLabelValue( String value ) {
+    if ( value == null ) {
+      return "";
+    }
+    StringBuilder escaped = new StringBuilder( value.length() );
+    for ( int i = 0; i < value.length(); i++ ) {
+      char c = value.charAt( i );
+      switch ( c ) {
+        case '\\':
+          escaped.append( "\\\\" );
+          break;
+        case '"':
+          escaped.append( "\\\"" );
+          break;
+        case '\n':
+          escaped.append( "\\n" );
+          break;
+        default:
+          escaped.append( c );
+          break;
+      }
+    }
+    return escaped.toString();
+  }
+
+  static String escapeHelp( String help ) {
+    if ( help == null ) {
+      return "";
+    }
+    return help.replace( "\\", "\\\\" ).replace( "\n", "\\n" );
+  }
+}
@@ -39,6 +39,9 @@ import org.pentaho.di.repository.ObjectId;
 import org.pentaho.di.repository.Repository;
 import org.pentaho.di.repository.RepositoryDirectory;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
+import org.pentaho.di.repository.RepositoryObjectType;
+import org.pentaho.di.www.cache.CarteMetaCache;
+import org.pentaho.di.www.exception.ExecutionQueueFullException;
 
 public class RunJobServlet extends BaseHttpServlet implements CartePluginInterface {
 
@@ -90,6 +93,11 @@ public class RunJobServlet extends BaseHttpServlet implements CartePluginInterfa
     <td>Logging level to be used for job execution (i.e. Debug).</td>
     <td>query</td>
     </tr>
+    <tr>
+    <td>priority</td>
+    <td>Priority of the job in the execution queue: high, normal (default) or low.</td>
+    <td>query</td>
+    </tr>
     </tbody>
     </table>
 
@@ -162,10 +170,11 @@ public class RunJobServlet extends BaseHttpServlet implements CartePluginInterfa
 
     // Options taken from PAN
     //
-    String[] knownOptions = new String[] { "job", "level", };
+    String[] knownOptions = new String[] { "job", "level", "priority", };
 
     String transOption = request.getParameter( "job" );
     String levelOption = request.getParameter( "level" );
+    String priorityOption = request.getParameter( "priority" );
 
     response.setStatus( HttpServletResponse.SC_OK );
 
@@ -276,12 +285,18 @@ public class RunJobServlet extends BaseHttpServlet implements CartePluginInterfa
       logBasic( message );
 
       try {
-        runJob( job );
+        boolean started = CarteExecutionQueue.getInstance().submitJob( carteObjectId, job,
+          CarteExecutionQueue.Priority.getPriority( priorityOption ), () -> runJob( job ) );
 
-        WebResult webResult = new WebResult( WebResult.STRING_OK, "Job started", carteObjectId );
+        WebResult webResult = new WebResult( WebResult.STRING_OK, started ? "Job started" : "Job queued",
+          carteObjectId );
         out.println( webResult.getXML() );
         out.flush();
 
+      } catch ( ExecutionQueueFullException queueFullException ) {
+        jobMap.removeJob( new CarteObjectEntry( job.getJobname(), carteObjectId ) );
+        response.setStatus( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+        out.println( new WebResult( WebResult.STRING_ERROR, queueFullException.getMessage() ) );
       } catch ( Exception executionException ) {
         response.setStatus( HttpServletResponse.SC_INTERNAL_SERVER_ERROR );
         String logging = KettleLogStore.getAppender().getBuffer( job.getLogChannelId(), false ).toString();
@@ -342,8 +357,9 @@ public class RunJobServlet extends BaseHttpServlet implements CartePluginInterfa
 
         ObjectId jobID = repository.getJobId( name, directory );
 
-        JobMeta transJob = repository.loadJob( jobID, null );
-        return transJob;
+        CarteMetaCache cache = CarteMetaCache.getInstance();
+        return cache.getJobMeta( cache.getRepositoryKey( repository, jobID, RepositoryObjectType.JOB ),
+          () -> repository.loadJob( jobID, null ) );
       }
     }
   }
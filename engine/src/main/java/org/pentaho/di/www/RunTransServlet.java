@@ -35,10 +35,13 @@ import org.pentaho.di.repository.ObjectId;
 import org.pentaho.di.repository.Repository;
 import org.pentaho.di.repository.RepositoryDirectory;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
+import org.pentaho.di.repository.RepositoryObjectType;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransConfiguration;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.www.cache.CarteMetaCache;
+import org.pentaho.di.www.exception.ExecutionQueueFullException;
 
 public class RunTransServlet extends BaseHttpServlet implements CartePluginInterface {
 
@@ -87,6 +90,12 @@ public class RunTransServlet extends BaseHttpServlet implements CartePluginInter
     <td>Logging level to be used for transformation execution (i.e. Debug).</td>
     <td>query</td>
     </tr>
+    <tr>
+    <td>priority</td>
+    <td>Priority of the transformation in the execution queue: high, normal (default) or low. The request waits
+    while the transformation is queued.</td>
+    <td>query</td>
+    </tr>
     </tbody>
     </table>
 
@@ -131,6 +140,10 @@ public class RunTransServlet extends BaseHttpServlet implements CartePluginInter
       <td>500</td>
       <td>Internal server error occurs during request processing.</td>
     </tr>
+    <tr>
+      <td>503</td>
+      <td>The execution queue is full.</td>
+    </tr>
   </tbody>
 </table>
 </div>
@@ -147,10 +160,11 @@ public class RunTransServlet extends BaseHttpServlet implements CartePluginInter
 
     // Options taken from PAN
     //
-    String[] knownOptions = new String[] { "trans", "level", };
+    String[] knownOptions = new String[] { "trans", "level", "priority", };
 
     String transOption = request.getParameter( "trans" );
     String levelOption = request.getParameter( "level" );
+    String priorityOption = request.getParameter( "priority" );
 
     response.setStatus( HttpServletResponse.SC_OK );
 
@@ -238,6 +252,19 @@ public class RunTransServlet extends BaseHttpServlet implements CartePluginInter
       String message = "Transformation '" + trans.getName() + "' was added to the list with id " + carteObjectId;
       logBasic( message );
 
+      // Wait until the execution queue has room for it
+      //
+      CarteExecutionQueue.Ticket ticket;
+      try {
+        ticket = CarteExecutionQueue.getInstance().admitTransformation( carteObjectId, trans,
+          CarteExecutionQueue.Priority.getPriority( priorityOption ) );
+      } catch ( ExecutionQueueFullException queueFullException ) {
+        getTransformationMap().removeTransformation( new CarteObjectEntry( trans.getName(), carteObjectId ) );
+        response.setStatus( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+        out.println( new WebResult( WebResult.STRING_ERROR, queueFullException.getMessage() ) );
+        return;
+      }
+
       try {
         // Execute the transformation...
         //
@@ -246,6 +273,7 @@ public class RunTransServlet extends BaseHttpServlet implements CartePluginInter
         finishProcessing( trans, out );
 
       } catch ( Exception executionException ) {
+        ticket.release();
         String logging = KettleLogStore.getAppender().getBuffer( trans.getLogChannelId(), false ).toString();
         throw new KettleException( "Error executing Transformation: " + logging, executionException );
       }
@@ -286,8 +314,9 @@ public class RunTransServlet extends BaseHttpServlet implements CartePluginInter
 
         ObjectId transformationId = repository.getTransformationID( name, directory );
 
-        TransMeta transMeta = repository.loadTransformation( transformationId, null );
-        return transMeta;
+        CarteMetaCache cache = CarteMetaCache.getInstance();
+        return cache.getTransMeta( cache.getRepositoryKey( repository, transformationId,
+          RepositoryObjectType.TRANSFORMATION ), () -> repository.loadTransformation( transformationId, null ) );
       }
     }
   }
@@ -59,6 +59,7 @@ public class SlaveServerConfig {
   public static final String XML_TAG_ACCEPTORS = "acceptors";
   public static final String XML_TAG_ACCEPT_QUEUE_SIZE = "acceptQueueSize";
   public static final String XML_TAG_LOW_RES_MAX_IDLE_TIME = "lowResourcesMaxIdleTime";
+  public static final String XML_TAG_EXECUTION_QUEUE = "execution_queue";
 
   private List<SlaveServer> masters;
 
@@ -74,6 +75,14 @@ public class SlaveServerConfig {
 
   private int objectTimeoutMinutes;
 
+  private int maxConcurrentTransformations;
+
+  private int maxConcurrentJobs;
+
+  private int maxQueuedExecutions;
+
+  private int minFreeMemoryPercent;
+
   private String filename;
 
   private List<DatabaseMeta> databases;
@@ -144,6 +153,15 @@ public class SlaveServerConfig {
     XMLHandler.addTagValue( "max_log_timeout_minutes", maxLogTimeoutMinutes );
     XMLHandler.addTagValue( "object_timeout_minutes", objectTimeoutMinutes );
 
+    if ( maxConcurrentTransformations > 0 || maxConcurrentJobs > 0 ) {
+      xml.append( XMLHandler.openTag( XML_TAG_EXECUTION_QUEUE ) );
+      xml.append( "  " ).append( XMLHandler.addTagValue( "max_transformations", maxConcurrentTransformations ) );
+      xml.append( "  " ).append( XMLHandler.addTagValue( "max_jobs", maxConcurrentJobs ) );
+      xml.append( "  " ).append( XMLHandler.addTagValue( "max_queued", maxQueuedExecutions ) );
+      xml.append( "  " ).append( XMLHandler.addTagValue( "min_free_memory_percent", minFreeMemoryPercent ) );
+      xml.append( XMLHandler.closeTag( XML_TAG_EXECUTION_QUEUE ) );
+    }
+
     xml.append( XMLHandler.openTag( XML_TAG_SEQUENCES ) );
     for ( SlaveSequence slaveSequence : slaveSequences ) {
       xml.append( XMLHandler.openTag( SlaveSequence.XML_TAG ) );
@@ -198,6 +216,16 @@ public class SlaveServerConfig {
     maxLogTimeoutMinutes = Const.toInt( XMLHandler.getTagValue( node, "max_log_timeout_minutes" ), 0 );
     objectTimeoutMinutes = Const.toInt( XMLHandler.getTagValue( node, "object_timeout_minutes" ), 0 );
 
+    Node executionQueueNode = XMLHandler.getSubNode( node, XML_TAG_EXECUTION_QUEUE );
+    if ( executionQueueNode != null ) {
+      maxConcurrentTransformations =
+        Const.toInt( XMLHandler.getTagValue( executionQueueNode, "max_transformations" ), 0 );
+      maxConcurrentJobs = Const.toInt( XMLHandler.getTagValue( executionQueueNode, "max_jobs" ), 0 );
+      maxQueuedExecutions = Const.toInt( XMLHandler.getTagValue( executionQueueNode, "max_queued" ), 0 );
+      minFreeMemoryPercent =
+        Const.toInt( XMLHandler.getTagValue( executionQueueNode, "min_free_memory_percent" ), 0 );
+    }
+
     // Read sequence information
     //
     List<Node> dbNodes = XMLHandler.getNodes( node, DatabaseMeta.XML_TAG );
@@ -480,6 +508,67 @@ public class SlaveServerConfig {
     this.objectTimeoutMinutes = objectTimeoutMinutes;
   }
 
+  /**
+   * @return the maximum number of transformations started by Carte that run at the same time, 0 for no limit
+   */
+  public int getMaxConcurrentTransformations() {
+    return maxConcurrentTransformations;
+  }
+
+  /**
+   * @param maxConcurrentTransformations
+   *          the maxConcurrentTransformations to set
+   */
+  public void setMaxConcurrentTransformations( int maxConcurrentTransformations ) {
+    this.maxConcurrentTransformations = maxConcurrentTransformations;
+  }
+
+  /**
+   * @return the maximum number of jobs started by Carte that run at the same time, 0 for no limit
+   */
+  public int getMaxConcurrentJobs() {
+    return maxConcurrentJobs;
+  }
+
+  /**
+   * @param maxConcurrentJobs
+   *          the maxConcurrentJobs to set
+   */
+  public void setMaxConcurrentJobs( int maxConcurrentJobs ) {
+    this.maxConcurrentJobs = maxConcurrentJobs;
+  }
+
+  /**
+   * @return the maximum number of transformations and jobs waiting in the execution queue, 0 for no limit
+   */
+  public int getMaxQueuedExecutions() {
+    return maxQueuedExecutions;
+  }
+
+  /**
+   * @param maxQueuedExecutions
+   *          the maxQueuedExecutions to set
+   */
+  public void setMaxQueuedExecutions( int maxQueuedExecutions ) {
+    this.maxQueuedExecutions = maxQueuedExecutions;
+  }
+
+  /**
+   * @return the percentage of the maximum heap that has to be free to start a queued transformation or job, 0 to
+   *         not look at the heap
+   */
+  public int getMinFreeMemoryPercent() {
+    return minFreeMemoryPercent;
+  }
+
+  /**
+   * @param minFreeMemoryPercent
+   *          the minFreeMemoryPercent to set
+   */
+  public void setMinFreeMemoryPercent( int minFreeMemoryPercent ) {
+    this.minFreeMemoryPercent = minFreeMemoryPercent;
+  }
+
   /**
    * @return the filename
    */
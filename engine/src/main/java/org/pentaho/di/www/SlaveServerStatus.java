@@ -13,6 +13,9 @@
 
 package org.pentaho.di.www;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -50,6 +53,14 @@ public class SlaveServerStatus {
 
   private String osArchitecture;
 
+  private int queuedTransformations;
+
+  private int queuedJobs;
+
+  private List<CarteObjectEntry> removedTransformations = new ArrayList<>();
+
+  private List<CarteObjectEntry> removedJobs = new ArrayList<>();
+
   public SlaveServerStatus() {
     transStatusList = new ArrayList<SlaveServerTransStatus>();
     jobStatusList = new ArrayList<SlaveServerJobStatus>();
@@ -73,43 +84,90 @@ public class SlaveServerStatus {
   }
 
   public String getXML() throws KettleException {
-    StringBuilder xml = new StringBuilder();
+    StringWriter xml = new StringWriter();
+    writeXML( xml );
+    return xml.toString();
+  }
+
+  /**
+   * Write the XML of the status as it is built, the status of every transformation and job separately, so a large
+   * status doesn't have to be kept in memory as a whole.
+   *
+   * @param writer the writer to write the XML to
+   * @throws KettleException in case the XML of a transformation or job status can't be built or written
+   */
+  public void writeXML( Writer writer ) throws KettleException {
+    try {
+      StringBuilder xml = new StringBuilder();
 
-    xml.append( "<" + XML_TAG + ">" ).append( Const.CR );
-    xml.append( XMLHandler.addTagValue( "statusdesc", statusDescription ) );
+      xml.append( "<" + XML_TAG + ">" ).append( Const.CR );
+      xml.append( XMLHandler.addTagValue( "statusdesc", statusDescription ) );
 
-    xml.append( XMLHandler.addTagValue( "memory_free", memoryFree ) );
-    xml.append( XMLHandler.addTagValue( "memory_total", memoryTotal ) );
+      xml.append( XMLHandler.addTagValue( "memory_free", memoryFree ) );
+      xml.append( XMLHandler.addTagValue( "memory_total", memoryTotal ) );
 
-    xml.append( XMLHandler.addTagValue( "cpu_cores", cpuCores ) );
-    xml.append( XMLHandler.addTagValue( "cpu_process_time", cpuProcessTime ) );
+      xml.append( XMLHandler.addTagValue( "cpu_cores", cpuCores ) );
+      xml.append( XMLHandler.addTagValue( "cpu_process_time", cpuProcessTime ) );
 
-    xml.append( XMLHandler.addTagValue( "uptime", uptime ) );
-    xml.append( XMLHandler.addTagValue( "thread_count", threadCount ) );
+      xml.append( XMLHandler.addTagValue( "uptime", uptime ) );
+      xml.append( XMLHandler.addTagValue( "thread_count", threadCount ) );
 
-    xml.append( XMLHandler.addTagValue( "load_avg", loadAvg ) );
+      xml.append( XMLHandler.addTagValue( "load_avg", loadAvg ) );
 
-    xml.append( XMLHandler.addTagValue( "os_name", osName ) );
-    xml.append( XMLHandler.addTagValue( "os_version", osVersion ) );
-    xml.append( XMLHandler.addTagValue( "os_arch", osArchitecture ) );
+      xml.append( XMLHandler.addTagValue( "os_name", osName ) );
+      xml.append( XMLHandler.addTagValue( "os_version", osVersion ) );
+      xml.append( XMLHandler.addTagValue( "os_arch", osArchitecture ) );
 
-    xml.append( "  <transstatuslist>" ).append( Const.CR );
-    for ( int i = 0; i < transStatusList.size(); i++ ) {
-      SlaveServerTransStatus transStatus = transStatusList.get( i );
-      xml.append( "    " ).append( transStatus.getXML() ).append( Const.CR );
-    }
-    xml.append( "  </transstatuslist>" ).append( Const.CR );
+      xml.append( XMLHandler.addTagValue( "queued_transformations", queuedTransformations ) );
+      xml.append( XMLHandler.addTagValue( "queued_jobs", queuedJobs ) );
 
-    xml.append( "  <jobstatuslist>" ).append( Const.CR );
-    for ( int i = 0; i < jobStatusList.size(); i++ ) {
-      SlaveServerJobStatus jobStatus = jobStatusList.get( i );
-      xml.append( "    " ).append( jobStatus.getXML() ).append( Const.CR );
+      xml.append( "  <transstatuslist>" ).append( Const.CR );
+      writer.write( xml.toString() );
+      for ( int i = 0; i < transStatusList.size(); i++ ) {
+        SlaveServerTransStatus transStatus = transStatusList.get( i );
+        writer.write( "    " + transStatus.getXML() + Const.CR );
+      }
+      writer.write( "  </transstatuslist>" + Const.CR );
+
+      writer.write( "  <jobstatuslist>" + Const.CR );
+      for ( int i = 0; i < jobStatusList.size(); i++ ) {
+        SlaveServerJobStatus jobStatus = jobStatusList.get( i );
+        writer.write( "    " + jobStatus.getXML() + Const.CR );
+      }
+      writer.write( "  </jobstatuslist>" + Const.CR );
+
+      writeRemoved( writer, "removed_transformations", removedTransformations );
+      writeRemoved( writer, "removed_jobs", removedJobs );
+
+      writer.write( "</" + XML_TAG + ">" + Const.CR );
+    } catch ( IOException e ) {
+      throw new KettleException( "Unable to write the slave server status", e );
     }
-    xml.append( "  </jobstatuslist>" ).append( Const.CR );
+  }
 
-    xml.append( "</" + XML_TAG + ">" ).append( Const.CR );
+  /**
+   * The removed entries are only listed in a status of the changes since an earlier status.
+   */
+  private static void writeRemoved( Writer writer, String tag, List<CarteObjectEntry> removed ) throws IOException {
+    if ( removed.isEmpty() ) {
+      return;
+    }
+    writer.write( "  <" + tag + ">" + Const.CR );
+    for ( CarteObjectEntry entry : removed ) {
+      writer.write( "    <removed>" + XMLHandler.addTagValue( "name", entry.getName(), false )
+        + XMLHandler.addTagValue( "id", entry.getId(), false ) + "</removed>" + Const.CR );
+    }
+    writer.write( "  </" + tag + ">" + Const.CR );
+  }
 
-    return xml.toString();
+  private static List<CarteObjectEntry> readRemoved( Node statusNode, String tag ) {
+    List<CarteObjectEntry> removed = new ArrayList<>();
+    Node removedNode = XMLHandler.getSubNode( statusNode, tag );
+    for ( Node entryNode : XMLHandler.getNodes( removedNode, "removed" ) ) {
+      removed.add( new CarteObjectEntry( XMLHandler.getTagValue( entryNode, "name" ), XMLHandler.getTagValue(
+        entryNode, "id" ) ) );
+    }
+    return removed;
   }
 
   public SlaveServerStatus( Node statusNode ) throws KettleException {
@@ -132,6 +190,9 @@ public class SlaveServerStatus {
     osVersion = XMLHandler.getTagValue( statusNode, "os_version" );
     osArchitecture = XMLHandler.getTagValue( statusNode, "os_arch" );
 
+    queuedTransformations = Const.toInt( XMLHandler.getTagValue( statusNode, "queued_transformations" ), 0 );
+    queuedJobs = Const.toInt( XMLHandler.getTagValue( statusNode, "queued_jobs" ), 0 );
+
     Node listTransNode = XMLHandler.getSubNode( statusNode, "transstatuslist" );
     Node listJobsNode = XMLHandler.getSubNode( statusNode, "jobstatuslist" );
 
@@ -147,6 +208,9 @@ public class SlaveServerStatus {
       Node jobStatusNode = XMLHandler.getSubNodeByNr( listJobsNode, SlaveServerJobStatus.XML_TAG, i );
       jobStatusList.add( new SlaveServerJobStatus( jobStatusNode ) );
     }
+
+    removedTransformations = readRemoved( statusNode, "removed_transformations" );
+    removedJobs = readRemoved( statusNode, "removed_jobs" );
   }
 
   public static SlaveServerStatus fromXML( String xml ) throws KettleException {
@@ -343,4 +407,48 @@ public class SlaveServerStatus {
   public String getOsArchitecture() {
     return osArchitecture;
   }
+
+  /**
+   * @return the number of transformations waiting in the execution queue
+   */
+  public int getQueuedTransformations() {
+    return queuedTransformations;
+  }
+
+  public void setQueuedTransformations( int queuedTransformations ) {
+    this.queuedTransformations = queuedTransformations;
+  }
+
+  /**
+   * @return the number of jobs waiting in the execution queue
+   */
+  public int getQueuedJobs() {
+    return queuedJobs;
+  }
+
+  public void setQueuedJobs( int queuedJobs ) {
+    this.queuedJobs = queuedJobs;
+  }
+
+  /**
+   * @return the transformations removed since the time asked for in a status of the changes only
+   */
+  public List<CarteObjectEntry> getRemovedTransformations() {
+    return removedTransformations;
+  }
+
+  public void setRemovedTransformations( List<CarteObjectEntry> removedTransformations ) {
+    this.removedTransformations = removedTransformations;
+  }
+
+  /**
+   * @return the jobs removed since the time asked for in a status of the changes only
+   */
+  public List<CarteObjectEntry> getRemovedJobs() {
+    return removedJobs;
+  }
+
+  public void setRemovedJobs( List<CarteObjectEntry> removedJobs ) {
+    this.removedJobs = removedJobs;
+  }
 }
@@ -33,6 +33,7 @@ import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.Job;
 import org.pentaho.di.job.JobConfiguration;
 import org.pentaho.di.www.cache.CarteStatusCache;
+import org.pentaho.di.www.exception.ExecutionQueueFullException;
 
 
 public class StartJobServlet extends BaseHttpServlet implements CartePluginInterface {
@@ -90,6 +91,11 @@ public class StartJobServlet extends BaseHttpServlet implements CartePluginInter
       <td>Carte job ID of the job to be executed. This parameter is optional when xml=Y is used.</td>
       <td>query, optional</td>
       </tr>
+      <tr>
+      <td>priority</td>
+      <td>Priority of the job in the execution queue: high, normal (default) or low.</td>
+      <td>query, optional</td>
+      </tr>
       </tbody>
       </table>
     
@@ -279,9 +285,12 @@ public class StartJobServlet extends BaseHttpServlet implements CartePluginInter
           }
         }
 
-        runJob( job );
+        final Job jobToRun = job;
+        boolean started = CarteExecutionQueue.getInstance().submitJob( id, job,
+          CarteExecutionQueue.Priority.getPriority( request.getParameter( "priority" ) ), () -> runJob( jobToRun ) );
 
-        String message = BaseMessages.getString( PKG, "StartJobServlet.Log.JobStarted", jobName );
+        String message = BaseMessages.getString( PKG,
+          started ? "StartJobServlet.Log.JobStarted" : "StartJobServlet.Log.JobQueued", jobName );
         if ( useXML ) {
           out.println( new WebResult( WebResult.STRING_OK, message, id ).getXML() );
         } else {
@@ -304,6 +313,13 @@ public class StartJobServlet extends BaseHttpServlet implements CartePluginInter
             + BaseMessages.getString( PKG, "TransStatusServlet.BackToStatusPage" ) + hrefEnd );
         }
       }
+    } catch ( ExecutionQueueFullException ex ) {
+      response.setStatus( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+      if ( useXML ) {
+        out.println( new WebResult( WebResult.STRING_ERROR, ex.getMessage() ) );
+      } else {
+        out.println( h1 + Encode.forHtml( ex.getMessage() ) + h1End );
+      }
     } catch ( Exception ex ) {
       response.setStatus( HttpServletResponse.SC_INTERNAL_SERVER_ERROR );
       if ( useXML ) {
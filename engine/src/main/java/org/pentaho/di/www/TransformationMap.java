@@ -43,6 +43,8 @@ public class TransformationMap {
 
   private SlaveServerConfig slaveServerConfig;
 
+  private final CarteObjectChanges changes = new CarteObjectChanges();
+
   public TransformationMap() {
     transMap = new ConcurrentHashMap<>();
     hostServerSocketPortsMap = new ConcurrentHashMap<>();
@@ -64,12 +66,14 @@ public class TransformationMap {
     TransConfiguration transConfiguration ) {
     CarteObjectEntry entry = new CarteObjectEntry( transformationName, containerObjectId );
     transMap.put( entry, new TransData( trans, transConfiguration ) );
+    changes.added( entry );
   }
 
   public void registerTransformation( Trans trans, TransConfiguration transConfiguration ) {
     trans.setContainerObjectId( UUID.randomUUID().toString() );
     CarteObjectEntry entry = new CarteObjectEntry( trans.getTransMeta().getName(), trans.getContainerObjectId() );
     transMap.put( entry, new TransData( trans, transConfiguration ) );
+    changes.added( entry );
   }
 
   /**
@@ -127,6 +131,14 @@ public class TransformationMap {
    */
   public void removeTransformation( CarteObjectEntry entry ) {
     transMap.remove( entry );
+    changes.removed( entry );
+  }
+
+  /**
+   * @return the status changes and removals of the transformations
+   */
+  public CarteObjectChanges getChanges() {
+    return changes;
   }
 
   public List<CarteObjectEntry> getTransformationObjects() {
@@ -34,6 +34,7 @@ import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.server.handler.ResourceHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.DefaultServlet;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
@@ -42,6 +43,7 @@ import org.eclipse.jetty.util.security.Password;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.pentaho.di.cluster.SlaveServer;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.util.EnvUtil;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.exception.KettleException;
@@ -270,7 +272,7 @@ public class WebServer {
 
     HandlerList handlers = new HandlerList();
     handlers.setHandlers( new Handler[] { resourceHandler, contexts } );
-    securityHandler.setHandler( handlers );
+    securityHandler.setHandler( createCompressionHandler( handlers ) );
 
     server.setHandler( securityHandler );
     
@@ -292,6 +294,21 @@ public class WebServer {
     return contextPath;
   }
 
+  /**
+   * Gzip the status responses for the clients that accept it when {@link Const#KETTLE_CARTE_COMPRESS_STATUS} is set.
+   */
+  private Handler createCompressionHandler( Handler handler ) {
+    if ( !"Y".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.KETTLE_CARTE_COMPRESS_STATUS, "N" ) ) ) {
+      return handler;
+    }
+    GzipHandler gzipHandler = new GzipHandler();
+    gzipHandler.setIncludedMethods( "GET", "POST" );
+    gzipHandler.setIncludedPaths( GetStatusServlet.CONTEXT_PATH + "/*", GetTransStatusServlet.CONTEXT_PATH + "/*",
+      GetJobStatusServlet.CONTEXT_PATH + "/*", GetMetricsServlet.CONTEXT_PATH + "/*" );
+    gzipHandler.setHandler( handler );
+    return gzipHandler;
+  }
+
   public void join() throws InterruptedException {
     server.join();
   }
@@ -0,0 +1,387 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.www.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.bowl.DefaultBowl;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.ChannelLogTable;
+import org.pentaho.di.core.logging.JobEntryLogTable;
+import org.pentaho.di.core.logging.JobLogTable;
+import org.pentaho.di.core.logging.LogTableInterface;
+import org.pentaho.di.core.logging.MetricsLogTable;
+import org.pentaho.di.core.logging.PerformanceLogTable;
+import org.pentaho.di.core.logging.StepLogTable;
+import org.pentaho.di.core.logging.TransLogTable;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.job.JobHopMeta;
+import org.pentaho.di.job.JobMeta;
+import org.pentaho.di.job.entry.JobEntryCopy;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.Repository;
+import org.pentaho.di.repository.RepositoryObject;
+import org.pentaho.di.repository.RepositoryObjectType;
+import org.pentaho.di.trans.TransConfiguration;
+import org.pentaho.di.trans.TransExecutionConfiguration;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepErrorMeta;
+import org.pentaho.di.trans.step.StepMeta;
+
+/**
+ * Keeps the parsed transformations and jobs Carte executes, so executing the same file or repository object again
+ * doesn't load, parse and validate it again. The cached metadata is a template that is never executed itself, every
+ * execution gets its own copy.<br>
+ * <br>
+ * Files are keyed by name and last modified time, repository objects by repository, object id and modified date, so a
+ * changed transformation or job is loaded again. The least recently used templates are evicted once
+ * {@link Const#KETTLE_CARTE_META_CACHE_SIZE} is reached, a size of 0 (the default) disables the cache.
+ */
+public class CarteMetaCache {
+
+  /**
+   * Loads the metadata on a cache miss.
+   */
+  @FunctionalInterface
+  public interface MetaLoader<T> {
+    T load() throws KettleException;
+  }
+
+  private static final CarteMetaCache instance =
+    new CarteMetaCache( Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_CARTE_META_CACHE_SIZE ), 0 ) );
+
+  private final int maxSize;
+  private final Map<String, Object> templates;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  CarteMetaCache( int maxSize ) {
+    this.maxSize = Math.max( 0, maxSize );
+    this.templates = new LinkedHashMap<String, Object>( 16, 0.75f, true ) {
+      @Override protected boolean removeEldestEntry( Map.Entry<String, Object> eldest ) {
+        if ( size() > CarteMetaCache.this.maxSize ) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public static CarteMetaCache getInstance() {
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * @param filename
+   *          the name of the transformation or job file
+   * @return the cache key of the file, null if the file can't be cached
+   */
+  public String getFileKey( String filename ) {
+    if ( !isEnabled() ) {
+      return null;
+    }
+    try {
+      FileObject fileObject = KettleVFS.getInstance( DefaultBowl.getInstance() ).getFileObject( filename );
+      if ( !fileObject.exists() ) {
+        return null;
+      }
+      long lastModified = fileObject.getContent().getLastModifiedTime();
+      return lastModified <= 0 ? null : "file:" + fileObject.getName().getURI() + "@" + lastModified;
+    } catch ( Exception e ) {
+      // Let the regular loading report the problem
+      return null;
+    }
+  }
+
+  /**
+   * @param repository
+   *          the repository to load from
+   * @param objectId
+   *          the id of the transformation or job
+   * @param objectType
+   *          the type of the object
+   * @return the cache key of the repository object, null if the object can't be cached
+   */
+  public String getRepositoryKey( Repository repository, ObjectId objectId, RepositoryObjectType objectType ) {
+    if ( !isEnabled() || repository == null || objectId == null ) {
+      return null;
+    }
+    try {
+      RepositoryObject information = repository.getObjectInformation( objectId, objectType );
+      Date modifiedDate = information == null ? null : information.getModifiedDate();
+      if ( modifiedDate == null ) {
+        return null;
+      }
+      return "repo:" + repository.getName() + ":" + objectType.name() + ":" + objectId.getId() + "@"
+        + modifiedDate.getTime();
+    } catch ( Exception e ) {
+      return null;
+    }
+  }
+
+  /**
+   * @param xml
+   *          the complete XML posted to Carte
+   * @return the cache key of the XML, null if the cache is disabled
+   */
+  public String getXmlKey( String xml ) {
+    if ( !isEnabled() ) {
+      return null;
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+      return "xml:" + Hex.encodeHexString( digest.digest( xml.getBytes( StandardCharsets.UTF_8 ) ) );
+    } catch ( Exception e ) {
+      return null;
+    }
+  }
+
+  /**
+   * Get a copy of the cached transformation, load and cache it if needed.
+   *
+   * @param key
+   *          the cache key, the transformation is loaded without caching when null
+   * @param loader
+   *          loads the transformation on a cache miss
+   * @return a transformation that can be executed
+   * @throws KettleException
+   *           in case the transformation can't be loaded
+   */
+  public TransMeta getTransMeta( String key, MetaLoader<TransMeta> loader ) throws KettleException {
+    if ( key == null ) {
+      return loader.load();
+    }
+    TransMeta template = (TransMeta) get( key );
+    if ( template == null ) {
+      TransMeta transMeta = loader.load();
+      put( key, copyTransMeta( transMeta ) );
+      return transMeta;
+    }
+    return copyTransMeta( template );
+  }
+
+  /**
+   * Get a copy of the cached job, load and cache it if needed.
+   *
+   * @param key
+   *          the cache key, the job is loaded without caching when null
+   * @param loader
+   *          loads the job on a cache miss
+   * @return a job that can be executed
+   * @throws KettleException
+   *           in case the job can't be loaded
+   */
+  public JobMeta getJobMeta( String key, MetaLoader<JobMeta> loader ) throws KettleException {
+    if ( key == null ) {
+      return loader.load();
+    }
+    JobMeta template = (JobMeta) get( key );
+    if ( template == null ) {
+      JobMeta jobMeta = loader.load();
+      put( key, copyJobMeta( jobMeta ) );
+      return jobMeta;
+    }
+    return copyJobMeta( template );
+  }
+
+  /**
+   * Get a copy of the cached transformation configuration, load and cache it if needed. Configurations that connect to a
+   * repository are not cached, the repository connection belongs to a single execution.
+   *
+   * @param key
+   *          the cache key, the configuration is loaded without caching when null
+   * @param loader
+   *          loads the configuration on a cache miss
+   * @return a transformation configuration that can be executed
+   * @throws KettleException
+   *           in case the configuration can't be loaded
+   */
+  public TransConfiguration getTransConfiguration( String key, MetaLoader<TransConfiguration> loader )
+    throws KettleException {
+    if ( key == null ) {
+      return loader.load();
+    }
+    TransConfiguration template = (TransConfiguration) get( key );
+    if ( template == null ) {
+      TransConfiguration transConfiguration = loader.load();
+      if ( transConfiguration.getTransExecutionConfiguration().getRepository() == null ) {
+        put( key, copyTransConfiguration( transConfiguration ) );
+      }
+      return transConfiguration;
+    }
+    return copyTransConfiguration( template );
+  }
+
+  private synchronized Object get( String key ) {
+    Object template = templates.get( key );
+    if ( template == null ) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return template;
+  }
+
+  private synchronized void put( String key, Object template ) {
+    templates.put( key, template );
+  }
+
+  /**
+   * Copy the transformation without parsing it again. On top of what {@link TransMeta#realClone(boolean)} does, the
+   * copy gets its own variables and log tables, and the hops and error handling point to the copied steps.
+   */
+  static TransMeta copyTransMeta( TransMeta source ) throws KettleException {
+    TransMeta copy = (TransMeta) source.realClone( false );
+    if ( copy == null ) {
+      throw new KettleException( "Unable to copy transformation " + source.getName() );
+    }
+    copy.shareVariablesWith( copyVariables( source ) );
+
+    for ( TransHopMeta hop : copy.getTransHops() ) {
+      hop.setFromStep( findStep( copy, hop.getFromStep() ) );
+      hop.setToStep( findStep( copy, hop.getToStep() ) );
+    }
+    for ( StepMeta stepMeta : copy.getSteps() ) {
+      StepErrorMeta stepErrorMeta = stepMeta.getStepErrorMeta();
+      if ( stepErrorMeta != null ) {
+        stepErrorMeta.setSourceStep( findStep( copy, stepErrorMeta.getSourceStep() ) );
+        stepErrorMeta.setTargetStep( findStep( copy, stepErrorMeta.getTargetStep() ) );
+      }
+    }
+
+    List<DatabaseMeta> databases = copy.getDatabases();
+    List<StepMeta> steps = copy.getSteps();
+    copy.setTransLogTable( copyLogTable( source.getTransLogTable(),
+      TransLogTable.getDefault( copy, copy, steps ), databases, steps ) );
+    copy.setPerformanceLogTable( copyLogTable( source.getPerformanceLogTable(),
+      PerformanceLogTable.getDefault( copy, copy ), databases, steps ) );
+    copy.setChannelLogTable( copyLogTable( source.getChannelLogTable(),
+      ChannelLogTable.getDefault( copy, copy ), databases, steps ) );
+    copy.setStepLogTable( copyLogTable( source.getStepLogTable(),
+      StepLogTable.getDefault( copy, copy ), databases, steps ) );
+    copy.setMetricsLogTable( copyLogTable( source.getMetricsLogTable(),
+      MetricsLogTable.getDefault( copy, copy ), databases, steps ) );
+    return copy;
+  }
+
+  private static TransConfiguration copyTransConfiguration( TransConfiguration source ) throws KettleException {
+    return new TransConfiguration( copyTransMeta( source.getTransMeta() ),
+      (TransExecutionConfiguration) source.getTransExecutionConfiguration().clone() );
+  }
+
+  /**
+   * Copy the job without parsing it again. On top of what {@link JobMeta#realClone(boolean)} does, the copy gets its
+   * own variables and log tables, and the hops and job entries point to the copy.
+   */
+  static JobMeta copyJobMeta( JobMeta source ) throws KettleException {
+    JobMeta copy = (JobMeta) source.realClone( false );
+    if ( copy == null ) {
+      throw new KettleException( "Unable to copy job " + source.getName() );
+    }
+    copy.shareVariablesWith( copyVariables( source ) );
+
+    for ( JobEntryCopy jobEntryCopy : copy.getJobCopies() ) {
+      jobEntryCopy.setParentJobMeta( copy );
+    }
+    for ( JobHopMeta hop : copy.getJobhops() ) {
+      hop.setFromEntry( findJobEntry( copy, hop.getFromEntry() ) );
+      hop.setToEntry( findJobEntry( copy, hop.getToEntry() ) );
+    }
+
+    List<DatabaseMeta> databases = copy.getDatabases();
+    copy.setJobLogTable( copyLogTable( source.getJobLogTable(),
+      JobLogTable.getDefault( copy, copy ), databases, null ) );
+    copy.setJobEntryLogTable( copyLogTable( source.getJobEntryLogTable(),
+      JobEntryLogTable.getDefault( copy, copy ), databases, null ) );
+    copy.setChannelLogTable( copyLogTable( source.getChannelLogTable(),
+      ChannelLogTable.getDefault( copy, copy ), databases, null ) );
+    return copy;
+  }
+
+  private static VariableSpace copyVariables( VariableSpace source ) {
+    VariableSpace variables = new Variables();
+    variables.setParentVariableSpace( source.getParentVariableSpace() );
+    variables.copyVariablesFrom( source );
+    return variables;
+  }
+
+  private static StepMeta findStep( TransMeta transMeta, StepMeta stepMeta ) {
+    return stepMeta == null ? null : transMeta.findStep( stepMeta.getName() );
+  }
+
+  private static JobEntryCopy findJobEntry( JobMeta jobMeta, JobEntryCopy jobEntryCopy ) {
+    return jobEntryCopy == null ? null : jobMeta.findJobEntry( jobEntryCopy.getName(), jobEntryCopy.getNr(), true );
+  }
+
+  /**
+   * The log tables resolve their settings with the transformation or job they belong to, so they are created for the
+   * copy and take over the settings of the source through their XML.
+   */
+  private static <T extends LogTableInterface> T copyLogTable( T source, T target, List<DatabaseMeta> databases,
+    List<StepMeta> steps ) throws KettleException {
+    if ( source != null ) {
+      target.loadXML( XMLHandler.loadXMLString( source.getXML() ).getDocumentElement(), databases, steps );
+    }
+    return target;
+  }
+
+  /**
+   * Remove all cached transformations and jobs.
+   */
+  public synchronized void clear() {
+    templates.clear();
+  }
+
+  public synchronized int getSize() {
+    return templates.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+}
@@ -0,0 +1,28 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.www.exception;
+
+import org.pentaho.di.core.exception.KettleException;
+
+/**
+ * Thrown when a transformation or job can't be started or queued because the Carte execution queue is full.
+ */
+public class ExecutionQueueFullException extends KettleException {
+
+  private static final long serialVersionUID = -2451387920654386371L;
+
+  public ExecutionQueueFullException( String message ) {
+    super( message );
+  }
+}
@@ -0,0 +1,105 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.H2DatabaseMeta;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+
+public class LogTableBatchWriterTest {
+
+  private static final String DB_NAME = "mem:LOG_TABLE_WRITER";
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    KettleEnvironment.init( false );
+    // Keep the in memory database around while the writer connects and disconnects
+    try ( Connection connection = DriverManager.getConnection( "jdbc:h2:" + DB_NAME + ";DB_CLOSE_DELAY=-1" );
+          Statement statement = connection.createStatement() ) {
+      statement.execute( "CREATE TABLE STEP_LOG (ID_BATCH INTEGER, STEPNAME VARCHAR(255))" );
+    }
+  }
+
+  private static DatabaseMeta createDatabaseMeta() {
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setDatabaseInterface( new H2DatabaseMeta() );
+    dbMeta.setName( DB_NAME );
+    dbMeta.setDBName( DB_NAME );
+    dbMeta.setDatabaseType( "H2" );
+    return dbMeta;
+  }
+
+  private static LogTableCoreInterface createLogTable() throws Exception {
+    LogTableCoreInterface logTable = mock( LogTableCoreInterface.class );
+    when( logTable.getActualTableName() ).thenReturn( "STEP_LOG" );
+    when( logTable.getLogRecord( any(), any(), any() ) ).thenAnswer( invocation -> {
+      RowMeta rowMeta = new RowMeta();
+      rowMeta.addValueMeta( new ValueMetaInteger( "ID_BATCH" ) );
+      rowMeta.addValueMeta( new ValueMetaString( "STEPNAME" ) );
+      return new RowMetaAndData( rowMeta, 1L, invocation.getArgument( 1 ) );
+    } );
+    return logTable;
+  }
+
+  @Test
+  public void testBatchedWrites() throws Exception {
+    Variables variables = new Variables();
+    DatabaseMeta dbMeta = createDatabaseMeta();
+    LogTableCoreInterface logTable = createLogTable();
+
+    LogTableBatchWriter writer = LogTableBatchWriter.getWriter( dbMeta, variables );
+    assertSame( writer, LogTableBatchWriter.getWriter( createDatabaseMeta(), variables ) );
+
+    for ( int i = 0; i < 250; i++ ) {
+      writer.write( logTable, LogStatus.START, "step " + i, null, variables );
+    }
+    assertTrue( writer.flush( 10000 ) );
+    assertEquals( 0, writer.getFailedCount() );
+
+    try ( Connection connection = DriverManager.getConnection( "jdbc:h2:" + DB_NAME );
+          Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery( "SELECT COUNT(*) FROM STEP_LOG" ) ) {
+      assertTrue( resultSet.next() );
+      assertEquals( 250, resultSet.getInt( 1 ) );
+    }
+  }
+
+  @Test
+  public void testEnabledByVariable() {
+    Variables variables = new Variables();
+    assertFalse( LogTableBatchWriter.isEnabled( variables ) );
+    variables.setVariable( Const.KETTLE_LOG_TABLE_ASYNC_WRITES, "Y" );
+    assertTrue( LogTableBatchWriter.isEnabled( variables ) );
+  }
+}
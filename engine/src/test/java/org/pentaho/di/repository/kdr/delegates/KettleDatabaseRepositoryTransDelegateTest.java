@@ -0,0 +1,195 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.repository.kdr.delegates;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.NotePadMeta;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.partition.PartitionSchema;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.RepositoryDirectoryInterface;
+import org.pentaho.di.repository.kdr.KettleDatabaseRepository;
+import org.pentaho.di.repository.kdr.KettleDatabaseRepositoryMeta;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepErrorMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+
+public class KettleDatabaseRepositoryTransDelegateTest {
+
+  private static KettleDatabaseRepository repository;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    KettleEnvironment.init( false );
+    repository = createRepository( "mem:KDR_TRANS_DELEGATE;DB_CLOSE_DELAY=-1" );
+  }
+
+  @AfterClass
+  public static void afterClass() throws Exception {
+    repository.disconnect();
+  }
+
+  private static KettleDatabaseRepository createRepository( String dbName ) throws Exception {
+    DatabaseMeta databaseMeta = new DatabaseMeta( "H2Repo", "H2", "JDBC", null, dbName, null, null, null );
+    KettleDatabaseRepositoryMeta repositoryMeta =
+      new KettleDatabaseRepositoryMeta( "KettleDatabaseRepository", "H2Repo", "H2 Repository", databaseMeta );
+    KettleDatabaseRepository kdr = new KettleDatabaseRepository();
+    kdr.init( repositoryMeta );
+    kdr.connectionDelegate.connect( true, true );
+    kdr.createRepositorySchema( null, false, new ArrayList<String>(), false );
+    kdr.disconnect();
+    kdr.connect( "admin", "admin" );
+    return kdr;
+  }
+
+  @Test
+  public void testLoadTransformation() throws Exception {
+    RepositoryDirectoryInterface root = repository.loadRepositoryDirectoryTree();
+
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "batched" );
+    transMeta.setRepositoryDirectory( root );
+    StepMeta a = new StepMeta( "a", new DummyTransMeta() );
+    StepMeta b = new StepMeta( "b", new DummyTransMeta() );
+    StepMeta c = new StepMeta( "c", new DummyTransMeta() );
+    a.setAttribute( "group", "key", "value" );
+    transMeta.addStep( a );
+    transMeta.addStep( b );
+    transMeta.addStep( c );
+    transMeta.addTransHop( new TransHopMeta( a, b ) );
+    transMeta.addTransHop( new TransHopMeta( b, c, false ) );
+    StepErrorMeta errorMeta = new StepErrorMeta( transMeta, b, c );
+    errorMeta.setEnabled( true );
+    errorMeta.setNrErrorsValuename( "nr_errors" );
+    b.setStepErrorMeta( errorMeta );
+    transMeta.addNote( new NotePadMeta( "a note", 10, 20, 100, 50 ) );
+    repository.save( transMeta, "test" );
+
+    TransMeta loaded = repository.loadTransformation( "batched", root, null, true, null );
+
+    assertEquals( 3, loaded.nrSteps() );
+    assertEquals( "Dummy", loaded.findStep( "a" ).getStepID() );
+    assertEquals( 2, loaded.nrTransHops() );
+    TransHopMeta disabled = loaded.findTransHop( loaded.findStep( "b" ), loaded.findStep( "c" ), true );
+    assertNotNull( disabled );
+    assertFalse( disabled.isEnabled() );
+    assertTrue( loaded.findTransHop( loaded.findStep( "a" ), loaded.findStep( "b" ) ).isEnabled() );
+    assertEquals( 1, loaded.nrNotes() );
+    assertEquals( "a note", loaded.getNote( 0 ).getNote() );
+
+    // Error handling is read from the step attributes buffer as well
+    //
+    StepErrorMeta loadedErrorMeta = loaded.findStep( "b" ).getStepErrorMeta();
+    assertNotNull( loadedErrorMeta );
+    assertTrue( loadedErrorMeta.isEnabled() );
+    assertSame( loaded.findStep( "c" ), loadedErrorMeta.getTargetStep() );
+    assertEquals( "nr_errors", loadedErrorMeta.getNrErrorsValuename() );
+
+    // Attribute groups belong to the step that saved them
+    //
+    assertEquals( "value", loaded.findStep( "a" ).getAttribute( "group", "key" ) );
+    assertNull( loaded.findStep( "b" ).getAttribute( "group", "key" ) );
+    assertNull( repository.connectionDelegate.getStepAttributesBuffer() );
+  }
+
+  @Test
+  public void testBulkLoadMatchesPerRowLoad() throws Exception {
+    RepositoryDirectoryInterface root = repository.loadRepositoryDirectoryTree();
+
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "per row" );
+    transMeta.setRepositoryDirectory( root );
+    StepMeta previous = null;
+    for ( int i = 0; i < 20; i++ ) {
+      StepMeta stepMeta = new StepMeta( "step " + i, new DummyTransMeta() );
+      stepMeta.setLocation( i * 10, i * 20 );
+      stepMeta.setCopies( 1 + i % 3 );
+      stepMeta.setDistributes( i % 2 == 0 );
+      stepMeta.setAttribute( "group", "index", String.valueOf( i ) );
+      transMeta.addStep( stepMeta );
+      if ( previous != null ) {
+        transMeta.addTransHop( new TransHopMeta( previous, stepMeta, i % 4 != 0 ) );
+      }
+      previous = stepMeta;
+    }
+    transMeta.addNote( new NotePadMeta( "first note", 10, 20, 100, 50 ) );
+    transMeta.addNote( new NotePadMeta( "second note", 30, 40, 200, 60 ) );
+    repository.save( transMeta, "test" );
+
+    TransMeta loaded = repository.loadTransformation( "per row", root, null, true, null );
+    ObjectId transId = loaded.getObjectId();
+
+    // Load every step, hop and note again with a query per row and compare
+    //
+    ObjectId[] stepIds = repository.getStepIDs( transId );
+    assertEquals( stepIds.length, loaded.nrSteps() );
+    List<StepMeta> steps = new ArrayList<StepMeta>();
+    for ( ObjectId stepId : stepIds ) {
+      StepMeta expected = repository.stepDelegate.loadStepMeta( stepId, new ArrayList<DatabaseMeta>(),
+        new ArrayList<PartitionSchema>() );
+      steps.add( expected );
+      StepMeta actual = loaded.findStep( expected.getName() );
+      assertNotNull( expected.getName(), actual );
+      assertEquals( expected.getObjectId(), actual.getObjectId() );
+      assertEquals( expected.getStepID(), actual.getStepID() );
+      assertEquals( expected.getLocation().x, actual.getLocation().x );
+      assertEquals( expected.getLocation().y, actual.getLocation().y );
+      assertEquals( expected.getCopies(), actual.getCopies() );
+      assertEquals( expected.isDistributes(), actual.isDistributes() );
+      assertEquals( expected.getAttribute( "group", "index" ), actual.getAttribute( "group", "index" ) );
+    }
+
+    ObjectId[] hopIds = repository.transDelegate.getTransHopIDs( transId );
+    assertEquals( hopIds.length, loaded.nrTransHops() );
+    for ( ObjectId hopId : hopIds ) {
+      TransHopMeta expected = repository.transDelegate.loadTransHopMeta( hopId, steps );
+      TransHopMeta actual = loaded.findTransHop( loaded.findStep( expected.getFromStep().getName() ),
+        loaded.findStep( expected.getToStep().getName() ), true );
+      assertNotNull( expected.toString(), actual );
+      assertEquals( expected.isEnabled(), actual.isEnabled() );
+    }
+
+    ObjectId[] noteIds = repository.getTransNoteIDs( transId );
+    assertEquals( noteIds.length, loaded.nrNotes() );
+    for ( ObjectId noteId : noteIds ) {
+      NotePadMeta expected = repository.notePadDelegate.loadNotePadMeta( noteId );
+      NotePadMeta actual = null;
+      for ( int i = 0; i < loaded.nrNotes(); i++ ) {
+        if ( expected.getNote().equals( loaded.getNote( i ).getNote() ) ) {
+          actual = loaded.getNote( i );
+        }
+      }
+      assertNotNull( expected.getNote(), actual );
+      assertEquals( expected.getObjectId(), actual.getObjectId() );
+      assertEquals( expected.getLocation().x, actual.getLocation().x );
+      assertEquals( expected.getLocation().y, actual.getLocation().y );
+      assertEquals( expected.getWidth(), actual.getWidth() );
+      assertEquals( expected.getHeight(), actual.getHeight() );
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+public class ConsistentHashPartitionerTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final int NR_ROWS = 10000;
+
+  @Test
+  public void testSerialization() throws KettleException {
+    List<String> attributes = Arrays.asList( "FieldName", "VirtualNodes" );
+    LoadSaveTester<ConsistentHashPartitioner> tester =
+      new LoadSaveTester<ConsistentHashPartitioner>( ConsistentHashPartitioner.class, attributes );
+
+    tester.testSerialization();
+  }
+
+  private static int[] partition( int nrPartitions ) throws KettleException {
+    ConsistentHashPartitioner partitioner = new ConsistentHashPartitioner();
+    partitioner.setFieldName( "id" );
+    partitioner.setNrPartitions( nrPartitions );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    int[] partitions = new int[ NR_ROWS ];
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      partitions[i] = partitioner.getPartition( rowMeta, new Object[] { (long) i } );
+    }
+    return partitions;
+  }
+
+  @Test
+  public void testBalancedPartitions() throws KettleException {
+    int[] counts = new int[ 4 ];
+    for ( int partition : partition( 4 ) ) {
+      counts[partition]++;
+    }
+    for ( int count : counts ) {
+      assertTrue( "unbalanced partitions " + Arrays.toString( counts ),
+        count > NR_ROWS * 0.15 && count < NR_ROWS * 0.35 );
+    }
+  }
+
+  @Test
+  public void testAddingPartitionMovesFewRows() throws KettleException {
+    int[] before = partition( 4 );
+    int[] after = partition( 5 );
+    int moved = 0;
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      if ( before[i] != after[i] ) {
+        // Rows only move to the new partition
+        //
+        assertTrue( after[i] == 4 );
+        moved++;
+      }
+    }
+    // Ideally a fifth of the rows, the mod partitioner moves four fifths
+    //
+    assertTrue( "moved " + moved + " rows", moved < NR_ROWS * 0.3 );
+  }
+}
@@ -0,0 +1,106 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+public class HotKeyPartitionerTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Test
+  public void testSerialization() throws KettleException {
+    List<String> attributes = Arrays.asList( "FieldName", "HotKeyRows" );
+    LoadSaveTester<HotKeyPartitioner> tester =
+      new LoadSaveTester<HotKeyPartitioner>( HotKeyPartitioner.class, attributes );
+
+    tester.testSerialization();
+  }
+
+  @Test
+  public void testHotKeySpread() throws KettleException {
+    HotKeyPartitioner partitioner = new HotKeyPartitioner();
+    partitioner.setFieldName( "id" );
+    partitioner.setHotKeyRows( 10 );
+    partitioner.setNrPartitions( 4 );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    Set<Integer> hotPartitions = new HashSet<>();
+    for ( int i = 0; i < 100; i++ ) {
+      int partition = partitioner.getPartition( rowMeta, new Object[] { 7L } );
+      if ( i < 10 ) {
+        assertEquals( 3, partition );
+      }
+      hotPartitions.add( partition );
+
+      // A cold key keeps its partition
+      //
+      if ( i % 20 == 0 ) {
+        assertEquals( 1, partitioner.getPartition( rowMeta, new Object[] { 5L } ) );
+      }
+    }
+    assertEquals( 4, hotPartitions.size() );
+  }
+
+  @Test
+  public void testCloneDoesNotShareHotKeys() throws KettleException {
+    HotKeyPartitioner partitioner = new HotKeyPartitioner();
+    partitioner.setFieldName( "id" );
+    partitioner.setHotKeyRows( 10 );
+    partitioner.setNrPartitions( 4 );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    for ( int i = 0; i < 20; i++ ) {
+      partitioner.getPartition( rowMeta, new Object[] { 7L } );
+    }
+
+    HotKeyPartitioner clone = partitioner.clone();
+    clone.setNrPartitions( 4 );
+    assertEquals( 10, clone.getHotKeyRows() );
+    for ( int i = 0; i < 10; i++ ) {
+      assertEquals( 3, clone.getPartition( rowMeta, new Object[] { 7L } ) );
+    }
+  }
+
+  @Test
+  public void testManyDistinctKeys() throws KettleException {
+    HotKeyPartitioner partitioner = new HotKeyPartitioner();
+    partitioner.setFieldName( "id" );
+    partitioner.setHotKeyRows( 2 );
+    partitioner.setNrPartitions( 4 );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    // More distinct keys than counters, each seen twice: none of them is hot
+    //
+    for ( long key = 0; key < HotKeyPartitioner.NR_COUNTERS * 4; key++ ) {
+      for ( int i = 0; i < 2; i++ ) {
+        assertTrue( partitioner.getPartition( rowMeta, new Object[] { key } ) == key % 4 );
+      }
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+public class RangePartitionerTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Test
+  public void testSerialization() throws KettleException {
+    List<String> attributes = Arrays.asList( "FieldName", "Boundaries" );
+    LoadSaveTester<RangePartitioner> tester =
+      new LoadSaveTester<RangePartitioner>( RangePartitioner.class, attributes );
+
+    tester.testSerialization();
+  }
+
+  @Test
+  public void testGetPartition() throws KettleException {
+    RangePartitioner partitioner = new RangePartitioner();
+    partitioner.setFieldName( "id" );
+    partitioner.setBoundaries( Arrays.asList( "10", "20" ) );
+    partitioner.setNrPartitions( 3 );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    assertEquals( 0, partitioner.getPartition( rowMeta, new Object[] { -5L } ) );
+    assertEquals( 0, partitioner.getPartition( rowMeta, new Object[] { 9L } ) );
+    assertEquals( 1, partitioner.getPartition( rowMeta, new Object[] { 10L } ) );
+    assertEquals( 1, partitioner.getPartition( rowMeta, new Object[] { 19L } ) );
+    assertEquals( 2, partitioner.getPartition( rowMeta, new Object[] { 20L } ) );
+    assertEquals( 2, partitioner.getPartition( rowMeta, new Object[] { 1000L } ) );
+    assertEquals( 2, partitioner.getPartition( rowMeta, new Object[] { null } ) );
+  }
+
+  @Test
+  public void testComputeBoundaries() throws KettleException {
+    List<Object> sample = new ArrayList<>();
+    for ( long i = 99; i >= 0; i-- ) {
+      sample.add( i );
+    }
+    sample.add( null );
+
+    assertEquals( Arrays.asList( "25", "50", "75" ),
+      RangePartitioner.computeBoundaries( new ValueMetaInteger( "id" ), sample, 4 ) );
+
+    // Not enough distinct values for all partitions
+    //
+    assertEquals( Arrays.asList( "1" ),
+      RangePartitioner.computeBoundaries( new ValueMetaInteger( "id" ), Arrays.<Object>asList( 1L, 1L, 1L, 1L ), 4 ) );
+  }
+}
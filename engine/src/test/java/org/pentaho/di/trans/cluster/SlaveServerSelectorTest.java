@@ -0,0 +1,135 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.cluster;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.pentaho.di.cluster.SlaveServer;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.www.SlaveServerStatus;
+import org.pentaho.di.www.SlaveServerTransStatus;
+
+public class SlaveServerSelectorTest {
+
+  private static SlaveServer createSlaveServer( String name, boolean master ) {
+    SlaveServer slaveServer = new SlaveServer( name, "localhost", "8080", "cluster", "cluster" );
+    slaveServer.setMaster( master );
+    return slaveServer;
+  }
+
+  private static SlaveServerStatus createStatus( double loadAvg, int cores, int runningTransformations ) {
+    SlaveServerStatus status = new SlaveServerStatus();
+    status.setLoadAvg( loadAvg );
+    status.setCpuCores( cores );
+    status.setMemoryFree( 512L );
+    status.setMemoryTotal( 1024L );
+    List<SlaveServerTransStatus> transStatusList = new ArrayList<>();
+    for ( int i = 0; i < runningTransformations; i++ ) {
+      transStatusList.add( new SlaveServerTransStatus( "trans" + i, "id" + i, Trans.STRING_RUNNING ) );
+    }
+    status.setTransStatusList( transStatusList );
+    return status;
+  }
+
+  private static SlaveServerSelector createSelector( final Map<String, SlaveServerStatus> statuses,
+                                                     String maxTransformations ) {
+    Variables variables = new Variables();
+    variables.setVariable( Const.KETTLE_CLUSTER_SLAVE_MAX_TRANSFORMATIONS, maxTransformations );
+    return new SlaveServerSelector( variables, mock( LogChannelInterface.class ) ) {
+      @Override
+      protected SlaveServerStatus getStatus( SlaveServer slaveServer ) throws Exception {
+        SlaveServerStatus status = statuses.get( slaveServer.getName() );
+        if ( status == null ) {
+          throw new Exception( "unreachable" );
+        }
+        return status;
+      }
+    };
+  }
+
+  @Test
+  public void testSkipOverloadedAndUnreachable() {
+    SlaveServer master = createSlaveServer( "master", true );
+    SlaveServer idle = createSlaveServer( "idle", false );
+    SlaveServer busy = createSlaveServer( "busy", false );
+    SlaveServer overloaded = createSlaveServer( "overloaded", false );
+    SlaveServer down = createSlaveServer( "down", false );
+
+    Map<String, SlaveServerStatus> statuses = new HashMap<>();
+    statuses.put( "idle", createStatus( 0.5, 4, 0 ) );
+    statuses.put( "busy", createStatus( 3.0, 4, 2 ) );
+    statuses.put( "overloaded", createStatus( 16.0, 4, 0 ) );
+
+    Map<SlaveServer, Double> selected = createSelector( statuses, "0" )
+      .select( Arrays.asList( master, idle, busy, overloaded, down ) );
+
+    assertEquals( Arrays.asList( idle, busy ), new ArrayList<>( selected.keySet() ) );
+    assertTrue( selected.get( idle ) > selected.get( busy ) );
+
+    // A limit on the number of running transformations
+    //
+    selected = createSelector( statuses, "2" ).select( Arrays.asList( master, idle, busy, overloaded, down ) );
+    assertEquals( Arrays.asList( idle ), new ArrayList<>( selected.keySet() ) );
+  }
+
+  @Test
+  public void testKeepLeastLoadedWhenAllOverloaded() {
+    SlaveServer first = createSlaveServer( "first", false );
+    SlaveServer second = createSlaveServer( "second", false );
+    Map<String, SlaveServerStatus> statuses = new HashMap<>();
+    statuses.put( "first", createStatus( 20.0, 4, 0 ) );
+    statuses.put( "second", createStatus( 10.0, 4, 0 ) );
+
+    Map<SlaveServer, Double> selected = createSelector( statuses, "0" ).select( Arrays.asList( first, second ) );
+    assertEquals( Arrays.asList( second ), new ArrayList<>( selected.keySet() ) );
+
+    // Nobody answers: use the configured slave servers
+    //
+    selected = createSelector( new HashMap<String, SlaveServerStatus>(), "0" )
+      .select( Arrays.asList( first, second ) );
+    assertEquals( Arrays.asList( first, second ), new ArrayList<>( selected.keySet() ) );
+  }
+
+  @Test
+  public void testAssignPartitions() {
+    // Equal weights: round robin
+    //
+    assertArrayEquals( new int[] { 0, 1, 2, 0, 1, 2, 0 },
+      SlaveServerSelector.assignPartitions( 7, new double[] { 1.0, 1.0, 1.0 } ) );
+
+    // Every slave server gets a partition, the rest goes by weight
+    //
+    int[] assignment = SlaveServerSelector.assignPartitions( 12, new double[] { 3.0, 1.0 } );
+    int[] counts = new int[ 2 ];
+    for ( int slave : assignment ) {
+      counts[slave]++;
+    }
+    assertEquals( 0, assignment[0] );
+    assertEquals( 1, assignment[1] );
+    assertEquals( 9, counts[0] );
+    assertEquals( 3, counts[1] );
+  }
+}
@@ -0,0 +1,216 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.BlockingRowSet;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.www.SocketRepository;
+
+public class RemoteStepMultiplexerTest {
+
+  private static final int NR_ROWS = 2000;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    KettleEnvironment.init( false );
+  }
+
+  private static BaseStep createStep( SocketRepository socketRepository ) throws Exception {
+    BaseStep baseStep = mock( BaseStep.class );
+    TransMeta transMeta = mock( TransMeta.class );
+    when( transMeta.getName() ).thenReturn( "multiplexed" );
+    when( transMeta.getSizeRowset() ).thenReturn( 100 );
+    when( baseStep.getTransMeta() ).thenReturn( transMeta );
+    when( baseStep.getSocketRepository() ).thenReturn( socketRepository );
+    when( baseStep.getServerSockets() ).thenReturn( new ArrayList<ServerSocket>() );
+    when( baseStep.getVariable( Const.KETTLE_CLUSTER_STREAM_CREDITS ) ).thenReturn( "1" );
+    when( baseStep.environmentSubstitute( anyString() ) ).thenAnswer( invocation -> invocation.getArgument( 0 ) );
+    doAnswer( invocation -> readRow( invocation.getArgument( 0 ) ) ).when( baseStep ).getRowFrom( any( RowSet.class ) );
+    doAnswer( invocation -> ( (RowSet) invocation.getArgument( 2 ) ).putRow( invocation.getArgument( 0 ),
+      invocation.getArgument( 1 ) ) ).when( baseStep ).putRowTo( any(), any(), any( RowSet.class ) );
+    return baseStep;
+  }
+
+  private static Object[] readRow( RowSet rowSet ) {
+    while ( true ) {
+      Object[] row = rowSet.getRowWait( 100, TimeUnit.MILLISECONDS );
+      if ( row != null ) {
+        return row;
+      }
+      if ( rowSet.isDone() ) {
+        return rowSet.getRow();
+      }
+    }
+  }
+
+  private static RemoteStep createRemoteStep( String sourceStep, String targetStep, int port, boolean compressing,
+                                              RowMetaInterface rowMeta ) {
+    RemoteStep remoteStep =
+      new RemoteStep( "localhost", "localhost", Integer.toString( port ), sourceStep, 0, targetStep, 0, "slave1",
+        "slave2", 100, compressing, rowMeta );
+    remoteStep.setMultiplexingStreams( true );
+    return remoteStep;
+  }
+
+  private static int findFreePort() throws Exception {
+    try ( ServerSocket serverSocket = new ServerSocket( 0 ) ) {
+      return serverSocket.getLocalPort();
+    }
+  }
+
+  private void sendRows( boolean compressing ) throws Exception {
+    SocketRepository socketRepository = new SocketRepository( mock( LogChannelInterface.class ) );
+    int port = findFreePort();
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    BaseStep writerStep = createStep( socketRepository );
+    BaseStep readerStep = createStep( socketRepository );
+    String[] channels = { "a", "b" };
+    List<RemoteStep> writers = new ArrayList<>();
+    for ( String channel : channels ) {
+      RemoteStep writer = createRemoteStep( channel, channel + " target", port, compressing, rowMeta );
+      writer.openServerSocket( writerStep );
+      writers.add( writer );
+    }
+
+    // Both remote steps share the server socket
+    //
+    assertEquals( 1, writerStep.getServerSockets().size() );
+
+    List<BlockingRowSet> readerRowSets = new ArrayList<>();
+    for ( int i = 0; i < channels.length; i++ ) {
+      final BlockingRowSet writerRowSet = writers.get( i ).openWriterSocket();
+      final long offset = i * NR_ROWS;
+      new Thread( () -> {
+        for ( long row = 0; row < NR_ROWS; row++ ) {
+          writerRowSet.putRow( rowMeta, new Object[] { offset + row } );
+        }
+        writerRowSet.setDone();
+      } ).start();
+
+      RemoteStep reader = createRemoteStep( channels[i], channels[i] + " target", port, compressing, rowMeta );
+      readerRowSets.add( reader.openReaderSocket( readerStep ) );
+    }
+
+    for ( int i = 0; i < channels.length; i++ ) {
+      BlockingRowSet rowSet = readerRowSets.get( i );
+      long expected = i * NR_ROWS;
+      Object[] row = readRow( rowSet );
+      while ( row != null ) {
+        assertEquals( expected++, row[0] );
+        row = readRow( rowSet );
+      }
+      assertEquals( ( i + 1 ) * NR_ROWS, expected );
+      assertTrue( rowSet.isDone() );
+    }
+
+    for ( RemoteStep writer : writers ) {
+      writer.cleanup();
+    }
+  }
+
+  @Test
+  public void testRowsOverOneConnection() throws Exception {
+    sendRows( false );
+  }
+
+  @Test
+  public void testCompressedRowsOverOneConnection() throws Exception {
+    sendRows( true );
+  }
+
+  @Test
+  public void testEmptyStreamAndLateChannel() throws Exception {
+    SocketRepository socketRepository = new SocketRepository( mock( LogChannelInterface.class ) );
+    int port = findFreePort();
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    BaseStep writerStep = createStep( socketRepository );
+    BaseStep readerStep = createStep( socketRepository );
+    RemoteStep emptyWriter = createRemoteStep( "a", "a target", port, false, rowMeta );
+    RemoteStep writer = createRemoteStep( "b", "b target", port, false, rowMeta );
+    emptyWriter.openServerSocket( writerStep );
+    writer.openServerSocket( writerStep );
+
+    // The empty stream ends before the reading side opened its channel
+    //
+    emptyWriter.openWriterSocket().setDone();
+    BlockingRowSet writerRowSet = writer.openWriterSocket();
+    for ( long row = 0; row < 10; row++ ) {
+      writerRowSet.putRow( rowMeta, new Object[] { row } );
+    }
+    writerRowSet.setDone();
+
+    RemoteStep emptyReader = createRemoteStep( "a", "a target", port, false, rowMeta );
+    BlockingRowSet emptyRowSet = emptyReader.openReaderSocket( readerStep );
+    assertNull( readRow( emptyRowSet ) );
+    emptyReader.cleanup();
+
+    // The other channel is opened over the same connection after the first one is done
+    //
+    RemoteStep reader = createRemoteStep( "b", "b target", port, false, rowMeta );
+    BlockingRowSet rowSet = reader.openReaderSocket( readerStep );
+    long expected = 0;
+    for ( Object[] row = readRow( rowSet ); row != null; row = readRow( rowSet ) ) {
+      assertEquals( expected++, row[0] );
+    }
+    assertEquals( 10, expected );
+    reader.cleanup();
+
+    verify( writerStep, never() ).setErrors( anyInt() );
+    verify( readerStep, never() ).setErrors( anyInt() );
+    emptyWriter.cleanup();
+    writer.cleanup();
+  }
+
+  @Test
+  public void testXml() throws Exception {
+    RemoteStep remoteStep = createRemoteStep( "a", "b", 40000, false, new RowMeta() );
+    RemoteStep copy = new RemoteStep( XMLHandler.loadXMLString( remoteStep.getXML(), RemoteStep.XML_TAG ) );
+    assertTrue( copy.isMultiplexed() );
+
+    remoteStep.setMultiplexingStreams( false );
+    copy = new RemoteStep( XMLHandler.loadXMLString( remoteStep.getXML(), RemoteStep.XML_TAG ) );
+    assertFalse( copy.isMultiplexed() );
+  }
+}
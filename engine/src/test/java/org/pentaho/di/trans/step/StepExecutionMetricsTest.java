@@ -0,0 +1,67 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.step;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StepExecutionMetricsTest {
+
+  @Test
+  public void testTimingDisabledByDefault() {
+    StepExecutionMetrics metrics = new StepExecutionMetrics();
+    long startTime = metrics.startTimer();
+    assertEquals( 0L, startTime );
+    metrics.addInputWaitTime( startTime );
+    metrics.addOutputBlockedTime( startTime );
+    metrics.addProcessingTime( startTime );
+    assertEquals( 0L, metrics.getInputWaitTime() );
+    assertEquals( 0L, metrics.getOutputBlockedTime() );
+    assertEquals( 0L, metrics.getProcessingTime() );
+  }
+
+  @Test
+  public void testTimingEnabled() throws Exception {
+    StepExecutionMetrics metrics = new StepExecutionMetrics();
+    metrics.setTimingEnabled( true );
+    long startTime = metrics.startTimer();
+    Thread.sleep( 5 );
+    metrics.addInputWaitTime( startTime );
+    metrics.addProcessingTime( startTime );
+    assertTrue( metrics.getInputWaitTime() > 0 );
+    assertTrue( metrics.getProcessingTime() >= metrics.getInputWaitTime() );
+    assertEquals( 0L, metrics.getOutputBlockedTime() );
+  }
+
+  @Test
+  public void testCpuTimeIsKeptAfterDetach() {
+    StepExecutionMetrics metrics = new StepExecutionMetrics();
+    assertEquals( 0L, metrics.getCpuTime() );
+    metrics.attachCurrentThread();
+    long sum = 0;
+    for ( int i = 0; i < 1000000; i++ ) {
+      sum += String.valueOf( i ).length();
+    }
+    assertTrue( sum > 0 );
+    metrics.detachCurrentThread();
+    long cpuTime = metrics.getCpuTime();
+    long allocatedBytes = metrics.getAllocatedBytes();
+    assertTrue( cpuTime >= 0 );
+    assertTrue( allocatedBytes >= 0 );
+    // No longer attached: the values are frozen
+    assertEquals( cpuTime, metrics.getCpuTime() );
+    assertEquals( allocatedBytes, metrics.getAllocatedBytes() );
+  }
+}
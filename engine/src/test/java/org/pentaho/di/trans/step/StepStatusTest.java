@@ -13,6 +13,7 @@
 package org.pentaho.di.trans.step;
 
 import org.junit.Test;
+import org.pentaho.di.core.xml.XMLHandler;
 
 import static org.junit.Assert.assertEquals;
 
@@ -25,4 +26,26 @@ public class StepStatusTest {
     String[] overrides = status.getTransLogFields( "Override" );
     assertEquals( "Override", overrides[10] );
   }
+
+  @Test
+  public void testExecutionMetricsXmlRoundTrip() throws Exception {
+    StepStatus status = new StepStatus();
+    status.setStepname( "step" );
+    status.setStatusDescription( "Running" );
+    status.setSpeed( "-" );
+    status.setPriority( "-" );
+    status.setCpuTime( 1L );
+    status.setAllocatedBytes( 2L );
+    status.setInputWaitTime( 3L );
+    status.setOutputBlockedTime( 4L );
+    status.setProcessingTime( 5L );
+
+    StepStatus copy = new StepStatus(
+      XMLHandler.getSubNode( XMLHandler.loadXMLString( status.getXML() ), StepStatus.XML_TAG ) );
+    assertEquals( 1L, copy.getCpuTime() );
+    assertEquals( 2L, copy.getAllocatedBytes() );
+    assertEquals( 3L, copy.getInputWaitTime() );
+    assertEquals( 4L, copy.getOutputBlockedTime() );
+    assertEquals( 5L, copy.getProcessingTime() );
+  }
 }
@@ -60,6 +60,8 @@ import java.util.Random;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
@@ -84,7 +86,8 @@ public class DimensionLookupMetaTest implements InitializerInterface<StepMetaInt
         Arrays.asList( "schemaName", "tableName", "update", "dateField", "dateFrom", "dateTo", "keyField", "keyRename",
             "autoIncrement", "versionField", "commitSize", "useBatchUpdate", "minYear", "maxYear", "techKeyCreation",
             "cacheSize", "usingStartDateAlternative", "startDateAlternative", "startDateFieldName", "preloadingCache", "keyStream",
-            "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName" );
+            "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName",
+            "preloadingCacheWhenUpdating" );
 
     Map<String, String> getterMap = new HashMap<>() {
       {
@@ -184,6 +187,23 @@ public class DimensionLookupMetaTest implements InitializerInterface<StepMetaInt
     }
   }
 
+  @Test
+  public void testPreloadCacheWhenUpdatingIsExplicit() {
+    DimensionLookupMeta meta = new DimensionLookupMeta();
+    meta.setPreloadingCache( true );
+    assertTrue( meta.isUsingPreloadCache() );
+
+    // Transformations that update the dimension keep using the regular cache unless they ask for the pre-load
+    //
+    meta.setUpdate( true );
+    assertFalse( meta.isUsingPreloadCache() );
+    meta.setPreloadingCacheWhenUpdating( true );
+    assertTrue( meta.isUsingPreloadCache() );
+
+    meta.setPreloadingCache( false );
+    assertFalse( meta.isUsingPreloadCache() );
+  }
+
   @Test
   public void testUseDefaultSchemaName() throws Exception {
     String schemaName = "";
@@ -0,0 +1,134 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class DimensionVersionCacheTest {
+
+  private static final long HOUR = 3600000L;
+  private static final long T0 = 1425300000000L;
+
+  private DimensionVersionCache cache;
+
+  @Before
+  public void setUp() {
+    RowMetaInterface keyRowMeta = new RowMeta();
+    keyRowMeta.addValueMeta( new ValueMetaString( "customer" ) );
+    keyRowMeta.addValueMeta( new ValueMetaBigNumber( "branch" ) );
+
+    RowMetaInterface valueRowMeta = new RowMeta();
+    valueRowMeta.addValueMeta( new ValueMetaInteger( "tk" ) );
+    valueRowMeta.addValueMeta( new ValueMetaInteger( "version" ) );
+    valueRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    valueRowMeta.addValueMeta( new ValueMetaDate( "date_from" ) );
+    valueRowMeta.addValueMeta( new ValueMetaDate( "date_to" ) );
+
+    cache = new DimensionVersionCache( keyRowMeta, valueRowMeta, 3, 4 );
+  }
+
+  private static Object[] key( String customer, String branch ) {
+    return new Object[] { customer, new BigDecimal( branch ) };
+  }
+
+  private static Object[] version( long tk, long version, String name, Long from, Long to ) {
+    return new Object[] { tk, version, name, from == null ? null : new Date( T0 + from * HOUR ),
+      to == null ? null : new Date( T0 + to * HOUR ) };
+  }
+
+  private Long lookupTk( Object[] key, long hour ) throws Exception {
+    Object[] row = cache.lookup( key, new Date( T0 + hour * HOUR ) );
+    return row == null ? null : (Long) row[ 0 ];
+  }
+
+  @Test
+  public void testLookupDateRanges() throws Exception {
+    // Added out of order on purpose
+    //
+    cache.addVersion( key( "c1", "1" ), version( 3, 3, "third", 20L, null ) );
+    cache.addVersion( key( "c1", "1" ), version( 1, 1, "first", null, 10L ) );
+    cache.addVersion( key( "c1", "1" ), version( 2, 2, "second", 10L, 20L ) );
+    cache.addVersion( key( "c2", "1" ), version( 4, 1, "other", 5L, 15L ) );
+
+    assertEquals( 2, cache.getKeyCount() );
+    assertEquals( 4, cache.getVersionCount() );
+
+    assertEquals( Long.valueOf( 1 ), lookupTk( key( "c1", "1" ), -1000 ) );
+    assertEquals( Long.valueOf( 1 ), lookupTk( key( "c1", "1" ), 9 ) );
+    assertEquals( Long.valueOf( 2 ), lookupTk( key( "c1", "1" ), 10 ) );
+    assertEquals( Long.valueOf( 3 ), lookupTk( key( "c1", "1" ), 20 ) );
+    assertEquals( Long.valueOf( 3 ), lookupTk( key( "c1", "1.00" ), 1000 ) );
+
+    assertNull( lookupTk( key( "c2", "1" ), 4 ) );
+    assertEquals( Long.valueOf( 4 ), lookupTk( key( "c2", "1" ), 5 ) );
+    assertNull( lookupTk( key( "c2", "1" ), 15 ) );
+    assertNull( lookupTk( key( "c3", "1" ), 5 ) );
+
+    Object[] row = cache.lookup( key( "c1", "1" ), new Date( T0 + 15 * HOUR ) );
+    assertEquals( "second", row[ 2 ] );
+  }
+
+  @Test
+  public void testAddAndReplaceVersions() throws Exception {
+    cache.addVersion( key( "c1", "1" ), version( 1, 1, "first", null, null ) );
+    assertEquals( Long.valueOf( 1 ), lookupTk( key( "c1", "1" ), 100 ) );
+
+    // A new version closes the previous one in the dimension table: reload both
+    //
+    cache.setVersions( key( "c1", "1" ), Arrays.asList(
+      version( 2, 2, "second", 50L, null ), version( 1, 1, "first", null, 50L ) ) );
+    assertEquals( 2, cache.getVersionCount() );
+    assertEquals( Long.valueOf( 1 ), lookupTk( key( "c1", "1" ), 49 ) );
+    assertEquals( Long.valueOf( 2 ), lookupTk( key( "c1", "1" ), 100 ) );
+
+    // Same start date: the version is replaced
+    //
+    cache.addVersion( key( "c1", "1" ), version( 2, 2, "changed", 50L, null ) );
+    assertEquals( 2, cache.getVersionCount() );
+    assertEquals( "changed", cache.lookup( key( "c1", "1" ), new Date( T0 + 60 * HOUR ) )[ 2 ] );
+  }
+
+  @Test
+  public void testAddVersionKeepsTheOtherVersions() throws Exception {
+    cache.addVersion( key( "c1", "1" ), version( 1, 1, "a", null, 10L ) );
+    cache.addVersion( key( "c1", "1" ), version( 3, 3, "ccc", 20L, null ) );
+    cache.addVersion( key( "c1", "1" ), version( 2, 2, "bb", 10L, 20L ) );
+
+    // Replace the first and the middle version with rows of a different size
+    //
+    cache.addVersion( key( "c1", "1" ), version( 1, 1, "a longer name", null, 10L ) );
+    cache.addVersion( key( "c1", "1" ), version( 2, 2, null, 10L, 20L ) );
+
+    assertEquals( 3, cache.getVersionCount() );
+    assertEquals( "a longer name", cache.lookup( key( "c1", "1" ), new Date( T0 + 5 * HOUR ) )[ 2 ] );
+    Object[] middle = cache.lookup( key( "c1", "1" ), new Date( T0 + 15 * HOUR ) );
+    assertEquals( Long.valueOf( 2 ), middle[ 0 ] );
+    assertNull( middle[ 2 ] );
+    assertEquals( new Date( T0 + 20 * HOUR ), middle[ 4 ] );
+    assertEquals( "ccc", cache.lookup( key( "c1", "1" ), new Date( T0 + 25 * HOUR ) )[ 2 ] );
+  }
+}
@@ -59,6 +59,31 @@ public class TableInputMetaInjectionTest extends BaseMetadataInjectionTest<Table
         return meta.isCachedRowMetaActive();
       }
     } );
+    check( "PARTITION_COLUMN", new StringGetter() {
+      public String get() {
+        return meta.getPartitionColumn();
+      }
+    } );
+    check( "PARTITION_COUNT", new StringGetter() {
+      public String get() {
+        return meta.getPartitionCount();
+      }
+    } );
+    check( "PARTITION_MIN", new StringGetter() {
+      public String get() {
+        return meta.getPartitionMin();
+      }
+    } );
+    check( "PARTITION_MAX", new StringGetter() {
+      public String get() {
+        return meta.getPartitionMax();
+      }
+    } );
+    check( "PARTITION_ORDERED", new BooleanGetter() {
+      public boolean get() {
+        return meta.isPartitionOrdered();
+      }
+    } );
     skipPropertyTest( "CONNECTIONNAME" );
   }
 }
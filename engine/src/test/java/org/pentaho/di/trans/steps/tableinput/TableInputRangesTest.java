@@ -0,0 +1,78 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class TableInputRangesTest {
+
+  private static final String SQL = "SELECT id, name FROM customers WHERE country = ?;";
+
+  @Test
+  public void testRangeSql() {
+    assertEquals( "SELECT MIN(id), MAX(id) FROM ( SELECT id, name FROM customers WHERE country = ? ) kettle_ranges",
+      TableInputRanges.getMinMaxSql( SQL, "id" ) );
+
+    String from = "SELECT * FROM ( SELECT id, name FROM customers WHERE country = ? ) kettle_ranges" + Const.CR;
+    assertEquals( from + "WHERE id < ?", TableInputRanges.getRangeSql( SQL, "id", 0, 3 ) );
+    assertEquals( from + "WHERE id >= ? AND id < ?", TableInputRanges.getRangeSql( SQL, "id", 1, 3 ) );
+    assertEquals( from + "WHERE id >= ? OR id IS NULL", TableInputRanges.getRangeSql( SQL, "id", 2, 3 ) );
+  }
+
+  @Test
+  public void testRangeParameters() {
+    RowMetaInterface parametersMeta = new RowMeta();
+    parametersMeta.addValueMeta( new ValueMetaString( "country" ) );
+    ValueMetaInterface boundaryMeta = new ValueMetaInteger( "range" );
+    Object[] boundaries = new Object[] { 10L, 20L };
+
+    assertEquals( 2, TableInputRanges.getRangeParametersMeta( parametersMeta, boundaryMeta, 0, 3 ).size() );
+    assertEquals( 3, TableInputRanges.getRangeParametersMeta( parametersMeta, boundaryMeta, 1, 3 ).size() );
+    assertEquals( 1, TableInputRanges.getRangeParametersMeta( new RowMeta(), boundaryMeta, 2, 3 ).size() );
+
+    Object[] parameters = new Object[] { "BE" };
+    assertArrayEquals( new Object[] { "BE", 10L }, TableInputRanges.getRangeParameters( parameters, boundaries, 0 ) );
+    assertArrayEquals( new Object[] { "BE", 10L, 20L },
+      TableInputRanges.getRangeParameters( parameters, boundaries, 1 ) );
+    assertArrayEquals( new Object[] { 20L }, TableInputRanges.getRangeParameters( new Object[0], boundaries, 2 ) );
+  }
+
+  @Test
+  public void testBoundaries() throws Exception {
+    assertArrayEquals( new Object[] { 25L, 50L, 75L },
+      TableInputRanges.getBoundaries( new ValueMetaInteger( "id" ), 0L, 100L, 4 ) );
+    assertArrayEquals( new Object[] { 3L },
+      TableInputRanges.getBoundaries( new ValueMetaInteger( "id" ), 1L, 6L, 2 ) );
+    assertArrayEquals( new Object[] { new Date( 1000L ) },
+      TableInputRanges.getBoundaries( new ValueMetaDate( "d" ), new Date( 0L ), new Date( 2000L ), 2 ) );
+  }
+
+  @Test( expected = KettleValueException.class )
+  public void testOnlyNumbersAndDates() throws Exception {
+    TableInputRanges.getBoundaryMeta( new ValueMetaBoolean( "flag" ) );
+  }
+}
@@ -0,0 +1,136 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.www;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.job.Job;
+import org.pentaho.di.job.JobListener;
+import org.pentaho.di.www.CarteExecutionQueue.Priority;
+import org.pentaho.di.www.CarteExecutionQueue.Type;
+import org.pentaho.di.www.exception.ExecutionQueueFullException;
+
+public class CarteExecutionQueueTest {
+
+  private CarteExecutionQueue queue;
+  private List<String> started;
+  private Map<String, JobListener> listeners;
+  private int freeMemoryPercent;
+
+  @Before
+  public void setUp() {
+    queue = new CarteExecutionQueue() {
+      @Override
+      protected int getFreeMemoryPercent() {
+        return freeMemoryPercent;
+      }
+    };
+    SlaveServerConfig config = new SlaveServerConfig();
+    queue.configure( config, mock( LogChannelInterface.class ) );
+    started = new ArrayList<>();
+    listeners = new HashMap<>();
+    freeMemoryPercent = 100;
+  }
+
+  private boolean submit( String id, Priority priority ) throws Exception {
+    Job job = mock( Job.class );
+    doAnswer( invocation -> listeners.put( id, invocation.getArgument( 0 ) ) )
+      .when( job ).addJobListener( any( JobListener.class ) );
+    return queue.submitJob( id, job, priority, () -> started.add( id ) );
+  }
+
+  private void finish( String id ) throws Exception {
+    listeners.get( id ).jobFinished( null );
+  }
+
+  @Test
+  public void testDisabledStartsRightAway() throws Exception {
+    assertFalse( queue.isEnabled() );
+    assertTrue( submit( "a", Priority.NORMAL ) );
+    assertTrue( submit( "b", Priority.NORMAL ) );
+    assertEquals( 2, started.size() );
+    assertTrue( listeners.isEmpty() );
+  }
+
+  @Test
+  public void testQueueByPriority() throws Exception {
+    queue.configure( 0, 1, 0, 0 );
+
+    assertTrue( submit( "a", Priority.NORMAL ) );
+    assertFalse( submit( "b", Priority.LOW ) );
+    assertFalse( submit( "c", Priority.NORMAL ) );
+    assertFalse( submit( "d", Priority.HIGH ) );
+    assertEquals( 3, queue.getQueued( Type.JOB ) );
+    assertEquals( 1, queue.getRunning( Type.JOB ) );
+    assertEquals( CarteExecutionQueue.STRING_QUEUED, queue.getStatus( "b", "Waiting" ) );
+    assertEquals( "Running", queue.getStatus( "a", "Running" ) );
+
+    finish( "a" );
+    finish( "a" ); // released only once
+    assertEquals( 1, queue.getRunning( Type.JOB ) );
+    finish( "d" );
+    finish( "c" );
+    finish( "b" );
+
+    assertEquals( "[a, d, c, b]", started.toString() );
+    assertEquals( 0, queue.getQueued( Type.JOB ) );
+    assertEquals( 0, queue.getRunning( Type.JOB ) );
+    assertEquals( 4, queue.getAdmitted() );
+  }
+
+  @Test
+  public void testRejectWhenFull() throws Exception {
+    queue.configure( 0, 1, 1, 0 );
+
+    assertTrue( submit( "a", Priority.NORMAL ) );
+    assertFalse( submit( "b", Priority.NORMAL ) );
+    try {
+      submit( "c", Priority.HIGH );
+      fail( "The queue is full" );
+    } catch ( ExecutionQueueFullException e ) {
+      // expected
+    }
+    assertEquals( 1, queue.getRejected() );
+    assertFalse( queue.isQueued( "c" ) );
+  }
+
+  @Test
+  public void testMemoryAdmission() throws Exception {
+    queue.configure( 0, 10, 0, 50 );
+    freeMemoryPercent = 10;
+
+    // Nothing runs yet, so the heap isn't looked at
+    //
+    assertTrue( submit( "a", Priority.NORMAL ) );
+    assertFalse( submit( "b", Priority.NORMAL ) );
+
+    freeMemoryPercent = 80;
+    queue.dispatch();
+    assertEquals( "[a, b]", started.toString() );
+    assertEquals( 2, queue.getRunning( Type.JOB ) );
+  }
+}
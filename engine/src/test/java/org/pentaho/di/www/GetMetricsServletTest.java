@@ -0,0 +1,137 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.www;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.pentaho.di.core.metrics.MetricsDuration;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.StepInterface;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GetMetricsServletTest {
+  private TransformationMap transformationMap;
+  private GetMetricsServlet servlet;
+
+  @Before
+  public void setup() {
+    transformationMap = new TransformationMap();
+    servlet = new GetMetricsServlet( transformationMap, new JobMap() );
+  }
+
+  @Test
+  public void testStepCountersArePublished() throws Exception {
+    Trans trans = mock( Trans.class );
+    StepInterface step = mock( StepInterface.class );
+    when( trans.getStatus() ).thenReturn( Trans.STRING_RUNNING );
+    when( trans.isRunning() ).thenReturn( true );
+    when( trans.nrSteps() ).thenReturn( 1 );
+    when( trans.getRunThread( 0 ) ).thenReturn( step );
+    when( step.getStepname() ).thenReturn( "Dummy \"1\"" );
+    when( step.getLinesRead() ).thenReturn( 123L );
+    transformationMap.addTransformation( "test", "id1", trans, null );
+
+    HttpServletRequest request = mock( HttpServletRequest.class );
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    StringWriter out = new StringWriter();
+    when( response.getWriter() ).thenReturn( new PrintWriter( out ) );
+
+    servlet.doGet( request, response );
+
+    String text = out.toString();
+    verify( response ).setContentType( OpenMetricsWriter.CONTENT_TYPE_PROMETHEUS );
+    assertTrue( text.contains( "# TYPE kettle_step_lines_read_total counter" ) );
+    assertTrue( text.contains(
+      "kettle_step_lines_read_total{transformation=\"test\",id=\"id1\",step=\"Dummy \\\"1\\\"\",copy=\"0\"} 123" ) );
+    assertTrue( text.contains( "kettle_transformation_running{transformation=\"test\",id=\"id1\"} 1" ) );
+    assertTrue( text.contains( "kettle_carte_transformations{status=\"Running\"} 1" ) );
+    assertFalse( text.contains( "# EOF" ) );
+  }
+
+  @Test
+  public void testOpenMetricsFormat() throws Exception {
+    HttpServletRequest request = mock( HttpServletRequest.class );
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    StringWriter out = new StringWriter();
+    when( request.getHeader( "Accept" ) ).thenReturn( "application/openmetrics-text; version=1.0.0" );
+    when( response.getWriter() ).thenReturn( new PrintWriter( out ) );
+
+    servlet.doGet( request, response );
+
+    String text = out.toString();
+    InOrder inOrder = inOrder( response );
+    inOrder.verify( response ).setContentType( OpenMetricsWriter.CONTENT_TYPE_OPENMETRICS );
+    inOrder.verify( response ).setCharacterEncoding( "UTF-8" );
+    inOrder.verify( response ).getWriter();
+    assertTrue( text.contains( "# TYPE jvm_gc_collections counter\n" ) );
+    assertFalse( text.contains( "\r" ) );
+    assertTrue( text.endsWith( "\n# EOF\n" ) );
+  }
+
+  @Test
+  public void testDurationsWithTheSameLabelsAreSummed() {
+    Date now = new Date();
+    Map<List<String>, Long> durations = GetMetricsServlet.sumDurations( Arrays.asList(
+      new MetricsDuration( now, "Step init", "Dummy", "channel1", 100L ),
+      new MetricsDuration( now, "Step init", "Dummy", "channel2", 250L ),
+      new MetricsDuration( now, "Step init", "Output", "channel3", 40L ),
+      new MetricsDuration( now, "Connect", "Output", "channel3", null ) ) );
+
+    assertEquals( 2, durations.size() );
+    assertEquals( Long.valueOf( 350L ), durations.get( Arrays.asList( "Step init", "Dummy" ) ) );
+    assertEquals( Long.valueOf( 40L ), durations.get( Arrays.asList( "Step init", "Output" ) ) );
+  }
+
+  @Test
+  public void testFormatValue() {
+    assertEquals( "12", OpenMetricsWriter.formatValue( 12.0 ) );
+    assertEquals( "0.5", OpenMetricsWriter.formatValue( 0.5 ) );
+    assertEquals( "NaN", OpenMetricsWriter.formatValue( Double.NaN ) );
+    assertEquals( "+Inf", OpenMetricsWriter.formatValue( Double.POSITIVE_INFINITY ) );
+  }
+
+  @Test
+  public void testHistogram() {
+    StringWriter out = new StringWriter();
+    OpenMetricsWriter writer = new OpenMetricsWriter( new PrintWriter( out ), false );
+    writer.family( "wait_seconds", OpenMetricsWriter.TYPE_HISTOGRAM, "Wait time" );
+    writer.histogram( new double[] { 0.5, 1 }, new long[] { 2, 3 }, 2.5, 4, "pool", "db" );
+    writer.end();
+
+    String nl = "\n";
+    assertEquals( "# TYPE wait_seconds histogram" + nl
+      + "# HELP wait_seconds Wait time" + nl
+      + "wait_seconds_bucket{pool=\"db\",le=\"0.5\"} 2" + nl
+      + "wait_seconds_bucket{pool=\"db\",le=\"1.0\"} 3" + nl
+      + "wait_seconds_bucket{pool=\"db\",le=\"+Inf\"} 4" + nl
+      + "wait_seconds_sum{pool=\"db\"} 2.5" + nl
+      + "wait_seconds_count{pool=\"db\"} 4" + nl, out.toString() );
+  }
+}
@@ -13,10 +13,14 @@
 
 package org.pentaho.di.www;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -30,6 +34,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.pentaho.di.core.gui.Point;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.logging.LogChannelInterface;
@@ -46,6 +51,8 @@ public class GetStatusServletTest {
   public void setup() {
     mockTransformationMap = mock( TransformationMap.class );
     mockJobMap = mock( JobMap.class );
+    when( mockTransformationMap.getChanges() ).thenReturn( new CarteObjectChanges() );
+    when( mockJobMap.getChanges() ).thenReturn( new CarteObjectChanges() );
     getStatusServlet = new GetStatusServlet( mockTransformationMap, mockJobMap );
   }
 
@@ -143,6 +150,96 @@ public class GetStatusServletTest {
     assert ( out.toString().contains( "testTranId2" ) );
   }
 
+  @Test
+  public void testGetStatusServletAsXmlChangedSinceAndNotModified() throws Exception {
+    KettleLogStore.init();
+    CarteObjectChanges changes = new CarteObjectChanges();
+    when( mockTransformationMap.getChanges() ).thenReturn( changes );
+    CarteObjectEntry oldEntry = new CarteObjectEntry( "old", "testOldTransId" );
+    CarteObjectEntry newEntry = new CarteObjectEntry( "new", "testNewTransId" );
+    CarteObjectEntry goneEntry = new CarteObjectEntry( "gone", "testGoneTransId" );
+    Trans oldTrans = mock( Trans.class );
+    when( oldTrans.getStatus() ).thenReturn( Trans.STRING_FINISHED );
+    Trans newTrans = mock( Trans.class );
+    when( newTrans.getStatus() ).thenReturn( Trans.STRING_RUNNING );
+    Trans goneTrans = mock( Trans.class );
+    when( goneTrans.getStatus() ).thenReturn( Trans.STRING_FINISHED );
+    when( mockTransformationMap.getTransformationObjects() )
+      .thenReturn( Arrays.asList( oldEntry, newEntry, goneEntry ) );
+    when( mockTransformationMap.getTransformation( oldEntry ) ).thenReturn( oldTrans );
+    when( mockTransformationMap.getTransformation( newEntry ) ).thenReturn( newTrans );
+    when( mockTransformationMap.getTransformation( goneEntry ) ).thenReturn( goneTrans );
+    changes.added( oldEntry );
+    changes.added( newEntry );
+    changes.added( goneEntry );
+    Thread.sleep( 5 );
+
+    // The complete status, the client keeps its time for the next request
+    //
+    HttpServletRequest completeRequest = mock( HttpServletRequest.class );
+    when( completeRequest.getContextPath() ).thenReturn( GetStatusServlet.CONTEXT_PATH );
+    when( completeRequest.getParameter( "xml" ) ).thenReturn( "Y" );
+    HttpServletResponse completeResponse = mock( HttpServletResponse.class );
+    StringWriter completeOut = new StringWriter();
+    when( completeResponse.getWriter() ).thenReturn( new PrintWriter( completeOut ) );
+
+    getStatusServlet.doGet( completeRequest, completeResponse );
+    assertTrue( completeOut.toString().contains( "testOldTransId" ) );
+    verify( completeResponse ).setHeader( GetStatusServlet.STATUS_COMPLETE_HEADER, "Y" );
+    ArgumentCaptor<String> statusTime = ArgumentCaptor.forClass( String.class );
+    verify( completeResponse ).setHeader( eq( GetStatusServlet.STATUS_TIME_HEADER ), statusTime.capture() );
+    Thread.sleep( 5 );
+
+    // One transformation finished and one was removed since then
+    //
+    when( newTrans.getStatus() ).thenReturn( Trans.STRING_FINISHED );
+    when( mockTransformationMap.getTransformationObjects() ).thenReturn( Arrays.asList( oldEntry, newEntry ) );
+    changes.removed( goneEntry );
+
+    HttpServletRequest request = mock( HttpServletRequest.class );
+    when( request.getContextPath() ).thenReturn( GetStatusServlet.CONTEXT_PATH );
+    when( request.getParameter( "xml" ) ).thenReturn( "Y" );
+    when( request.getParameter( "since" ) ).thenReturn( statusTime.getValue() );
+    HttpServletResponse response = mock( HttpServletResponse.class );
+    StringWriter out = new StringWriter();
+    when( response.getWriter() ).thenReturn( new PrintWriter( out ) );
+
+    getStatusServlet.doGet( request, response );
+    verify( response ).setHeader( GetStatusServlet.STATUS_COMPLETE_HEADER, "N" );
+    assertFalse( out.toString().contains( "testOldTransId" ) );
+    assertTrue( out.toString().contains( "testNewTransId" ) );
+    assertTrue( out.toString().contains( "<removed_transformations>" ) );
+    assertTrue( out.toString().contains( "testGoneTransId" ) );
+    ArgumentCaptor<String> etag = ArgumentCaptor.forClass( String.class );
+    verify( response ).setHeader( eq( "ETag" ), etag.capture() );
+    ArgumentCaptor<String> nextStatusTime = ArgumentCaptor.forClass( String.class );
+    verify( response ).setHeader( eq( GetStatusServlet.STATUS_TIME_HEADER ), nextStatusTime.capture() );
+
+    // Nothing changed: 304 without a body, also for the next poll with a later time
+    //
+    when( request.getParameter( "since" ) ).thenReturn( nextStatusTime.getValue() );
+    when( request.getHeader( "If-None-Match" ) ).thenReturn( etag.getValue() );
+    HttpServletResponse notModifiedResponse = mock( HttpServletResponse.class );
+    StringWriter notModifiedOut = new StringWriter();
+    when( notModifiedResponse.getWriter() ).thenReturn( new PrintWriter( notModifiedOut ) );
+
+    getStatusServlet.doGet( request, notModifiedResponse );
+    verify( notModifiedResponse ).setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+    assertEquals( "", notModifiedOut.toString() );
+  }
+
+  @Test
+  public void testSlaveServerStatusRemovedEntries() throws Exception {
+    SlaveServerStatus status = new SlaveServerStatus( "Online" );
+    status.setRemovedTransformations( Arrays.asList( new CarteObjectEntry( "trans", "transId" ) ) );
+    status.setRemovedJobs( Arrays.asList( new CarteObjectEntry( "job", "jobId" ) ) );
+
+    SlaveServerStatus read = SlaveServerStatus.fromXML( status.getXML() );
+    assertEquals( "transId", read.getRemovedTransformations().get( 0 ).getId() );
+    assertEquals( "trans", read.getRemovedTransformations().get( 0 ).getName() );
+    assertEquals( "jobId", read.getRemovedJobs().get( 0 ).getId() );
+    assertTrue( SlaveServerStatus.fromXML( new SlaveServerStatus( "Online" ).getXML() ).getRemovedJobs().isEmpty() );
+  }
 
   private void setupForJobDroppedFromMap( HttpServletRequest mockHttpServletRequest,
                                           HttpServletResponse mockHttpServletResponse, StringWriter out )
@@ -0,0 +1,135 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.www.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+
+public class CarteMetaCacheTest {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    KettleEnvironment.init( false );
+  }
+
+  private static TransMeta createTransMeta( String name ) {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( name );
+    StepMeta from = new StepMeta( "from", new DummyTransMeta() );
+    StepMeta to = new StepMeta( "to", new DummyTransMeta() );
+    transMeta.addStep( from );
+    transMeta.addStep( to );
+    transMeta.addTransHop( new TransHopMeta( from, to ) );
+    transMeta.setVariable( "VAR", "template" );
+    transMeta.getTransLogTable().setTableName( "${LOG_TABLE}" );
+    return transMeta;
+  }
+
+  @Test
+  public void testHitsReturnIndependentCopies() throws Exception {
+    CarteMetaCache cache = new CarteMetaCache( 10 );
+    AtomicInteger loads = new AtomicInteger();
+
+    TransMeta first = cache.getTransMeta( "key", () -> {
+      loads.incrementAndGet();
+      return createTransMeta( "trans" );
+    } );
+    TransMeta second = cache.getTransMeta( "key", () -> {
+      loads.incrementAndGet();
+      return createTransMeta( "trans" );
+    } );
+    TransMeta third = cache.getTransMeta( "key", () -> createTransMeta( "other" ) );
+
+    assertEquals( 1, loads.get() );
+    assertEquals( 1, cache.getMisses() );
+    assertEquals( 2, cache.getHits() );
+    assertEquals( 1, cache.getSize() );
+    assertEquals( "trans", second.getName() );
+    assertNotSame( second, third );
+
+    // Every copy has its own steps, hops, variables and log tables
+    //
+    assertEquals( 2, second.nrSteps() );
+    TransHopMeta hop = second.getTransHop( 0 );
+    assertSame( second.findStep( "from" ), hop.getFromStep() );
+    assertSame( second.findStep( "to" ), hop.getToStep() );
+    assertNotSame( second.findStep( "from" ), third.findStep( "from" ) );
+
+    second.setVariable( "VAR", "changed" );
+    second.setVariable( "LOG_TABLE", "second_log" );
+    assertEquals( "template", first.getVariable( "VAR" ) );
+    assertEquals( "template", third.getVariable( "VAR" ) );
+    assertEquals( "second_log", second.getTransLogTable().getActualTableName() );
+    assertNull( third.getVariable( "LOG_TABLE" ) );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() throws Exception {
+    CarteMetaCache cache = new CarteMetaCache( 2 );
+    cache.getTransMeta( "a", () -> createTransMeta( "a" ) );
+    cache.getTransMeta( "b", () -> createTransMeta( "b" ) );
+    cache.getTransMeta( "a", () -> createTransMeta( "a" ) );
+    cache.getTransMeta( "c", () -> createTransMeta( "c" ) );
+
+    assertEquals( 2, cache.getSize() );
+    assertEquals( 1, cache.getEvictions() );
+
+    // b was used the least recently, it has to be loaded again
+    //
+    AtomicInteger loads = new AtomicInteger();
+    cache.getTransMeta( "a", () -> {
+      loads.incrementAndGet();
+      return createTransMeta( "a" );
+    } );
+    cache.getTransMeta( "b", () -> {
+      loads.incrementAndGet();
+      return createTransMeta( "b" );
+    } );
+    assertEquals( 1, loads.get() );
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    CarteMetaCache cache = new CarteMetaCache( 0 );
+    assertFalse( cache.isEnabled() );
+    assertNull( cache.getXmlKey( "<transformation/>" ) );
+    assertNull( cache.getFileKey( "/tmp/some.ktr" ) );
+
+    TransMeta transMeta = createTransMeta( "trans" );
+    assertSame( transMeta, cache.getTransMeta( null, () -> transMeta ) );
+    assertEquals( 0, cache.getSize() );
+    assertEquals( 0, cache.getMisses() );
+  }
+
+  @Test
+  public void testXmlKey() {
+    CarteMetaCache cache = new CarteMetaCache( 1 );
+    assertTrue( cache.isEnabled() );
+    assertEquals( cache.getXmlKey( "<transformation/>" ), cache.getXmlKey( "<transformation/>" ) );
+    assertFalse( cache.getXmlKey( "<transformation/>" ).equals( cache.getXmlKey( "<transformation />" ) ) );
+  }
+}
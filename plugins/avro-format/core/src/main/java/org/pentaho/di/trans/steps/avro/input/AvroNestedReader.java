@@ -193,6 +193,22 @@ public class AvroNestedReader {
 
   protected AvroToPdiConverter m_avroToPdiConverter;
 
+  /**
+   * The record schema that the top level fields below were resolved against
+   */
+  protected Schema m_compiledSchema;
+
+  /**
+   * Per normal field the top level record field holding its value, or null if the path of the field has to be followed
+   * for every row
+   */
+  protected Schema.Field[] m_compiledFields;
+
+  /**
+   * Per compiled field the schema of its value, unions with null already resolved
+   */
+  protected Schema[] m_compiledFieldSchemas;
+
   /**
    * Factory for obtaining a decoder
    */
@@ -1558,10 +1574,35 @@ public class AvroNestedReader {
     Object value = null;
     int incomingFieldsOffset = m_outputRowMeta.size() - m_normalFields.size();
 
-    for ( AvroInputField f : m_normalFields ) {
+    boolean topLevelRecord =
+      m_schemaToUse.getType() == Schema.Type.RECORD || m_schemaToUse.getType() == Schema.Type.UNION;
+    if ( topLevelRecord && m_topLevelRecord.getSchema() != m_compiledSchema ) {
+      compileTopLevelFields( m_topLevelRecord.getSchema() );
+    }
+
+    for ( int i = 0; i < m_normalFields.size(); i++ ) {
+      AvroInputField f = m_normalFields.get( i );
+
+      // A primitive top level field is read directly from the record. Missing values take the path below for
+      // the default value of the field.
+      //
+      Object fieldValue = topLevelRecord && m_compiledFields[ i ] != null
+        ? m_topLevelRecord.get( m_compiledFields[ i ].pos() ) : null;
+      if ( fieldValue != null ) {
+        Schema fieldSchema = m_compiledFieldSchemas[ i ];
+        if ( fieldSchema.getType() == Schema.Type.BYTES ) {
+          value =
+            fieldValue instanceof ByteBuffer ? convertToKettleValue( f, (ByteBuffer) fieldValue, fieldSchema ) : null;
+        } else {
+          value = getPrimitive( f, fieldValue, fieldSchema );
+        }
+        outputRowData[ f.getOutputIndex() + incomingFieldsOffset ] = value;
+        continue;
+      }
+
       resetField( f, space );
 
-      if ( m_schemaToUse.getType() == Schema.Type.RECORD || m_schemaToUse.getType() == Schema.Type.UNION ) {
+      if ( topLevelRecord ) {
         // call getSchema() on the top level record here in case it has been
         // read as one of the elements from a top-level union
         value =
@@ -1602,6 +1643,72 @@ public class AvroNestedReader {
     return result;
   }
 
+  /**
+   * Resolve the normal fields that read a primitive top level field of the record against the schema of the record,
+   * so their values can be read without following the path of the field for every row.
+   *
+   * @param recordSchema the schema of the top level record
+   */
+  protected void compileTopLevelFields( Schema recordSchema ) {
+    m_compiledFields = new Schema.Field[ m_normalFields.size() ];
+    m_compiledFieldSchemas = new Schema[ m_normalFields.size() ];
+    m_compiledSchema = recordSchema;
+    if ( recordSchema.getType() != Schema.Type.RECORD ) {
+      return;
+    }
+
+    for ( int i = 0; i < m_normalFields.size(); i++ ) {
+      List<String> pathParts = m_normalFields.get( i ).getPathParts();
+      if ( pathParts == null || pathParts.size() != 1 ) {
+        continue;
+      }
+      // Array or map indexes and variables are resolved for every row
+      //
+      String part = pathParts.get( 0 );
+      if ( part.indexOf( '[' ) >= 0 || part.indexOf( '$' ) >= 0 || part.contains( "%%" ) ) {
+        continue;
+      }
+      Schema.Field field = recordSchema.getField( part );
+      if ( field == null ) {
+        continue;
+      }
+
+      Schema fieldSchema = field.schema();
+      if ( fieldSchema.getType() == Schema.Type.UNION ) {
+        fieldSchema = getNullableType( fieldSchema );
+        if ( fieldSchema == null ) {
+          continue;
+        }
+      }
+      switch ( fieldSchema.getType() ) {
+        case RECORD:
+        case ARRAY:
+        case MAP:
+        case UNION:
+        case NULL:
+          break;
+        default:
+          m_compiledFields[ i ] = field;
+          m_compiledFieldSchemas[ i ] = fieldSchema;
+          break;
+      }
+    }
+  }
+
+  /**
+   * @return the type of a union of null and one other type, or null for other unions
+   */
+  private static Schema getNullableType( Schema union ) {
+    List<Schema> types = union.getTypes();
+    if ( types.size() != 2 ) {
+      return null;
+    }
+    if ( types.get( 0 ).getType() == Schema.Type.NULL ) {
+      return types.get( 1 );
+    }
+    return types.get( 1 ).getType() == Schema.Type.NULL ? types.get( 0 ) : null;
+  }
+
   public void close() throws IOException {
     if ( m_containerReader != null ) {
       m_containerReader.close();
@@ -0,0 +1,305 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.avro.input;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.Codec;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.commons.io.input.TeeInputStream;
+import org.pentaho.di.core.util.ExecutorUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Decompresses the blocks of a compressed Avro container file (deflate, snappy, ...) in parallel. The blocks are read
+ * from the file in order and decompressed ahead of the reader on other threads. The stream returns the same container
+ * file without compression, so {@link DataFileStream} only has to decode the records.
+ */
+public class AvroParallelBlockInputStream extends InputStream {
+
+  private static final int MAX_READ_AHEAD_BLOCKS = 8;
+
+  private final PushbackInputStream in;
+  private final BinaryDecoder decoder;
+  private final CodecFactory codecFactory;
+  private final byte[] sync;
+  private final int readAheadBlocks;
+
+  private final Deque<Future<byte[]>> blocks = new ArrayDeque<>();
+  // A codec keeps its buffers between blocks, so every block being decompressed borrows one of its own
+  //
+  private final Queue<Codec> codecs = new ConcurrentLinkedQueue<>();
+  private boolean endOfFile;
+
+  private byte[] segment;
+  private int position;
+
+  /**
+   * @param in                 the rest of the file after the header
+   * @param codecFactory       the codec of the blocks
+   * @param decompressedHeader the header of the file without compression
+   * @param sync               the sync marker of the file
+   * @param readAheadBlocks    the maximum number of blocks decompressed at the same time
+   */
+  AvroParallelBlockInputStream( InputStream in, CodecFactory codecFactory, byte[] decompressedHeader, byte[] sync,
+                                int readAheadBlocks ) {
+    this.in = new PushbackInputStream( in );
+    this.decoder = DecoderFactory.get().directBinaryDecoder( this.in, null );
+    this.codecFactory = codecFactory;
+    this.sync = sync;
+    this.readAheadBlocks = Math.max( 1, readAheadBlocks );
+    this.segment = decompressedHeader;
+  }
+
+  /**
+   * @return a stream with the container file, decompressing its blocks in parallel if it's compressed. Anything else
+   * is returned as it is.
+   */
+  public static InputStream wrap( InputStream in ) throws IOException {
+    ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+    BinaryDecoder headerDecoder =
+      DecoderFactory.get().directBinaryDecoder( new TeeInputStream( in, headerBytes, false ), null );
+
+    Map<String, byte[]> metadata = new LinkedHashMap<>();
+    byte[] sync = new byte[ DataFileConstants.SYNC_SIZE ];
+    try {
+      byte[] magic = new byte[ DataFileConstants.MAGIC.length ];
+      headerDecoder.readFixed( magic );
+      if ( !Arrays.equals( magic, DataFileConstants.MAGIC ) ) {
+        return replay( headerBytes, in );
+      }
+      for ( long n = headerDecoder.readMapStart(); n != 0; n = headerDecoder.mapNext() ) {
+        for ( long i = 0; i < n; i++ ) {
+          String key = headerDecoder.readString();
+          ByteBuffer value = headerDecoder.readBytes( null );
+          byte[] bytes = new byte[ value.remaining() ];
+          value.get( bytes );
+          metadata.put( key, bytes );
+        }
+      }
+      headerDecoder.readFixed( sync );
+    } catch ( IOException e ) {
+      // Not a container file we can read: leave the error to the Avro reader
+      //
+      return replay( headerBytes, in );
+    }
+
+    byte[] codec = metadata.get( DataFileConstants.CODEC );
+    if ( codec == null || DataFileConstants.NULL_CODEC.equals( new String( codec, StandardCharsets.UTF_8 ) ) ) {
+      return replay( headerBytes, in );
+    }
+    CodecFactory codecFactory;
+    try {
+      codecFactory = CodecFactory.fromString( new String( codec, StandardCharsets.UTF_8 ) );
+      createCodec( codecFactory );
+    } catch ( AvroRuntimeException | ReflectiveOperationException e ) {
+      // A codec we can't use: leave it to the Avro reader
+      //
+      return replay( headerBytes, in );
+    }
+
+    metadata.put( DataFileConstants.CODEC, DataFileConstants.NULL_CODEC.getBytes( StandardCharsets.UTF_8 ) );
+    ByteArrayOutputStream decompressedHeader = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder( decompressedHeader, null );
+    encoder.writeFixed( DataFileConstants.MAGIC );
+    encoder.writeMapStart();
+    encoder.setItemCount( metadata.size() );
+    for ( Map.Entry<String, byte[]> entry : metadata.entrySet() ) {
+      encoder.startItem();
+      encoder.writeString( entry.getKey() );
+      encoder.writeBytes( entry.getValue() );
+    }
+    encoder.writeMapEnd();
+    encoder.writeFixed( sync );
+    encoder.flush();
+
+    int readAhead = Math.min( MAX_READ_AHEAD_BLOCKS, Runtime.getRuntime().availableProcessors() + 1 );
+    return new AvroParallelBlockInputStream( in, codecFactory, decompressedHeader.toByteArray(), sync, readAhead );
+  }
+
+  /**
+   * Avro only creates codecs for its own readers and writers, the factory method isn't public.
+   */
+  private static Codec createCodec( CodecFactory codecFactory ) throws ReflectiveOperationException {
+    Method createInstance = CodecFactory.class.getDeclaredMethod( "createInstance" );
+    createInstance.setAccessible( true );
+    return (Codec) createInstance.invoke( codecFactory );
+  }
+
+  private static InputStream replay( ByteArrayOutputStream headerBytes, InputStream in ) {
+    return new SequenceInputStream( new ByteArrayInputStream( headerBytes.toByteArray() ), in );
+  }
+
+  private void requestBlocks() throws IOException {
+    while ( blocks.size() < readAheadBlocks && !endOfFile ) {
+      int next = in.read();
+      if ( next < 0 ) {
+        endOfFile = true;
+      } else {
+        in.unread( next );
+        long count = decoder.readLong();
+        byte[] data = readBlock();
+        blocks.add( ExecutorUtil.getExecutor().submit( () -> decompress( count, data ) ) );
+      }
+    }
+  }
+
+  /**
+   * @return the compressed data of the next block, after its object count
+   */
+  private byte[] readBlock() throws IOException {
+
+    long size = decoder.readLong();
+    if ( size < 0 || size > Integer.MAX_VALUE ) {
+      throw new IOException( "Invalid block size " + size );
+    }
+    byte[] data = new byte[ (int) size ];
+    decoder.readFixed( data );
+    byte[] blockSync = new byte[ DataFileConstants.SYNC_SIZE ];
+    decoder.readFixed( blockSync );
+    if ( !Arrays.equals( sync, blockSync ) ) {
+      throw new IOException( "Invalid sync!" );
+    }
+    return data;
+  }
+
+  /**
+   * Decompress a block with the codec of the file.
+   *
+   * @return the block without compression, as it follows the header in the container file
+   */
+  private byte[] decompress( long count, byte[] data ) throws Exception {
+    ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+    if ( count == 0 ) {
+      writeBlock( decompressed, 0, new byte[ 0 ], 0, 0 );
+      return decompressed.toByteArray();
+    }
+    Codec codec = codecs.poll();
+    if ( codec == null ) {
+      codec = createCodec( codecFactory );
+    }
+    try {
+      // The result can share the buffer of the codec, it's copied before the codec is used again
+      //
+      ByteBuffer block = codec.decompress( ByteBuffer.wrap( data ) );
+      writeBlock( decompressed, count, block.array(), block.arrayOffset() + block.position(), block.remaining() );
+    } finally {
+      codecs.offer( codec );
+    }
+    return decompressed.toByteArray();
+  }
+
+  private void writeBlock( ByteArrayOutputStream out, long count, byte[] data, int offset, int length )
+    throws IOException {
+    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder( out, null );
+    encoder.writeLong( count );
+    encoder.writeLong( length );
+    encoder.writeFixed( data, offset, length );
+    encoder.writeFixed( sync );
+    encoder.flush();
+  }
+
+  /**
+   * @return false at the end of the file
+   */
+  private boolean nextSegment() throws IOException {
+    if ( segment == null ) {
+      throw new IOException( "Stream closed" );
+    }
+    while ( position >= segment.length ) {
+      requestBlocks();
+      Future<byte[]> next = blocks.poll();
+      if ( next == null ) {
+        return false;
+      }
+      try {
+        segment = next.get();
+        position = 0;
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException( "Interrupted while decompressing an Avro block" );
+      } catch ( ExecutionException e ) {
+        throw new IOException( "Unable to decompress an Avro block", e.getCause() );
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if ( segment == null || position >= segment.length ) {
+      if ( !nextSegment() ) {
+        return -1;
+      }
+    }
+    return segment[ position++ ] & 0xff;
+  }
+
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    if ( segment == null || position >= segment.length ) {
+      if ( !nextSegment() ) {
+        return -1;
+      }
+    }
+    int n = Math.min( len, segment.length - position );
+    System.arraycopy( segment, position, b, off, n );
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return segment == null ? 0 : segment.length - position;
+  }
+
+  /**
+   * Cancels the blocks that are still being decompressed and closes the file.
+   */
+  @Override
+  public void close() throws IOException {
+    for ( Future<byte[]> block : blocks ) {
+      block.cancel( true );
+    }
+    blocks.clear();
+    segment = null;
+    in.close();
+  }
+}
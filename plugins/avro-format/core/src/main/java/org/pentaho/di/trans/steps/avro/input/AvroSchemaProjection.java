@@ -0,0 +1,95 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.avro.input;
+
+import org.apache.avro.Schema;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Column projection of Avro records. The projection of a record schema keeps only the top level fields that the input
+ * fields read. Used as the reader schema, it makes Avro skip the other fields while decoding instead of building their
+ * values.
+ */
+public class AvroSchemaProjection {
+
+  private AvroSchemaProjection() {
+  }
+
+  /**
+   * @param path the path of an input field, like $.name, $.name[0].street or name
+   * @return the top level record field the path starts with, or null if the path doesn't start with one or uses
+   * variables
+   */
+  public static String getTopLevelFieldName( String path ) {
+    if ( path == null || path.contains( "${" ) || path.contains( "%%" ) ) {
+      return null;
+    }
+    String[] parts = path.split( "\\." );
+    String part = parts[ 0 ];
+    if ( part.equals( "$" ) ) {
+      if ( parts.length < 2 ) {
+        return null;
+      }
+      part = parts[ 1 ];
+    } else if ( part.startsWith( "$" ) ) {
+      // The top level is an array or a map
+      return null;
+    }
+    if ( part.indexOf( '[' ) >= 0 ) {
+      part = part.substring( 0, part.indexOf( '[' ) );
+    }
+    return part.isEmpty() ? null : part;
+  }
+
+  /**
+   * @param schema the record schema to project
+   * @param fields the fields that are read
+   * @return the record schema with the top level fields that are read, or null if all of them are read or the fields
+   * don't allow a projection
+   */
+  public static Schema project( Schema schema, List<? extends IAvroInputField> fields ) {
+    if ( schema == null || schema.getType() != Schema.Type.RECORD || fields == null || fields.isEmpty() ) {
+      return null;
+    }
+
+    Set<String> names = new HashSet<>();
+    for ( IAvroInputField field : fields ) {
+      String name = getTopLevelFieldName( field.getAvroFieldName() );
+      if ( name == null ) {
+        return null;
+      }
+      names.add( name );
+    }
+
+    List<Schema.Field> projectedFields = new ArrayList<>();
+    for ( Schema.Field field : schema.getFields() ) {
+      if ( names.contains( field.name() ) ) {
+        projectedFields.add( new Schema.Field( field, field.schema() ) );
+      }
+    }
+    if ( projectedFields.size() == schema.getFields().size() ) {
+      return null;
+    }
+
+    Schema projection = Schema.createRecord( schema.getName(), schema.getDoc(), schema.getNamespace(),
+      schema.isError(), projectedFields );
+    for ( String alias : schema.getAliases() ) {
+      projection.addAlias( alias );
+    }
+    return projection;
+  }
+}
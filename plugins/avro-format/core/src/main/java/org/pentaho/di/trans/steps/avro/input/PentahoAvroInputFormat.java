@@ -58,16 +58,28 @@ public class PentahoAvroInputFormat implements IPentahoAvroInputFormat {
   public IPentahoRecordReader createRecordReader( IPentahoInputSplit split ) throws Exception {
 
     DataFileStream<Object> nestedDfs = null;
+    GenericDatumReader<Object> nestedDatumReader = null;
     if ( !this.isDatum ) {
-      nestedDfs = createNestedDataFileStream();
+      nestedDatumReader = createNestedDatumReader();
+      nestedDfs = createNestedDataFileStream( nestedDatumReader );
       if ( nestedDfs == null ) {
         throw new Exception( "Unable to read data from file " + fileName );
       }
     }
     Schema avroSchema = readAvroSchema();
     int dataFieldIndex = useFieldAsInputStream ? determineStringFieldIndex( inputStreamFieldName ) : -1;
+    List<? extends IAvroInputField> fields = getFields();
+
+    // Only decode the top level fields that are read, Avro skips the others
+    //
+    if ( nestedDatumReader != null ) {
+      Schema projection = AvroSchemaProjection.project( nestedDatumReader.getExpected(), fields );
+      if ( projection != null ) {
+        nestedDatumReader.setExpected( projection );
+      }
+    }
 
-    return new AvroNestedRecordReader( bowl, nestedDfs, avroSchema, getFields(), variableSpace, incomingRowMeta,
+    return new AvroNestedRecordReader( bowl, nestedDfs, avroSchema, fields, variableSpace, incomingRowMeta,
       incomingFields, outputRowMeta, fileName, isDataBinaryEncoded, dataFieldIndex, isDatum );
 
   }
@@ -186,29 +198,31 @@ public class PentahoAvroInputFormat implements IPentahoAvroInputFormat {
     }
   }
 
-  private DataFileStream<Object> createNestedDataFileStream() throws Exception {
-    DatumReader<Object> datumReader;
+  private GenericDatumReader<Object> createNestedDatumReader() throws Exception {
+    if ( !useFieldAsInputStream && schemaFileName != null && schemaFileName.length() > 0 ) {
+      Schema schema = new Schema.Parser().parse( KettleVFS.getInstance( bowl )
+                                                 .getInputStream( schemaFileName, variableSpace ) );
+      return new GenericDatumReader<Object>( schema );
+    }
+    return new GenericDatumReader<Object>();
+  }
+
+  private DataFileStream<Object> createNestedDataFileStream( DatumReader<Object> datumReader ) throws Exception {
     if ( useFieldAsInputStream ) {
-      datumReader = new GenericDatumReader<Object>();
       inputStream.reset();
       return new DataFileStream<Object>( inputStream, datumReader );
     }
-    if ( schemaFileName != null && schemaFileName.length() > 0 ) {
-      Schema schema = new Schema.Parser().parse( KettleVFS.getInstance( bowl )
-                                                 .getInputStream( schemaFileName, variableSpace ) );
-      datumReader = new GenericDatumReader<Object>( schema );
-    } else {
-      datumReader = new GenericDatumReader<Object>();
-    }
+    // Compressed blocks of the file are decompressed in parallel
+    //
     FileObject fileObject = KettleVFS.getInstance( bowl ).getFileObject( fileName, variableSpace );
     if ( fileObject.isFile() ) {
       this.inputStream = fileObject.getContent().getInputStream();
-      return new DataFileStream<>( inputStream, datumReader );
+      return new DataFileStream<>( AvroParallelBlockInputStream.wrap( inputStream ), datumReader );
     } else {
       FileObject[] avroFiles = fileObject.findFiles( new FileExtensionSelector("com/pentaho/di/trans/steps/avro") );
       if ( !Utils.isEmpty( avroFiles ) ) {
         this.inputStream = avroFiles[ 0 ].getContent().getInputStream();
-        return new DataFileStream<>( inputStream, datumReader );
+        return new DataFileStream<>( AvroParallelBlockInputStream.wrap( inputStream ), datumReader );
       }
       return null;
     }
@@ -66,24 +66,18 @@ public class AvroOutput extends BaseStep implements StepInterface {
 
       Object[] currentRow = getRow();
       if ( currentRow != null ) {
-        //create new outputMeta
-        RowMetaInterface outputRMI = new RowMeta();
+        // The output metadata is the same for every row, the record writer relies on that to compile its field
+        // writers only once
+        //
+        if ( data.outputRowMeta == null ) {
+          buildOutputRowMeta();
+        }
         //create data equals with output fileds
-        Object[] outputData = new Object[ meta.getOutputFields().size() ];
-        for ( int i = 0; i < meta.getOutputFields().size(); i++ ) {
-          int inputRowIndex = getInputRowMeta().indexOfValue( meta.getOutputFields().get( i ).getPentahoFieldName() );
-          if ( inputRowIndex == -1 ) {
-            throw new KettleException( "Field name [" + meta.getOutputFields().get( i ).getPentahoFieldName()
-              + " ] couldn't be found in the input stream!" );
-          } else {
-            ValueMetaInterface vmi = ValueMetaFactory.cloneValueMeta( getInputRowMeta().getValueMeta( inputRowIndex ) );
-            //add output value meta according output fields
-            outputRMI.addValueMeta( i, vmi );
-            //add output data according output fields
-            outputData[ i ] = currentRow[ inputRowIndex ];
-          }
+        Object[] outputData = new Object[ data.outputFieldIndexes.length ];
+        for ( int i = 0; i < data.outputFieldIndexes.length; i++ ) {
+          outputData[ i ] = currentRow[ data.outputFieldIndexes[ i ] ];
         }
-        RowMetaAndData row = new RowMetaAndData( outputRMI, outputData );
+        RowMetaAndData row = new RowMetaAndData( data.outputRowMeta, outputData );
         data.writer.write( row );
         putRow( row.getRowMeta(), row.getData() );
         return true;
@@ -100,6 +94,24 @@ public class AvroOutput extends BaseStep implements StepInterface {
     }
   }
 
+  private void buildOutputRowMeta() throws KettleException {
+    RowMetaInterface outputRMI = new RowMeta();
+    int[] indexes = new int[ meta.getOutputFields().size() ];
+    for ( int i = 0; i < meta.getOutputFields().size(); i++ ) {
+      int inputRowIndex = getInputRowMeta().indexOfValue( meta.getOutputFields().get( i ).getPentahoFieldName() );
+      if ( inputRowIndex == -1 ) {
+        throw new KettleException( "Field name [" + meta.getOutputFields().get( i ).getPentahoFieldName()
+          + " ] couldn't be found in the input stream!" );
+      }
+      ValueMetaInterface vmi = ValueMetaFactory.cloneValueMeta( getInputRowMeta().getValueMeta( inputRowIndex ) );
+      //add output value meta according output fields
+      outputRMI.addValueMeta( i, vmi );
+      indexes[ i ] = inputRowIndex;
+    }
+    data.outputFieldIndexes = indexes;
+    data.outputRowMeta = outputRMI;
+  }
+
   public void init() throws Exception {
     //Set Embedded NamedCluter MetatStore Provider Key so that it can be passed to VFS
     if ( getTransMeta().getNamedClusterEmbedManager() != null ) {
@@ -12,6 +12,7 @@
 
 package org.pentaho.di.trans.steps.avro.output;
 
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
@@ -19,4 +20,6 @@ public class AvroOutputData extends BaseStepData implements StepDataInterface {
 
   public IPentahoAvroOutputFormat output;
   public IPentahoOutputFormat.IPentahoRecordWriter writer;
+  public RowMetaInterface outputRowMeta; // the output fields, built from the first row
+  public int[] outputFieldIndexes; // the index in the input row of every output field
 }
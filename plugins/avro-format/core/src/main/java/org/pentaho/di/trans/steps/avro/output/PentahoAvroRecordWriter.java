@@ -12,6 +12,7 @@
 
 package org.pentaho.di.trans.steps.avro.output;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.di.trans.steps.avro.AvroSpec;
 import org.apache.avro.Conversions;
 import org.apache.avro.LogicalTypes;
@@ -34,18 +35,28 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
 
 /**
  * Created by tkafalas on 8/28/2017.
+ *
+ * The output fields are compiled once against the row metadata of the first row: the row index, the position in the
+ * schema and the parsed default value of every field. The written rows reuse the same record.
  */
 public class PentahoAvroRecordWriter implements IPentahoOutputFormat.IPentahoRecordWriter {
   private final DataFileWriter<GenericRecord> nativeAvroRecordWriter;
   private final Schema schema;
   private final List<? extends IAvroOutputField> outputFields;
+  private final Conversions.DecimalConversion decimalConversion = new Conversions.DecimalConversion();
+
+  private RowMetaInterface compiledRowMeta;
+  private FieldWriter[] fieldWriters;
+  private GenericData.Record reusedRecord;
 
   public PentahoAvroRecordWriter( DataFileWriter<GenericRecord> recordWriter, Schema schema,
                                   List<? extends IAvroOutputField> outputFields ) {
@@ -57,166 +68,128 @@ public class PentahoAvroRecordWriter implements IPentahoOutputFormat.IPentahoRec
   @Override
   public void write( RowMetaAndData row ) {
     try {
-      nativeAvroRecordWriter.append( createAvroRecord( row ) );
+      // The record is serialized by append, so it can be filled again for the next row
+      //
+      if ( reusedRecord == null ) {
+        reusedRecord = new GenericData.Record( schema );
+      }
+      nativeAvroRecordWriter.append( fillAvroRecord( row, reusedRecord ) );
     } catch ( IOException e ) {
       // Do nothing
     }
   }
 
   public GenericRecord createAvroRecord( RowMetaAndData row ) {
-    RowMetaInterface rmi = row.getRowMeta();
-    GenericRecord outputRecord = new GenericData.Record( schema );
+    return fillAvroRecord( row, new GenericData.Record( schema ) );
+  }
 
+  private GenericRecord fillAvroRecord( RowMetaAndData row, GenericData.Record outputRecord ) {
     try {
-      for ( IAvroOutputField field : outputFields ) {
-        if ( field != null ) {
-          AvroSpec.DataType avroType = field.getAvroType();
-          int fieldMetaIndex = rmi.indexOfValue( field.getPentahoFieldName() );
-          ValueMetaInterface vmi = rmi.getValueMeta( fieldMetaIndex );
-          String avroFieldName = field.getFormatFieldName();
-          String pentahoFieldName = field.getPentahoFieldName();
-          String defaultValue = null;
-          if ( !field.getAllowNull() ) {
-            defaultValue = field.getDefaultValue();
-          }
-          switch ( avroType ) {
-            case BOOLEAN:
-              Boolean booleanValue = null;
-              if ( row.isEmptyValue( pentahoFieldName ) ) {
-                booleanValue =
-                  ( defaultValue != null && defaultValue.length() > 0 ) ? Boolean.parseBoolean( defaultValue ) : null;
-              } else {
-                booleanValue = row.getBoolean( fieldMetaIndex, false );
-              }
-              outputRecord.put( avroFieldName, booleanValue );
-              break;
-            case DATE:
-              Date defaultDate = null;
-              if ( defaultValue != null && defaultValue.length() > 0 ) {
-                String conversionMask =
-                  ( vmi.getConversionMask() == null ) ? ValueMetaBase.DEFAULT_DATE_PARSE_MASK : vmi.getConversionMask();
-                DateFormat dateFormat = new SimpleDateFormat( conversionMask );
-                try {
-                  defaultDate = dateFormat.parse( defaultValue );
-                } catch ( ParseException pe ) {
-                  // Do nothing
-                }
-              }
-
-              Integer dateInDays = null;
-              Date dateFromRow = row.getDate( fieldMetaIndex, defaultDate );
-
-              if ( dateFromRow != null ) {
-                ValueMetaInterface valueMeta = row.getValueMeta( fieldMetaIndex );
-                TimeZone timeZone = valueMeta.getDateFormatTimeZone();
-                if ( timeZone == null ) {
-                  timeZone = TimeZone.getDefault();
-                }
-                LocalDate localDate = dateFromRow.toInstant().atZone( timeZone.toZoneId() ).toLocalDate();
-                dateInDays = Math.toIntExact( ChronoUnit.DAYS.between( LocalDate.ofEpochDay( 0 ), localDate ) );
-              }
-              outputRecord.put( avroFieldName, dateInDays );
-              break;
-            case FLOAT:
-              Float floatValue = null;
-              if ( row.isEmptyValue( pentahoFieldName ) ) {
-                floatValue =
-                  ( defaultValue != null && defaultValue.length() > 0 ) ? Float.parseFloat( defaultValue ) : null;
-              } else {
-                floatValue = (float) row.getNumber( fieldMetaIndex, 0 );
-              }
-              if ( floatValue != null ) {
-                floatValue = applyScale( floatValue, field );
+      for ( FieldWriter writer : getFieldWriters( row.getRowMeta() ) ) {
+        IAvroOutputField field = writer.field;
+        int fieldMetaIndex = writer.rowIndex;
+        String defaultValue = writer.defaultValue;
+        Object value;
+        switch ( writer.avroType ) {
+          case BOOLEAN:
+            if ( row.isEmptyValue( fieldMetaIndex ) ) {
+              value =
+                ( defaultValue != null && defaultValue.length() > 0 ) ? Boolean.parseBoolean( defaultValue ) : null;
+            } else {
+              value = row.getBoolean( fieldMetaIndex, false );
+            }
+            break;
+          case DATE:
+            Integer dateInDays = null;
+            Date dateFromRow = row.getDate( fieldMetaIndex, writer.defaultDate );
+            if ( dateFromRow != null ) {
+              LocalDate localDate = dateFromRow.toInstant().atZone( writer.zoneId ).toLocalDate();
+              dateInDays = Math.toIntExact( ChronoUnit.DAYS.between( LocalDate.ofEpochDay( 0 ), localDate ) );
+            }
+            value = dateInDays;
+            break;
+          case FLOAT:
+            Float floatValue;
+            if ( row.isEmptyValue( fieldMetaIndex ) ) {
+              floatValue =
+                ( defaultValue != null && defaultValue.length() > 0 ) ? Float.parseFloat( defaultValue ) : null;
+            } else {
+              floatValue = (float) row.getNumber( fieldMetaIndex, 0 );
+            }
+            if ( floatValue != null ) {
+              floatValue = applyScale( floatValue, field );
+            }
+            value = floatValue;
+            break;
+          case DOUBLE:
+            Double doubleValue;
+            if ( row.isEmptyValue( fieldMetaIndex ) ) {
+              doubleValue =
+                ( defaultValue != null && defaultValue.length() > 0 ) ? Double.parseDouble( defaultValue ) : null;
+            } else {
+              doubleValue = row.getNumber( fieldMetaIndex, 0 );
+            }
+            if ( doubleValue != null ) {
+              doubleValue = applyScale( doubleValue, field );
+            }
+            value = doubleValue;
+            break;
+          case LONG:
+            if ( row.isEmptyValue( fieldMetaIndex ) ) {
+              value = ( defaultValue != null && defaultValue.length() > 0 ) ? Long.parseLong( defaultValue ) : null;
+            } else {
+              value = row.getInteger( fieldMetaIndex, 0 );
+            }
+            break;
+          case DECIMAL:
+            BigDecimal bigDecimal;
+            if ( writer.defaultBigDecimal != null ) {
+              bigDecimal = row.getBigNumber( fieldMetaIndex, writer.defaultBigDecimal );
+            } else {
+              bigDecimal = row.getBigNumber( fieldMetaIndex, null );
+              if ( bigDecimal != null ) {
+                bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(),
+                  RoundingMode.HALF_UP ) ).setScale( field.getScale(), RoundingMode.HALF_UP );
               }
-              outputRecord.put( avroFieldName, floatValue );
-              break;
-            case DOUBLE:
-              Double doubleValue = null;
-              if ( row.isEmptyValue( pentahoFieldName ) ) {
-                doubleValue =
-                  ( defaultValue != null && defaultValue.length() > 0 ) ? Double.parseDouble( defaultValue ) : null;
-              } else {
-                doubleValue = row.getNumber( fieldMetaIndex, 0 );
-              }
-              if ( doubleValue != null ) {
-                doubleValue = applyScale( doubleValue, field );
-              }
-              outputRecord.put( avroFieldName, doubleValue );
-              break;
-            case LONG:
-              Long longValue = null;
-              if ( row.isEmptyValue( pentahoFieldName ) ) {
-                longValue =
-                  ( defaultValue != null && defaultValue.length() > 0 ) ? Long.parseLong( defaultValue ) : null;
-              } else {
-                longValue = row.getInteger( fieldMetaIndex, 0 );
-              }
-              outputRecord.put( avroFieldName, longValue );
-              break;
-            case DECIMAL:
-              Conversions.DecimalConversion converter = new Conversions.DecimalConversion();
-              if ( defaultValue != null && defaultValue.length() > 0 ) {
-                BigDecimal defaultBigDecimal = new BigDecimal( field.getDefaultValue() );
-                BigDecimal bigDecimal = row.getBigNumber( fieldMetaIndex, defaultBigDecimal );
-                LogicalTypes.Decimal decimalType = LogicalTypes.decimal( bigDecimal.precision(), bigDecimal.scale() );
-                ByteBuffer byteBuffer = converter.toBytes( bigDecimal, schema, decimalType );
-                outputRecord.put( avroFieldName, byteBuffer );
-              } else {
-                BigDecimal bigDecimal = row.getBigNumber( fieldMetaIndex, null );
-                if ( bigDecimal != null ) {
-                  bigDecimal = bigDecimal.round( new MathContext( field.getPrecision(),
-                    RoundingMode.HALF_UP ) ).setScale( field.getScale(), RoundingMode.HALF_UP );
-                  LogicalTypes.Decimal decimalType = LogicalTypes.decimal( bigDecimal.precision(), bigDecimal.scale() );
-                  ByteBuffer byteBuffer = converter.toBytes( bigDecimal, schema, decimalType );
-                  outputRecord.put( avroFieldName, byteBuffer );
-                } else {
-                  outputRecord.put( avroFieldName, null );
-                }
-              }
-              break;
-            case INTEGER:
-              Long tmpLong = null;
-              if ( row.isEmptyValue( pentahoFieldName ) ) {
-                tmpLong = ( defaultValue != null && defaultValue.length() > 0 ) ? Long.parseLong( defaultValue ) : null;
-              } else {
-                tmpLong = row.getInteger( fieldMetaIndex, 0 );
-              }
-              outputRecord.put( avroFieldName, tmpLong != null ? new Integer( tmpLong.intValue() ) : null );
-              break;
-            case STRING:
-              if ( defaultValue != null ) {
-                outputRecord.put( avroFieldName, row.getString( fieldMetaIndex, String.valueOf( defaultValue ) ) );
-              } else {
-                outputRecord.put( avroFieldName, row.getString( fieldMetaIndex, null ) );
-              }
-              break;
-            case BYTES:
-              if ( defaultValue != null ) {
-                outputRecord.put( avroFieldName,
-                  ByteBuffer.wrap( row.getBinary( fieldMetaIndex, vmi.getBinary( defaultValue.getBytes() ) ) ) );
-              } else {
-                byte[] bytes = row.getBinary( fieldMetaIndex, null );
-                outputRecord.put( avroFieldName, bytes != null ? ByteBuffer.wrap( bytes ) : null );
-              }
-              break;
-            case TIMESTAMP_MILLIS:
-              Date defaultTimeStamp = null;
-              if ( defaultValue != null && defaultValue.length() > 0 ) {
-                String conversionMask =
-                  ( vmi.getConversionMask() == null ) ? ValueMetaBase.DEFAULT_TIMESTAMP_PARSE_MASK
-                    : vmi.getConversionMask();
-                DateFormat dateFormat = new SimpleDateFormat( conversionMask );
-                try {
-                  defaultTimeStamp = dateFormat.parse( defaultValue );
-                } catch ( ParseException pe ) {
-                  defaultTimeStamp = null;
-                }
-              }
-              Date timeStamp = row.getDate( fieldMetaIndex, defaultTimeStamp );
-              outputRecord.put( avroFieldName, timeStamp != null ? timeStamp.getTime() : null );
-              break;
-          }
-
+            }
+            if ( bigDecimal != null ) {
+              LogicalTypes.Decimal decimalType = LogicalTypes.decimal( bigDecimal.precision(), bigDecimal.scale() );
+              value = decimalConversion.toBytes( bigDecimal, schema, decimalType );
+            } else {
+              value = null;
+            }
+            break;
+          case INTEGER:
+            Long tmpLong;
+            if ( row.isEmptyValue( fieldMetaIndex ) ) {
+              tmpLong = ( defaultValue != null && defaultValue.length() > 0 ) ? Long.parseLong( defaultValue ) : null;
+            } else {
+              tmpLong = row.getInteger( fieldMetaIndex, 0 );
+            }
+            value = tmpLong != null ? Integer.valueOf( tmpLong.intValue() ) : null;
+            break;
+          case STRING:
+            value = row.getString( fieldMetaIndex, defaultValue != null ? String.valueOf( defaultValue ) : null );
+            break;
+          case BYTES:
+            if ( defaultValue != null ) {
+              value = ByteBuffer.wrap( row.getBinary( fieldMetaIndex, writer.defaultBinary ) );
+            } else {
+              byte[] bytes = row.getBinary( fieldMetaIndex, null );
+              value = bytes != null ? ByteBuffer.wrap( bytes ) : null;
+            }
+            break;
+          case TIMESTAMP_MILLIS:
+            Date timeStamp = row.getDate( fieldMetaIndex, writer.defaultTimeStamp );
+            value = timeStamp != null ? timeStamp.getTime() : null;
+            break;
+          default:
+            continue;
+        }
+        if ( writer.position >= 0 ) {
+          outputRecord.put( writer.position, value );
+        } else {
+          outputRecord.put( field.getFormatFieldName(), value );
         }
       }
     } catch ( ArithmeticException e ) {
@@ -227,6 +200,92 @@ public class PentahoAvroRecordWriter implements IPentahoOutputFormat.IPentahoRec
     return outputRecord;
   }
 
+  /**
+   * @return the writers of the output fields, compiled again when the row metadata changes
+   */
+  private FieldWriter[] getFieldWriters( RowMetaInterface rmi ) throws KettleValueException {
+    if ( fieldWriters == null || rmi != compiledRowMeta ) {
+      List<FieldWriter> writers = new ArrayList<>();
+      for ( IAvroOutputField field : outputFields ) {
+        if ( field != null ) {
+          writers.add( new FieldWriter( field, rmi, schema ) );
+        }
+      }
+      fieldWriters = writers.toArray( new FieldWriter[ 0 ] );
+      compiledRowMeta = rmi;
+    }
+    return fieldWriters;
+  }
+
+  @VisibleForTesting
+  FieldWriter[] getFieldWriters() {
+    return fieldWriters;
+  }
+
+  /**
+   * What only depends on the output field and the row metadata, worked out once instead of for every row.
+   */
+  static class FieldWriter {
+    private final IAvroOutputField field;
+    private final AvroSpec.DataType avroType;
+    private final int rowIndex;
+    private final int position;
+    private final String defaultValue;
+    private Date defaultDate;
+    private Date defaultTimeStamp;
+    private BigDecimal defaultBigDecimal;
+    private byte[] defaultBinary;
+    private ZoneId zoneId;
+
+    FieldWriter( IAvroOutputField field, RowMetaInterface rmi, Schema schema ) throws KettleValueException {
+      this.field = field;
+      this.avroType = field.getAvroType();
+      this.rowIndex = rmi.indexOfValue( field.getPentahoFieldName() );
+      Schema.Field avroField = schema.getField( field.getFormatFieldName() );
+      this.position = avroField != null ? avroField.pos() : -1;
+      this.defaultValue = field.getAllowNull() ? null : field.getDefaultValue();
+
+      ValueMetaInterface vmi = rmi.getValueMeta( rowIndex );
+      boolean hasDefault = defaultValue != null && defaultValue.length() > 0;
+      switch ( avroType ) {
+        case DATE:
+          if ( hasDefault ) {
+            defaultDate = parseDefault( vmi, ValueMetaBase.DEFAULT_DATE_PARSE_MASK );
+          }
+          TimeZone timeZone = vmi.getDateFormatTimeZone();
+          zoneId = ( timeZone == null ? TimeZone.getDefault() : timeZone ).toZoneId();
+          break;
+        case TIMESTAMP_MILLIS:
+          if ( hasDefault ) {
+            defaultTimeStamp = parseDefault( vmi, ValueMetaBase.DEFAULT_TIMESTAMP_PARSE_MASK );
+          }
+          break;
+        case DECIMAL:
+          if ( hasDefault ) {
+            defaultBigDecimal = new BigDecimal( field.getDefaultValue() );
+          }
+          break;
+        case BYTES:
+          if ( defaultValue != null ) {
+            defaultBinary = vmi.getBinary( defaultValue.getBytes() );
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    private Date parseDefault( ValueMetaInterface vmi, String defaultMask ) {
+      String conversionMask = ( vmi.getConversionMask() == null ) ? defaultMask : vmi.getConversionMask();
+      DateFormat dateFormat = new SimpleDateFormat( conversionMask );
+      try {
+        return dateFormat.parse( defaultValue );
+      } catch ( ParseException pe ) {
+        return null;
+      }
+    }
+  }
+
   private double applyScale( double number, IAvroOutputField outputField ) {
     if ( outputField.getScale() > 0 ) {
       BigDecimal bd = new BigDecimal( number );
@@ -0,0 +1,145 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.avro.input;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AvroParallelBlockInputStreamTest {
+  private static final Schema SCHEMA = SchemaBuilder.record( "test" ).fields()
+    .requiredLong( "id" ).requiredString( "name" ).optionalDouble( "amount" ).endRecord();
+  private static final int ROWS = 5000;
+
+  private static byte[] writeFile( CodecFactory codec ) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try ( DataFileWriter<GenericRecord> writer = new DataFileWriter<>( new GenericDatumWriter<GenericRecord>() ) ) {
+      writer.setCodec( codec );
+      // Small blocks, so the file has a lot of them
+      //
+      writer.setSyncInterval( 1024 );
+      writer.create( SCHEMA, out );
+      for ( int i = 0; i < ROWS; i++ ) {
+        GenericRecord record = new GenericData.Record( SCHEMA );
+        record.put( "id", (long) i );
+        record.put( "name", "name " + i );
+        record.put( "amount", i % 3 == 0 ? null : i * 1.5 );
+        writer.append( record );
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static void assertRecords( InputStream in, Schema expected ) throws Exception {
+    GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>();
+    try ( DataFileStream<GenericRecord> stream = new DataFileStream<>( in, datumReader ) ) {
+      if ( expected != null ) {
+        datumReader.setExpected( expected );
+      }
+      int i = 0;
+      for ( GenericRecord record : stream ) {
+        assertEquals( (long) i, record.get( "id" ) );
+        if ( expected == null || expected.getField( "name" ) != null ) {
+          assertEquals( "name " + i, record.get( "name" ).toString() );
+        }
+        i++;
+      }
+      assertEquals( ROWS, i );
+    }
+  }
+
+  @Test
+  public void testDeflateBlocksAreDecompressed() throws Exception {
+    byte[] file = writeFile( CodecFactory.deflateCodec( 6 ) );
+    InputStream in = AvroParallelBlockInputStream.wrap( new ByteArrayInputStream( file ) );
+    assertTrue( in instanceof AvroParallelBlockInputStream );
+    assertRecords( in, null );
+  }
+
+  @Test
+  public void testSnappyBlocksAreDecompressed() throws Exception {
+    byte[] file = writeFile( CodecFactory.snappyCodec() );
+    assertRecords( AvroParallelBlockInputStream.wrap( new ByteArrayInputStream( file ) ), null );
+  }
+
+  @Test
+  public void testUncompressedFileIsReturnedAsItIs() throws Exception {
+    byte[] file = writeFile( CodecFactory.nullCodec() );
+    InputStream in = AvroParallelBlockInputStream.wrap( new ByteArrayInputStream( file ) );
+    assertFalse( in instanceof AvroParallelBlockInputStream );
+    assertArrayEquals( file, IOUtils.toByteArray( in ) );
+  }
+
+  @Test
+  public void testOtherDataIsReturnedAsItIs() throws Exception {
+    byte[] data = "not an avro file".getBytes();
+    InputStream in = AvroParallelBlockInputStream.wrap( new ByteArrayInputStream( data ) );
+    assertArrayEquals( data, IOUtils.toByteArray( in ) );
+  }
+
+  @Test
+  public void testProjectionSkipsFields() throws Exception {
+    AvroInputField id = new AvroInputField();
+    id.setFormatFieldName( "$.id" );
+    Schema projection = AvroSchemaProjection.project( SCHEMA, Collections.singletonList( id ) );
+    assertEquals( 1, projection.getFields().size() );
+    assertEquals( "id", projection.getFields().get( 0 ).name() );
+
+    byte[] file = writeFile( CodecFactory.deflateCodec( 6 ) );
+    assertRecords( AvroParallelBlockInputStream.wrap( new ByteArrayInputStream( file ) ), projection );
+  }
+
+  @Test
+  public void testNoProjection() {
+    AvroInputField id = new AvroInputField();
+    id.setFormatFieldName( "$.id" );
+    AvroInputField name = new AvroInputField();
+    name.setFormatFieldName( "name" );
+    AvroInputField amount = new AvroInputField();
+    amount.setFormatFieldName( "$.amount" );
+    assertNull( AvroSchemaProjection.project( SCHEMA, Arrays.asList( id, name, amount ) ) );
+
+    AvroInputField variable = new AvroInputField();
+    variable.setFormatFieldName( "$.${FIELD}" );
+    assertNull( AvroSchemaProjection.project( SCHEMA, Arrays.asList( id, variable ) ) );
+  }
+
+  @Test
+  public void testTopLevelFieldName() {
+    assertEquals( "person", AvroSchemaProjection.getTopLevelFieldName( "$.person[*].first" ) );
+    assertEquals( "person", AvroSchemaProjection.getTopLevelFieldName( "$.person.address.street" ) );
+    assertEquals( "id", AvroSchemaProjection.getTopLevelFieldName( "id" ) );
+    assertNull( AvroSchemaProjection.getTopLevelFieldName( "$[0].id" ) );
+    assertNull( AvroSchemaProjection.getTopLevelFieldName( "$.${NAME}" ) );
+  }
+}
@@ -12,6 +12,10 @@
 
 package org.pentaho.di.trans.steps.avro.output;
 
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericRecord;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,6 +34,7 @@ import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.RowHandler;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.avro.AvroSpec;
 import org.pentaho.reporting.libraries.base.util.StringUtils;
 
 import java.util.ArrayList;
@@ -37,7 +42,12 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -121,6 +131,38 @@ public class AvroOutputTest {
     }
   }
 
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testFieldWritersAreNotRebuiltForEveryRow() throws Exception {
+    AvroOutputField field = new AvroOutputField();
+    field.setFormatFieldName( "name" );
+    field.setPentahoFieldName( "StringName" );
+    field.setFormatType( AvroSpec.DataType.STRING );
+    field.setAllowNull( true );
+    List<AvroOutputField> fields = new ArrayList<>();
+    fields.add( field );
+    avroOutputMeta.setOutputFields( fields );
+
+    Schema schema = SchemaBuilder.record( "test" ).fields().optionalString( "name" ).endRecord();
+    DataFileWriter<GenericRecord> dataFileWriter = mock( DataFileWriter.class );
+    PentahoAvroRecordWriter recordWriter = new PentahoAvroRecordWriter( dataFileWriter, schema, fields );
+    AvroOutputData data = new AvroOutputData();
+    data.output = mockPentahoAvroOutputFormat;
+    data.writer = recordWriter;
+    doAnswer( invocation -> returnNextAvroRow() ).when( avroOutput ).getRow();
+
+    assertTrue( avroOutput.processRow( avroOutputMeta, data ) );
+    PentahoAvroRecordWriter.FieldWriter[] fieldWriters = recordWriter.getFieldWriters();
+    assertNotNull( fieldWriters );
+    assertTrue( avroOutput.processRow( avroOutputMeta, data ) );
+    assertSame( fieldWriters, recordWriter.getFieldWriters() );
+
+    ArgumentCaptor<GenericRecord> recordCaptor = ArgumentCaptor.forClass( GenericRecord.class );
+    verify( dataFileWriter, times( 2 ) ).append( recordCaptor.capture() );
+    assertEquals( "string2", recordCaptor.getValue().get( "name" ) );
+    verify( mockRowHandler, times( 2 ) ).putRow( any(), any() );
+  }
+
   @Test
   public void testInit() {
     try {
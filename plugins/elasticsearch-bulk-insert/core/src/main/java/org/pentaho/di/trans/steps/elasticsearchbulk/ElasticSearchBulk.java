@@ -14,23 +14,21 @@
 package org.pentaho.di.trans.steps.elasticsearchbulk;
 
 import org.apache.commons.lang.StringUtils;
-import org.elasticsearch.ElasticsearchException;
-import org.elasticsearch.ElasticsearchTimeoutException;
-import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.DocWriteRequest.OpType;
 import org.elasticsearch.action.bulk.BulkItemResponse;
-import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
-import org.elasticsearch.action.index.IndexRequestBuilder;
-import org.elasticsearch.client.Client;
 import org.elasticsearch.client.transport.NoNodeAvailableException;
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.transport.client.PreBuiltTransportClient;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
@@ -50,14 +48,23 @@ import org.pentaho.di.trans.steps.elasticsearchbulk.ElasticSearchBulkMeta.Server
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * Does bulk insert of data into ElasticSearch
+ * Does bulk insert of data into ElasticSearch. A bulk request is sent when it holds the batch size in documents or in
+ * bytes, and up to the maximum number of concurrent requests are in flight while the next one is filled: the step only
+ * waits for the oldest request when that maximum is reached. The responses are handled in the order the requests were
+ * sent. Documents rejected because the cluster is too busy are sent again in a new request after a delay that doubles
+ * with every attempt.
  *
  * @author webdetails
  * @since 16-02-2011
@@ -71,13 +78,22 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
 
   TransportClient tc;
 
-  private Client client;
+  private ElasticSearchBulkTransport transport;
   private String index;
   private String type;
 
-  BulkRequestBuilder currentRequest;
+  BulkRequest currentRequest;
 
   private int batchSize = 2;
+  private long batchSizeBytes = ElasticSearchBulkMeta.DEFAULT_BATCH_SIZE_BYTES;
+  private int maxConcurrentRequests = ElasticSearchBulkMeta.DEFAULT_MAX_CONCURRENT_REQUESTS;
+  private int maxRetries = ElasticSearchBulkMeta.DEFAULT_MAX_RETRIES;
+  private long retryDelay = ElasticSearchBulkMeta.DEFAULT_RETRY_DELAY;
+
+  /**
+   * The requests sent and not handled yet, oldest first
+   */
+  private final Deque<Batch> inFlight = new ArrayDeque<>();
 
   private boolean isJsonInsert = false;
   private int jsonFieldIdx = 0;
@@ -91,8 +107,6 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
   // private long duration = 0L;
   private int numberOfErrors = 0;
 
-  private List<IndexRequestBuilder> requestsBuffer;
-
   private boolean stopOnError = true;
   private boolean useOutput = true;
 
@@ -112,7 +126,10 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
     if ( rowData == null ) {
       if ( currentRequest != null && currentRequest.numberOfActions() > 0 ) {
         // didn't fill a whole batch
-        processBatch( false );
+        sendBatch();
+      }
+      while ( !inFlight.isEmpty() ) {
+        completeOldest();
       }
       setOutputDone();
       return false;
@@ -121,8 +138,7 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
     if ( first ) {
       first = false;
       setupData();
-      currentRequest = client.prepareBulk();
-      requestsBuffer = new ArrayList<IndexRequestBuilder>( this.batchSize );
+      currentRequest = new BulkRequest();
       initFieldIndexes();
     }
 
@@ -197,24 +213,23 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
   private boolean indexRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
     try {
 
-      IndexRequestBuilder requestBuilder = client.prepareIndex( index, type );
-      requestBuilder.setOpType( this.opType );
+      IndexRequest request = new IndexRequest( index, type );
+      request.opType( this.opType );
 
       if ( idFieldIndex != null ) {
-        requestBuilder.setId( "" + row[idFieldIndex] ); // "" just in case field isn't string
+        request.id( "" + row[idFieldIndex] ); // "" just in case field isn't string
       }
 
       if ( isJsonInsert ) {
-        addSourceFromJsonString( row, requestBuilder );
+        addSourceFromJsonString( row, request );
       } else {
-        addSourceFromRowFields( requestBuilder, rowMeta, row );
+        addSourceFromRowFields( request, rowMeta, row );
       }
 
-      currentRequest.add( requestBuilder );
-      requestsBuffer.add( requestBuilder );
+      currentRequest.add( request );
 
-      if ( currentRequest.numberOfActions() >= batchSize ) {
-        return processBatch( true );
+      if ( currentRequest.numberOfActions() >= batchSize || currentRequest.estimatedSizeInBytes() >= batchSizeBytes ) {
+        return sendBatch();
       } else {
         return true;
       }
@@ -231,26 +246,26 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
 
   /**
    * @param row
-   * @param requestBuilder
+   * @param request
    */
-  private void addSourceFromJsonString( Object[] row, IndexRequestBuilder requestBuilder ) throws KettleStepException {
+  private void addSourceFromJsonString( Object[] row, IndexRequest request ) throws KettleStepException {
     Object jsonString = row[jsonFieldIdx];
     if ( jsonString instanceof byte[] ) {
-      requestBuilder.setSource( (byte[]) jsonString, XContentType.JSON );
+      request.source( (byte[]) jsonString, XContentType.JSON );
     } else if ( jsonString instanceof String ) {
-      requestBuilder.setSource( (String) jsonString, XContentType.JSON );
+      request.source( (String) jsonString, XContentType.JSON );
     } else {
       throw new KettleStepException( BaseMessages.getString( "ElasticSearchBulk.Error.NoJsonFieldFormat" ) );
     }
   }
 
   /**
-   * @param requestBuilder
+   * @param request
    * @param rowMeta
    * @param row
    * @throws IOException
    */
-  private void addSourceFromRowFields( IndexRequestBuilder requestBuilder, RowMetaInterface rowMeta, Object[] row )
+  private void addSourceFromRowFields( IndexRequest request, RowMetaInterface rowMeta, Object[] row )
           throws IOException {
     XContentBuilder jsonBuilder = XContentFactory.jsonBuilder().startObject();
 
@@ -273,7 +288,7 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
     }
 
     jsonBuilder.endObject();
-    requestBuilder.setSource( jsonBuilder );
+    request.source( jsonBuilder );
   }
 
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
@@ -304,6 +319,10 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
     index = environmentSubstitute( meta.getIndex() );
     type = environmentSubstitute( meta.getType() );
     batchSize = meta.getBatchSizeInt( this );
+    batchSizeBytes = meta.getBatchSizeBytesLong( this );
+    maxConcurrentRequests = Math.max( 1, meta.getMaxConcurrentRequestsInt( this ) );
+    maxRetries = meta.getMaxRetriesInt( this );
+    retryDelay = meta.getRetryDelayLong( this );
     try {
       timeout = Long.parseLong( environmentSubstitute( meta.getTimeOut() ) );
     } catch ( NumberFormatException e ) {
@@ -322,84 +341,155 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
 
   }
 
-  private boolean processBatch( boolean makeNew ) throws KettleStepException {
+  /**
+   * Send the current request and start a new one. When the maximum number of requests is in flight, the oldest ones
+   * are handled first.
+   *
+   * @return <code>true</code> if the requests handled meanwhile had no errors
+   */
+  private boolean sendBatch() {
+    Batch batch = new Batch( currentRequest, data.inputRowBuffer, 0 );
+    currentRequest = new BulkRequest();
+    data.nextBufferRowIdx = 0;
+    data.inputRowBuffer = new Object[batchSize][];
 
+    boolean responseOk = true;
+    while ( inFlight.size() >= maxConcurrentRequests ) {
+      responseOk &= completeOldest();
+    }
+    send( batch );
+    return responseOk;
+  }
 
-    ActionFuture<BulkResponse> actionFuture = currentRequest.execute();
-    boolean responseOk = false;
+  private void send( Batch batch ) {
+    batch.response = transport.bulk( batch.request );
+    inFlight.add( batch );
+  }
 
-    BulkResponse response = null;
+  /**
+   * Wait for the oldest request in flight and handle its response.
+   *
+   * @return <code>true</code> if no errors
+   */
+  private boolean completeOldest() {
+    Batch batch = inFlight.poll();
+
+    BulkResponse response;
     try {
       if ( timeout != null && timeoutUnit != null ) {
-        response = actionFuture.actionGet( timeout, timeoutUnit );
+        response = batch.response.get( timeout, timeoutUnit );
       } else {
-        response = actionFuture.actionGet();
+        response = batch.response.get();
       }
-    } catch ( ElasticsearchException e ) {
-      String msg = BaseMessages.getString( PKG, "ElasticSearchBulk.Error.BatchExecuteFail", e.getLocalizedMessage() );
-      if ( e instanceof ElasticsearchTimeoutException ) {
-        msg = BaseMessages.getString( PKG, "ElasticSearchBulk.Error.Timeout" );
+    } catch ( TimeoutException e ) {
+      batch.response.cancel( true );
+      failBatch( batch, BaseMessages.getString( PKG, "ElasticSearchBulk.Error.Timeout" ) );
+      return false;
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      batch.response.cancel( true );
+      failBatch( batch, BaseMessages.getString( PKG, "ElasticSearchBulk.Error.BatchExecuteFail", e.toString() ) );
+      return false;
+    } catch ( ExecutionException e ) {
+      Throwable cause = ExceptionsHelper.unwrapCause( e.getCause() );
+      if ( cause instanceof EsRejectedExecutionException && batch.attempt < maxRetries ) {
+        // the cluster was too busy to accept the request at all
+        List<Integer> itemIds = new ArrayList<>();
+        for ( int i = 0; i < batch.request.numberOfActions(); i++ ) {
+          itemIds.add( i );
+        }
+        retry( batch, itemIds );
+        return true;
       }
-      logError( msg );
-      rejectAllRows( msg );
+      if ( cause instanceof NoNodeAvailableException ) {
+        failBatch( batch, BaseMessages.getString( PKG, "ElasticSearchBulkDialog.Error.NoNodesFound" ) );
+      } else {
+        failBatch( batch, BaseMessages.getString( PKG, "ElasticSearchBulk.Error.BatchExecuteFail",
+                cause.getLocalizedMessage() ) );
+      }
+      return false;
     }
 
-    if ( response != null ) {
-      responseOk = handleResponse( response );
-      requestsBuffer.clear();
-    } else { // have to assume all failed
-      numberOfErrors += currentRequest.numberOfActions();
-      setErrors( numberOfErrors );
+    return handleResponse( batch, response );
+  }
+
+  /**
+   * Send the given documents of a request again after the retry delay, doubled for every previous attempt.
+   */
+  private void retry( Batch batch, List<Integer> itemIds ) {
+    BulkRequest request = new BulkRequest();
+    Object[][] rows = new Object[itemIds.size()][];
+    for ( int i = 0; i < itemIds.size(); i++ ) {
+      request.add( (IndexRequest) batch.request.requests().get( itemIds.get( i ) ) );
+      rows[i] = batch.rows[itemIds.get( i )];
     }
-    // duration += response.getTookInMillis(); //just in trunk..
 
-    if ( makeNew ) {
-      currentRequest = client.prepareBulk();
-      data.nextBufferRowIdx = 0;
-      data.inputRowBuffer = new Object[batchSize][];
-    } else {
-      currentRequest = null;
-      data.inputRowBuffer = null;
+    long delay = retryDelay << Math.min( batch.attempt, 20 );
+    if ( isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "ElasticSearchBulk.Log.RetryRejected", itemIds.size(),
+              batch.attempt + 1, delay ) );
     }
+    try {
+      Thread.sleep( delay );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    send( new Batch( request, rows, batch.attempt + 1 ) );
+  }
 
-    return responseOk;
+  /**
+   * All the documents of a request failed.
+   */
+  private void failBatch( Batch batch, String msg ) {
+    logError( msg );
+    for ( int i = 0; i < batch.request.numberOfActions(); i++ ) {
+      rejectRow( batch.rows[i], msg );
+    }
+    numberOfErrors += batch.request.numberOfActions();
+    setErrors( numberOfErrors );
   }
 
   /**
+   * @param batch
    * @param response
    * @return <code>true</code> if no errors
    */
-  private boolean handleResponse( BulkResponse response ) {
-
-    boolean hasErrors = response.hasFailures();
-
-    if ( hasErrors ) {
-      logError( response.buildFailureMessage() );
-    }
+  private boolean handleResponse( Batch batch, BulkResponse response ) {
 
+    boolean hasErrors = false;
     int errorsInBatch = 0;
+    List<Integer> rejected = new ArrayList<>();
 
-    if ( hasErrors || useOutput ) {
+    if ( response.hasFailures() || useOutput ) {
       for ( BulkItemResponse item : response ) {
         if ( item.isFailed() ) {
+          if ( item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS && batch.attempt < maxRetries ) {
+            rejected.add( item.getItemId() );
+            continue;
+          }
           // log
           logDetailed( item.getFailureMessage() );
+          hasErrors = true;
           errorsInBatch++;
           if ( getStepMeta().isDoingErrorHandling() ) {
-            rejectRow( item.getItemId(), item.getFailureMessage() );
+            rejectRow( batch.rows[item.getItemId()], item.getFailureMessage() );
           }
         } else if ( useOutput ) {
           if ( idOutFieldName != null ) {
-            addIdToRow( item.getId(), item.getItemId() );
+            addIdToRow( batch.rows, item.getId(), item.getItemId() );
           }
-          echoRow( item.getItemId() );
+          echoRow( batch.rows[item.getItemId()] );
         }
       }
     }
 
+    if ( hasErrors ) {
+      logError( response.buildFailureMessage() );
+    }
+
     numberOfErrors += errorsInBatch;
     setErrors( numberOfErrors );
-    int linesOK = currentRequest.numberOfActions() - errorsInBatch;
+    int linesOK = batch.request.numberOfActions() - errorsInBatch - rejected.size();
 
     if ( useOutput ) {
       setLinesOutput( getLinesOutput() + linesOK );
@@ -407,60 +497,69 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
       setLinesWritten( getLinesWritten() + linesOK );
     }
 
+    if ( !rejected.isEmpty() ) {
+      retry( batch, rejected );
+    }
+
     return !hasErrors;
   }
 
-  private void addIdToRow( String id, int rowIndex ) {
+  private void addIdToRow( Object[][] rows, String id, int rowIndex ) {
 
-    data.inputRowBuffer[rowIndex] =
-            RowDataUtil.resizeArray( data.inputRowBuffer[rowIndex], getInputRowMeta().size() + 1 );
-    data.inputRowBuffer[rowIndex][getInputRowMeta().size()] = id;
+    rows[rowIndex] = RowDataUtil.resizeArray( rows[rowIndex], getInputRowMeta().size() + 1 );
+    rows[rowIndex][getInputRowMeta().size()] = id;
 
   }
 
   /**
    * Send input row to output
    *
-   * @param rowIndex
+   * @param row
    */
-  private void echoRow( int rowIndex ) {
+  private void echoRow( Object[] row ) {
     try {
 
-      putRow( data.outputRowMeta, data.inputRowBuffer[rowIndex] );
+      putRow( data.outputRowMeta, row );
 
     } catch ( KettleStepException e ) {
       logError( e.getLocalizedMessage() );
-    } catch ( ArrayIndexOutOfBoundsException e ) {
-      logError( e.getLocalizedMessage() );
     }
   }
 
   /**
    * Send input row to error.
    *
-   * @param index
+   * @param row
    * @param errorMsg
    */
-  private void rejectRow( int index, String errorMsg ) {
+  private void rejectRow( Object[] row, String errorMsg ) {
     try {
 
-      putError( getInputRowMeta(), data.inputRowBuffer[index], 1, errorMsg, null, INSERT_ERROR_CODE );
+      putError( getInputRowMeta(), row, 1, errorMsg, null, INSERT_ERROR_CODE );
 
     } catch ( KettleStepException e ) {
       logError( e.getLocalizedMessage() );
-    } catch ( ArrayIndexOutOfBoundsException e ) {
-      logError( e.getLocalizedMessage() );
     }
   }
 
   private void rejectAllRows( String errorMsg ) {
     for ( int i = 0; i < data.nextBufferRowIdx; i++ ) {
-      rejectRow( i, errorMsg );
+      rejectRow( data.inputRowBuffer[i], errorMsg );
     }
   }
 
   private void initClient() throws UnknownHostException {
 
+    if ( meta.isUseHttp() ) {
+      List<String> urls = new ArrayList<>();
+      for ( Server server : meta.getServers() ) {
+        urls.add( ElasticSearchBulkHttpTransport.getUrl( environmentSubstitute( server.getAddress() ),
+                server.getPort() ) );
+      }
+      int timeoutMillis = timeout != null ? (int) Math.min( timeoutUnit.toMillis( timeout ), Integer.MAX_VALUE ) : 0;
+      transport = new ElasticSearchBulkHttpTransport( urls, timeoutMillis );
+      return;
+    }
 
     Settings.Builder settingsBuilder = Settings.builder();
     settingsBuilder.put( Settings.Builder.EMPTY_SETTINGS );
@@ -475,7 +574,7 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
               server.getPort() ) );
     }
 
-    client = tClient;
+    transport = new ElasticSearchBulkClientTransport( tClient );
 
     /** With the upgrade to elasticsearch 6.3.0, removed the NodeBuilder,
      *  which was removed from the elasticsearch 5.0 API, see:
@@ -487,8 +586,13 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
 
   private void disposeClient() {
 
-    if ( client != null ) {
-      client.close();
+    for ( Batch batch : inFlight ) {
+      batch.response.cancel( true );
+    }
+    inFlight.clear();
+
+    if ( transport != null ) {
+      transport.close();
     }
 
 
@@ -504,4 +608,20 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
     }
     super.dispose( smi, sdi );
   }
+
+  /**
+   * A bulk request with the input rows of its documents, in the same order
+   */
+  private static class Batch {
+    private final BulkRequest request;
+    private final Object[][] rows;
+    private final int attempt;
+    private Future<BulkResponse> response;
+
+    Batch( BulkRequest request, Object[][] rows, int attempt ) {
+      this.request = request;
+      this.rows = rows;
+      this.attempt = attempt;
+    }
+  }
 }
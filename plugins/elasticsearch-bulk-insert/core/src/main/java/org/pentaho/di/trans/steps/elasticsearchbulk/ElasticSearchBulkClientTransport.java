@@ -0,0 +1,46 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.elasticsearchbulk;
+
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+
+import java.util.concurrent.Future;
+
+/**
+ * Sends the bulk requests with an ElasticSearch client, the transport client of the step.
+ */
+public class ElasticSearchBulkClientTransport implements ElasticSearchBulkTransport {
+
+  private final Client client;
+
+  public ElasticSearchBulkClientTransport( Client client ) {
+    this.client = client;
+  }
+
+  @Override
+  public Future<BulkResponse> bulk( BulkRequest request ) {
+    return client.bulk( request );
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+
+  public Client getClient() {
+    return client;
+  }
+}
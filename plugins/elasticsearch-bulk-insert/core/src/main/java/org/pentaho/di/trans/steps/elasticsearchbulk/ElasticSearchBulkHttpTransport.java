@@ -0,0 +1,163 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.elasticsearchbulk;
+
+import org.apache.commons.io.IOUtils;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.pentaho.di.core.util.ExecutorUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the bulk requests to the <code>_bulk</code> REST endpoint of the nodes, in turn. The documents are written as
+ * newline delimited JSON and the response is parsed into a {@link BulkResponse}, so the step handles both transports
+ * the same way. The requests are sent on the threads of {@link ExecutorUtil}.
+ */
+public class ElasticSearchBulkHttpTransport implements ElasticSearchBulkTransport {
+
+  private static final String CONTENT_TYPE = "application/x-ndjson";
+  private static final byte NEWLINE = '\n';
+
+  private final List<String> urls;
+  private final int timeoutMillis;
+  private final AtomicInteger nextUrl = new AtomicInteger();
+
+  /**
+   * @param urls          the base URLs of the nodes, see {@link #getUrl(String, int)}
+   * @param timeoutMillis the connect and read timeout or 0 for none
+   */
+  public ElasticSearchBulkHttpTransport( List<String> urls, int timeoutMillis ) {
+    if ( urls.isEmpty() ) {
+      throw new IllegalArgumentException( "No ElasticSearch servers to send the bulk requests to" );
+    }
+    this.urls = new ArrayList<>( urls );
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * @param address the host name or address of a node, optionally starting with <code>http://</code> or
+   *                <code>https://</code>
+   * @return the base URL of the node, plain HTTP unless the address says otherwise
+   */
+  public static String getUrl( String address, int port ) {
+    String url = address.trim();
+    while ( url.endsWith( "/" ) ) {
+      url = url.substring( 0, url.length() - 1 );
+    }
+    if ( !url.startsWith( "http://" ) && !url.startsWith( "https://" ) ) {
+      url = "http://" + url;
+    }
+    return url + ":" + port;
+  }
+
+  @Override
+  public Future<BulkResponse> bulk( BulkRequest request ) {
+    String url = urls.get( Math.floorMod( nextUrl.getAndIncrement(), urls.size() ) ) + "/_bulk";
+    return ExecutorUtil.getExecutor().submit( () -> execute( url, request ) );
+  }
+
+  private BulkResponse execute( String url, BulkRequest request ) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) new URL( url ).openConnection();
+    connection.setRequestMethod( "POST" );
+    connection.setDoOutput( true );
+    connection.setConnectTimeout( timeoutMillis );
+    connection.setReadTimeout( timeoutMillis );
+    connection.setRequestProperty( "Content-Type", CONTENT_TYPE );
+    try ( OutputStream out = new BufferedOutputStream( connection.getOutputStream() ) ) {
+      writeRequest( request, out );
+    }
+
+    int status = connection.getResponseCode();
+    if ( status >= 300 ) {
+      String error;
+      try ( InputStream in = connection.getErrorStream() ) {
+        error = in == null ? "" : IOUtils.toString( in, StandardCharsets.UTF_8 );
+      }
+      if ( status == RestStatus.TOO_MANY_REQUESTS.getStatus() ) {
+        throw new EsRejectedExecutionException( "Bulk request rejected by " + url + ": " + error );
+      }
+      throw new IOException( "Bulk request to " + url + " failed with HTTP status " + status + ": " + error );
+    }
+    try ( InputStream in = connection.getInputStream() ) {
+      return readResponse( in );
+    }
+  }
+
+  /**
+   * Write the index requests as newline delimited JSON: an action line and a source line per document.
+   */
+  static void writeRequest( BulkRequest request, OutputStream out ) throws IOException {
+    for ( DocWriteRequest<?> docRequest : request.requests() ) {
+      IndexRequest indexRequest = (IndexRequest) docRequest;
+
+      XContentBuilder action = XContentFactory.jsonBuilder().startObject()
+        .startObject( indexRequest.opType().getLowercase() )
+        .field( "_index", indexRequest.index() )
+        .field( "_type", indexRequest.type() );
+      if ( indexRequest.id() != null ) {
+        action.field( "_id", indexRequest.id() );
+      }
+      action.endObject().endObject();
+      out.write( Strings.toString( action ).getBytes( StandardCharsets.UTF_8 ) );
+      out.write( NEWLINE );
+
+      // The source has to fit on one line: pretty printed JSON input is reformatted
+      //
+      BytesReference source = indexRequest.source();
+      if ( indexRequest.getContentType() == XContentType.JSON && source.indexOf( NEWLINE, 0 ) < 0 ) {
+        source.writeTo( out );
+      } else {
+        String json = XContentHelper.convertToJson( source, true, false, indexRequest.getContentType() );
+        out.write( json.getBytes( StandardCharsets.UTF_8 ) );
+      }
+      out.write( NEWLINE );
+    }
+  }
+
+  static BulkResponse readResponse( InputStream in ) throws IOException {
+    try ( XContentParser parser = XContentType.JSON.xContent().createParser( NamedXContentRegistry.EMPTY,
+      DeprecationHandler.THROW_UNSUPPORTED_OPERATION, in ) ) {
+      return BulkResponse.fromXContent( parser );
+    }
+  }
+
+  @Override
+  public void close() {
+    // Every request uses its own connection
+  }
+}
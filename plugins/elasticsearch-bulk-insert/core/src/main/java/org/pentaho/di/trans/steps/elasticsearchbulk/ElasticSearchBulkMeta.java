@@ -81,6 +81,11 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
     static final String TAG_TIMEOUT = "timeout";
     static final String TAG_TIMEOUT_UNIT = "timeoutUnit";
     static final String TAG_BATCH_SIZE = "batchSize";
+    static final String TAG_BATCH_SIZE_BYTES = "batchSizeBytes";
+    static final String TAG_MAX_CONCURRENT_REQUESTS = "maxConcurrentRequests";
+    static final String TAG_MAX_RETRIES = "maxRetries";
+    static final String TAG_RETRY_DELAY = "retryDelay";
+    static final String TAG_USE_HTTP = "useHttp";
 
     static final String TAG_FIELDS = "fields";
     static final String TAG_FIELD = "field";
@@ -102,6 +107,13 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
   }
 
   public static final int DEFAULT_BATCH_SIZE = 50000;
+  public static final long DEFAULT_BATCH_SIZE_BYTES = 5L * 1024 * 1024;
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 1;
+  public static final int DEFAULT_MAX_RETRIES = 3;
+  /**
+   * The delay before the first retry of rejected documents in milliseconds, doubled for every next attempt.
+   */
+  public static final long DEFAULT_RETRY_DELAY = 100L;
   public static final Long DEFAULT_TIMEOUT = 10L;
   public static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.SECONDS;
   public static final int DEFAULT_PORT = 9300;
@@ -137,6 +149,17 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
   @Injection( name = "TIMEOUT_UNIT" )
   private TimeUnit timeoutUnit;
 
+  @Injection( name = "BATCH_SIZE_BYTES" )
+  private String batchSizeBytes;
+  @Injection( name = "MAX_CONCURRENT_REQUESTS" )
+  private String maxConcurrentRequests;
+  @Injection( name = "MAX_RETRIES" )
+  private String maxRetries;
+  @Injection( name = "RETRY_DELAY" )
+  private String retryDelay;
+  @Injection( name = "USE_HTTP" )
+  private boolean useHttp = false;
+
   @InjectionDeep( prefix = "SERVER" )
   List<Server> servers = new ArrayList<>();
   @InjectionDeep( prefix = "FIELD" )
@@ -322,6 +345,77 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
     return Const.toInt( vars.environmentSubstitute( this.batchSize ), DEFAULT_BATCH_SIZE );
   }
 
+  /**
+   * @param value The maximum size of a bulk request in bytes
+   */
+  public void setBatchSizeBytes( String value ) {
+    this.batchSizeBytes = value;
+  }
+
+  public String getBatchSizeBytes() {
+    return batchSizeBytes;
+  }
+
+  public long getBatchSizeBytesLong( VariableSpace vars ) {
+    return Const.toLong( vars.environmentSubstitute( batchSizeBytes ), DEFAULT_BATCH_SIZE_BYTES );
+  }
+
+  /**
+   * @param value The number of bulk requests that can be in flight at the same time
+   */
+  public void setMaxConcurrentRequests( String value ) {
+    this.maxConcurrentRequests = value;
+  }
+
+  public String getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public int getMaxConcurrentRequestsInt( VariableSpace vars ) {
+    return Const.toInt( vars.environmentSubstitute( maxConcurrentRequests ), DEFAULT_MAX_CONCURRENT_REQUESTS );
+  }
+
+  /**
+   * @param value How many times documents rejected by a busy cluster are sent again
+   */
+  public void setMaxRetries( String value ) {
+    this.maxRetries = value;
+  }
+
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  public int getMaxRetriesInt( VariableSpace vars ) {
+    return Const.toInt( vars.environmentSubstitute( maxRetries ), DEFAULT_MAX_RETRIES );
+  }
+
+  /**
+   * @param value The delay before the first retry in milliseconds
+   */
+  public void setRetryDelay( String value ) {
+    this.retryDelay = value;
+  }
+
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  public long getRetryDelayLong( VariableSpace vars ) {
+    return Const.toLong( vars.environmentSubstitute( retryDelay ), DEFAULT_RETRY_DELAY );
+  }
+
+  /**
+   * @return true to send the bulk requests to the REST endpoint of the servers instead of using the transport client
+   */
+  public boolean isUseHttp() {
+    return useHttp;
+  }
+
+  public void setUseHttp( boolean useHttp ) {
+    this.useHttp = useHttp;
+  }
+
   /**
    * @return Returns the TimeOut.
    */
@@ -360,6 +454,11 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
 
   public void setDefault() {
     batchSize = "" + DEFAULT_BATCH_SIZE;
+    batchSizeBytes = "" + DEFAULT_BATCH_SIZE_BYTES;
+    maxConcurrentRequests = "" + DEFAULT_MAX_CONCURRENT_REQUESTS;
+    maxRetries = "" + DEFAULT_MAX_RETRIES;
+    retryDelay = "" + DEFAULT_RETRY_DELAY;
+    useHttp = false;
     timeoutUnit = DEFAULT_TIMEOUT_UNIT;
     index = "twitter";
     type = "tweet";
@@ -398,6 +497,11 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
       } catch ( Exception e ) {
         timeoutUnit = DEFAULT_TIMEOUT_UNIT;
       }
+      batchSizeBytes = XMLHandler.getTagValue( general, Dom.TAG_BATCH_SIZE_BYTES );
+      maxConcurrentRequests = XMLHandler.getTagValue( general, Dom.TAG_MAX_CONCURRENT_REQUESTS );
+      maxRetries = XMLHandler.getTagValue( general, Dom.TAG_MAX_RETRIES );
+      retryDelay = XMLHandler.getTagValue( general, Dom.TAG_RETRY_DELAY );
+      setUseHttp( parseBool( XMLHandler.getTagValue( general, Dom.TAG_USE_HTTP ) ) );
 
       setIndex( XMLHandler.getTagValue( general, Dom.TAG_INDEX ) );
       setType( XMLHandler.getTagValue( general, Dom.TAG_TYPE ) );
@@ -481,6 +585,12 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
     retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_BATCH_SIZE, batchSize ) );
     retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_TIMEOUT, timeout ) );
     retval.append( indent.toString() ).append( XMLHandler.addTagValue( Dom.TAG_TIMEOUT_UNIT, timeoutUnit.toString() ) );
+    retval.append( indent.toString() ).append( XMLHandler.addTagValue( Dom.TAG_BATCH_SIZE_BYTES, batchSizeBytes ) );
+    retval.append( indent.toString() )
+      .append( XMLHandler.addTagValue( Dom.TAG_MAX_CONCURRENT_REQUESTS, maxConcurrentRequests ) );
+    retval.append( indent.toString() ).append( XMLHandler.addTagValue( Dom.TAG_MAX_RETRIES, maxRetries ) );
+    retval.append( indent.toString() ).append( XMLHandler.addTagValue( Dom.TAG_RETRY_DELAY, retryDelay ) );
+    retval.append( indent.toString() ).append( XMLHandler.addTagValue( Dom.TAG_USE_HTTP, useHttp ) );
 
     retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_IS_JSON, isJsonInsert() ) );
     if ( getJsonField() != null ) {
@@ -591,6 +701,13 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
       } catch ( Exception e ) {
         timeoutUnit = DEFAULT_TIMEOUT_UNIT;
       }
+      setBatchSizeBytes( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL,
+              Dom.TAG_BATCH_SIZE_BYTES ) ) );
+      setMaxConcurrentRequests( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL,
+              Dom.TAG_MAX_CONCURRENT_REQUESTS ) ) );
+      setMaxRetries( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_MAX_RETRIES ) ) );
+      setRetryDelay( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_RETRY_DELAY ) ) );
+      setUseHttp( rep.getStepAttributeBoolean( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_USE_HTTP ) ) );
 
       setJsonInsert( rep.getStepAttributeBoolean( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_IS_JSON ) ) );
       setJsonField( ( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_JSON_FIELD ) ) ) );
@@ -650,6 +767,16 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
               getTimeOut() );
       rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_TIMEOUT_UNIT ),
               getTimeoutUnit().toString() );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_BATCH_SIZE_BYTES ),
+              getBatchSizeBytes() );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL,
+              Dom.TAG_MAX_CONCURRENT_REQUESTS ), getMaxConcurrentRequests() );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_MAX_RETRIES ),
+              getMaxRetries() );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_RETRY_DELAY ),
+              getRetryDelay() );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_USE_HTTP ),
+              isUseHttp() );
 
       rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_IS_JSON ),
               isJsonInsert() );
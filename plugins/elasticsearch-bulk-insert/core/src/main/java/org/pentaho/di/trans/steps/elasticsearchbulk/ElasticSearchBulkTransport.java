@@ -0,0 +1,34 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.elasticsearchbulk;
+
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+
+import java.util.concurrent.Future;
+
+/**
+ * Sends bulk requests to ElasticSearch without waiting for the response, so that several requests can be in flight
+ * at the same time. A request rejected as a whole because the cluster is too busy completes with an
+ * {@link org.elasticsearch.common.util.concurrent.EsRejectedExecutionException}.
+ */
+public interface ElasticSearchBulkTransport {
+
+  /**
+   * @return the response of the request, available when the cluster has processed it
+   */
+  Future<BulkResponse> bulk( BulkRequest request );
+
+  void close();
+}
@@ -87,6 +87,12 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
   private Label wlBatchSize;
 
   private TextVar wBatchSize;
+  private LabelTextVar wBatchSizeBytes;
+  private LabelTextVar wMaxConcurrentRequests;
+  private LabelTextVar wMaxRetries;
+  private LabelTextVar wRetryDelay;
+  private Label wlUseHttp;
+  private Button wUseHttp;
   private LabelTextVar wIdOutField;
   private Group wIndexGroup;
   private FormData fdIndexGroup;
@@ -548,6 +554,55 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     props.setLook( wBatchSize );
     wBatchSize.addModifyListener( lsMod );
 
+    // Batch size in bytes
+    wBatchSizeBytes =
+            new LabelTextVar( transMeta, wSettingsGroup, BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.BatchSizeBytes.Label" ), BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.BatchSizeBytes.Tooltip" ) );
+    props.setLook( wBatchSizeBytes );
+    wBatchSizeBytes.addModifyListener( lsMod );
+
+    // Concurrent requests
+    wMaxConcurrentRequests =
+            new LabelTextVar( transMeta, wSettingsGroup, BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.MaxConcurrentRequests.Label" ), BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.MaxConcurrentRequests.Tooltip" ) );
+    props.setLook( wMaxConcurrentRequests );
+    wMaxConcurrentRequests.addModifyListener( lsMod );
+
+    // Retries
+    wMaxRetries =
+            new LabelTextVar( transMeta, wSettingsGroup, BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.MaxRetries.Label" ), BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.MaxRetries.Tooltip" ) );
+    props.setLook( wMaxRetries );
+    wMaxRetries.addModifyListener( lsMod );
+
+    wRetryDelay =
+            new LabelTextVar( transMeta, wSettingsGroup, BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.RetryDelay.Label" ), BaseMessages.getString( PKG,
+                    "ElasticSearchBulkDialog.RetryDelay.Tooltip" ) );
+    props.setLook( wRetryDelay );
+    wRetryDelay.addModifyListener( lsMod );
+
+    // HTTP transport
+    wlUseHttp = new Label( wSettingsGroup, SWT.RIGHT );
+    wlUseHttp.setText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.UseHttp.Label" ) );
+
+    wUseHttp = new Button( wSettingsGroup, SWT.CHECK | SWT.RIGHT );
+    wUseHttp.setToolTipText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.UseHttp.Tooltip" ) );
+    wUseHttp.addSelectionListener( new SelectionListener() {
+
+      public void widgetDefaultSelected( SelectionEvent arg0 ) {
+        widgetSelected( arg0 );
+      }
+
+      public void widgetSelected( SelectionEvent arg0 ) {
+        model.setChanged();
+      }
+
+    } );
+
     // Stop on error
     wlStopOnError = new Label( wSettingsGroup, SWT.RIGHT );
     wlStopOnError.setText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.StopOnError.Label" ) );
@@ -670,9 +725,9 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     getPreviousFields( wJsonField );
     wJsonField.setEnabled( wIsJson.getSelection() );
 
-    Control[] settingsControls = new Control[]{wlBatchSize, wBatchSize, wlStopOnError, wStopOnError, wTimeOut,
-      wIdInField, wlIsOverwrite, wIsOverwrite, wlUseOutput, wUseOutput, wIdOutField, wlIsJson, wIsJson,
-      wJsonField};
+    Control[] settingsControls = new Control[]{wlBatchSize, wBatchSize, wBatchSizeBytes, wMaxConcurrentRequests,
+      wMaxRetries, wRetryDelay, wlUseHttp, wUseHttp, wlStopOnError, wStopOnError, wTimeOut, wIdInField, wlIsOverwrite,
+      wIsOverwrite, wlUseOutput, wUseOutput, wIdOutField, wlIsJson, wIsJson, wJsonField};
     placeControls( wSettingsGroup, settingsControls );
 
     fdSettingsGroup = new FormData();
@@ -765,6 +820,13 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     wType.setText( Const.NVL( in.getType(), "" ) );
 
     wBatchSize.setText( Const.NVL( in.getBatchSize(), "" + ElasticSearchBulkMeta.DEFAULT_BATCH_SIZE ) );
+    wBatchSizeBytes.setText(
+            Const.NVL( in.getBatchSizeBytes(), "" + ElasticSearchBulkMeta.DEFAULT_BATCH_SIZE_BYTES ) );
+    wMaxConcurrentRequests.setText( Const.NVL( in.getMaxConcurrentRequests(),
+            "" + ElasticSearchBulkMeta.DEFAULT_MAX_CONCURRENT_REQUESTS ) );
+    wMaxRetries.setText( Const.NVL( in.getMaxRetries(), "" + ElasticSearchBulkMeta.DEFAULT_MAX_RETRIES ) );
+    wRetryDelay.setText( Const.NVL( in.getRetryDelay(), "" + ElasticSearchBulkMeta.DEFAULT_RETRY_DELAY ) );
+    wUseHttp.setSelection( in.isUseHttp() );
 
     wStopOnError.setSelection( in.isStopOnError() );
 
@@ -833,6 +895,11 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     in.setIndex( wIndex.getText() );
 
     in.setBatchSize( wBatchSize.getText() );
+    in.setBatchSizeBytes( wBatchSizeBytes.getText() );
+    in.setMaxConcurrentRequests( wMaxConcurrentRequests.getText() );
+    in.setMaxRetries( wMaxRetries.getText() );
+    in.setRetryDelay( wRetryDelay.getText() );
+    in.setUseHttp( wUseHttp.getSelection() );
     in.setTimeOut( Const.NVL( wTimeOut.getText(), null ) );
     in.setTimeoutUnit( wTimeOut.getTimeUnit() );
 
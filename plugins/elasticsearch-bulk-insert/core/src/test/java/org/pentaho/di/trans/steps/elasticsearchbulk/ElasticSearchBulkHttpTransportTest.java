@@ -0,0 +1,78 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.elasticsearchbulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Test;
+
+public class ElasticSearchBulkHttpTransportTest {
+
+  @Test
+  public void testGetUrl() {
+    assertEquals( "http://localhost:9200", ElasticSearchBulkHttpTransport.getUrl( "localhost", 9200 ) );
+    assertEquals( "https://es.example.com:443",
+      ElasticSearchBulkHttpTransport.getUrl( "https://es.example.com/", 443 ) );
+  }
+
+  @Test
+  public void testWriteRequest() throws Exception {
+    BulkRequest request = new BulkRequest();
+    request.add( new IndexRequest( "twitter", "tweet" ).opType( OpType.CREATE )
+      .source( "{\"a\":1}", XContentType.JSON ) );
+    request.add( new IndexRequest( "twitter", "tweet" ).opType( OpType.INDEX ).id( "2" )
+      .source( "{\n  \"b\" : \"x\"\n}", XContentType.JSON ) );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ElasticSearchBulkHttpTransport.writeRequest( request, out );
+
+    String[] lines = out.toString( "UTF-8" ).split( "\n" );
+    assertEquals( 4, lines.length );
+    assertEquals( "{\"create\":{\"_index\":\"twitter\",\"_type\":\"tweet\"}}", lines[0] );
+    assertEquals( "{\"a\":1}", lines[1] );
+    assertEquals( "{\"index\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"2\"}}", lines[2] );
+    assertEquals( "{\"b\":\"x\"}", lines[3] );
+  }
+
+  @Test
+  public void testReadResponse() throws Exception {
+    String json = "{\"took\":3,\"errors\":true,\"items\":["
+      + "{\"create\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"a1\",\"_version\":1,\"result\":\"created\","
+      + "\"_shards\":{\"total\":2,\"successful\":1,\"failed\":0},\"_seq_no\":0,\"_primary_term\":1,\"status\":201}},"
+      + "{\"create\":{\"_index\":\"twitter\",\"_type\":\"tweet\",\"_id\":\"a2\",\"status\":429,"
+      + "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected execution\"}}}]}";
+
+    BulkResponse response = ElasticSearchBulkHttpTransport.readResponse(
+      new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) ) );
+
+    assertTrue( response.hasFailures() );
+    assertEquals( 2, response.getItems().length );
+    assertFalse( response.getItems()[0].isFailed() );
+    assertEquals( "a1", response.getItems()[0].getId() );
+    assertEquals( 1, response.getItems()[1].getItemId() );
+    assertEquals( RestStatus.TOO_MANY_REQUESTS, response.getItems()[1].getFailure().getStatus() );
+  }
+}
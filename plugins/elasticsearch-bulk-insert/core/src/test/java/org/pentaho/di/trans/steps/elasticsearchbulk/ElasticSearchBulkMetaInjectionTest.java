@@ -91,6 +91,31 @@ public class ElasticSearchBulkMetaInjectionTest extends BaseMetadataInjectionTes
         return meta.getTimeoutUnit();
       }
     }, TimeUnit.class );
+    check( "BATCH_SIZE_BYTES", new StringGetter() {
+      public String get() {
+        return meta.getBatchSizeBytes();
+      }
+    } );
+    check( "MAX_CONCURRENT_REQUESTS", new StringGetter() {
+      public String get() {
+        return meta.getMaxConcurrentRequests();
+      }
+    } );
+    check( "MAX_RETRIES", new StringGetter() {
+      public String get() {
+        return meta.getMaxRetries();
+      }
+    } );
+    check( "RETRY_DELAY", new StringGetter() {
+      public String get() {
+        return meta.getRetryDelay();
+      }
+    } );
+    check( "USE_HTTP", new BooleanGetter() {
+      public boolean get() {
+        return meta.isUseHttp();
+      }
+    } );
     check( "SERVER.ADDRESS", new StringGetter() {
       public String get() {
         return meta.servers.get( 0 ).address;
@@ -44,7 +44,8 @@ public class ElasticSearchBulkMetaTest {
   public void testRoundTrip() throws KettleException {
     List<String> attributes =
         Arrays.asList( "index", "type", "batchSize", "timeout", "timeoutUnit", "isJson", "jsonField", "idOutputField",
-            "idField", "overwriteIfExists", "useOutput", "stopOnError", "fields", "servers", "settings" );
+            "idField", "overwriteIfExists", "useOutput", "stopOnError", "batchSizeBytes", "maxConcurrentRequests",
+            "maxRetries", "retryDelay", "useHttp", "fields", "servers", "settings" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     getterMap.put( "index", "getIndex" );
@@ -59,6 +60,11 @@ public class ElasticSearchBulkMetaTest {
     getterMap.put( "overwriteIfExists", "isOverWriteIfSameId" );
     getterMap.put( "useOutput", "isUseOutput" );
     getterMap.put( "stopOnError", "isStopOnError" );
+    getterMap.put( "batchSizeBytes", "getBatchSizeBytes" );
+    getterMap.put( "maxConcurrentRequests", "getMaxConcurrentRequests" );
+    getterMap.put( "maxRetries", "getMaxRetries" );
+    getterMap.put( "retryDelay", "getRetryDelay" );
+    getterMap.put( "useHttp", "isUseHttp" );
     getterMap.put( "fields", "getFieldsMap" );
     getterMap.put( "servers", "getServers" );
     getterMap.put( "settings", "getSettingsMap" );
@@ -76,6 +82,11 @@ public class ElasticSearchBulkMetaTest {
     setterMap.put( "overwriteIfExists", "setOverWriteIfSameId" );
     setterMap.put( "useOutput", "setUseOutput" );
     setterMap.put( "stopOnError", "setStopOnError" );
+    setterMap.put( "batchSizeBytes", "setBatchSizeBytes" );
+    setterMap.put( "maxConcurrentRequests", "setMaxConcurrentRequests" );
+    setterMap.put( "maxRetries", "setMaxRetries" );
+    setterMap.put( "retryDelay", "setRetryDelay" );
+    setterMap.put( "useHttp", "setUseHttp" );
     setterMap.put( "fields", "setFieldsMap" );
     setterMap.put( "servers", "setServers" );
     setterMap.put( "settings", "setSettingsMap" );
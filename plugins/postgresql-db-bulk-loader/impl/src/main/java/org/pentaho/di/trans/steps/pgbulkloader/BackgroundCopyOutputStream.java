@@ -0,0 +1,169 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.pgbulkloader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Double buffered output stream: the step thread encodes rows into one buffer while a background thread sends the
+ * other one to the database. A buffer is handed over once it is full, so the COPY data is sent in chunks of the buffer
+ * size.<br>
+ * <br>
+ * An error of the background thread is thrown by the next write, flush or close.
+ */
+public class BackgroundCopyOutputStream extends OutputStream {
+
+  private static final Chunk END = new Chunk( 0 );
+
+  private final OutputStream out;
+  private final BlockingQueue<Chunk> full = new ArrayBlockingQueue<>( 2 );
+  private final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>( 2 );
+  private final Thread sender;
+
+  private Chunk current;
+  private volatile IOException error;
+  private boolean closed;
+
+  public BackgroundCopyOutputStream( OutputStream out, int bufferSize, String threadName ) {
+    this.out = out;
+    this.current = new Chunk( bufferSize );
+    free.add( new Chunk( bufferSize ) );
+
+    sender = new Thread( this::send, threadName );
+    sender.setDaemon( true );
+    sender.start();
+  }
+
+  private void send() {
+    try {
+      while ( true ) {
+        Chunk chunk = full.take();
+        if ( chunk == END ) {
+          return;
+        }
+        // After an error the buffers are only handed back, the step stops at its next write
+        //
+        if ( error == null ) {
+          try {
+            out.write( chunk.data, 0, chunk.length );
+          } catch ( IOException e ) {
+            error = e;
+          }
+        }
+        chunk.length = 0;
+        free.put( chunk );
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void write( int b ) throws IOException {
+    checkError();
+    if ( current.length == current.data.length ) {
+      handOver();
+    }
+    current.data[current.length++] = (byte) b;
+  }
+
+  @Override
+  public void write( byte[] b, int off, int len ) throws IOException {
+    checkError();
+    while ( len > 0 ) {
+      if ( current.length == current.data.length ) {
+        handOver();
+      }
+      int n = Math.min( len, current.data.length - current.length );
+      System.arraycopy( b, off, current.data, current.length, n );
+      current.length += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Send everything written so far and flush the target stream.
+   */
+  @Override
+  public void flush() throws IOException {
+    checkError();
+    if ( current.length > 0 ) {
+      handOver();
+    }
+    // Wait for the sender to hand back the other buffer
+    //
+    try {
+      Chunk other = free.take();
+      free.put( other );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while sending COPY data" );
+    }
+    checkError();
+    out.flush();
+  }
+
+  /**
+   * Stops the background thread and closes the target stream. Data that wasn't handed over yet is dropped.
+   */
+  @Override
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    try {
+      full.put( END );
+      sender.join();
+    } catch ( InterruptedException e ) {
+      sender.interrupt();
+      Thread.currentThread().interrupt();
+    }
+    out.close();
+  }
+
+  private void handOver() throws IOException {
+    try {
+      full.put( current );
+      current = free.take();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while sending COPY data" );
+    }
+    checkError();
+  }
+
+  private void checkError() throws IOException {
+    if ( error != null ) {
+      throw new IOException( "Error sending COPY data to the database", error );
+    }
+    if ( closed ) {
+      throw new IOException( "The COPY stream is closed" );
+    }
+  }
+
+  private static class Chunk {
+    private final byte[] data;
+    private int length;
+
+    Chunk( int size ) {
+      data = new byte[ size ];
+    }
+  }
+}
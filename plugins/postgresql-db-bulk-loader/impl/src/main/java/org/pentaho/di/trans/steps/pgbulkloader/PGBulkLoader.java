@@ -22,6 +22,7 @@ package org.pentaho.di.trans.steps.pgbulkloader;
 //
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.sql.Connection;
@@ -65,7 +66,11 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
   private Charset clientEncoding = Charset.defaultCharset();
   private PGBulkLoaderMeta meta;
   private PGBulkLoaderData data;
-  private PGCopyOutputStream pgCopyOut;
+  private PGCopyOutputStream pgCopy;
+
+  // The stream the rows are written to: the COPY stream itself or a background sender in front of it
+  //
+  private OutputStream pgCopyOut;
 
   public PGBulkLoader( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
     Trans trans ) {
@@ -163,7 +168,13 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
       processTruncate();
 
       logBasic( "Launching command: " + copyCmd );
-      pgCopyOut = new PGCopyOutputStream( (PGConnection) data.db.getConnection(), copyCmd );
+      int bufferSize = getBufferSize();
+      pgCopy = new PGCopyOutputStream( (PGConnection) data.db.getConnection(), copyCmd, bufferSize );
+      if ( meta.isSendInBackground() ) {
+        pgCopyOut = new BackgroundCopyOutputStream( pgCopy, bufferSize, getStepname() + " COPY " + getCopy() );
+      } else {
+        pgCopyOut = pgCopy;
+      }
 
     } catch ( Exception ex ) {
       throw new KettleException( "Error while preparing the COPY " + copyCmd, ex );
@@ -183,6 +194,31 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
     return new Database( parentObject, dbMeta );
   }
 
+  int getBufferSize() {
+    int bufferSize = Const.toInt( environmentSubstitute( meta.getBufferSize() ), PGBulkLoaderMeta.DEFAULT_BUFFER_SIZE );
+    return bufferSize > 0 ? bufferSize : PGBulkLoaderMeta.DEFAULT_BUFFER_SIZE;
+  }
+
+  /**
+   * With several copies of the step every copy runs its own COPY into the table. The first copy truncates the table
+   * while the steps are initialized, so before any of them starts loading.
+   */
+  boolean isParallelCopy() {
+    return getStepMeta().getCopies() > 1 && !getTransMeta().isUsingUniqueConnections();
+  }
+
+  void truncateForParallelCopy() throws KettleException {
+    Database db = getDatabase( this, meta );
+    try {
+      db.connect( getPartitionID() );
+      truncate( db.getConnection() );
+    } finally {
+      // Commits the truncate so the other copies aren't locked out
+      //
+      db.disconnect();
+    }
+  }
+
   void connect() throws KettleException {
     if ( getTransMeta().isUsingUniqueConnections() ) {
       synchronized ( getTrans() ) {
@@ -194,25 +230,28 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
   }
 
   void processTruncate() throws Exception {
-    Connection connection = data.db.getConnection();
+    if ( isParallelCopy() ) {
+      return; // done by the first copy in init()
+    }
+    truncate( data.db.getConnection() );
+  }
 
-    String loadAction = environmentSubstitute( meta.getLoadAction() );
+  private boolean isTruncating() {
+    return "truncate".equalsIgnoreCase( environmentSubstitute( meta.getLoadAction() ) );
+  }
 
-    if ( loadAction.equalsIgnoreCase( "truncate" ) ) {
+  private void truncate( Connection connection ) throws KettleException {
+    if ( isTruncating() ) {
       DatabaseMeta dm = meta.getDatabaseMeta();
       String tableName =
         dm.getQuotedSchemaTableCombination( environmentSubstitute( meta.getSchemaName() ),
           environmentSubstitute( meta.getTableName() ) );
       logBasic( "Launching command: " + "TRUNCATE " + tableName );
 
-      Statement statement = connection.createStatement();
-
-      try {
+      try ( Statement statement = connection.createStatement() ) {
         statement.executeUpdate( "TRUNCATE " + tableName );
       } catch ( Exception ex ) {
         throw new KettleException( "Error while truncating " + tableName, ex );
-      } finally {
-        statement.close();
       }
     }
   }
@@ -232,7 +271,7 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
         // will be null if no records (empty stream)
         if ( data != null && pgCopyOut != null ) {
           pgCopyOut.flush();
-          pgCopyOut.endCopy();
+          pgCopy.endCopy();
 
         }
 
@@ -460,6 +499,15 @@ public class PGBulkLoader extends BaseStep implements StepInterface {
       }
       data.newline = Const.CR.getBytes();
 
+      if ( getCopy() == 0 && isParallelCopy() && isTruncating() ) {
+        try {
+          truncateForParallelCopy();
+        } catch ( KettleException ex ) {
+          logError( ex.getMessage(), ex );
+          return false;
+        }
+      }
+
       data.dateFormatChoices = new int[meta.getFieldStream().length];
       for ( int i = 0; i < data.dateFormatChoices.length; i++ ) {
         if ( Utils.isEmpty( meta.getDateMask()[i] ) ) {
@@ -101,6 +101,12 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
   /** Stop On Error */
   private boolean stopOnError;
 
+  /** The size in bytes of the chunks of COPY data sent to the database */
+  private String bufferSize;
+
+  /** Send the COPY data in a background thread while the next rows are encoded */
+  private boolean sendInBackground;
+
   /*
    * Do not translate following values!!! They are will end up in the job export.
    */
@@ -118,6 +124,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
   public static final int NR_DATE_MASK_DATE = 1;
   public static final int NR_DATE_MASK_DATETIME = 2;
 
+  public static final int DEFAULT_BUFFER_SIZE = 65536;
+
   public PGBulkLoaderMeta() {
     super();
   }
@@ -225,6 +233,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
       loadAction = XMLHandler.getTagValue( stepnode, "load_action" );
       dbNameOverride = XMLHandler.getTagValue( stepnode, "dbname_override" );
       stopOnError = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "stop_on_error" ) );
+      bufferSize = XMLHandler.getTagValue( stepnode, "buffer_size" );
+      sendInBackground = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "send_in_background" ) );
 
       int nrvalues = XMLHandler.countNodes( stepnode, "mapping" );
       allocate( nrvalues );
@@ -265,6 +275,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
     delimiter = ";";
     enclosure = "\"";
     stopOnError = false;
+    bufferSize = "";
+    sendInBackground = false;
     int nrvalues = 0;
     allocate( nrvalues );
   }
@@ -282,6 +294,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
     retval.append( "    " ).append( XMLHandler.addTagValue( "enclosure", enclosure ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "delimiter", delimiter ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "stop_on_error", stopOnError ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "buffer_size", bufferSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "send_in_background", sendInBackground ) );
 
     for ( int i = 0; i < fieldTable.length; i++ ) {
       retval.append( "      <mapping>" ).append( Const.CR );
@@ -301,6 +315,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
       tableName = rep.getStepAttributeString( id_step, "table" );
       loadAction = rep.getStepAttributeString( id_step, "load_action" );
       stopOnError = rep.getStepAttributeBoolean( id_step, "stop_on_error" );
+      bufferSize = rep.getStepAttributeString( id_step, "buffer_size" );
+      sendInBackground = rep.getStepAttributeBoolean( id_step, "send_in_background" );
 
       dbNameOverride = rep.getStepAttributeString( id_step, "dbname_override" );
       enclosure = rep.getStepAttributeString( id_step, "enclosure" );
@@ -334,6 +350,8 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
       rep.saveStepAttribute( id_transformation, id_step, "enclosure", enclosure );
       rep.saveStepAttribute( id_transformation, id_step, "delimiter", delimiter );
       rep.saveStepAttribute( id_transformation, id_step, "stop_on_error", stopOnError );
+      rep.saveStepAttribute( id_transformation, id_step, "buffer_size", bufferSize );
+      rep.saveStepAttribute( id_transformation, id_step, "send_in_background", sendInBackground );
 
       for ( int i = 0; i < fieldTable.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "stream_name", fieldTable[i] );
@@ -680,6 +698,25 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
     this.stopOnError = value;
   }
 
+  /**
+   * @return the size in bytes of the chunks of COPY data sent to the database, empty for the default
+   */
+  public String getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize( String bufferSize ) {
+    this.bufferSize = bufferSize;
+  }
+
+  public boolean isSendInBackground() {
+    return sendInBackground;
+  }
+
+  public void setSendInBackground( boolean sendInBackground ) {
+    this.sendInBackground = sendInBackground;
+  }
+
   public StepMetaInjectionInterface getStepMetaInjectionInterface() {
     return this;
   }
@@ -713,6 +750,10 @@ public class PGBulkLoaderMeta extends BaseStepMeta implements StepMetaInjectionI
           delimiter = (String) entry.getValue();
         } else if ( entry.getKey().equals( "STOPONERROR" ) ) {
           stopOnError = (Boolean) entry.getValue();
+        } else if ( entry.getKey().equals( "BUFFERSIZE" ) ) {
+          bufferSize = (String) entry.getValue();
+        } else if ( entry.getKey().equals( "SENDINBACKGROUND" ) ) {
+          sendInBackground = (Boolean) entry.getValue();
         } else {
           throw new RuntimeException( "Unhandled metadata injection of attribute: "
             + attr.toString() + " - " + attr.getDescription() );
@@ -0,0 +1,65 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.trans.steps.pgbulkloader;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BackgroundCopyOutputStreamTest {
+
+  @Test
+  public void testSendsEverythingInOrder() throws Exception {
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    StringBuilder expected = new StringBuilder();
+
+    BackgroundCopyOutputStream out = new BackgroundCopyOutputStream( target, 16, "test" );
+    for ( int i = 0; i < 1000; i++ ) {
+      String line = "row;" + i + "\n";
+      out.write( line.getBytes() );
+      expected.append( line );
+    }
+    out.write( 'x' );
+    expected.append( 'x' );
+    out.flush();
+    assertEquals( expected.toString(), target.toString() );
+    out.close();
+  }
+
+  @Test
+  public void testSenderErrorIsThrownByWrite() throws Exception {
+    OutputStream target = new OutputStream() {
+      @Override
+      public void write( int b ) throws IOException {
+        throw new IOException( "connection lost" );
+      }
+    };
+
+    BackgroundCopyOutputStream out = new BackgroundCopyOutputStream( target, 4, "test" );
+    try {
+      for ( int i = 0; i < 100; i++ ) {
+        out.write( "abcdef".getBytes() );
+      }
+      out.flush();
+      fail( "The error of the sender should be thrown" );
+    } catch ( IOException e ) {
+      assertEquals( "connection lost", e.getCause().getMessage() );
+    }
+    out.close();
+  }
+}
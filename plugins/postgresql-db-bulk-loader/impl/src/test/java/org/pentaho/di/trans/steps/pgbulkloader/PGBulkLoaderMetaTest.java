@@ -65,7 +65,8 @@ public class PGBulkLoaderMetaTest {
     PluginRegistry.init( false );
     List<String> attributes =
         Arrays.asList( "schemaName", "tableName", "loadAction", "dbNameOverride", "delimiter",
-            "enclosure", "stopOnError", "fieldTable", "fieldStream", "dateMask", "databaseMeta" );
+            "enclosure", "stopOnError", "bufferSize", "sendInBackground", "fieldTable", "fieldStream", "dateMask",
+            "databaseMeta" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
@@ -76,6 +77,8 @@ public class PGBulkLoaderMetaTest {
         put( "delimiter", "getDelimiter" );
         put( "enclosure", "getEnclosure" );
         put( "stopOnError", "isStopOnError" );
+        put( "bufferSize", "getBufferSize" );
+        put( "sendInBackground", "isSendInBackground" );
         put( "fieldTable", "getFieldTable" );
         put( "fieldStream", "getFieldStream" );
         put( "dateMask", "getDateMask" );
@@ -91,6 +94,8 @@ public class PGBulkLoaderMetaTest {
         put( "delimiter", "setDelimiter" );
         put( "enclosure", "setEnclosure" );
         put( "stopOnError", "setStopOnError" );
+        put( "bufferSize", "setBufferSize" );
+        put( "sendInBackground", "setSendInBackground" );
         put( "fieldTable", "setFieldTable" );
         put( "fieldStream", "setFieldStream" );
         put( "dateMask", "setDateMask" );
@@ -152,7 +157,8 @@ public class PGBulkLoaderMetaTest {
       List<StepInjectionMetaEntry> entries =
         loader.getStepMeta().getStepMetaInterface().getStepMetaInjectionInterface().getStepInjectionMetadataEntries();
 
-      String masterKeys = "SCHEMA TABLE LOADACTION STOPONERROR DELIMITER ENCLOSURE DBNAMEOVERRIDE MAPPINGS ";
+      String masterKeys =
+        "SCHEMA TABLE LOADACTION STOPONERROR DELIMITER ENCLOSURE DBNAMEOVERRIDE BUFFERSIZE SENDINBACKGROUND MAPPINGS ";
 
       for ( StepInjectionMetaEntry entry : entries ) {
         String key = entry.getKey();
@@ -247,6 +253,8 @@ public class PGBulkLoaderMetaTest {
       assertEquals( "Enclosure not properly injected... ", "new_ENCLOSURE", lm.getEnclosure() );
       assertEquals( "Load action not properly injected... ", "new_LOADACTION", lm.getLoadAction() );
       assertEquals( "Stop on error not properly injected... ", Boolean.TRUE, lm.isStopOnError() );
+      assertEquals( "Buffer size not properly injected... ", "new_BUFFERSIZE", lm.getBufferSize() );
+      assertEquals( "Send in background not properly injected... ", Boolean.TRUE, lm.isSendInBackground() );
 
       assertEquals( "Field name not properly injected... ", "new_FIELDNAME", lm.getFieldTable()[0] );
       assertEquals( "Stream name not properly injected... ", "new_STREAMNAME", lm.getFieldStream()[0] );
@@ -123,6 +123,14 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
   private Button wStopOnError;
   private FormData fdlStopOnError, fdStopOnError;
 
+  private Label wlBufferSize;
+  private TextVar wBufferSize;
+  private FormData fdlBufferSize, fdBufferSize;
+
+  private Label wlSendInBackground;
+  private Button wSendInBackground;
+  private FormData fdlSendInBackground, fdSendInBackground;
+
   private PGBulkLoaderMeta input;
 
   private static final String[] ALL_FILETYPES = new String[] { BaseMessages.getString(
@@ -352,6 +360,49 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
       }
     } );
 
+    // Buffer size line
+    wlBufferSize = new Label( shell, SWT.RIGHT );
+    wlBufferSize.setText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.BufferSize.Label" ) );
+    props.setLook( wlBufferSize );
+    fdlBufferSize = new FormData();
+    fdlBufferSize.left = new FormAttachment( 0, 0 );
+    fdlBufferSize.top = new FormAttachment( wStopOnError, margin );
+    fdlBufferSize.right = new FormAttachment( middle, -margin );
+    wlBufferSize.setLayoutData( fdlBufferSize );
+    wBufferSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wBufferSize.setToolTipText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.BufferSize.Tooltip" ) );
+    props.setLook( wBufferSize );
+    wBufferSize.addModifyListener( lsMod );
+    fdBufferSize = new FormData();
+    fdBufferSize.left = new FormAttachment( middle, 0 );
+    fdBufferSize.top = new FormAttachment( wStopOnError, margin );
+    fdBufferSize.right = new FormAttachment( 100, 0 );
+    wBufferSize.setLayoutData( fdBufferSize );
+
+    // Send in background line
+    wlSendInBackground = new Label( shell, SWT.RIGHT );
+    wlSendInBackground.setText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.SendInBackground.Label" ) );
+    props.setLook( wlSendInBackground );
+    fdlSendInBackground = new FormData();
+    fdlSendInBackground.left = new FormAttachment( 0, 0 );
+    fdlSendInBackground.top = new FormAttachment( wBufferSize, margin );
+    fdlSendInBackground.right = new FormAttachment( middle, -margin );
+    wlSendInBackground.setLayoutData( fdlSendInBackground );
+    wSendInBackground = new Button( shell, SWT.CHECK );
+    wSendInBackground.setToolTipText( BaseMessages.getString( PKG, "PGBulkLoaderDialog.SendInBackground.Tooltip" ) );
+    props.setLook( wSendInBackground );
+    fdSendInBackground = new FormData();
+    fdSendInBackground.left = new FormAttachment( middle, 0 );
+    fdSendInBackground.top = new FormAttachment( wBufferSize, margin );
+    fdSendInBackground.right = new FormAttachment( 100, 0 );
+    wSendInBackground.setLayoutData( fdSendInBackground );
+
+    wSendInBackground.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     // THE BUTTONS
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -368,7 +419,7 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
     props.setLook( wlReturn );
     fdlReturn = new FormData();
     fdlReturn.left = new FormAttachment( 0, 0 );
-    fdlReturn.top = new FormAttachment( wStopOnError, margin );
+    fdlReturn.top = new FormAttachment( wSendInBackground, margin );
     wlReturn.setLayoutData( fdlReturn );
 
     int UpInsCols = 3;
@@ -488,6 +539,7 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
     wEnclosure.addSelectionListener( lsDef );
     wDelimiter.addSelectionListener( lsDef );
     wStopOnError.addSelectionListener( lsDef );
+    wBufferSize.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -570,6 +622,8 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
       wEnclosure.setText( input.getEnclosure() );
     }
     wStopOnError.setSelection( input.isStopOnError() );
+    wBufferSize.setText( Const.NVL( input.getBufferSize(), "" ) );
+    wSendInBackground.setSelection( input.isSendInBackground() );
     if ( input.getDbNameOverride() != null ) {
       wDbNameOverride.setText( input.getDbNameOverride() );
     }
@@ -763,6 +817,8 @@ public class PGBulkLoaderDialog extends BaseStepDialog implements StepDialogInte
     inf.setDelimiter( wDelimiter.getText() );
     inf.setEnclosure( wEnclosure.getText() );
     inf.setStopOnError( wStopOnError.getSelection() );
+    inf.setBufferSize( wBufferSize.getText() );
+    inf.setSendInBackground( wSendInBackground.getSelection() );
 
     /*
      * /* Set the loadaction
@@ -0,0 +1,204 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.repository.pur;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.pentaho.di.repository.ObjectRevision;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.data.node.NodeRepositoryFileData;
+
+/**
+ * Client side cache of the content of transformations and jobs, keyed by file ID and revision. A revision is either
+ * the version ID that was asked for or, when the latest content is loaded, the current version ID of the file (the
+ * last modified date for unversioned files). The content of a revision doesn't change, so cached content is never
+ * stale. When a newer revision of a file is seen the content cached for the previous latest revision is dropped.<br>
+ * <br>
+ * The cache holds at most a fixed number of entries and evicts the least recently used ones. A size of 0 disables
+ * it, see {@link PurRepository#CONTENT_CACHE_SIZE}.
+ */
+public class PurContentCache {
+
+  private final int maxSize;
+  private final LinkedHashMap<String, Content> contents;
+  private final Map<Serializable, String> latestRevisions = new HashMap<>();
+  private long hits;
+  private long misses;
+
+  public PurContentCache( int maxSize ) {
+    this.maxSize = maxSize;
+    this.contents = new LinkedHashMap<String, Content>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, Content> eldest ) {
+        if ( size() > PurContentCache.this.maxSize ) {
+          forgetLatest( eldest.getValue() );
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @return true if content is cached at all
+   */
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Get the cached content of a file.
+   *
+   * @param file      the file as it was just read from the repository
+   * @param versionId the requested version or null for the latest content
+   * @return the cached content or null if it isn't cached
+   */
+  public synchronized Content get( RepositoryFile file, String versionId ) {
+    if ( !isEnabled() ) {
+      return null;
+    }
+    String revision = getRevision( file, versionId );
+    if ( versionId == null ) {
+      seeLatestRevision( file.getId(), revision );
+    }
+    Content content = contents.get( getKey( file.getId(), revision ) );
+    if ( content == null ) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return content;
+  }
+
+  /**
+   * @return true if the content of the file is cached, without counting it as a hit or a miss
+   */
+  public synchronized boolean contains( RepositoryFile file, String versionId ) {
+    return isEnabled() && contents.containsKey( getKey( file.getId(), getRevision( file, versionId ) ) );
+  }
+
+  /**
+   * Add the content of a file to the cache.
+   *
+   * @param file      the file the content was read for
+   * @param versionId the requested version or null for the latest content
+   * @param data      the content of the file
+   * @param revision  the revision of the content
+   * @return the content
+   */
+  public synchronized Content put( RepositoryFile file, String versionId, NodeRepositoryFileData data,
+                                   ObjectRevision revision ) {
+    String fileRevision = getRevision( file, versionId );
+    Content content = new Content( file.getId(), fileRevision, data, revision );
+    if ( isEnabled() && data != null ) {
+      if ( versionId == null ) {
+        seeLatestRevision( file.getId(), fileRevision );
+      }
+      contents.put( getKey( file.getId(), fileRevision ), content );
+    }
+    return content;
+  }
+
+  /**
+   * Remove all the cached content of a file, for example after it was saved or deleted.
+   *
+   * @param fileId the ID of the file
+   */
+  public synchronized void invalidate( Serializable fileId ) {
+    if ( fileId == null ) {
+      return;
+    }
+    latestRevisions.remove( fileId );
+    Iterator<Content> iterator = contents.values().iterator();
+    while ( iterator.hasNext() ) {
+      if ( fileId.equals( iterator.next().fileId ) ) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    contents.clear();
+    latestRevisions.clear();
+  }
+
+  public synchronized int getSize() {
+    return contents.size();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  private void seeLatestRevision( Serializable fileId, String revision ) {
+    String previous = latestRevisions.put( fileId, revision );
+    if ( previous != null && !previous.equals( revision ) ) {
+      // A newer revision was saved, nobody is going to ask for the previous latest content again
+      //
+      contents.remove( getKey( fileId, previous ) );
+    }
+  }
+
+  private void forgetLatest( Content content ) {
+    if ( content.revision.equals( latestRevisions.get( content.fileId ) ) ) {
+      latestRevisions.remove( content.fileId );
+    }
+  }
+
+  static String getRevision( RepositoryFile file, String versionId ) {
+    if ( versionId != null ) {
+      return versionId;
+    }
+    if ( file.getVersionId() != null ) {
+      return file.getVersionId().toString();
+    }
+    return file.getLastModifiedDate() == null ? "" : "@" + file.getLastModifiedDate().getTime();
+  }
+
+  private static String getKey( Serializable fileId, String revision ) {
+    return fileId + "\t" + revision;
+  }
+
+  /**
+   * The cached content of a revision of a file.
+   */
+  public static class Content {
+    private final Serializable fileId;
+    private final String revision;
+    private final NodeRepositoryFileData data;
+    private final ObjectRevision objectRevision;
+
+    Content( Serializable fileId, String revision, NodeRepositoryFileData data, ObjectRevision objectRevision ) {
+      this.fileId = fileId;
+      this.revision = revision;
+      this.data = data;
+      this.objectRevision = objectRevision;
+    }
+
+    public NodeRepositoryFileData getData() {
+      return data;
+    }
+
+    public ObjectRevision getObjectRevision() {
+      return objectRevision;
+    }
+  }
+}
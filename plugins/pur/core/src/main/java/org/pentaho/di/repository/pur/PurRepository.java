@@ -19,6 +19,7 @@ import org.pentaho.di.cluster.ClusterSchema;
 import org.pentaho.di.cluster.SlaveServer;
 import org.pentaho.di.core.Condition;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.ObjectLocationSpecificationMethod;
 import org.pentaho.di.core.ProgressMonitorListener;
 import org.pentaho.di.core.annotations.RepositoryPlugin;
 import org.pentaho.di.core.changed.ChangedFlagInterface;
@@ -37,6 +38,10 @@ import org.pentaho.di.core.xml.XMLInterface;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.imp.Import;
 import org.pentaho.di.job.JobMeta;
+import org.pentaho.di.job.entries.job.JobEntryJob;
+import org.pentaho.di.job.entries.trans.JobEntryTrans;
+import org.pentaho.di.job.entry.JobEntryCopy;
+import org.pentaho.di.job.entry.JobEntryInterface;
 import org.pentaho.di.laf.BasePropertyHandler;
 import org.pentaho.di.metastore.MetaStoreConst;
 import org.pentaho.di.partition.PartitionSchema;
@@ -139,6 +144,10 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
   // Kettle property that when set to false disabled the lazy repository access
   public static final String LAZY_REPOSITORY = "KETTLE_LAZY_REPOSITORY";
 
+  // Kettle property with the number of transformation and job revisions to keep in the client side content cache,
+  // 0 (the default) disables the cache
+  public static final String CONTENT_CACHE_SIZE = "KETTLE_PUR_CONTENT_CACHE_SIZE";
+
   private static Class<?> PKG = PurRepository.class;
 
   // ~ Static fields/initializers ======================================================================================
@@ -209,6 +218,8 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
 
   private Map<RepositoryObjectType, List<? extends SharedObjectInterface<?>>> sharedObjectsByType = null;
 
+  private transient PurContentCache contentCache;
+
   private boolean connected = false;
 
   private String connectMessage = null;
@@ -365,6 +376,9 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
   @Override public void disconnect() {
     connected = false;
     metaStore = null;
+    if ( contentCache != null ) {
+      contentCache.clear();
+    }
     purRepositoryConnector.disconnect();
   }
 
@@ -874,6 +888,7 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
       } finally {
         readWriteLock.writeLock().unlock();
       }
+      getContentCache().invalidate( id.getId() );
 
       rootRef.clearRef();
     } catch ( Exception e ) {
@@ -2461,12 +2476,13 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
             "PurRepository.ERROR_0008_TRANSFORMATION_PATH_INVALID", absPath ) );
         }
 
-        data = pur.getDataAtVersionForRead( file.getId(), versionId, NodeRepositoryFileData.class );
+        PurContentCache.Content content = readContent( file, versionId );
+        data = content.getData();
+        revision = content.getObjectRevision();
       } finally {
         readWriteLock.readLock().unlock();
       }
 
-      revision = getObjectRevision( new StringObjectId( file.getId().toString() ), versionId );
       TransMeta transMeta = buildTransMeta( file, parentDir, data, revision );
       ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.TransformationMetaLoaded.id, transMeta );
       return transMeta;
@@ -2578,13 +2594,15 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
           file = pur.getFileAtVersion( file.getId(), versionId );
         }
 
-        data = pur.getDataAtVersionForRead( file.getId(), versionId, NodeRepositoryFileData.class );
+        PurContentCache.Content content = readContent( file, versionId );
+        data = content.getData();
+        revision = content.getObjectRevision();
       } finally {
         readWriteLock.readLock().unlock();
       }
 
-      revision = getObjectRevision( new StringObjectId( file.getId().toString() ), versionId );
       JobMeta jobMeta = buildJobMeta( file, parentDir, data, revision );
+      prefetchReferencedContent( jobMeta );
       ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobMetaLoaded.id, jobMeta );
       return jobMeta;
     } catch ( Exception e ) {
@@ -2899,6 +2917,104 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
     return result;
   }
 
+  /**
+   * @return the client side cache of transformation and job content, sized by {@link #CONTENT_CACHE_SIZE}
+   */
+  public synchronized PurContentCache getContentCache() {
+    if ( contentCache == null ) {
+      contentCache = new PurContentCache( Const.toInt( System.getProperty( CONTENT_CACHE_SIZE ), 0 ) );
+    }
+    return contentCache;
+  }
+
+  /**
+   * Read the content and the revision of a transformation or job, from the content cache if it holds the requested
+   * revision. Called with the read lock held.
+   */
+  private PurContentCache.Content readContent( final RepositoryFile file, final String versionId ) {
+    PurContentCache cache = getContentCache();
+    PurContentCache.Content content = cache.get( file, versionId );
+    if ( content == null ) {
+      NodeRepositoryFileData data =
+        pur.getDataAtVersionForRead( file.getId(), versionId, NodeRepositoryFileData.class );
+      ObjectRevision revision = getObjectRevision( new StringObjectId( file.getId().toString() ), versionId );
+      content = cache.put( file, versionId, data, revision );
+    }
+    return content;
+  }
+
+  /**
+   * Read the content of the transformations and jobs that the entries of a job reference by name or by ID in one
+   * batch, so that running the job doesn't go back to the server for each of them. Only done when the content cache
+   * is enabled, references that use variables are skipped.
+   */
+  protected void prefetchReferencedContent( final JobMeta jobMeta ) {
+    PurContentCache cache = getContentCache();
+    if ( !cache.isEnabled() ) {
+      return;
+    }
+    try {
+      readWriteLock.readLock().lock();
+      try {
+        List<RepositoryFile> files = new ArrayList<>();
+        Set<Serializable> fileIds = new HashSet<>();
+        for ( JobEntryCopy copy : jobMeta.getJobCopies() ) {
+          RepositoryFile file = findReferencedFile( copy.getEntry() );
+          if ( file != null && fileIds.add( file.getId() ) && !cache.contains( file, null ) ) {
+            files.add( file );
+          }
+        }
+        if ( files.isEmpty() ) {
+          return;
+        }
+
+        List<NodeRepositoryFileData> filesData = pur.getDataForReadInBatch( files, NodeRepositoryFileData.class );
+        List<VersionSummary> versions = pur.getVersionSummaryInBatch( files );
+        for ( int i = 0; i < files.size(); i++ ) {
+          if ( versions.get( i ) != null ) {
+            cache.put( files.get( i ), null, filesData.get( i ), createObjectRevision( versions.get( i ) ) );
+          }
+        }
+      } finally {
+        readWriteLock.readLock().unlock();
+      }
+    } catch ( Exception e ) {
+      // Only an optimization, the referenced objects are loaded one by one when they're needed
+      //
+      log.logDebug( "Unable to prefetch the objects referenced by job [" + jobMeta.getName() + "] : "
+        + e.getMessage() );
+    }
+  }
+
+  private RepositoryFile findReferencedFile( final JobEntryInterface entry ) throws KettleException {
+    if ( entry instanceof JobEntryTrans ) {
+      JobEntryTrans entryTrans = (JobEntryTrans) entry;
+      return findReferencedFile( entryTrans.getSpecificationMethod(), entryTrans.getTransObjectId(),
+        entryTrans.getDirectory(), entryTrans.getTransname(), RepositoryObjectType.TRANSFORMATION );
+    }
+    if ( entry instanceof JobEntryJob ) {
+      JobEntryJob entryJob = (JobEntryJob) entry;
+      return findReferencedFile( entryJob.getSpecificationMethod(), entryJob.getJobObjectId(),
+        entryJob.getDirectory(), entryJob.getJobName(), RepositoryObjectType.JOB );
+    }
+    return null;
+  }
+
+  private RepositoryFile findReferencedFile( final ObjectLocationSpecificationMethod method, final ObjectId objectId,
+                                             final String directory, final String name,
+                                             final RepositoryObjectType objectType ) throws KettleException {
+    if ( method == ObjectLocationSpecificationMethod.REPOSITORY_BY_REFERENCE && objectId != null ) {
+      return pur.getFileById( objectId.getId() );
+    }
+    if ( method == ObjectLocationSpecificationMethod.REPOSITORY_BY_NAME && !Utils.isEmpty( directory )
+      && !Utils.isEmpty( name ) && !directory.contains( "${" ) && !name.contains( "${" ) ) {
+      RepositoryDirectoryInterface repositoryDirectory = findDirectory( directory );
+      String path = repositoryDirectory == null ? null : getPath( name, repositoryDirectory, objectType );
+      return path == null ? null : pur.getFile( path );
+    }
+    return null;
+  }
+
   /**
    * @return Wrapped {@link VersionSummary} with a {@link ObjectRevision}.
    */
@@ -3190,7 +3306,8 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
         jobMeta.setFilename( file.getPath() );
         jobMeta.setDescription( file.getDescription() );
         jobMeta.setObjectId( new StringObjectId( file.getId().toString() ) );
-        jobMeta.setObjectRevision( getObjectRevision( new StringObjectId( file.getId().toString() ), versionLabel ) );
+        PurContentCache.Content content = readContent( file, versionLabel );
+        jobMeta.setObjectRevision( content.getObjectRevision() );
         jobMeta.setRepository( this );
         jobMeta.setRepositoryDirectory( findDirectory( getParentPath( file.getPath() ) ) );
 
@@ -3199,12 +3316,12 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
         // Additional obfuscation through obscurity
         jobMeta.setRepositoryLock( unifiedRepositoryLockService.getLock( file ) );
 
-        jobDelegate.dataNodeToElement( pur.getDataAtVersionForRead( idJob.getId(), versionLabel,
-          NodeRepositoryFileData.class ).getNode(), jobMeta );
+        jobDelegate.dataNodeToElement( content.getData().getNode(), jobMeta );
 
       } finally {
         readWriteLock.readLock().unlock();
       }
+      prefetchReferencedContent( jobMeta );
 
       ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.JobMetaLoaded.id, jobMeta );
 
@@ -3233,15 +3350,14 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
         transMeta.setFilename( file.getPath() );
         transMeta.setDescription( file.getDescription() );
         transMeta.setObjectId( new StringObjectId( file.getId().toString() ) );
-        transMeta.setObjectRevision( getObjectRevision( new StringObjectId( file.getId().toString() ), versionLabel ) );
+        PurContentCache.Content content = readContent( file, versionLabel );
+        transMeta.setObjectRevision( content.getObjectRevision() );
         transMeta.setRepository( this );
         transMeta.setRepositoryDirectory( findDirectory( getParentPath( file.getPath() ) ) );
         transMeta.setRepositoryLock( unifiedRepositoryLockService.getLock( file ) );
         transMeta.setMetaStore( MetaStoreConst.getDefaultMetastore() ); // inject metastore
 
-        transDelegate.dataNodeToElement(
-          pur.getDataAtVersionForRead( idTransformation.getId(), versionLabel, NodeRepositoryFileData.class ).getNode(),
-          transMeta );
+        transDelegate.dataNodeToElement( content.getData().getNode(), transMeta );
       } finally {
         readWriteLock.readLock().unlock();
       }
@@ -3479,6 +3595,7 @@ public class PurRepository extends AbstractRepository implements Repository, Rec
     // side effects
     ObjectId objectId = new StringObjectId( file.getId().toString() );
     element.setObjectId( objectId );
+    getContentCache().invalidate( file.getId() );
     if ( loadRevision ) {
       element.setObjectRevision( getObjectRevision( objectId, null ) );
     }
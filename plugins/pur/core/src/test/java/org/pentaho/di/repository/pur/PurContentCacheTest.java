@@ -0,0 +1,102 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.repository.pur;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.pentaho.di.repository.ObjectRevision;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.data.node.NodeRepositoryFileData;
+
+public class PurContentCacheTest {
+
+  private static RepositoryFile createFile( String id, String versionId ) {
+    RepositoryFile file = mock( RepositoryFile.class );
+    when( file.getId() ).thenReturn( id );
+    when( file.getVersionId() ).thenReturn( versionId );
+    return file;
+  }
+
+  @Test
+  public void testHitOnSameRevision() {
+    PurContentCache cache = new PurContentCache( 10 );
+    RepositoryFile file = createFile( "trans", "1.0" );
+    NodeRepositoryFileData data = mock( NodeRepositoryFileData.class );
+    ObjectRevision revision = mock( ObjectRevision.class );
+
+    assertNull( cache.get( file, null ) );
+    cache.put( file, null, data, revision );
+    PurContentCache.Content content = cache.get( file, null );
+
+    assertSame( data, content.getData() );
+    assertSame( revision, content.getObjectRevision() );
+    assertEquals( 1, cache.getHits() );
+    assertEquals( 1, cache.getMisses() );
+
+    // The same revision asked for by version ID
+    //
+    assertSame( data, cache.get( file, "1.0" ).getData() );
+  }
+
+  @Test
+  public void testNewerRevisionDropsPreviousLatest() {
+    PurContentCache cache = new PurContentCache( 10 );
+    cache.put( createFile( "trans", "1.0" ), null, mock( NodeRepositoryFileData.class ), null );
+    cache.put( createFile( "trans", "1.0" ), "0.9", mock( NodeRepositoryFileData.class ), null );
+    assertEquals( 2, cache.getSize() );
+
+    RepositoryFile newer = createFile( "trans", "1.1" );
+    assertNull( cache.get( newer, null ) );
+    assertFalse( cache.contains( createFile( "trans", "1.0" ), null ) );
+
+    // Explicitly requested versions don't change
+    //
+    assertTrue( cache.contains( newer, "0.9" ) );
+    assertEquals( 1, cache.getSize() );
+  }
+
+  @Test
+  public void testEvictionAndInvalidation() {
+    PurContentCache cache = new PurContentCache( 2 );
+    cache.put( createFile( "a", "1.0" ), null, mock( NodeRepositoryFileData.class ), null );
+    cache.put( createFile( "b", "1.0" ), null, mock( NodeRepositoryFileData.class ), null );
+    cache.get( createFile( "a", "1.0" ), null );
+    cache.put( createFile( "c", "1.0" ), null, mock( NodeRepositoryFileData.class ), null );
+
+    assertEquals( 2, cache.getSize() );
+    assertFalse( cache.contains( createFile( "b", "1.0" ), null ) );
+
+    cache.invalidate( "a" );
+    assertFalse( cache.contains( createFile( "a", "1.0" ), null ) );
+    assertTrue( cache.contains( createFile( "c", "1.0" ), null ) );
+  }
+
+  @Test
+  public void testDisabled() {
+    PurContentCache cache = new PurContentCache( 0 );
+    RepositoryFile file = createFile( "trans", "1.0" );
+    NodeRepositoryFileData data = mock( NodeRepositoryFileData.class );
+
+    assertFalse( cache.isEnabled() );
+    assertSame( data, cache.put( file, null, data, null ).getData() );
+    assertNull( cache.get( file, null ) );
+    assertEquals( 0, cache.getSize() );
+  }
+}
@@ -13,10 +13,17 @@
 
 package org.pentaho.di.trans.steps.s3csvinput;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
@@ -34,6 +41,8 @@ import org.pentaho.di.trans.step.StepMetaInterface;
 /**
  * Read a simple CSV file
  * Just output Strings found in the file...
+ * The objects are read in chunks with ranged requests, several chunks at the same time, see
+ * {@link S3RangedInputStream}. Optionally a local copy is kept of the objects read, see {@link S3ObjectCache}.
  *
  * @author Matt
  * @since 2007-07-05
@@ -232,17 +241,7 @@ public class S3CsvInput extends BaseStep implements StepInterface {
 
       data.s3ObjectInputStream = null;
 
-      // If we are running in parallel we only want to grab a part of the content, not everything.
-      //
-      if ( data.parallel ) {
-        data.s3ObjectInputStream = new S3ObjectsProvider( data.s3Client )
-          .getS3Object( data.s3bucket, data.filenames[ data.filenr ], data.bytesToSkipInFirstFile,
-            data.bytesToSkipInFirstFile + data.blockToRead + data.maxLineSize * 2 ).getObjectContent();
-      } else {
-        data.s3ObjectInputStream =
-          new S3ObjectsProvider( data.s3Client ).getS3Object( data.s3bucket, data.filenames[ data.filenr ] )
-            .getObjectContent();
-      }
+      data.s3ObjectInputStream = openObject( data.filenames[ data.filenr ] );
 
       if ( meta.isLazyConversionActive() ) {
         data.binaryFilename = data.filenames[data.filenr].getBytes();
@@ -284,6 +283,42 @@ public class S3CsvInput extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Open the next object to read. If we are running in parallel we only want to grab a part of the content, not
+   * everything: from where this step copy starts reading up to a few lines past the end of its block.
+   */
+  private InputStream openObject( String objectKey ) throws IOException {
+    S3ObjectsProvider provider = new S3ObjectsProvider( data.s3Client );
+    ObjectMetadata metadata = provider.getS3ObjectDetails( data.s3bucket, objectKey );
+    long size = metadata.getContentLength();
+
+    long start = 0L;
+    long end = size;
+    if ( data.parallel ) {
+      start = Math.max( 0L, data.bytesToSkipInFirstFile );
+      end = Math.min( size, start + data.blockToRead - data.totalBytesRead + data.maxLineSize * 2L + 1 );
+    }
+
+    if ( data.cache != null ) {
+      File cached = data.cache.get( data.s3bucket.getName(), objectKey, metadata );
+      if ( cached != null ) {
+        if ( log.isDetailed() ) {
+          logDetailed( Messages.getString( "S3CsvInput.Log.ReadingFromCache", objectKey, cached.getPath() ) );
+        }
+        InputStream in = new FileInputStream( cached );
+        IOUtils.skipFully( in, start );
+        return new BoundedInputStream( in, end - start );
+      }
+      if ( start == 0L && end == size ) {
+        return data.cache.put( data.s3bucket.getName(), objectKey, metadata,
+          new S3RangedInputStream( provider, data.s3bucket, objectKey, 0L, size, data.chunkSize,
+            data.readAheadChunks ) );
+      }
+    }
+    return new S3RangedInputStream( provider, data.s3bucket, objectKey, start, end, data.chunkSize,
+      data.readAheadChunks );
+  }
+
   /** Read a single row of data from the file...
    *
    * @param doConversions if you want to do conversions, set to false for the header row.
@@ -542,6 +577,12 @@ public class S3CsvInput extends BaseStep implements StepInterface {
         }
 
         data.maxLineSize = Integer.parseInt( environmentSubstitute( meta.getMaxLineSize() ) );
+        data.chunkSize = Const.toInt( environmentSubstitute( meta.getChunkSize() ), S3CsvInputMeta.DEFAULT_CHUNK_SIZE );
+        data.readAheadChunks =
+          Const.toInt( environmentSubstitute( meta.getReadAheadChunks() ), S3CsvInputMeta.DEFAULT_READ_AHEAD_CHUNKS );
+
+        String cacheDirectory = environmentSubstitute( meta.getCacheDirectory() );
+        data.cache = Utils.isEmpty( cacheDirectory ) ? null : new S3ObjectCache( new File( cacheDirectory ) );
 
         // If the step doesn't have any previous steps, we just get the filename.
         // Otherwise, we'll grab the list of filenames later...
@@ -598,6 +639,19 @@ public class S3CsvInput extends BaseStep implements StepInterface {
     return false;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    meta = (S3CsvInputMeta) smi;
+    data = (S3CsvInputData) sdi;
+
+    // Stop the chunks that are still being read ahead
+    //
+    IOUtils.closeQuietly( data.s3ObjectInputStream );
+    data.s3ObjectInputStream = null;
+
+    super.dispose( smi, sdi );
+  }
+
   public void closeFile() throws KettleException {
     try {
       if ( data.s3ObjectInputStream != null ) {
@@ -15,11 +15,11 @@
 package org.pentaho.di.trans.steps.s3csvinput;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.Bucket;
-import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -67,7 +67,10 @@ public class S3CsvInputData extends BaseStepData implements StepDataInterface {
   public AmazonS3 s3Client;
   public Bucket s3bucket;
   public int maxLineSize;
-  public S3ObjectInputStream s3ObjectInputStream;
+  public int chunkSize;
+  public int readAheadChunks;
+  public S3ObjectCache cache;
+  public InputStream s3ObjectInputStream;
 
   /**
    *
@@ -90,6 +90,9 @@ public class S3CsvInputDialog extends BaseStepDialog implements StepDialogInterf
 
   private boolean isReceivingInput;
   private Button wRunningInParallel;
+  private TextVar wChunkSize;
+  private TextVar wReadAheadChunks;
+  private TextVar wCacheDirectory;
 
   public S3CsvInputDialog( Shell parent, Object in, TransMeta tr, String sname ) {
     super( parent, (BaseStepMeta) in, tr, sname );
@@ -399,6 +402,66 @@ public class S3CsvInputDialog extends BaseStepDialog implements StepDialogInterf
     wRunningInParallel.setLayoutData( fdRunningInParallel );
     lastControl = wRunningInParallel;
 
+    // Size of the ranged reads
+    //
+    Label wlChunkSize = new Label( shell, SWT.RIGHT );
+    wlChunkSize.setText( Messages.getString( "S3CsvInputDialog.ChunkSize.Label" ) ); //$NON-NLS-1$
+    props.setLook( wlChunkSize );
+    FormData fdlChunkSize = new FormData();
+    fdlChunkSize.top = new FormAttachment( lastControl, margin );
+    fdlChunkSize.left = new FormAttachment( 0, 0 );
+    fdlChunkSize.right = new FormAttachment( middle, -margin );
+    wlChunkSize.setLayoutData( fdlChunkSize );
+    wChunkSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wChunkSize );
+    wChunkSize.addModifyListener( lsMod );
+    FormData fdChunkSize = new FormData();
+    fdChunkSize.top = new FormAttachment( lastControl, margin );
+    fdChunkSize.left = new FormAttachment( middle, 0 );
+    fdChunkSize.right = new FormAttachment( 100, 0 );
+    wChunkSize.setLayoutData( fdChunkSize );
+    lastControl = wChunkSize;
+
+    // Number of ranges read ahead
+    //
+    Label wlReadAheadChunks = new Label( shell, SWT.RIGHT );
+    wlReadAheadChunks.setText( Messages.getString( "S3CsvInputDialog.ReadAheadChunks.Label" ) ); //$NON-NLS-1$
+    props.setLook( wlReadAheadChunks );
+    FormData fdlReadAheadChunks = new FormData();
+    fdlReadAheadChunks.top = new FormAttachment( lastControl, margin );
+    fdlReadAheadChunks.left = new FormAttachment( 0, 0 );
+    fdlReadAheadChunks.right = new FormAttachment( middle, -margin );
+    wlReadAheadChunks.setLayoutData( fdlReadAheadChunks );
+    wReadAheadChunks = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wReadAheadChunks );
+    wReadAheadChunks.addModifyListener( lsMod );
+    FormData fdReadAheadChunks = new FormData();
+    fdReadAheadChunks.top = new FormAttachment( lastControl, margin );
+    fdReadAheadChunks.left = new FormAttachment( middle, 0 );
+    fdReadAheadChunks.right = new FormAttachment( 100, 0 );
+    wReadAheadChunks.setLayoutData( fdReadAheadChunks );
+    lastControl = wReadAheadChunks;
+
+    // Local cache directory
+    //
+    Label wlCacheDirectory = new Label( shell, SWT.RIGHT );
+    wlCacheDirectory.setText( Messages.getString( "S3CsvInputDialog.CacheDirectory.Label" ) ); //$NON-NLS-1$
+    props.setLook( wlCacheDirectory );
+    FormData fdlCacheDirectory = new FormData();
+    fdlCacheDirectory.top = new FormAttachment( lastControl, margin );
+    fdlCacheDirectory.left = new FormAttachment( 0, 0 );
+    fdlCacheDirectory.right = new FormAttachment( middle, -margin );
+    wlCacheDirectory.setLayoutData( fdlCacheDirectory );
+    wCacheDirectory = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wCacheDirectory );
+    wCacheDirectory.addModifyListener( lsMod );
+    FormData fdCacheDirectory = new FormData();
+    fdCacheDirectory.top = new FormAttachment( lastControl, margin );
+    fdCacheDirectory.left = new FormAttachment( middle, 0 );
+    fdCacheDirectory.right = new FormAttachment( 100, 0 );
+    wCacheDirectory.setLayoutData( fdCacheDirectory );
+    lastControl = wCacheDirectory;
+
     // Some buttons first, so that the dialog scales nicely...
     //
     wOK = new Button( shell, SWT.PUSH );
@@ -508,6 +571,9 @@ public class S3CsvInputDialog extends BaseStepDialog implements StepDialogInterf
     wDelimiter.addSelectionListener( lsDef );
     wEnclosure.addSelectionListener( lsDef );
     wMaxLineSize.addSelectionListener( lsDef );
+    wChunkSize.addSelectionListener( lsDef );
+    wReadAheadChunks.addSelectionListener( lsDef );
+    wCacheDirectory.addSelectionListener( lsDef );
     wRowNumField.addSelectionListener( lsDef );
 
     // Allow the insertion of tabs as separator...
@@ -640,6 +706,9 @@ public class S3CsvInputDialog extends BaseStepDialog implements StepDialogInterf
     wLazyConversion.setSelection( inputMeta.isLazyConversionActive() );
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
+    wChunkSize.setText( Const.NVL( inputMeta.getChunkSize(), "" ) );
+    wReadAheadChunks.setText( Const.NVL( inputMeta.getReadAheadChunks(), "" ) );
+    wCacheDirectory.setText( Const.NVL( inputMeta.getCacheDirectory(), "" ) );
     wRowNumField.setText( Const.NVL( inputMeta.getRowNumField(), "" ) );
 
     for ( int i = 0; i < inputMeta.getInputFields().length; i++ ) {
@@ -687,6 +756,9 @@ public class S3CsvInputDialog extends BaseStepDialog implements StepDialogInterf
     inputMeta.setHeaderPresent( wHeaderPresent.getSelection() );
     inputMeta.setRowNumField( wRowNumField.getText() );
     inputMeta.setRunningInParallel( wRunningInParallel.getSelection() );
+    inputMeta.setChunkSize( wChunkSize.getText() );
+    inputMeta.setReadAheadChunks( wReadAheadChunks.getText() );
+    inputMeta.setCacheDirectory( wCacheDirectory.getText() );
 
     int nrNonEmptyFields = wFields.nrNonEmpty();
     inputMeta.allocate( nrNonEmptyFields );
@@ -77,6 +77,10 @@ import org.w3c.dom.Node;
 @InjectionSupported( localizationPrefix = "S3CsvInput.Injection.", groups = { "INPUT_FIELDS" } )
 public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, InputFileMetaInterface {
 
+  public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+  public static final int DEFAULT_READ_AHEAD_CHUNKS = 4;
+
   @Injection( name = "BUCKET" )
   private String bucket;
 
@@ -113,6 +117,15 @@ public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, I
   @Injection( name = "RUNNING_IN_PARALLEL" )
   private boolean runningInParallel;
 
+  @Injection( name = "CHUNK_SIZE" )
+  private String chunkSize;
+
+  @Injection( name = "READ_AHEAD_CHUNKS" )
+  private String readAheadChunks;
+
+  @Injection( name = "CACHE_DIRECTORY" )
+  private String cacheDirectory;
+
   @Injection( name = "AWS_ACCESS_KEY" )
   private String awsAccessKey;
 
@@ -143,6 +156,8 @@ public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, I
     headerPresent = true;
     lazyConversionActive = true;
     maxLineSize = "5000";
+    chunkSize = Integer.toString( DEFAULT_CHUNK_SIZE );
+    readAheadChunks = Integer.toString( DEFAULT_READ_AHEAD_CHUNKS );
   }
 
   private void readData( Node stepnode ) throws KettleXMLException {
@@ -160,6 +175,9 @@ public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, I
       headerPresent = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "header" ) );
       lazyConversionActive = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "lazy_conversion" ) );
       runningInParallel = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "parallel" ) );
+      chunkSize = XMLHandler.getTagValue( stepnode, "chunk_size" );
+      readAheadChunks = XMLHandler.getTagValue( stepnode, "read_ahead_chunks" );
+      cacheDirectory = XMLHandler.getTagValue( stepnode, "cache_directory" );
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrfields = XMLHandler.countNodes( fields, "field" );
 
@@ -208,6 +226,9 @@ public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, I
     retval.append( "    " ).append( XMLHandler.addTagValue( "max_line_size", maxLineSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "lazy_conversion", lazyConversionActive ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "parallel", runningInParallel ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "chunk_size", chunkSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "read_ahead_chunks", readAheadChunks ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "cache_directory", cacheDirectory ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < inputFields.length; i++ ) {
@@ -249,6 +270,9 @@ public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, I
       maxLineSize = rep.getStepAttributeString( id_step, "max_line_size" );
       lazyConversionActive = rep.getStepAttributeBoolean( id_step, "lazy_conversion" );
       runningInParallel = rep.getStepAttributeBoolean( id_step, "parallel" );
+      chunkSize = rep.getStepAttributeString( id_step, "chunk_size" );
+      readAheadChunks = rep.getStepAttributeString( id_step, "read_ahead_chunks" );
+      cacheDirectory = rep.getStepAttributeString( id_step, "cache_directory" );
       int nrfields = rep.countNrStepAttributes( id_step, "field_name" );
 
       allocate( nrfields );
@@ -291,6 +315,9 @@ public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, I
       rep.saveStepAttribute( id_transformation, id_step, "header", headerPresent );
       rep.saveStepAttribute( id_transformation, id_step, "lazy_conversion", lazyConversionActive );
       rep.saveStepAttribute( id_transformation, id_step, "parallel", runningInParallel );
+      rep.saveStepAttribute( id_transformation, id_step, "chunk_size", chunkSize );
+      rep.saveStepAttribute( id_transformation, id_step, "read_ahead_chunks", readAheadChunks );
+      rep.saveStepAttribute( id_transformation, id_step, "cache_directory", cacheDirectory );
 
       for ( int i = 0; i < inputFields.length; i++ ) {
         TextFileInputField field = inputFields[i];
@@ -672,6 +699,51 @@ public class S3CsvInputMeta extends BaseStepMeta implements StepMetaInterface, I
     this.runningInParallel = runningInParallel;
   }
 
+  /**
+   * @return the size in bytes of the ranges of an object that are read with one request
+   */
+  public String getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * @param chunkSize
+   *          the size in bytes of the ranges of an object that are read with one request
+   */
+  public void setChunkSize( String chunkSize ) {
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * @return the number of chunks that are downloaded at the same time, ahead of the rows being read
+   */
+  public String getReadAheadChunks() {
+    return readAheadChunks;
+  }
+
+  /**
+   * @param readAheadChunks
+   *          the number of chunks that are downloaded at the same time, ahead of the rows being read
+   */
+  public void setReadAheadChunks( String readAheadChunks ) {
+    this.readAheadChunks = readAheadChunks;
+  }
+
+  /**
+   * @return the local directory keeping a copy of the objects read, empty to always read from S3
+   */
+  public String getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /**
+   * @param cacheDirectory
+   *          the local directory keeping a copy of the objects read, empty to always read from S3
+   */
+  public void setCacheDirectory( String cacheDirectory ) {
+    this.cacheDirectory = cacheDirectory;
+  }
+
   /**
    * For legacy transformations containing AWS S3 access credentials, {@link Const#KETTLE_USE_AWS_DEFAULT_CREDENTIALS} can force Spoon to use
    * the Amazon Default Credentials Provider Chain instead of using the credentials embedded in the transformation metadata.
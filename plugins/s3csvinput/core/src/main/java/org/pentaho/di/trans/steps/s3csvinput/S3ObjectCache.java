@@ -0,0 +1,148 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.s3csvinput;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+
+/**
+ * A local directory with a copy of the S3 objects that were read completely before. A copy is identified by the
+ * bucket, the key, the ETag and the size of the object, so an object that changed in S3 is downloaded again. An object
+ * is written to the cache while it's being read and only becomes available when it was read up to the end.
+ */
+public class S3ObjectCache {
+
+  private final File directory;
+
+  public S3ObjectCache( File directory ) throws IOException {
+    if ( !directory.isDirectory() && !directory.mkdirs() ) {
+      throw new IOException( "Unable to create cache directory " + directory );
+    }
+    this.directory = directory;
+  }
+
+  File getFile( String bucketName, String objectKey, ObjectMetadata metadata ) {
+    String id = bucketName + "/" + objectKey + "/" + metadata.getETag() + "/" + metadata.getContentLength();
+    return new File( directory, UUID.nameUUIDFromBytes( id.getBytes( StandardCharsets.UTF_8 ) ) + ".s3" );
+  }
+
+  /**
+   * @return the copy of the object or null if it isn't in the cache
+   */
+  public File get( String bucketName, String objectKey, ObjectMetadata metadata ) {
+    File file = getFile( bucketName, objectKey, metadata );
+    return file.isFile() && file.length() == metadata.getContentLength() ? file : null;
+  }
+
+  /**
+   * Keep a copy of the data read from a stream with the complete object.
+   *
+   * @return a stream returning the data of the given stream
+   */
+  public InputStream put( String bucketName, String objectKey, ObjectMetadata metadata, InputStream in )
+    throws IOException {
+    File file = getFile( bucketName, objectKey, metadata );
+    File tempFile = File.createTempFile( file.getName(), ".tmp", directory );
+    return new CachingInputStream( in, tempFile, file );
+  }
+
+  /**
+   * Writes everything read to a temporary file that replaces the cached copy when the end of the stream was reached.
+   */
+  private static class CachingInputStream extends FilterInputStream {
+    private final File tempFile;
+    private final File file;
+    private final OutputStream out;
+    private boolean complete;
+    private boolean closed;
+
+    CachingInputStream( InputStream in, File tempFile, File file ) throws IOException {
+      super( in );
+      this.tempFile = tempFile;
+      this.file = file;
+      this.out = new FileOutputStream( tempFile );
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if ( b < 0 ) {
+        complete = true;
+      } else {
+        out.write( b );
+      }
+      return b;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException {
+      int n = super.read( b, off, len );
+      if ( n < 0 ) {
+        complete = true;
+      } else {
+        out.write( b, off, n );
+      }
+      return n;
+    }
+
+    @Override
+    public long skip( long n ) throws IOException {
+      // Skipped data has to end up in the copy as well
+      //
+      byte[] buffer = new byte[ (int) Math.min( n, 8192 ) ];
+      long skipped = 0;
+      while ( skipped < n ) {
+        int read = read( buffer, 0, (int) Math.min( buffer.length, n - skipped ) );
+        if ( read < 0 ) {
+          break;
+        }
+        skipped += read;
+      }
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if ( closed ) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        out.close();
+        if ( complete ) {
+          Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+        } else {
+          Files.deleteIfExists( tempFile.toPath() );
+        }
+      }
+    }
+  }
+}
@@ -156,7 +156,7 @@ public class S3ObjectsProvider {
    *         stream)
    * @throws SdkClientException
    */
-  private ObjectMetadata getS3ObjectDetails( Bucket bucket, String objectKey ) throws SdkClientException {
+  public ObjectMetadata getS3ObjectDetails( Bucket bucket, String objectKey ) throws SdkClientException {
     return s3Client.getObjectMetadata( bucket.getName(), objectKey );
   }
 
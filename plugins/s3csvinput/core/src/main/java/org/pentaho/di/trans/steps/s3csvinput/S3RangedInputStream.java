@@ -0,0 +1,151 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.s3csvinput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.S3Object;
+import org.apache.commons.io.IOUtils;
+import org.pentaho.di.core.util.ExecutorUtil;
+
+/**
+ * Reads a range of an S3 object with ranged GETs of a fixed size. Up to a number of chunks are downloaded at the same
+ * time, ahead of the reader, so that reading a large object isn't limited by the throughput of a single connection.
+ * The chunks are returned in order.
+ */
+public class S3RangedInputStream extends InputStream {
+
+  private final S3ObjectsProvider provider;
+  private final Bucket bucket;
+  private final String objectKey;
+  private final long end;
+  private final int chunkSize;
+  private final int readAheadChunks;
+
+  private final Deque<Future<byte[]>> chunks = new ArrayDeque<>();
+  private long nextChunkStart;
+
+  private byte[] chunk = new byte[ 0 ];
+  private int position;
+  private boolean closed;
+
+  /**
+   * @param start           the position of the first byte to read
+   * @param end             the position after the last byte to read, at most the size of the object
+   * @param chunkSize       the number of bytes read with one request
+   * @param readAheadChunks the maximum number of chunks downloaded at the same time
+   */
+  public S3RangedInputStream( S3ObjectsProvider provider, Bucket bucket, String objectKey, long start, long end,
+    int chunkSize, int readAheadChunks ) {
+    this.provider = provider;
+    this.bucket = bucket;
+    this.objectKey = objectKey;
+    this.end = end;
+    this.chunkSize = Math.max( 1, chunkSize );
+    this.readAheadChunks = Math.max( 1, readAheadChunks );
+    this.nextChunkStart = start;
+    requestChunks();
+  }
+
+  private void requestChunks() {
+    while ( chunks.size() < readAheadChunks && nextChunkStart < end ) {
+      long chunkStart = nextChunkStart;
+      long chunkEnd = Math.min( end, chunkStart + chunkSize ) - 1; // inclusive
+      chunks.add( ExecutorUtil.getExecutor().submit( () -> readChunk( chunkStart, chunkEnd ) ) );
+      nextChunkStart = chunkEnd + 1;
+    }
+  }
+
+  private byte[] readChunk( long chunkStart, long chunkEnd ) throws IOException {
+    S3Object object = provider.getS3Object( bucket, objectKey, chunkStart, chunkEnd );
+    try ( InputStream in = object.getObjectContent() ) {
+      return IOUtils.toByteArray( in );
+    }
+  }
+
+  /**
+   * @return false at the end of the range
+   */
+  private boolean nextChunk() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" );
+    }
+    while ( position >= chunk.length ) {
+      Future<byte[]> next = chunks.poll();
+      if ( next == null ) {
+        return false;
+      }
+      try {
+        chunk = next.get();
+        position = 0;
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException( "Interrupted while reading " + objectKey );
+      } catch ( ExecutionException e ) {
+        throw new IOException( "Unable to read object " + objectKey + " from bucket " + bucket.getName(),
+          e.getCause() );
+      }
+      requestChunks();
+    }
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if ( position >= chunk.length && !nextChunk() ) {
+      return -1;
+    }
+    return chunk[ position++ ] & 0xff;
+  }
+
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    if ( position >= chunk.length && !nextChunk() ) {
+      return -1;
+    }
+    int n = Math.min( len, chunk.length - position );
+    System.arraycopy( chunk, position, b, off, n );
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return chunk.length - position;
+  }
+
+  /**
+   * Cancels the chunks that are still being downloaded.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for ( Future<byte[]> next : chunks ) {
+      next.cancel( true );
+    }
+    chunks.clear();
+    chunk = new byte[ 0 ];
+    position = 0;
+  }
+}
@@ -84,6 +84,21 @@ public class S3CsvInputMetaNewInjectionTest extends BaseMetadataInjectionTest<S3
         return meta.isRunningInParallel();
       }
     } );
+    check( "CHUNK_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getChunkSize();
+      }
+    } );
+    check( "READ_AHEAD_CHUNKS", new StringGetter() {
+      public String get() {
+        return meta.getReadAheadChunks();
+      }
+    } );
+    check( "CACHE_DIRECTORY", new StringGetter() {
+      public String get() {
+        return meta.getCacheDirectory();
+      }
+    } );
     check( "ROW_NUMBER_FIELD", new StringGetter() {
       public String get() {
         return meta.getRowNumField();
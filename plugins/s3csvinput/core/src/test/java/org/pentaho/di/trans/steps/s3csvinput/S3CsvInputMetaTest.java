@@ -79,7 +79,8 @@ public class S3CsvInputMetaTest {
   public void testSerialization() throws KettleException {
     List<String> attributes = Arrays.asList( "AwsAccessKey", "AwsSecretKey", "Bucket", "Filename", "FilenameField",
       "RowNumField", "IncludingFilename", "Delimiter", "Enclosure", "HeaderPresent", "MaxLineSize",
-      "LazyConversionActive", "RunningInParallel", "InputFields" );
+      "LazyConversionActive", "RunningInParallel", "ChunkSize", "ReadAheadChunks", "CacheDirectory",
+      "InputFields" );
 
     Map<String, FieldLoadSaveValidator<?>> typeMap = new HashMap<>();
     typeMap.put( TextFileInputField[].class.getCanonicalName(),
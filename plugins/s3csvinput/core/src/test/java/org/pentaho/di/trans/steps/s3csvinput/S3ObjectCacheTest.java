@@ -0,0 +1,74 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans.steps.s3csvinput;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class S3ObjectCacheTest {
+  private static final byte[] DATA = "a;b;c\n1;2;3\n".getBytes( StandardCharsets.UTF_8 );
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static ObjectMetadata metadata( String eTag ) {
+    ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setContentLength( DATA.length );
+    metadata.setHeader( "ETag", eTag );
+    return metadata;
+  }
+
+  @Test
+  public void testObjectReadToTheEndIsCached() throws Exception {
+    S3ObjectCache cache = new S3ObjectCache( folder.getRoot() );
+    assertNull( cache.get( "bucket", "key", metadata( "v1" ) ) );
+
+    try ( InputStream in = cache.put( "bucket", "key", metadata( "v1" ), new ByteArrayInputStream( DATA ) ) ) {
+      assertArrayEquals( DATA, IOUtils.toByteArray( in ) );
+    }
+
+    File file = cache.get( "bucket", "key", metadata( "v1" ) );
+    assertNotNull( file );
+    assertArrayEquals( DATA, FileUtils.readFileToByteArray( file ) );
+
+    // A changed object isn't taken from the cache
+    //
+    assertNull( cache.get( "bucket", "key", metadata( "v2" ) ) );
+  }
+
+  @Test
+  public void testPartiallyReadObjectIsNotCached() throws Exception {
+    S3ObjectCache cache = new S3ObjectCache( folder.getRoot() );
+    try ( InputStream in = cache.put( "bucket", "key", metadata( "v1" ), new ByteArrayInputStream( DATA ) ) ) {
+      assertEquals( 'a', in.read() );
+    }
+    assertNull( cache.get( "bucket", "key", metadata( "v1" ) ) );
+    assertEquals( 0, folder.getRoot().listFiles().length );
+  }
+}
@@ -0,0 +1,100 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans.steps.s3csvinput;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class S3RangedInputStreamTest {
+  private static final Bucket BUCKET = new Bucket( "bucket" );
+  private static final String KEY = "data.csv";
+
+  private byte[] data;
+  private AmazonS3 s3Client;
+  private S3ObjectsProvider provider;
+
+  @Before
+  public void setUp() {
+    data = new byte[ 1000 ];
+    for ( int i = 0; i < data.length; i++ ) {
+      data[ i ] = (byte) i;
+    }
+    s3Client = mock( AmazonS3.class );
+    when( s3Client.getObject( any( GetObjectRequest.class ) ) ).thenAnswer( invocation -> {
+      long[] range = ( (GetObjectRequest) invocation.getArgument( 0 ) ).getRange();
+      S3Object object = new S3Object();
+      object.setObjectContent( new ByteArrayInputStream(
+        Arrays.copyOfRange( data, (int) range[ 0 ], (int) range[ 1 ] + 1 ) ) );
+      return object;
+    } );
+    provider = new S3ObjectsProvider( s3Client );
+  }
+
+  @Test
+  public void testReadsChunksInOrder() throws Exception {
+    try ( InputStream in = new S3RangedInputStream( provider, BUCKET, KEY, 0, data.length, 64, 3 ) ) {
+      assertArrayEquals( data, IOUtils.toByteArray( in ) );
+    }
+    verify( s3Client, atLeast( 16 ) ).getObject( any( GetObjectRequest.class ) );
+  }
+
+  @Test
+  public void testReadsRange() throws Exception {
+    try ( InputStream in = new S3RangedInputStream( provider, BUCKET, KEY, 100, 350, 100, 2 ) ) {
+      assertEquals( 100, in.read() );
+      byte[] rest = IOUtils.toByteArray( in );
+      assertArrayEquals( Arrays.copyOfRange( data, 101, 350 ), rest );
+      assertEquals( -1, in.read() );
+    }
+  }
+
+  @Test
+  public void testEmptyRange() throws Exception {
+    try ( InputStream in = new S3RangedInputStream( provider, BUCKET, KEY, 500, 500, 100, 2 ) ) {
+      assertEquals( -1, in.read() );
+    }
+  }
+
+  @Test
+  public void testReadAfterClose() throws Exception {
+    InputStream in = new S3RangedInputStream( provider, BUCKET, KEY, 0, data.length, 100, 2 );
+    in.close();
+    try {
+      in.read();
+      fail( "Reading a closed stream should fail" );
+    } catch ( IOException e ) {
+      // expected
+    }
+  }
+}
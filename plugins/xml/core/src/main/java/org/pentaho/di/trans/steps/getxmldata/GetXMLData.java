@@ -20,6 +20,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -593,6 +595,16 @@ public class GetXMLData extends BaseStep implements StepInterface {
           logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.OpeningFile", data.file.toString() ) );
         }
 
+        if ( data.streamingPath != null ) {
+          // Rows are read one selected element at a time in getXMLRow()
+          openStreamingReader();
+          addFileToResultFilesname( data.file );
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.FileOpened", data.file.toString() ) );
+          }
+          return true;
+        }
+
         // Open the XML document
         if ( !setDocument( null, data.file, false, false ) ) {
           if ( data.stopPruning ) {
@@ -626,6 +638,53 @@ public class GetXMLData extends BaseStep implements StepInterface {
     return true;
   }
 
+  private void openStreamingReader() throws Exception {
+    this.prevRow = buildEmptyRow(); // pre-allocate previous row
+    closeStreamingReader();
+    // get encoding. By default UTF-8, like the document that is read at once
+    String encoding = Utils.isEmpty( meta.getEncoding() ) ? "UTF-8" : meta.getEncoding();
+    data.streamingReader =
+        new GetXMLDataStreamingReader( data.streamingPath, KettleVFS.getInputStream( data.file ), encoding, meta
+            .isIgnoreComments() );
+    data.an = new ArrayList<>( 1 );
+    data.an.add( null );
+    data.nodesize = 0;
+    data.nodenr = 0;
+  }
+
+  /**
+   * Move to the next element selected by the loop XPath in the current file.
+   *
+   * @return false when the current file has no more selected elements
+   */
+  private boolean nextStreamingNode() throws KettleException {
+    Element node;
+    try {
+      node = data.streamingReader.next();
+    } catch ( XMLStreamException e ) {
+      throw new KettleException( BaseMessages.getString( PKG, "GetXMLData.Error.UnableReadFile" ), e );
+    }
+    if ( node == null ) {
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.EndOfFile", data.file.getName()
+            .getBaseName() ) );
+      }
+      closeStreamingReader();
+      return false;
+    }
+    data.an.set( 0, node );
+    data.nodesize = 1;
+    data.nodenr = 0;
+    return true;
+  }
+
+  private void closeStreamingReader() {
+    if ( data.streamingReader != null ) {
+      BaseStep.closeQuietly( data.streamingReader );
+      data.streamingReader = null;
+    }
+  }
+
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
     if ( first && !meta.isInFields() ) {
       first = false;
@@ -684,6 +743,9 @@ public class GetXMLData extends BaseStep implements StepInterface {
 
     if ( !meta.isInFields() ) {
       while ( ( data.nodenr >= data.nodesize || data.file == null ) ) {
+        if ( data.streamingReader != null && nextStreamingNode() ) {
+          break;
+        }
         if ( !openNextFile() ) {
           data.errorInRowButContinue = false; // stop in all cases
           return null;
@@ -985,14 +1047,58 @@ public class GetXMLData extends BaseStep implements StepInterface {
         }
       }
 
+      data.streamingPath = null;
+      String domReason = getDomEvaluationReason();
+      if ( domReason == null ) {
+        data.streamingPath = GetXMLDataStreamingPath.compile( data.PathValue );
+        if ( data.streamingPath == null ) {
+          domReason = BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.UnsupportedLoopXPath" );
+        }
+      }
+      if ( data.streamingPath != null ) {
+        logBasic( BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.Activated", data.PathValue ) );
+      } else {
+        logBasic( BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.Deactivated", data.PathValue,
+            domReason ) );
+      }
+
       return true;
     }
     return false;
   }
 
+  /**
+   * Check if the loop XPath can be evaluated while streaming the files.
+   *
+   * @return null when streaming is possible, otherwise why the documents need to be parsed
+   */
+  private String getDomEvaluationReason() {
+    if ( !convertStringToBoolean( Const.NVL( getVariable( Const.KETTLE_XML_STREAMING_XPATH, "Y" ), "Y" ) ) ) {
+      return BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.Disabled", Const.KETTLE_XML_STREAMING_XPATH );
+    }
+    if ( meta.isInFields() ) {
+      return BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.InFields" );
+    }
+    if ( meta.isNamespaceAware() ) {
+      return BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.NamespaceAware" );
+    }
+    if ( meta.isValidating() ) {
+      return BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.Validating" );
+    }
+    for ( int i = 0; i < data.nrInputFields; i++ ) {
+      GetXMLDataField xmlDataField = meta.getInputFields()[i];
+      if ( !GetXMLDataStreamingPath.isEvaluableOnLoopNode( xmlDataField.getResolvedXPath() ) ) {
+        return BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.FieldOutsideLoopNode", xmlDataField
+            .getName(), xmlDataField.getResolvedXPath() );
+      }
+    }
+    return null;
+  }
+
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (GetXMLDataMeta) smi;
     data = (GetXMLDataData) sdi;
+    closeStreamingReader();
     if ( data.file != null ) {
       try {
         data.file.close();
@@ -56,6 +56,8 @@ public class GetXMLDataData extends BaseStepData implements StepDataInterface {
   public String PathValue;
   public String prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+  public GetXMLDataStreamingPath streamingPath; // compiled loop XPath, null when evaluated on a parsed document
+  public GetXMLDataStreamingReader streamingReader; // reader of the current file in streaming XPath mode
   public boolean errorInRowButContinue; // true when actual row has an error and error handling is active: means
                                         // continue (error handling in this step should be redesigned)
   public String tokenStart;
@@ -0,0 +1,209 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.getxmldata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A loop XPath compiled into a state machine that can be evaluated while the document is being read with StAX. Only a
+ * subset of XPath is supported: absolute location paths built from child (/) and descendant (//) steps, element name
+ * tests or *, attribute predicates ([@a], [@a='v']) and a trailing positional predicate ([n]). Anything else is
+ * rejected by {@link #compile(String)} so the caller can fall back to evaluating the expression on a parsed document.
+ * <p>
+ * Like the non namespace aware DOM evaluation, name tests (but not *) only match elements and attributes without a
+ * namespace.
+ */
+public class GetXMLDataStreamingPath {
+
+  private static final Pattern NAME = Pattern.compile( "\\*|[A-Za-z_][\\w.\\-]*" );
+  private static final Pattern POSITION_PREDICATE = Pattern.compile( "\\s*([1-9]\\d*)\\s*" );
+  private static final Pattern ATTRIBUTE_PREDICATE = Pattern.compile(
+    "\\s*@([A-Za-z_][\\w.\\-]*)\\s*(?:=\\s*(?:'([^']*)'|\"([^\"]*)\")\\s*)?" );
+
+  /**
+   * Field XPaths that leave the loop node (parent or ancestor navigation, absolute paths) need the whole document.
+   */
+  private static final Pattern OUTSIDE_LOOP_NODE = Pattern.compile(
+    "\\.\\.|(^|[\\[(|,=<>!\\s])/|\\b(ancestor|ancestor-or-self|parent|preceding|preceding-sibling|following"
+      + "|following-sibling)\\s*::|\\b(id|root)\\s*\\(" );
+
+  static class Step {
+    boolean descendant;
+    String name; // null matches any element
+    List<String> attributeNames = new ArrayList<>();
+    List<String> attributeValues = new ArrayList<>(); // null only tests for the presence of the attribute
+    int position; // 0 when there is no positional predicate
+
+    boolean matches( XMLStreamReader reader ) {
+      if ( name != null && ( !isEmpty( reader.getNamespaceURI() ) || !name.equals( reader.getLocalName() ) ) ) {
+        return false;
+      }
+      for ( int i = 0; i < attributeNames.size(); i++ ) {
+        String value = reader.getAttributeValue( "", attributeNames.get( i ) );
+        if ( value == null || ( attributeValues.get( i ) != null && !attributeValues.get( i ).equals( value ) ) ) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private final Step[] steps;
+
+  private GetXMLDataStreamingPath( List<Step> steps ) {
+    this.steps = steps.toArray( new Step[steps.size()] );
+  }
+
+  /**
+   * Compile a loop XPath.
+   *
+   * @param xpath
+   *          the absolute loop XPath
+   * @return the compiled path or null when the expression is outside of the supported subset
+   */
+  public static GetXMLDataStreamingPath compile( String xpath ) {
+    if ( xpath == null ) {
+      return null;
+    }
+    String path = xpath.trim();
+    List<Step> steps = new ArrayList<>();
+    int pos = 0;
+    while ( pos < path.length() ) {
+      Step step = new Step();
+      if ( path.startsWith( "//", pos ) ) {
+        step.descendant = true;
+        pos += 2;
+      } else if ( path.charAt( pos ) == '/' ) {
+        pos++;
+      } else {
+        return null;
+      }
+
+      Matcher name = NAME.matcher( path ).region( pos, path.length() );
+      if ( !name.lookingAt() ) {
+        return null;
+      }
+      step.name = "*".equals( name.group() ) ? null : name.group();
+      pos = name.end();
+
+      while ( pos < path.length() && path.charAt( pos ) == '[' ) {
+        int end = path.indexOf( ']', pos );
+        if ( end < 0 || step.position > 0 ) {
+          // unbalanced, or a predicate following a positional one which would need a different context
+          return null;
+        }
+        String predicate = path.substring( pos + 1, end );
+        Matcher position = POSITION_PREDICATE.matcher( predicate );
+        Matcher attribute = ATTRIBUTE_PREDICATE.matcher( predicate );
+        if ( position.matches() ) {
+          step.position = Integer.parseInt( position.group( 1 ) );
+        } else if ( attribute.matches() ) {
+          step.attributeNames.add( attribute.group( 1 ) );
+          step.attributeValues.add( attribute.group( 2 ) != null ? attribute.group( 2 ) : attribute.group( 3 ) );
+        } else {
+          return null;
+        }
+        pos = end + 1;
+      }
+      steps.add( step );
+    }
+    return steps.isEmpty() ? null : new GetXMLDataStreamingPath( steps );
+  }
+
+  /**
+   * @param fieldXPath
+   *          a resolved field XPath
+   * @return true when the field can be evaluated on the loop node alone, without the rest of the document
+   */
+  public static boolean isEvaluableOnLoopNode( String fieldXPath ) {
+    return fieldXPath != null && !OUTSIDE_LOOP_NODE.matcher( fieldXPath ).find();
+  }
+
+  /**
+   * @return a new matcher holding the evaluation state for one document
+   */
+  public StateMachine newStateMachine() {
+    return new StateMachine();
+  }
+
+  /**
+   * Tracks, for every open element, which steps of the path have been matched so far. Element i of a state set is
+   * true when the first i steps match the path from the document root down to the current element.
+   */
+  public class StateMachine {
+    private final List<boolean[]> states = new ArrayList<>();
+    private final List<int[]> positions = new ArrayList<>();
+    private final boolean[] noStates = new boolean[steps.length + 1];
+
+    StateMachine() {
+      boolean[] root = new boolean[steps.length + 1];
+      root[0] = true;
+      states.add( root );
+      positions.add( new int[steps.length] );
+    }
+
+    /**
+     * Move into the element the reader is positioned on.
+     *
+     * @return true when the element is selected by the loop XPath
+     */
+    public boolean startElement( XMLStreamReader reader ) {
+      int depth = states.size() - 1;
+      boolean[] parent = states.get( depth );
+      if ( parent == noStates ) {
+        // nothing can match below this element any more
+        states.add( noStates );
+        positions.add( null );
+        return false;
+      }
+
+      boolean[] current = new boolean[steps.length + 1];
+      boolean active = false;
+      for ( int i = 0; i < steps.length; i++ ) {
+        if ( !parent[i] ) {
+          continue;
+        }
+        Step step = steps[i];
+        if ( step.descendant ) {
+          current[i] = true;
+          active = true;
+        }
+        if ( step.matches( reader ) && ( step.position == 0 || ++positions.get( depth )[i] == step.position ) ) {
+          current[i + 1] = true;
+          active = true;
+        }
+      }
+      states.add( active ? current : noStates );
+      positions.add( active ? new int[steps.length] : null );
+      return current[steps.length];
+    }
+
+    /**
+     * Move back to the parent of the element that is being closed.
+     */
+    public void endElement() {
+      states.remove( states.size() - 1 );
+      positions.remove( positions.size() - 1 );
+    }
+  }
+
+  private static boolean isEmpty( String value ) {
+    return value == null || value.isEmpty();
+  }
+}
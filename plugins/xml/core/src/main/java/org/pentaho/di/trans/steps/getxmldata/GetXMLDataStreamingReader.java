@@ -0,0 +1,179 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.getxmldata;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+import org.pentaho.di.core.xml.XMLParserFactoryProducer;
+
+/**
+ * Reads an XML stream with StAX and returns the elements selected by a {@link GetXMLDataStreamingPath} one at a time.
+ * Only the selected elements and their content are turned into dom4j nodes, each one in a document of its own, so the
+ * field XPaths can be evaluated on them the same way as on a fully parsed document. Everything else in the stream is
+ * skipped without being kept in memory.
+ */
+public class GetXMLDataStreamingReader implements Closeable {
+
+  private final GetXMLDataStreamingPath.StateMachine stateMachine;
+  private final XMLStreamReader reader;
+  private final InputStream inputStream;
+  private final boolean ignoreComments;
+
+  private Element root; // outermost selected element being built, null when outside of a selection
+  private Element current;
+  private final List<Element> selected = new ArrayList<>();
+  private final Deque<Element> ready = new ArrayDeque<>();
+
+  /**
+   * @param path           the compiled loop XPath
+   * @param inputStream    the XML, closed with the reader
+   * @param encoding       the encoding of the XML
+   * @param ignoreComments true to leave the comments out of the selected elements
+   */
+  public GetXMLDataStreamingReader( GetXMLDataStreamingPath path, InputStream inputStream, String encoding,
+    boolean ignoreComments ) throws XMLStreamException {
+    XMLInputFactory factory = XMLParserFactoryProducer.createSecureXMLInputFactory();
+    // Ignore external DTDs, like the IgnoreDTDEntityResolver does for the DOM reader
+    factory.setXMLResolver( ( publicID, systemID, baseURI, namespace ) -> new ByteArrayInputStream( new byte[0] ) );
+    this.stateMachine = path.newStateMachine();
+    this.inputStream = inputStream;
+    this.reader = factory.createXMLStreamReader( inputStream, encoding );
+    this.ignoreComments = ignoreComments;
+  }
+
+  /**
+   * Read up to the next selected element. When selected elements are nested, the inner ones are part of the outer
+   * one's tree and are returned right after it, in document order.
+   *
+   * @return the next selected element or null at the end of the stream
+   */
+  public Element next() throws XMLStreamException {
+    while ( ready.isEmpty() ) {
+      if ( !reader.hasNext() ) {
+        return null;
+      }
+      switch ( reader.next() ) {
+        case XMLStreamConstants.START_ELEMENT:
+          startElement();
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          endElement();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+        case XMLStreamConstants.ENTITY_REFERENCE:
+          if ( current != null ) {
+            current.addText( reader.getText() );
+          }
+          break;
+        case XMLStreamConstants.CDATA:
+          if ( current != null ) {
+            current.addCDATA( reader.getText() );
+          }
+          break;
+        case XMLStreamConstants.COMMENT:
+          if ( current != null && !ignoreComments ) {
+            current.addComment( reader.getText() );
+          }
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          if ( current != null ) {
+            current.addProcessingInstruction( reader.getPITarget(), reader.getPIData() );
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return ready.poll();
+  }
+
+  private void startElement() {
+    boolean match = stateMachine.startElement( reader );
+    if ( current == null && !match ) {
+      return;
+    }
+
+    Element element = DocumentHelper.createElement( createQName( reader.getLocalName(), reader.getPrefix(),
+      reader.getNamespaceURI() ) );
+    for ( int i = 0; i < reader.getNamespaceCount(); i++ ) {
+      String prefix = reader.getNamespacePrefix( i );
+      element.addNamespace( prefix == null ? "" : prefix, reader.getNamespaceURI( i ) );
+    }
+    for ( int i = 0; i < reader.getAttributeCount(); i++ ) {
+      element.addAttribute( createQName( reader.getAttributeLocalName( i ), reader.getAttributePrefix( i ), reader
+        .getAttributeNamespace( i ) ), reader.getAttributeValue( i ) );
+    }
+
+    if ( current == null ) {
+      DocumentHelper.createDocument( element );
+      root = element;
+    } else {
+      current.add( element );
+    }
+    current = element;
+    if ( match ) {
+      selected.add( element );
+    }
+  }
+
+  private void endElement() {
+    stateMachine.endElement();
+    if ( current == null ) {
+      return;
+    }
+    if ( current == root ) {
+      ready.addAll( selected );
+      selected.clear();
+      root = null;
+      current = null;
+    } else {
+      current = current.getParent();
+    }
+  }
+
+  private static QName createQName( String localName, String prefix, String uri ) {
+    if ( uri == null || uri.isEmpty() ) {
+      return DocumentHelper.createQName( localName );
+    }
+    return DocumentHelper.createQName( localName, Namespace.get( prefix == null ? "" : prefix, uri ) );
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      reader.close();
+    } catch ( XMLStreamException e ) {
+      throw new IOException( e );
+    } finally {
+      inputStream.close();
+    }
+  }
+}
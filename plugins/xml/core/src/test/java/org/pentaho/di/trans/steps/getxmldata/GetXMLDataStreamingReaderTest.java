@@ -0,0 +1,114 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.getxmldata;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.dom4j.Element;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GetXMLDataStreamingReaderTest {
+
+  private static final String XML = "<r>"
+    + "<a id='1' t='x'><b id='2'>two</b><a id='3'/></a>"
+    + "<a id='4' t='y'><c><b id='5'/></c><b id='6'/><b id='7'><!--note--><![CDATA[<seven>]]></b></a>"
+    + "<n:a xmlns:n='urn:n' id='8'/>"
+    + "</r>";
+
+  private static List<String> select( String loopXPath, String xml, boolean ignoreComments ) throws Exception {
+    GetXMLDataStreamingPath path = GetXMLDataStreamingPath.compile( loopXPath );
+    assertNotNull( loopXPath, path );
+    List<String> ids = new ArrayList<>();
+    try ( GetXMLDataStreamingReader reader = new GetXMLDataStreamingReader( path, new ByteArrayInputStream( xml
+      .getBytes( StandardCharsets.UTF_8 ) ), "UTF-8", ignoreComments ) ) {
+      for ( Element element = reader.next(); element != null; element = reader.next() ) {
+        ids.add( element.attributeValue( "id" ) );
+      }
+    }
+    return ids;
+  }
+
+  @Test
+  public void testSelectsLikeXPath() throws Exception {
+    assertEquals( Arrays.asList( "1", "4" ), select( "/r/a", XML, false ) );
+    assertEquals( Arrays.asList( "1", "3", "4" ), select( "//a", XML, false ) );
+    assertEquals( Arrays.asList( "6", "7" ), select( "/r/a[@t='y']/b", XML, false ) );
+    assertEquals( Arrays.asList( "1", "4" ), select( "//a[@t]", XML, false ) );
+    assertEquals( Arrays.asList( "7" ), select( "//b[2]", XML, false ) );
+    assertEquals( Arrays.asList( "2", "6" ), select( "/r/a/b[1]", XML, false ) );
+    assertEquals( Arrays.asList( "8" ), select( "/r/*[3]", XML, false ) );
+    assertEquals( Arrays.asList( "5" ), select( "//c//b", XML, false ) );
+    assertEquals( Arrays.asList( "3" ), select( "/r//a[@t=\"x\"]//a", XML, false ) );
+    assertTrue( select( "/x/a", XML, false ).isEmpty() );
+  }
+
+  @Test
+  public void testSelectedElementKeepsContent() throws Exception {
+    GetXMLDataStreamingPath path = GetXMLDataStreamingPath.compile( "/r/a" );
+    try ( GetXMLDataStreamingReader reader = new GetXMLDataStreamingReader( path, new ByteArrayInputStream( XML
+      .getBytes( StandardCharsets.UTF_8 ) ), "UTF-8", true ) ) {
+      Element first = reader.next();
+      assertEquals( "two", first.valueOf( "b" ) );
+      assertEquals( "x", first.valueOf( "@t" ) );
+      assertNotNull( first.getDocument() );
+
+      Element second = reader.next();
+      assertEquals( "<seven>", second.valueOf( "b[@id='7']" ) );
+      assertNull( second.selectSingleNode( "b[@id='7']/comment()" ) );
+      assertNull( reader.next() );
+    }
+  }
+
+  @Test
+  public void testConfiguredEncoding() throws Exception {
+    GetXMLDataStreamingPath path = GetXMLDataStreamingPath.compile( "/r/a" );
+    byte[] xml = "<r><a>caf\u00e9</a></r>".getBytes( StandardCharsets.ISO_8859_1 );
+    try ( GetXMLDataStreamingReader reader = new GetXMLDataStreamingReader( path, new ByteArrayInputStream( xml ),
+      "ISO-8859-1", false ) ) {
+      assertEquals( "caf\u00e9", reader.next().getText() );
+    }
+  }
+
+  @Test
+  public void testUnsupportedLoopXPath() {
+    assertNull( GetXMLDataStreamingPath.compile( "r/a" ) );
+    assertNull( GetXMLDataStreamingPath.compile( "/r/a/text()" ) );
+    assertNull( GetXMLDataStreamingPath.compile( "/r/a/@id" ) );
+    assertNull( GetXMLDataStreamingPath.compile( "/r/a[b='1']" ) );
+    assertNull( GetXMLDataStreamingPath.compile( "/r/a[1][@t]" ) );
+    assertNull( GetXMLDataStreamingPath.compile( "/r/n:a" ) );
+    assertNull( GetXMLDataStreamingPath.compile( "/r/a/" ) );
+  }
+
+  @Test
+  public void testFieldsEvaluableOnLoopNode() {
+    assertTrue( GetXMLDataStreamingPath.isEvaluableOnLoopNode( "b" ) );
+    assertTrue( GetXMLDataStreamingPath.isEvaluableOnLoopNode( "@id" ) );
+    assertTrue( GetXMLDataStreamingPath.isEvaluableOnLoopNode( "c/b[@id='5']" ) );
+    assertFalse( GetXMLDataStreamingPath.isEvaluableOnLoopNode( "../b" ) );
+    assertFalse( GetXMLDataStreamingPath.isEvaluableOnLoopNode( "/r/a" ) );
+    assertFalse( GetXMLDataStreamingPath.isEvaluableOnLoopNode( "b[@id=/r/@id]" ) );
+    assertFalse( GetXMLDataStreamingPath.isEvaluableOnLoopNode( "ancestor::r/@id" ) );
+  }
+}
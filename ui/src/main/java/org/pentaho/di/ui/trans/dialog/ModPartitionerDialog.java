@@ -13,7 +13,9 @@
 
 package org.pentaho.di.ui.trans.dialog;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CCombo;
@@ -32,6 +34,7 @@ import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.plugins.PartitionerPluginType;
@@ -40,7 +43,10 @@ import org.pentaho.di.core.plugins.PluginRegistry;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.util.StringUtil;
 import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.ConsistentHashPartitioner;
+import org.pentaho.di.trans.HotKeyPartitioner;
 import org.pentaho.di.trans.ModPartitioner;
+import org.pentaho.di.trans.RangePartitioner;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStepMeta;
 import org.pentaho.di.trans.step.StepDialogInterface;
@@ -61,6 +67,10 @@ public class ModPartitionerDialog extends BaseStepDialog implements StepDialogIn
   private CCombo wFieldname;
   private FormData fdlFieldname, fdFieldname;
 
+  private Label wlOption;
+  private Text wOption;
+  private FormData fdlOption, fdOption;
+
   public ModPartitionerDialog( Shell parent, StepMeta stepMeta, StepPartitioningMeta partitioningMeta,
                                TransMeta transMeta ) {
     super( parent, (BaseStepMeta) stepMeta.getStepMetaInterface(), transMeta, partitioningMeta
@@ -126,6 +136,34 @@ public class ModPartitionerDialog extends BaseStepDialog implements StepDialogIn
       new ErrorDialog( shell, "Error", "Error obtaining list of input fields:", e );
     }
 
+    // The extra setting of the partitioners that build on the mod partitioner
+    //
+    String optionLabel = getOptionLabel();
+    if ( optionLabel != null ) {
+      boolean multiLine = partitioner instanceof RangePartitioner;
+      wlOption = new Label( shell, SWT.RIGHT );
+      wlOption.setText( optionLabel );
+      props.setLook( wlOption );
+      fdlOption = new FormData();
+      fdlOption.left = new FormAttachment( 0, 0 );
+      fdlOption.right = new FormAttachment( middle, -margin );
+      fdlOption.top = new FormAttachment( wFieldname, margin );
+      wlOption.setLayoutData( fdlOption );
+      wOption =
+        new Text( shell, multiLine ? SWT.MULTI | SWT.LEFT | SWT.BORDER | SWT.V_SCROLL : SWT.SINGLE | SWT.LEFT
+          | SWT.BORDER );
+      props.setLook( wOption );
+      wOption.addModifyListener( lsMod );
+      fdOption = new FormData();
+      fdOption.left = new FormAttachment( middle, 0 );
+      fdOption.top = new FormAttachment( wFieldname, margin );
+      fdOption.right = new FormAttachment( 100, 0 );
+      if ( multiLine ) {
+        fdOption.height = 100;
+      }
+      wOption.setLayoutData( fdOption );
+    }
+
     // Some buttons
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -191,6 +229,53 @@ public class ModPartitionerDialog extends BaseStepDialog implements StepDialogIn
    */
   public void getData() {
     wFieldname.setText( fieldName == null ? "" : fieldName );
+    if ( wOption != null ) {
+      wOption.setText( getOptionValue() );
+    }
+  }
+
+  private String getOptionLabel() {
+    if ( partitioner instanceof ConsistentHashPartitioner ) {
+      return "Virtual nodes per partition";
+    }
+    if ( partitioner instanceof RangePartitioner ) {
+      return "Boundaries (one per line)";
+    }
+    if ( partitioner instanceof HotKeyPartitioner ) {
+      return "Rows before a key is hot";
+    }
+    return null;
+  }
+
+  private String getOptionValue() {
+    if ( partitioner instanceof ConsistentHashPartitioner ) {
+      return Integer.toString( ( (ConsistentHashPartitioner) partitioner ).getVirtualNodes() );
+    }
+    if ( partitioner instanceof RangePartitioner ) {
+      return String.join( Const.CR, ( (RangePartitioner) partitioner ).getBoundaries() );
+    }
+    if ( partitioner instanceof HotKeyPartitioner ) {
+      return Long.toString( ( (HotKeyPartitioner) partitioner ).getHotKeyRows() );
+    }
+    return "";
+  }
+
+  private void setOptionValue( String value ) {
+    if ( partitioner instanceof ConsistentHashPartitioner ) {
+      ( (ConsistentHashPartitioner) partitioner ).setVirtualNodes(
+        Const.toInt( value, ConsistentHashPartitioner.DEFAULT_VIRTUAL_NODES ) );
+    } else if ( partitioner instanceof RangePartitioner ) {
+      List<String> boundaries = new ArrayList<>();
+      for ( String boundary : value.split( "\\r?\\n" ) ) {
+        if ( !Utils.isEmpty( boundary.trim() ) ) {
+          boundaries.add( boundary.trim() );
+        }
+      }
+      ( (RangePartitioner) partitioner ).setBoundaries( boundaries );
+    } else if ( partitioner instanceof HotKeyPartitioner ) {
+      ( (HotKeyPartitioner) partitioner ).setHotKeyRows(
+        Const.toLong( value, HotKeyPartitioner.DEFAULT_HOT_KEY_ROWS ) );
+    }
   }
 
   private void cancel() {
@@ -202,6 +287,9 @@ public class ModPartitionerDialog extends BaseStepDialog implements StepDialogIn
   private void ok() {
     fieldName = wFieldname.getText();
     partitioner.setFieldName( fieldName );
+    if ( wOption != null ) {
+      setOptionValue( wOption.getText() );
+    }
     dispose();
   }
 
@@ -118,6 +118,9 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
   private Label wlPreloadCache;
   private Button wPreloadCache;
 
+  private Label wlPreloadCacheUpdate;
+  private Button wPreloadCacheUpdate;
+
   private Label wlCacheSize;
   private Text wCacheSize;
 
@@ -455,6 +458,28 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     fdPreloadCache.right = new FormAttachment( 100, 0 );
     wPreloadCache.setLayoutData( fdPreloadCache );
 
+    // Also preload the cache when updating?
+    wlPreloadCacheUpdate = new Label( comp, SWT.RIGHT );
+    wlPreloadCacheUpdate.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadCacheUpdate.Label" ) );
+    props.setLook( wlPreloadCacheUpdate );
+    FormData fdlPreloadCacheUpdate = new FormData();
+    fdlPreloadCacheUpdate.left = new FormAttachment( 0, 0 );
+    fdlPreloadCacheUpdate.right = new FormAttachment( middle, -margin );
+    fdlPreloadCacheUpdate.top = new FormAttachment( wPreloadCache, margin );
+    wlPreloadCacheUpdate.setLayoutData( fdlPreloadCacheUpdate );
+    wPreloadCacheUpdate = new Button( comp, SWT.CHECK );
+    props.setLook( wPreloadCacheUpdate );
+    wPreloadCacheUpdate.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        input.setChanged();
+      }
+    } );
+    FormData fdPreloadCacheUpdate = new FormData();
+    fdPreloadCacheUpdate.left = new FormAttachment( middle, 0 );
+    fdPreloadCacheUpdate.top = new FormAttachment( wPreloadCache, margin );
+    fdPreloadCacheUpdate.right = new FormAttachment( 100, 0 );
+    wPreloadCacheUpdate.setLayoutData( fdPreloadCacheUpdate );
+
     // Cache size ...
     wlCacheSize = new Label( comp, SWT.RIGHT );
     wlCacheSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.CacheSize.Label" ) );
@@ -462,14 +487,14 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     FormData fdlCacheSize = new FormData();
     fdlCacheSize.left = new FormAttachment( 0, 0 );
     fdlCacheSize.right = new FormAttachment( middle, -margin );
-    fdlCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdlCacheSize.top = new FormAttachment( wPreloadCacheUpdate, margin );
     wlCacheSize.setLayoutData( fdlCacheSize );
     wCacheSize = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wCacheSize );
     wCacheSize.addModifyListener( lsMod );
     FormData fdCacheSize = new FormData();
     fdCacheSize.left = new FormAttachment( middle, 0 );
-    fdCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdCacheSize.top = new FormAttachment( wPreloadCacheUpdate, margin );
     fdCacheSize.right = new FormAttachment( 100, 0 );
     wCacheSize.setLayoutData( fdCacheSize );
 
@@ -1189,8 +1214,11 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
 
     // Caching...
     //
-    wlPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
-    wPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
+    wlPreloadCache.setEnabled( wUseCache.getSelection() );
+    wPreloadCache.setEnabled( wUseCache.getSelection() );
+    boolean preloadUpdate = wUseCache.getSelection() && wPreloadCache.getSelection() && wUpdate.getSelection();
+    wlPreloadCacheUpdate.setEnabled( preloadUpdate );
+    wPreloadCacheUpdate.setEnabled( preloadUpdate );
 
     wlCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
     wCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
@@ -1362,6 +1390,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
 
     wUseCache.setSelection( input.getCacheSize() >= 0 );
     wPreloadCache.setSelection( input.isPreloadingCache() );
+    wPreloadCacheUpdate.setSelection( input.isPreloadingCacheWhenUpdating() );
     if ( input.getCacheSize() >= 0 ) {
       wCacheSize.setText( "" + input.getCacheSize() );
     }
@@ -1486,6 +1515,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
       in.setCacheSize( -1 );
     }
     in.setPreloadingCache( wPreloadCache.getSelection() );
+    in.setPreloadingCacheWhenUpdating( wPreloadCacheUpdate.getSelection() );
     if ( wPreloadCache.getSelection() ) {
       in.setCacheSize( 0 );
     }
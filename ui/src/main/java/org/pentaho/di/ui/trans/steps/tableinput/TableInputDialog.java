@@ -85,6 +85,12 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
   private TextVar wLimit;
   private FormData fdlLimit, fdLimit;
 
+  private TextVar wPartitionColumn;
+  private TextVar wPartitionCount;
+  private TextVar wPartitionMin;
+  private TextVar wPartitionMax;
+  private Button wPartitionOrdered;
+
   private Label wlEachRow;
   private Button wEachRow;
   private FormData fdlEachRow, fdEachRow;
@@ -197,6 +203,98 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     fdLimit.bottom = new FormAttachment( wOK, -2 * margin );
     wLimit.setLayoutData( fdLimit );
 
+    // Split the query in ranges, read at the same time?
+    //
+    Label wlPartitionOrdered = new Label( shell, SWT.RIGHT );
+    wlPartitionOrdered.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionOrdered" ) );
+    props.setLook( wlPartitionOrdered );
+    FormData fdlPartitionOrdered = new FormData();
+    fdlPartitionOrdered.left = new FormAttachment( 0, 0 );
+    fdlPartitionOrdered.right = new FormAttachment( middle, -margin );
+    fdlPartitionOrdered.bottom = new FormAttachment( wLimit, -margin );
+    wlPartitionOrdered.setLayoutData( fdlPartitionOrdered );
+    wPartitionOrdered = new Button( shell, SWT.CHECK );
+    props.setLook( wPartitionOrdered );
+    FormData fdPartitionOrdered = new FormData();
+    fdPartitionOrdered.left = new FormAttachment( middle, 0 );
+    fdPartitionOrdered.right = new FormAttachment( 100, 0 );
+    fdPartitionOrdered.bottom = new FormAttachment( wLimit, -margin );
+    wPartitionOrdered.setLayoutData( fdPartitionOrdered );
+    wPartitionOrdered.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        input.setChanged();
+      }
+    } );
+
+    Label wlPartitionMax = new Label( shell, SWT.RIGHT );
+    wlPartitionMax.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionMax" ) );
+    props.setLook( wlPartitionMax );
+    FormData fdlPartitionMax = new FormData();
+    fdlPartitionMax.left = new FormAttachment( 0, 0 );
+    fdlPartitionMax.right = new FormAttachment( middle, -margin );
+    fdlPartitionMax.bottom = new FormAttachment( wPartitionOrdered, -margin );
+    wlPartitionMax.setLayoutData( fdlPartitionMax );
+    wPartitionMax = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPartitionMax );
+    wPartitionMax.addModifyListener( lsMod );
+    FormData fdPartitionMax = new FormData();
+    fdPartitionMax.left = new FormAttachment( middle, 0 );
+    fdPartitionMax.right = new FormAttachment( 100, 0 );
+    fdPartitionMax.bottom = new FormAttachment( wPartitionOrdered, -margin );
+    wPartitionMax.setLayoutData( fdPartitionMax );
+
+    Label wlPartitionMin = new Label( shell, SWT.RIGHT );
+    wlPartitionMin.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionMin" ) );
+    props.setLook( wlPartitionMin );
+    FormData fdlPartitionMin = new FormData();
+    fdlPartitionMin.left = new FormAttachment( 0, 0 );
+    fdlPartitionMin.right = new FormAttachment( middle, -margin );
+    fdlPartitionMin.bottom = new FormAttachment( wPartitionMax, -margin );
+    wlPartitionMin.setLayoutData( fdlPartitionMin );
+    wPartitionMin = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPartitionMin );
+    wPartitionMin.addModifyListener( lsMod );
+    FormData fdPartitionMin = new FormData();
+    fdPartitionMin.left = new FormAttachment( middle, 0 );
+    fdPartitionMin.right = new FormAttachment( 100, 0 );
+    fdPartitionMin.bottom = new FormAttachment( wPartitionMax, -margin );
+    wPartitionMin.setLayoutData( fdPartitionMin );
+
+    Label wlPartitionCount = new Label( shell, SWT.RIGHT );
+    wlPartitionCount.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionCount" ) );
+    props.setLook( wlPartitionCount );
+    FormData fdlPartitionCount = new FormData();
+    fdlPartitionCount.left = new FormAttachment( 0, 0 );
+    fdlPartitionCount.right = new FormAttachment( middle, -margin );
+    fdlPartitionCount.bottom = new FormAttachment( wPartitionMin, -margin );
+    wlPartitionCount.setLayoutData( fdlPartitionCount );
+    wPartitionCount = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPartitionCount );
+    wPartitionCount.addModifyListener( lsMod );
+    FormData fdPartitionCount = new FormData();
+    fdPartitionCount.left = new FormAttachment( middle, 0 );
+    fdPartitionCount.right = new FormAttachment( 100, 0 );
+    fdPartitionCount.bottom = new FormAttachment( wPartitionMin, -margin );
+    wPartitionCount.setLayoutData( fdPartitionCount );
+
+    Label wlPartitionColumn = new Label( shell, SWT.RIGHT );
+    wlPartitionColumn.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionColumn" ) );
+    props.setLook( wlPartitionColumn );
+    FormData fdlPartitionColumn = new FormData();
+    fdlPartitionColumn.left = new FormAttachment( 0, 0 );
+    fdlPartitionColumn.right = new FormAttachment( middle, -margin );
+    fdlPartitionColumn.bottom = new FormAttachment( wPartitionCount, -margin );
+    wlPartitionColumn.setLayoutData( fdlPartitionColumn );
+    wPartitionColumn = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wPartitionColumn.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.PartitionColumn.Tooltip" ) );
+    props.setLook( wPartitionColumn );
+    wPartitionColumn.addModifyListener( lsMod );
+    FormData fdPartitionColumn = new FormData();
+    fdPartitionColumn.left = new FormAttachment( middle, 0 );
+    fdPartitionColumn.right = new FormAttachment( 100, 0 );
+    fdPartitionColumn.bottom = new FormAttachment( wPartitionCount, -margin );
+    wPartitionColumn.setLayoutData( fdPartitionColumn );
+
     // Execute for each row?
     wlEachRow = new Label( shell, SWT.RIGHT );
     wlEachRow.setText( BaseMessages.getString( PKG, "TableInputDialog.ExecuteForEachRow" ) );
@@ -204,14 +302,14 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     fdlEachRow = new FormData();
     fdlEachRow.left = new FormAttachment( 0, 0 );
     fdlEachRow.right = new FormAttachment( middle, -margin );
-    fdlEachRow.bottom = new FormAttachment( wLimit, -margin );
+    fdlEachRow.bottom = new FormAttachment( wPartitionColumn, -margin );
     wlEachRow.setLayoutData( fdlEachRow );
     wEachRow = new Button( shell, SWT.CHECK );
     props.setLook( wEachRow );
     fdEachRow = new FormData();
     fdEachRow.left = new FormAttachment( middle, 0 );
     fdEachRow.right = new FormAttachment( 100, 0 );
-    fdEachRow.bottom = new FormAttachment( wLimit, -margin );
+    fdEachRow.bottom = new FormAttachment( wPartitionColumn, -margin );
     wEachRow.setLayoutData( fdEachRow );
     SelectionAdapter lsSelMod = new SelectionAdapter() {
       public void widgetSelected( SelectionEvent arg0 ) {
@@ -434,6 +532,10 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
 
     wStepname.addSelectionListener( lsDef );
     wLimit.addSelectionListener( lsDef );
+    wPartitionColumn.addSelectionListener( lsDef );
+    wPartitionCount.addSelectionListener( lsDef );
+    wPartitionMin.addSelectionListener( lsDef );
+    wPartitionMax.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -504,6 +606,11 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     wVariables.setSelection( input.isVariableReplacementActive() );
     wLazyConversion.setSelection( input.isLazyConversionActive() );
     wCachedRowMeta.setSelection( input.isCachedRowMetaActive() );
+    wPartitionColumn.setText( Const.NVL( input.getPartitionColumn(), "" ) );
+    wPartitionCount.setText( Const.NVL( input.getPartitionCount(), "" ) );
+    wPartitionMin.setText( Const.NVL( input.getPartitionMin(), "" ) );
+    wPartitionMax.setText( Const.NVL( input.getPartitionMax(), "" ) );
+    wPartitionOrdered.setSelection( input.isPartitionOrdered() );
 
     setSQLToolTip();
     setFlags();
@@ -543,6 +650,11 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     meta.setVariableReplacementActive( wVariables.getSelection() );
     meta.setLazyConversionActive( wLazyConversion.getSelection() );
     meta.setCachedRowMetaActive( wCachedRowMeta.getSelection() );
+    meta.setPartitionColumn( wPartitionColumn.getText() );
+    meta.setPartitionCount( wPartitionCount.getText() );
+    meta.setPartitionMin( wPartitionMin.getText() );
+    meta.setPartitionMax( wPartitionMax.getText() );
+    meta.setPartitionOrdered( wPartitionOrdered.getSelection() );
   }
 
   private void ok() {